@@ -158,6 +158,8 @@ public final class Constants {
     public static final int GZIP_ID1 = 0x1F;
     public static final int GZIP_ID2 = 0x8B;
     public static final int GZIP_CM = 8;
+    /** Buffer size of the synchronous SEB configuration export stream chain (plain text, zip, encryption) */
+    public static final int CONFIG_STREAM_BUFFER_SIZE = 64 * 1024;
 
     public static final String SHA_256 = "SHA-256";
     public static final String X_509 = "X.509";
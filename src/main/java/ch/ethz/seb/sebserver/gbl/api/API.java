@@ -227,6 +227,7 @@ public final class API {
     public static final String CONFIGURATION_SAVE_TO_HISTORY_PATH_SEGMENT = "/save-to-history";
     public static final String CONFIGURATION_UNDO_PATH_SEGMENT = "/undo";
     public static final String CONFIGURATION_COPY_PATH_SEGMENT = "/copy";
+    public static final String CONFIGURATION_BULK_CREATE_PATH_SEGMENT = "/bulk-create";
     public static final String CONFIGURATION_RESTORE_FROM_HISTORY_PATH_SEGMENT = "/restore";
     public static final String CONFIGURATION_RESET_TO_TEMPLATE_PATH_SEGMENT = "/reset-to-template";
     public static final String CONFIGURATION_VALUE_ENDPOINT = "/configuration_value";
@@ -259,6 +260,8 @@ public final class API {
     public static final String EXAM_MONITORING_ENDPOINT = "/monitoring";
     public static final String EXAM_MONITORING_OVERVIEW_ENDPOINT = "/overview";
     public static final String EXAM_MONITORING_FULLPAGE = "/fullpage";
+    public static final String EXAM_MONITORING_STREAM_PATH_SEGMENT = "/stream";
+    public static final String EXAM_MONITORING_STREAM_EVENT_NAME = "monitoring";
     public static final String EXAM_MONITORING_CONNECTIONS = "/connections";
     public static final String EXAM_MONITORING_STATIC_CLIENT_DATA = "/static-client-data";
     public static final String EXAM_MONITORING_INSTRUCTION_ENDPOINT = "/instruction";
@@ -268,6 +271,10 @@ public final class API {
     public static final String EXAM_MONITORING_STATE_FILTER = "hidden-states";
     public static final String EXAM_MONITORING_CLIENT_GROUP_FILTER = "hidden-client-group";
     public static final String EXAM_MONITORING_ISSUE_FILTER = "hidden-issues";
+    public static final String EXAM_MONITORING_EPOCH = "monitoring-epoch";
+    public static final String EXAM_MONITORING_SEQUENCE = "monitoring-sequence";
+    /** Media type of the full monitoring page data with the SEB connections in the compact table layout */
+    public static final String EXAM_MONITORING_COMPACT_MEDIA_TYPE = "application/vnd.sebserver.monitoring.compact+json";
     public static final String EXAM_MONITORING_TEST_RUN_ENDPOINT = "/testrun";
     public static final String EXAM_MONITORING_FINISHED_ENDPOINT = "/finishedexams";
     public static final String EXAM_MONITORING_SEB_CONNECTION_TOKEN_PATH_SEGMENT =
@@ -11,6 +11,7 @@ package ch.ethz.seb.sebserver.gbl.async;
 import java.util.concurrent.Executor;
 
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
@@ -44,9 +45,14 @@ public class AsyncServiceSpringConfig implements AsyncConfigurer {
 
     /** This ThreadPool is used for SEB client connection establishment and
      * should be able to handle incoming bursts of SEB client connection requests (handshake)
-     * when up to 1000 - 2000 clients connect at nearly the same time (start of an exam) */
+     * when up to 1000 - 2000 clients connect at nearly the same time (start of an exam).
+     * <p>
+     * If a max concurrency is set, the tasks that run at the same time are limited to it and the other
+     * tasks wait in a pending queue instead of waiting for a data base connection within their thread. */
     @Bean(name = EXAM_API_EXECUTOR_BEAN_NAME)
-    public Executor examAPIThreadPoolTaskExecutor() {
+    public Executor examAPIThreadPoolTaskExecutor(
+            @Value("${sebserver.webservice.api.exam.executor.maxConcurrency:0}") final int maxConcurrency) {
+
         final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(200);
         executor.setMaxPoolSize(2000);
@@ -55,21 +61,44 @@ public class AsyncServiceSpringConfig implements AsyncConfigurer {
         executor.setThreadNamePrefix("examService-");
         executor.initialize();
         executor.setWaitForTasksToCompleteOnShutdown(false);
+
+        if (maxConcurrency > 0) {
+            // accept as many tasks as the unlimited thread pool does before rejecting
+            return new ConcurrencyLimitedExecutor(executor, maxConcurrency, 4000);
+        }
+        return executor;
+    }
+
+    public static final String EXAM_MONITORING_PUSH_EXECUTOR_BEAN_NAME = "examMonitoringPushThreadPoolTaskExecutor";
+
+    /** This ThreadPool is used to write the monitoring frames to the Server-Sent Events streams of the
+     * exam monitoring subscribers. It is bounded and separated from the other pools so that slow monitoring
+     * clients cannot block other background tasks. A rejected frame is retried by the subscriber. */
+    @Bean(name = EXAM_MONITORING_PUSH_EXECUTOR_BEAN_NAME)
+    public Executor examMonitoringPushThreadPoolTaskExecutor() {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(20);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("SEBMonitoringPush-");
+        executor.initialize();
+        executor.setWaitForTasksToCompleteOnShutdown(false);
         return executor;
     }
 
-    public static final String EXAM_API_PING_SERVICE_EXECUTOR_BEAN_NAME = "examAPIPingThreadPoolTaskExecutor";
+    public static final String MONITORING_STREAM_READER_EXECUTOR_BEAN_NAME = "monitoringStreamReaderThreadPoolTaskExecutor";
 
-    /** This ThreadPool is used for ping handling in a distributed setup and shall reject
-     * incoming ping requests as fast as possible if there is too much load on the DB.
-     * We prefer to lose a shared ping update and respond to the client in time over a client request timeout */
-    @Bean(name = EXAM_API_PING_SERVICE_EXECUTOR_BEAN_NAME)
-    public Executor examAPIPingThreadPoolTaskExecutor() {
+    /** This ThreadPool is used by the GUI to read the Server-Sent Events streams of the exam monitoring.
+     * Each reader occupies a thread as long as its monitoring page is open, therefore there is no queue and
+     * a monitoring page falls back to polling if all threads are in use. */
+    @Bean(name = MONITORING_STREAM_READER_EXECUTOR_BEAN_NAME)
+    public Executor monitoringStreamReaderThreadPoolTaskExecutor() {
         final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(10);
-        executor.setMaxPoolSize(100);
+        executor.setCorePoolSize(0);
+        executor.setMaxPoolSize(200);
         executor.setQueueCapacity(0);
-        executor.setThreadNamePrefix("SEBPingService-");
+        executor.setThreadNamePrefix("monitoringStream-");
+        executor.setDaemon(true);
         executor.initialize();
         executor.setWaitForTasksToCompleteOnShutdown(false);
         return executor;
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.gbl.async;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.scheduling.concurrent.ExecutorConfigurationSupport;
+
+/** An Executor that runs the given tasks on a delegate Executor but limits the number of tasks that run
+ * concurrently with a Semaphore.
+ * <p>
+ * This is used in front of the exam API thread pool to bound the number of tasks that access limited
+ * resources like the data base connection pool at the same time. Tasks above the limit are kept in a
+ * pending queue and handed over to the delegate as soon as a running task finishes. Therefore no
+ * thread of the delegate is blocked while waiting for a permit. */
+public final class ConcurrencyLimitedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final int maxPending;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+
+    public ConcurrencyLimitedExecutor(final Executor delegate, final int maxConcurrency, final int maxPending) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be greater then 0");
+        }
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.maxPending = maxPending;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        if (this.pendingCount.incrementAndGet() > this.maxPending) {
+            this.pendingCount.decrementAndGet();
+            throw new RejectedExecutionException("Too many pending tasks: " + this.maxPending);
+        }
+
+        this.pending.offer(task);
+        dispatch();
+    }
+
+    /** Get the maximal number of tasks that run concurrently
+     *
+     * @return the maximal number of tasks that run concurrently */
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /** Get the number of tasks that are currently running
+     *
+     * @return the number of tasks that are currently running */
+    public int getActiveCount() {
+        return this.maxConcurrency - this.permits.availablePermits();
+    }
+
+    /** Get the number of tasks that are waiting for a permit to run
+     *
+     * @return the number of tasks that are waiting for a permit to run */
+    public int getWaitingCount() {
+        return this.pendingCount.get();
+    }
+
+    /** Shuts the delegate Executor down if it is a Spring managed executor. This is called by Spring on destroy. */
+    public void shutdown() {
+        if (this.delegate instanceof ExecutorConfigurationSupport) {
+            ((ExecutorConfigurationSupport) this.delegate).shutdown();
+        }
+    }
+
+    private void dispatch() {
+        // the task is queued before a permit is tried and a permit is released before the queue is checked
+        // so that a pending task is always dispatched by either the submitting or the finishing thread
+        while (!this.pending.isEmpty() && this.permits.tryAcquire()) {
+            final Runnable task = this.pending.poll();
+            if (task == null) {
+                this.permits.release();
+                continue;
+            }
+            this.pendingCount.decrementAndGet();
+
+            try {
+                this.delegate.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        this.permits.release();
+                        dispatch();
+                    }
+                });
+            } catch (final RuntimeException e) {
+                this.permits.release();
+                throw e;
+            }
+        }
+    }
+
+}
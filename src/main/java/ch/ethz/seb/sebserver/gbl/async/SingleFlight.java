@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.gbl.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/** Ensures that a value is loaded only once at a time per key.
+ * <p>
+ * The first thread that loads a value for a key runs the loader. All other threads that load a value for the
+ * same key meanwhile wait for this load and get the same value or error. Loads for different keys do not
+ * block each other. This is used instead of a global lock to prevent that concurrent cache misses create
+ * the same cache entry more than once.
+ * <p>
+ * Note: The loader must not load the same key again within the same thread.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the loaded value */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /** Loads the value for the given key with the given loader or waits for a load of the same key that is
+     * already in flight.
+     *
+     * @param key the key
+     * @param loader the loader that loads the value for the key
+     * @return the loaded value */
+    public V load(final K key, final Supplier<V> loader) {
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            final V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (final RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(key, flight);
+        }
+    }
+
+    /** Get the number of loads that are currently in flight */
+    public int inFlight() {
+        return this.inFlight.size();
+    }
+
+    private V await(final CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (final CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+}
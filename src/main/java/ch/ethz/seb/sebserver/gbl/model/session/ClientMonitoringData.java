@@ -8,22 +8,35 @@
 
 package ch.ethz.seb.sebserver.gbl.model.session;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import ch.ethz.seb.sebserver.gbl.model.Domain;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
 
+/** Monitoring data of a SEB client connection.
+ * <p>
+ * The indicator values are either held in a map (JSON layout) or in arrays in the order of indicator identifiers
+ * together with the threshold weight of each value (compact table layout and recorded data). In the latter case
+ * the map of indicator values is only created on demand. */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class ClientMonitoringData implements ClientMonitoringDataView {
 
+    private static final long[] NO_IDS = new long[0];
+
     public final Long id;
     public final ConnectionStatus status;
     public final Map<Long, String> indicatorVals;
+    private final long[] indicatorIds;
+    private final String[] indicatorValues;
+    private final byte[] indicatorWeights;
 
     public final int notificationFlag;
     public final boolean missingPing;
@@ -39,9 +52,43 @@ public class ClientMonitoringData implements ClientMonitoringDataView {
             @JsonProperty(ATTR_INDICATOR_VALUES) final Map<Long, String> indicatorVals,
             @JsonProperty(ATTR_NOTIFICATION_FLAG) final Integer notificationFlag) {
 
+        this(id, status, indicatorVals, null, null, null, notificationFlag);
+    }
+
+    /** Creates monitoring data with the indicator values in arrays
+     *
+     * @param id the client connection identifier
+     * @param status the client connection status
+     * @param indicatorIds the indicator identifiers
+     * @param indicatorValues the display values in the order of the indicator identifiers, null for no value
+     * @param indicatorWeights the threshold weights in the order of the indicator identifiers or null if not known
+     * @param notificationFlag the notification flag */
+    public ClientMonitoringData(
+            final Long id,
+            final ConnectionStatus status,
+            final long[] indicatorIds,
+            final String[] indicatorValues,
+            final byte[] indicatorWeights,
+            final Integer notificationFlag) {
+
+        this(id, status, null, indicatorIds, indicatorValues, indicatorWeights, notificationFlag);
+    }
+
+    private ClientMonitoringData(
+            final Long id,
+            final ConnectionStatus status,
+            final Map<Long, String> indicatorVals,
+            final long[] indicatorIds,
+            final String[] indicatorValues,
+            final byte[] indicatorWeights,
+            final Integer notificationFlag) {
+
         this.id = id;
         this.status = status;
         this.indicatorVals = indicatorVals;
+        this.indicatorIds = (indicatorIds != null) ? indicatorIds : NO_IDS;
+        this.indicatorValues = indicatorValues;
+        this.indicatorWeights = indicatorWeights;
         this.notificationFlag = notificationFlag != null ? notificationFlag : -1;
         this.missingPing = notificationFlag != null && (notificationFlag & FLAG_MISSING_PING) > 0;
         this.grantChecked = notificationFlag == null || (notificationFlag & FLAG_GRANT_NOT_CHECKED) == 0;
@@ -62,7 +109,38 @@ public class ClientMonitoringData implements ClientMonitoringDataView {
 
     @Override
     public Map<Long, String> getIndicatorValues() {
-        return this.indicatorVals;
+        if (this.indicatorVals != null || this.indicatorValues == null) {
+            return this.indicatorVals;
+        }
+
+        final Map<Long, String> result = new HashMap<>();
+        for (int i = 0; i < this.indicatorIds.length; i++) {
+            if (this.indicatorValues[i] != null) {
+                result.put(this.indicatorIds[i], this.indicatorValues[i]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @JsonIgnore
+    public long[] getIndicatorIds() {
+        return (this.indicatorValues != null) ? this.indicatorIds : ClientMonitoringDataView.super.getIndicatorIds();
+    }
+
+    @Override
+    public String getIndicatorValue(final long indicatorId) {
+        if (this.indicatorValues == null) {
+            return ClientMonitoringDataView.super.getIndicatorValue(indicatorId);
+        }
+        final int index = indexOf(indicatorId);
+        return (index >= 0) ? this.indicatorValues[index] : null;
+    }
+
+    @Override
+    public int getIndicatorWeight(final long indicatorId) {
+        final int index = (this.indicatorWeights != null) ? indexOf(indicatorId) : -1;
+        return (index >= 0) ? this.indicatorWeights[index] : NO_WEIGHT;
     }
 
     @Override
@@ -76,7 +154,48 @@ public class ClientMonitoringData implements ClientMonitoringDataView {
     }
 
     public boolean indicatorValuesEquals(final ClientMonitoringData other) {
-        return Objects.equals(this.indicatorVals, other.indicatorVals);
+        if (this.indicatorValues != null && other.indicatorValues != null) {
+            return Arrays.equals(this.indicatorIds, other.indicatorIds)
+                    && Arrays.equals(this.indicatorValues, other.indicatorValues)
+                    && Arrays.equals(this.indicatorWeights, other.indicatorWeights);
+        }
+        return Objects.equals(getIndicatorValues(), other.getIndicatorValues());
+    }
+
+    private int indexOf(final long indicatorId) {
+        for (int i = 0; i < this.indicatorIds.length; i++) {
+            if (this.indicatorIds[i] == indicatorId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Creates a copy of the current monitoring data of the given view with the indicator values in arrays.
+     *
+     * @param view the ClientMonitoringDataView
+     * @return ClientMonitoringData with the current data of the view */
+    public static ClientMonitoringData of(final ClientMonitoringDataView view) {
+        final long[] indicatorIds = view.getIndicatorIds();
+        final String[] indicatorValues = new String[indicatorIds.length];
+        byte[] indicatorWeights = new byte[indicatorIds.length];
+        for (int i = 0; i < indicatorIds.length; i++) {
+            indicatorValues[i] = view.getIndicatorValue(indicatorIds[i]);
+            final int weight = view.getIndicatorWeight(indicatorIds[i]);
+            if (weight == NO_WEIGHT) {
+                indicatorWeights = null;
+            } else if (indicatorWeights != null) {
+                indicatorWeights[i] = (byte) weight;
+            }
+        }
+
+        return new ClientMonitoringData(
+                view.getId(),
+                view.getStatus(),
+                indicatorIds,
+                indicatorValues,
+                indicatorWeights,
+                view.notificationFlag());
     }
 
 }
@@ -13,6 +13,7 @@ import java.util.EnumSet;
 import java.util.Map;
 import java.util.function.Predicate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import ch.ethz.seb.sebserver.gbl.model.Domain;
@@ -34,6 +35,9 @@ public interface ClientMonitoringDataView {
     int FLAG_GRANT_DENIED = 8;
     int FLAG_INVALID_SEB_VERSION = 16;
 
+    /** Threshold weight of an indicator value that is not known */
+    int NO_WEIGHT = Integer.MIN_VALUE;
+
     @JsonProperty(Domain.CLIENT_CONNECTION.ATTR_ID)
     Long getId();
 
@@ -46,6 +50,37 @@ public interface ClientMonitoringDataView {
     @JsonProperty(ATTR_NOTIFICATION_FLAG)
     Integer notificationFlag();
 
+    /** Get the identifiers of all indicators that have a value for this connection.
+     * The returned array must not be modified.
+     *
+     * @return the identifiers of all indicators that have a value for this connection */
+    @JsonIgnore
+    default long[] getIndicatorIds() {
+        final Map<Long, String> indicatorValues = getIndicatorValues();
+        if (indicatorValues == null) {
+            return new long[0];
+        }
+        return indicatorValues.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /** Get the display value of the indicator with the given identifier.
+     *
+     * @param indicatorId the indicator identifier
+     * @return the display value or null if the connection has no value for the indicator */
+    default String getIndicatorValue(final long indicatorId) {
+        final Map<Long, String> indicatorValues = getIndicatorValues();
+        return (indicatorValues != null) ? indicatorValues.get(indicatorId) : null;
+    }
+
+    /** Get the threshold weight of the value of the indicator with the given identifier.
+     * See IndicatorValue.getThresholdWeight
+     *
+     * @param indicatorId the indicator identifier
+     * @return the threshold weight or NO_WEIGHT if the weight is not known */
+    default int getIndicatorWeight(final long indicatorId) {
+        return NO_WEIGHT;
+    }
+
     default boolean isMissingPing() {
         final Integer notificationFlag = notificationFlag();
         return notificationFlag != null && (notificationFlag & FLAG_MISSING_PING) > 0;
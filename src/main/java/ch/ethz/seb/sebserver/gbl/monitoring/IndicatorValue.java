@@ -51,6 +51,30 @@ public interface IndicatorValue extends IndicatorValueHolder {
         }
     }
 
+    /** Use this to get the threshold weight of an indicator value. The weight is the index of the highest threshold
+     * the value has reached within the thresholds sorted by value, or -1 if no threshold is reached.
+     * For inverse indicator types the weight is the index of the lowest threshold the value is below,
+     * or -1 if the value is not below any threshold.
+     *
+     * @param value the indicator value
+     * @param thresholds the threshold values of the indicator in any order
+     * @param inverse indicates an inverse indicator type
+     * @return the threshold weight of the indicator value */
+    static int getThresholdWeight(final double value, final double[] thresholds, final boolean inverse) {
+        // number of thresholds that are not above the value (a NaN value reaches all thresholds)
+        int reached = 0;
+        for (final double threshold : thresholds) {
+            if (!(value < threshold)) {
+                reached++;
+            }
+        }
+
+        if (inverse) {
+            return (reached == thresholds.length) ? -1 : reached;
+        }
+        return reached - 1;
+    }
+
     static double getFromDisplayValue(final String displayValue) {
         try {
             return Double.parseDouble(displayValue);
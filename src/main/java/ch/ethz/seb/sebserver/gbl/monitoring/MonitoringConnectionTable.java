@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.gbl.monitoring;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientMonitoringData;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientMonitoringDataView;
+
+/** Compact table layout of the SEB client connection monitoring data.
+ * </p>
+ * Instead of one JSON object per SEB client connection that repeats all attribute names and the indicator
+ * identifiers, the table has an indicator dictionary and one array per SEB client connection:
+ * <pre>
+ *  {
+ *    "ii": [ indicatorId1, indicatorId2, ... ],
+ *    "rows": [ [ connectionId, statusCode, notificationFlag, "weights", "value1", "value2", ... ], ... ]
+ *  }
+ * </pre>
+ * The indicator values of a row are in the order of the indicator dictionary and are null if the SEB client
+ * connection has no value for the indicator. A notification flag of 0 stands for no flag.
+ * <p>
+ * The weights are the Base64 encoded threshold weights (one byte per indicator in the order of the indicator
+ * dictionary, see IndicatorValue.getThresholdWeight) that are precomputed on the web service, or null if the
+ * weights are not known. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class MonitoringConnectionTable {
+
+    public static final String ATTR_INDICATOR_IDS = "ii";
+    public static final String ATTR_ROWS = "rows";
+
+    private static final ConnectionStatus[] STATES = ConnectionStatus.values();
+    private static final int FIXED_COLUMNS = 4;
+
+    @JsonProperty(ATTR_INDICATOR_IDS)
+    public final long[] indicatorIds;
+    @JsonProperty(ATTR_ROWS)
+    public final List<Object[]> rows;
+
+    @JsonCreator
+    public MonitoringConnectionTable(
+            @JsonProperty(ATTR_INDICATOR_IDS) final long[] indicatorIds,
+            @JsonProperty(ATTR_ROWS) final List<Object[]> rows) {
+
+        this.indicatorIds = (indicatorIds != null) ? indicatorIds : new long[0];
+        this.rows = (rows != null) ? rows : Collections.emptyList();
+    }
+
+    /** Decodes the table to the monitoring data of the SEB client connections
+     *
+     * @return the ClientMonitoringData of the SEB client connections in the order of the rows */
+    public Collection<ClientMonitoringData> toMonitoringData() {
+        final List<ClientMonitoringData> result = new ArrayList<>(this.rows.size());
+        for (final Object[] row : this.rows) {
+            final String[] indicatorValues = new String[this.indicatorIds.length];
+            for (int i = 0; i < this.indicatorIds.length && i + FIXED_COLUMNS < row.length; i++) {
+                final Object value = row[i + FIXED_COLUMNS];
+                if (value != null) {
+                    indicatorValues[i] = value.toString();
+                }
+            }
+
+            byte[] indicatorWeights = (row[3] != null) ? Base64.getDecoder().decode(row[3].toString()) : null;
+            if (indicatorWeights != null && indicatorWeights.length != this.indicatorIds.length) {
+                indicatorWeights = null;
+            }
+
+            final int statusCode = ((Number) row[1]).intValue();
+            final int notificationFlag = ((Number) row[2]).intValue();
+            result.add(new ClientMonitoringData(
+                    ((Number) row[0]).longValue(),
+                    (statusCode >= 0 && statusCode < STATES.length) ? STATES[statusCode] : null,
+                    this.indicatorIds,
+                    indicatorValues,
+                    indicatorWeights,
+                    (notificationFlag != 0) ? notificationFlag : null));
+        }
+        return result;
+    }
+
+    /** Creates the table for the given monitoring data of SEB client connections
+     *
+     * @param connections the monitoring data of the SEB client connections
+     * @return MonitoringConnectionTable with one row per SEB client connection */
+    public static MonitoringConnectionTable of(final Collection<? extends ClientMonitoringDataView> connections) {
+        if (connections == null || connections.isEmpty()) {
+            return new MonitoringConnectionTable(null, null);
+        }
+
+        final TreeSet<Long> indicatorIds = new TreeSet<>();
+        for (final ClientMonitoringDataView connection : connections) {
+            for (final long indicatorId : connection.getIndicatorIds()) {
+                indicatorIds.add(indicatorId);
+            }
+        }
+
+        final long[] ids = new long[indicatorIds.size()];
+        int index = 0;
+        for (final Long id : indicatorIds) {
+            ids[index++] = id;
+        }
+
+        final List<Object[]> rows = new ArrayList<>(connections.size());
+        for (final ClientMonitoringDataView connection : connections) {
+            final Object[] row = new Object[FIXED_COLUMNS + ids.length];
+            final ConnectionStatus status = connection.getStatus();
+            final Integer notificationFlag = connection.notificationFlag();
+            row[0] = connection.getId();
+            row[1] = (status != null) ? status.code : -1;
+            row[2] = (notificationFlag != null) ? notificationFlag : 0;
+
+            byte[] weights = new byte[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                final String value = connection.getIndicatorValue(ids[i]);
+                row[i + FIXED_COLUMNS] = value;
+                final int weight = (value != null) ? connection.getIndicatorWeight(ids[i]) : -1;
+                if (weight == ClientMonitoringDataView.NO_WEIGHT) {
+                    weights = null;
+                } else if (weights != null) {
+                    weights[i] = (byte) weight;
+                }
+            }
+            row[3] = (weights != null) ? Base64.getEncoder().encodeToString(weights) : null;
+            rows.add(row);
+        }
+
+        return new MonitoringConnectionTable(ids, rows);
+    }
+
+}
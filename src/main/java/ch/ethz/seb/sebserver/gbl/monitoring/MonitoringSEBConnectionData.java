@@ -10,6 +10,7 @@ package ch.ethz.seb.sebserver.gbl.monitoring;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -29,6 +30,11 @@ public class MonitoringSEBConnectionData {
     public static final String ATTR_STATUS_MAPPING = "sm";
     public static final String ATTR_CLIENT_GROUP_MAPPING = "cgm";
     public static final String ATTR_ISSUE_MAPPING = "im";
+    public static final String ATTR_EPOCH = "ep";
+    public static final String ATTR_SEQUENCE = "sq";
+    public static final String ATTR_DELTA = "dt";
+    public static final String ATTR_REMOVED = "rm";
+    public static final String ATTR_CONNECTION_TABLE = "ctab";
 
     @JsonProperty(ATTR_CONNECTIONS)
     public final Collection<? extends ClientMonitoringDataView> monitoringData;
@@ -42,18 +48,51 @@ public class MonitoringSEBConnectionData {
     @JsonProperty(ATTR_ISSUE_MAPPING)
     public final int[] connectionPerIssue;
 
+    /** Identifies the change sequence the sequence number belongs to */
+    @JsonProperty(ATTR_EPOCH)
+    public final Long epoch;
+
+    /** The change sequence number of the exam monitoring data at the time this data was created */
+    @JsonProperty(ATTR_SEQUENCE)
+    public final Long sequence;
+
+    /** Indicates that the connections only contains the inserted or changed connections since the sequence number
+     * the requester has given. If false, the connections are a full snapshot */
+    @JsonProperty(ATTR_DELTA)
+    public final boolean delta;
+
+    /** The identifiers of the connections that has been removed or do not match the filter anymore.
+     * This is only set for delta data */
+    @JsonProperty(ATTR_REMOVED)
+    public final Collection<Long> removed;
+
+    /** The connections in the compact table layout. This is only set for compact data and replaces the connections */
+    @JsonProperty(ATTR_CONNECTION_TABLE)
+    public final MonitoringConnectionTable connectionTable;
 
     @JsonCreator
     public MonitoringSEBConnectionData(
             @JsonProperty(ATTR_CONNECTIONS) final Collection<ClientMonitoringData> connections,
             @JsonProperty(ATTR_STATUS_MAPPING) final int[] connectionsPerStatus,
             @JsonProperty(ATTR_ISSUE_MAPPING) final int[] connectionPerIssue,
-            @JsonProperty(ATTR_CLIENT_GROUP_MAPPING) final Map<Long, Integer> connectionsPerClientGroup) {
-
-        this.monitoringData = connections;
+            @JsonProperty(ATTR_CLIENT_GROUP_MAPPING) final Map<Long, Integer> connectionsPerClientGroup,
+            @JsonProperty(ATTR_EPOCH) final Long epoch,
+            @JsonProperty(ATTR_SEQUENCE) final Long sequence,
+            @JsonProperty(ATTR_DELTA) final Boolean delta,
+            @JsonProperty(ATTR_REMOVED) final Collection<Long> removed,
+            @JsonProperty(ATTR_CONNECTION_TABLE) final MonitoringConnectionTable connectionTable) {
+
+        this.monitoringData = (connections == null && connectionTable != null)
+                ? connectionTable.toMonitoringData()
+                : connections;
         this.connectionsPerStatus = connectionsPerStatus;
         this.connectionPerIssue = connectionPerIssue;
         this.connectionsPerClientGroup = connectionsPerClientGroup;
+        this.epoch = epoch;
+        this.sequence = sequence;
+        this.delta = delta != null && delta;
+        this.removed = (removed != null) ? removed : Collections.emptyList();
+        this.connectionTable = null;
     }
 
     public MonitoringSEBConnectionData(
@@ -62,10 +101,54 @@ public class MonitoringSEBConnectionData {
             final int[] connectionsPerIssue,
             final Collection<? extends ClientMonitoringDataView> connections) {
 
+        this(connectionsPerStatus, connectionsPerClientGroup, connectionsPerIssue, connections, null, null, false, null);
+    }
+
+    public MonitoringSEBConnectionData(
+            final int[] connectionsPerStatus,
+            final Map<Long, Integer> connectionsPerClientGroup,
+            final int[] connectionsPerIssue,
+            final Collection<? extends ClientMonitoringDataView> connections,
+            final Long epoch,
+            final Long sequence,
+            final boolean delta,
+            final Collection<Long> removed) {
+
         this.connectionsPerStatus = connectionsPerStatus;
         this.connectionsPerClientGroup = connectionsPerClientGroup;
         this.connectionPerIssue = connectionsPerIssue;
         this.monitoringData = connections;
+        this.epoch = epoch;
+        this.sequence = sequence;
+        this.delta = delta;
+        this.removed = (removed != null) ? removed : Collections.emptyList();
+        this.connectionTable = null;
+    }
+
+    private MonitoringSEBConnectionData(
+            final MonitoringSEBConnectionData data,
+            final MonitoringConnectionTable connectionTable) {
+
+        this.connectionsPerStatus = data.connectionsPerStatus;
+        this.connectionsPerClientGroup = data.connectionsPerClientGroup;
+        this.connectionPerIssue = data.connectionPerIssue;
+        this.monitoringData = null;
+        this.epoch = data.epoch;
+        this.sequence = data.sequence;
+        this.delta = data.delta;
+        this.removed = data.removed;
+        this.connectionTable = connectionTable;
+    }
+
+    /** Get a copy of this data with the connections in the compact table layout (see MonitoringConnectionTable).
+     * The copy is deserialized to the same data as this data.
+     *
+     * @return copy of this data with the connections in the compact table layout */
+    public MonitoringSEBConnectionData toCompact() {
+        if (this.connectionTable != null) {
+            return this;
+        }
+        return new MonitoringSEBConnectionData(this, MonitoringConnectionTable.of(this.monitoringData));
     }
 
     public Collection<? extends ClientMonitoringDataView> getMonitoringData() {
@@ -109,6 +192,14 @@ public class MonitoringSEBConnectionData {
         builder.append(Arrays.toString(this.connectionsPerStatus));
         builder.append(", connectionsPerClientGroup=");
         builder.append(this.connectionsPerClientGroup);
+        builder.append(", epoch=");
+        builder.append(this.epoch);
+        builder.append(", sequence=");
+        builder.append(this.sequence);
+        builder.append(", delta=");
+        builder.append(this.delta);
+        builder.append(", removed=");
+        builder.append(this.removed);
         builder.append("]");
         return builder.toString();
     }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.gbl.util;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/** A bounded, lock-free multi-producer single-consumer ring buffer.
+ * </p>
+ * Producers claim a slot by CAS on the tail sequence and publish the element by advancing the
+ * sequence of the slot. The single consumer reads published slots in order and releases them for the
+ * next round. No locks are involved and no allocation happens on offer or poll.
+ * </p>
+ * NOTE: poll and drain must only be called from one consumer thread at a time.
+ *
+ * @param <T> the element type */
+public final class MPSCRingBuffer<T> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<T> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(0);
+    private volatile long head = 0;
+
+    public MPSCRingBuffer(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be greater then zero");
+        }
+
+        // a single slot can not tell a published from a released element, so at least two slots are used
+        int cap = 2;
+        while (cap < capacity) {
+            cap <<= 1;
+        }
+
+        this.capacity = cap;
+        this.mask = cap - 1;
+        this.buffer = new AtomicReferenceArray<>(cap);
+        this.sequences = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    /** The effective capacity of the ring buffer that is the next power of two of the requested capacity
+     * but at least two */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /** Get the number of elements that are currently in the buffer. This is only an estimation
+     * while producers or the consumer are active. */
+    public int size() {
+        final long size = this.tail.get() - this.head;
+        if (size < 0) {
+            return 0;
+        }
+        return (int) Math.min(size, this.capacity);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Offers an element to the ring buffer. This can be called by multiple producer threads concurrently.
+     *
+     * @param element the element to add (not null)
+     * @return true if the element was added, false if the buffer is full */
+    public boolean offer(final T element) {
+        Objects.requireNonNull(element);
+
+        long pos = this.tail.get();
+        while (true) {
+            final int index = (int) (pos & this.mask);
+            final long diff = this.sequences.get(index) - pos;
+            if (diff == 0) {
+                if (this.tail.compareAndSet(pos, pos + 1)) {
+                    this.buffer.lazySet(index, element);
+                    this.sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = this.tail.get();
+            } else if (diff < 0) {
+                // slot not yet released by the consumer, buffer is full
+                return false;
+            } else {
+                pos = this.tail.get();
+            }
+        }
+    }
+
+    /** Polls the next element from the ring buffer. Single consumer only.
+     *
+     * @return the next element or null if there is no published element available */
+    public T poll() {
+        final long pos = this.head;
+        final int index = (int) (pos & this.mask);
+        if (this.sequences.get(index) - (pos + 1) < 0) {
+            return null;
+        }
+
+        final T element = this.buffer.get(index);
+        this.buffer.lazySet(index, null);
+        this.sequences.set(index, pos + this.capacity);
+        this.head = pos + 1;
+        return element;
+    }
+
+    /** Drains up to maxElements from the ring buffer to the given consumer. Single consumer only.
+     *
+     * @param consumer the consumer that gets all drained elements
+     * @param maxElements the maximum number of elements to drain within this call
+     * @return the number of drained elements */
+    public int drain(final Consumer<T> consumer, final int maxElements) {
+        int count = 0;
+        while (count < maxElements) {
+            final T element = poll();
+            if (element == null) {
+                break;
+            }
+            consumer.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+}
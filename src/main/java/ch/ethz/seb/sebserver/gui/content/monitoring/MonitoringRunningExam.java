@@ -117,6 +117,7 @@ public class MonitoringRunningExam implements TemplateComposer {
     private final SEBSendLockPopup sebSendLockPopup;
     private final MonitoringProctoringService monitoringProctoringService;
     private final boolean distributedSetup;
+    private final boolean virtualConnectionTable;
     private final long pollInterval;
 
     public MonitoringRunningExam(
@@ -128,7 +129,8 @@ public class MonitoringRunningExam implements TemplateComposer {
             final SEBSendLockPopup sebSendLockPopup,
             final MonitoringProctoringService monitoringProctoringService,
             final GuiServiceInfo guiServiceInfo,
-            @Value("${sebserver.gui.webservice.poll-interval:2000}") final long pollInterval) {
+            @Value("${sebserver.gui.webservice.poll-interval:2000}") final long pollInterval,
+            @Value("${sebserver.gui.monitoring.virtual-table:true}") final boolean virtualConnectionTable) {
 
         this.serverPushService = serverPushService;
         this.pageService = pageService;
@@ -138,6 +140,7 @@ public class MonitoringRunningExam implements TemplateComposer {
         this.instructionProcessor = instructionProcessor;
         this.monitoringProctoringService = monitoringProctoringService;
         this.pollInterval = pollInterval;
+        this.virtualConnectionTable = virtualConnectionTable;
         this.distributedSetup = guiServiceInfo.isDistributedSetup();
         this.monitoringExamSearchPopup = monitoringExamSearchPopup;
         this.sebSendLockPopup = sebSendLockPopup;
@@ -205,7 +208,8 @@ public class MonitoringRunningExam implements TemplateComposer {
                 exam,
                 indicators,
                 clientGroups,
-                this.distributedSetup);
+                this.distributedSetup,
+                this.virtualConnectionTable);
         guiUpdates.add(clientTable);
 
         clientTable
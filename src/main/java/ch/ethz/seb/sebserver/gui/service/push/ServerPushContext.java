@@ -8,6 +8,8 @@
 
 package ch.ethz.seb.sebserver.gui.service.push;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -23,6 +25,7 @@ public final class ServerPushContext {
     public final Predicate<ServerPushContext> runAgain;
     final Function<Exception, Boolean> errorHandler;
     boolean internalStop = false;
+    private final List<Runnable> stopListeners = new CopyOnWriteArrayList<>();
 
     public ServerPushContext(
             final Composite anchor,
@@ -62,6 +65,18 @@ public final class ServerPushContext {
         this.internalStop = true;
     }
 
+    /** Adds a listener that is called once when the server push session of this context has stopped.
+     *
+     * @param listener the listener to call on stop */
+    public void addStopListener(final Runnable listener) {
+        this.stopListeners.add(listener);
+    }
+
+    void notifyStopped() {
+        this.stopListeners.forEach(Runnable::run);
+        this.stopListeners.clear();
+    }
+
     public void layout() {
         this.anchor.pack();
         this.anchor.layout();
@@ -8,15 +8,20 @@
 
 package ch.ethz.seb.sebserver.gui.service.push;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 
 import org.eclipse.rap.rwt.service.ServerPushSession;
 import org.eclipse.swt.SWTException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import ch.ethz.seb.sebserver.gbl.async.AsyncServiceSpringConfig;
+
 /** Puts RAP's server-push functionality in a well defined service by using a context
  * as state holder and the possibility to split the server-push process into two
  * separated processes, a business-process to get and update business data and the
@@ -27,6 +32,14 @@ public class ServerPushService {
 
     private static final Logger log = LoggerFactory.getLogger(ServerPushService.class);
 
+    private final Executor readerExecutor;
+
+    public ServerPushService(
+            @Qualifier(AsyncServiceSpringConfig.MONITORING_STREAM_READER_EXECUTOR_BEAN_NAME) final Executor readerExecutor) {
+
+        this.readerExecutor = readerExecutor;
+    }
+
     public void runServerPush(
             final ServerPushContext context,
             final long intervalPause,
@@ -87,6 +100,12 @@ public class ServerPushService {
                 log.debug("Stop Server Push Session on: {}", Thread.currentThread().getName());
             }
 
+            try {
+                context.notifyStopped();
+            } catch (final Exception e) {
+                log.warn("Failed to notify stop of Server Push Session: {}", e.getMessage());
+            }
+
             try {
                 pushSession.stop();
             } catch (final Exception e) {
@@ -108,6 +127,27 @@ public class ServerPushService {
         bgThread.start();
     }
 
+    /** Runs a long-running reader, e.g. a reader of a stream from the webservice, that belongs to the given
+     * server push session. The reader runs on a bounded executor and is expected to end by itself when the
+     * server push session has stopped. Use ServerPushContext.addStopListener to get notified about the stop.
+     *
+     * @param context the server push context the reader belongs to
+     * @param reader the reader to run
+     * @return true if the reader was started, false if there is no capacity to run the reader */
+    public boolean runReader(final ServerPushContext context, final Runnable reader) {
+        if (context.isDisposed() || !context.runAgain()) {
+            return false;
+        }
+
+        try {
+            this.readerExecutor.execute(reader);
+            return true;
+        } catch (final RejectedExecutionException e) {
+            log.warn("No capacity to run reader for Server Push Session: {}", e.getMessage());
+            return false;
+        }
+    }
+
     private void doUpdate(
             final ServerPushContext context,
             final Consumer<ServerPushContext> update) {
@@ -300,6 +300,11 @@ public abstract class RestCall<T> {
             return this;
         }
 
+        public RestCallBuilder withoutHeader(final String name) {
+            this.httpHeaders.remove(name);
+            return this;
+        }
+
         public RestCallBuilder apply(final Function<RestCallBuilder, RestCallBuilder> f) {
             return f.apply(this);
         }
@@ -9,6 +9,7 @@
 package ch.ethz.seb.sebserver.gui.service.remote.webservice.api.session;
 
 import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
@@ -38,4 +39,11 @@ public class GetMonitoringFullPageData extends RestCall<MonitoringFullPageData>
                         + API.EXAM_MONITORING_FULLPAGE);
     }
 
+    @Override
+    public RestCallBuilder newBuilder() {
+        // requests the SEB connections in the compact table layout
+        return super.newBuilder()
+                .withHeader(HttpHeaders.ACCEPT, API.EXAM_MONITORING_COMPACT_MEDIA_TYPE);
+    }
+
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.gui.service.remote.webservice.api.session;
+
+import java.util.Collections;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import ch.ethz.seb.sebserver.gbl.api.API;
+import ch.ethz.seb.sebserver.gbl.profile.GuiProfile;
+import ch.ethz.seb.sebserver.gbl.util.Result;
+import ch.ethz.seb.sebserver.gui.service.remote.webservice.api.RestCall;
+
+/** Subscribes for the Server-Sent Events stream of the full page monitoring data of a running exam.
+ * The call blocks while the stream is open and the stream must be read with a response extractor. */
+@Lazy
+@Component
+@GuiProfile
+public class StreamMonitoringFullPageData extends RestCall<Boolean> {
+
+    public StreamMonitoringFullPageData() {
+        super(new TypeKey<>(
+                CallType.UNDEFINED,
+                null,
+                new TypeReference<Boolean>() {
+                }),
+                HttpMethod.GET,
+                MediaType.APPLICATION_FORM_URLENCODED,
+                API.EXAM_MONITORING_ENDPOINT
+                        + API.PARENT_MODEL_ID_VAR_PATH_SEGMENT
+                        + API.EXAM_MONITORING_FULLPAGE
+                        + API.EXAM_MONITORING_STREAM_PATH_SEGMENT);
+    }
+
+    @Override
+    protected Result<Boolean> exchange(final RestCallBuilder builder) {
+        final HttpHeaders headers = builder.buildRequestEntity().getHeaders();
+        return Result.tryCatch(() -> builder
+                .getRestTemplate()
+                .execute(
+                        builder.buildURI(),
+                        this.httpMethod,
+                        (final ClientHttpRequest request) -> {
+                            request.getHeaders().addAll(headers);
+                            request.getHeaders().setAccept(Collections.singletonList(MediaType.TEXT_EVENT_STREAM));
+                        },
+                        builder.getResponseExtractor(),
+                        builder.getURIVariables()));
+    }
+
+}
@@ -96,12 +96,16 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
     private final boolean checkSecurityGrant;
     private final boolean checkSEBVersion;
     private final boolean distributedSetup;
+    private final boolean virtual;
 
     private final Map<Long, IndicatorData> indicatorMapping;
     private final Map<Long, ClientGroup> clientGroupMapping;
     private final Table table;
     private final ColorData colorData;
     private final List<UpdatableTableItem> sortList = new ArrayList<>();
+    // the entries in table order, used to fill the table items of the virtual table on demand
+    private final VirtualTableRows<UpdatableTableItem> rows = new VirtualTableRows<>();
+    private final VirtualTableRows.ItemTable virtualTable;
     private final Function<MonitoringEntry, String> localizedClientConnectionStatusNameFunction;
     private Consumer<ClientConnectionTable> selectionListener;
 
@@ -127,7 +131,8 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
             final Exam exam,
             final Collection<Indicator> indicators,
             final Collection<ClientGroup> clientGroups,
-            final boolean distributedSetup) {
+            final boolean distributedSetup,
+            final boolean virtual) {
 
         this.pageService = pageService;
         this.exam = exam;
@@ -137,6 +142,7 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
                 exam.additionalAttributes.containsKey("spsExamActive");
 
         this.distributedSetup = distributedSetup;
+        this.virtual = virtual;
 
         final WidgetFactory widgetFactory = pageService.getWidgetFactory();
         final ResourceService resourceService = pageService.getResourceService();
@@ -168,7 +174,9 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
         this.localizedClientConnectionStatusNameFunction =
                 resourceService.localizedClientMonitoringStatusNameFunction();
 
-        this.table = widgetFactory.tableLocalized(tableRoot, SWT.MULTI | SWT.V_SCROLL);
+        this.table = widgetFactory.tableLocalized(
+                tableRoot,
+                SWT.MULTI | SWT.V_SCROLL | (virtual ? SWT.VIRTUAL : SWT.NONE));
         final GridLayout gridLayout = new GridLayout(3 + indicators.size(), false);
         gridLayout.horizontalSpacing = 100;
         gridLayout.marginWidth = 100;
@@ -181,6 +189,31 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
         this.table.setData(RWT.MARKUP_ENABLED, Boolean.TRUE);
         this.table.addListener(SWT.Selection, event -> this.notifySelectionChange());
         this.table.addListener(SWT.MouseUp, this::notifyTableInfoClick);
+        if (virtual) {
+            this.table.addListener(SWT.SetData, this::fillTableItem);
+        }
+        this.virtualTable = new VirtualTableRows.ItemTable() {
+
+            @Override
+            public int getItemCount() {
+                return ClientConnectionTable.this.table.getItemCount();
+            }
+
+            @Override
+            public void setItemCount(final int count) {
+                ClientConnectionTable.this.table.setItemCount(count);
+            }
+
+            @Override
+            public void clear(final int index) {
+                ClientConnectionTable.this.table.clear(index);
+            }
+
+            @Override
+            public void clearAll() {
+                ClientConnectionTable.this.table.clearAll();
+            }
+        };
 
         widgetFactory.tableColumnLocalized(
                 this.table,
@@ -337,6 +370,52 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
 
     @Override
     public void update(final MonitoringFilter monitoringStatus) {
+        final Collection<ClientMonitoringData> changes = monitoringStatus.getChangedConnectionData();
+        if (changes == null
+                || monitoringStatus.filterChanged()
+                || this.forceUpdateAll
+                || this.tableMapping.size() != this.table.getItemCount()) {
+
+            syncAll(monitoringStatus);
+        } else {
+            applyChanges(changes, monitoringStatus.getRemovedConnectionIds());
+        }
+    }
+
+    /** Applies only the inserted, changed and removed client connections since the last update to the table. */
+    private void applyChanges(final Collection<ClientMonitoringData> changes, final Collection<Long> removed) {
+        this.toUpdateStatic.clear();
+        for (final ClientMonitoringData data : changes) {
+            UpdatableTableItem tableItem = this.tableMapping.get(data.id);
+            if (tableItem == null) {
+                tableItem = new UpdatableTableItem(data.id);
+                this.tableMapping.put(data.id, tableItem);
+                this.sortList.add(tableItem);
+            }
+            if (tableItem.push(data)) {
+                this.toUpdateStatic.add(data.id);
+            }
+        }
+
+        boolean hasRemoved = false;
+        for (final Long id : removed) {
+            hasRemoved |= this.tableMapping.remove(id) != null;
+        }
+        if (hasRemoved) {
+            // note: UpdatableTableItem equality is based on the sort order, so remove by connection
+            this.sortList.removeIf(item -> this.tableMapping.get(item.connectionId) != item);
+            this.needsSort = true;
+        }
+
+        if (!this.toUpdateStatic.isEmpty()) {
+            fetchStaticClientConnectionData();
+            this.needsSort = true;
+        }
+
+        updateGUI();
+    }
+
+    private void syncAll(final MonitoringFilter monitoringStatus) {
         final Collection<ClientMonitoringData> monitoringData = monitoringStatus.getConnectionData();
         final boolean sizeChanged = monitoringData.size() != this.table.getItemCount();
         final boolean needsSync = monitoringStatus.filterChanged() ||
@@ -374,16 +453,25 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
 
         if (!this.toDelete.isEmpty()) {
             this.toDelete.forEach(id -> this.tableMapping.remove(id));
-            monitoringStatus.resetFilterChanged();
             this.toDelete.clear();
         }
+        if (needsSync) {
+            monitoringStatus.resetFilterChanged();
+        }
 
         this.forceUpdateAll = false;
         this.needsSort = this.needsSort || sizeChanged;
+        this.sortList.clear();
+        this.sortList.addAll(this.tableMapping.values());
         updateGUI();
     }
 
     public void updateGUI() {
+        if (this.virtual) {
+            updateVirtualGUI();
+            return;
+        }
+
         if (this.needsSort) {
             sortTable();
         }
@@ -401,6 +489,28 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
         this.table.getParent().layout(true, true);
     }
 
+    /** Updates the virtual table. Only the table items of the visible rows are materialized by the table. If the
+     * order of the rows has changed, all table items are cleared, otherwise only the table items of the changed rows.
+     * A cleared table item is filled again by fillTableItem when it is visible. */
+    private void updateVirtualGUI() {
+        final boolean sorted = this.needsSort;
+        if (sorted) {
+            sortTable();
+        }
+        this.needsSort = false;
+        this.rows.update(this.tableMapping.values(), sorted, this.virtualTable);
+
+        adaptTableWidth();
+        this.table.getParent().layout(true, true);
+    }
+
+    private void fillTableItem(final Event event) {
+        final UpdatableTableItem row = this.rows.get(event.index);
+        if (row != null) {
+            row.update((TableItem) event.item, true);
+        }
+    }
+
     private void adaptTableWidth() {
         final Rectangle area = this.table.getParent().getClientArea();
         if (this.tableWidth != area.width) {
@@ -446,8 +556,7 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
     private void sortTable() {
         final Set<String> connectionTokens = getSelectedConnectionTokens();
 
-        this.sortList.clear();
-        this.sortList.addAll(this.tableMapping.values());
+        // the sort list is kept in the last sort order, so sorting is cheap for a few changes
         Collections.sort(this.sortList);
         this.tableMapping.clear();
         final Iterator<UpdatableTableItem> iterator = this.sortList.iterator();
@@ -474,7 +583,8 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
         // TODO if right click get selected item and show additional information (notification)
     }
 
-    private final class UpdatableTableItem implements Comparable<UpdatableTableItem>, MonitoringEntry {
+    private final class UpdatableTableItem
+            implements Comparable<UpdatableTableItem>, MonitoringEntry, VirtualTableRows.Row {
 
         final Long connectionId;
         private boolean dataChanged = false;
@@ -528,6 +638,17 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
             return ClientConnectionTable.this.checkSecurityGrant;
         }
 
+        @Override
+        public boolean hasChanged() {
+            return this.dataChanged || this.indicatorValueChanged;
+        }
+
+        @Override
+        public void clearChanged() {
+            this.dataChanged = false;
+            this.indicatorValueChanged = false;
+        }
+
         private void update(final TableItem tableItem, final boolean force) {
             updateDuplicateColor(tableItem);
             if (force || this.dataChanged) {
@@ -605,19 +726,10 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
                 return;
             }
 
-            this.monitoringData.indicatorVals
-                    .entrySet()
-                    .stream()
-                    .forEach(indicatorUpdate(tableItem));
-        }
-
-        private Consumer<Map.Entry<Long, String>> indicatorUpdate(final TableItem tableItem) {
-            return entry -> {
-                final Long id = entry.getKey();
-                final String displayValue = entry.getValue();
-                final IndicatorData indicatorData = ClientConnectionTable.this.indicatorMapping.get(id);
-                if (indicatorData == null || this.monitoringData == null) {
-                    return;
+            for (final IndicatorData indicatorData : ClientConnectionTable.this.indicatorMapping.values()) {
+                final String displayValue = this.monitoringData.getIndicatorValue(indicatorData.indicator.id);
+                if (displayValue == null) {
+                    continue;
                 }
 
                 if (!this.monitoringData.status.clientActiveStatus) {
@@ -639,7 +751,7 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
                         tableItem.setForeground(indicatorData.tableIndex, indicatorData.defaultTextColor);
                     }
                 }
-            };
+            }
         }
 
         @Override
@@ -679,7 +791,14 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
                 return 0;
             }
             return BooleanUtils.isTrue(this.monitoringData.pendingNotification) ||
-                    (this.monitoringData.status.establishedStatus && this.marked) ? -1 : 0;
+                    (this.monitoringData.status.establishedStatus && isMarked()) ? -1 : 0;
+        }
+
+        private boolean isMarked() {
+            // the table items of a virtual table are only updated when visible
+            return (ClientConnectionTable.this.virtual)
+                    ? ClientConnectionTable.this.duplicates.contains(this.connectionId)
+                    : this.marked;
         }
 
         int statusWeight() {
@@ -768,17 +887,18 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
                 return;
             }
 
-            this.monitoringData.indicatorVals.entrySet().stream().forEach(entry -> {
-                final Long id = entry.getKey();
-                final String displayValue = entry.getValue();
-                final IndicatorData indicatorData = ClientConnectionTable.this.indicatorMapping.get(id);
-                if (indicatorData == null) {
-                    return;
+            for (final IndicatorData indicatorData : ClientConnectionTable.this.indicatorMapping.values()) {
+                final long id = indicatorData.indicator.id;
+                final String displayValue = this.monitoringData.getIndicatorValue(id);
+                if (displayValue == null) {
+                    continue;
                 }
 
-                final int indicatorWeight = IndicatorData.getWeight(
-                        indicatorData,
-                        IndicatorValue.getFromDisplayValue(displayValue));
+                // take the threshold weight from the web service if available
+                final int weight = this.monitoringData.getIndicatorWeight(id);
+                final int indicatorWeight = (weight != ClientMonitoringDataView.NO_WEIGHT)
+                        ? weight
+                        : IndicatorData.getWeight(indicatorData, IndicatorValue.getFromDisplayValue(displayValue));
 
                 if (this.indicatorWeights[indicatorData.index] != indicatorWeight) {
                     ClientConnectionTable.this.needsSort = true;
@@ -792,7 +912,7 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
                                     - this.indicatorWeights[indicatorData.index]
                             : this.indicatorWeights[indicatorData.index];
                 }
-            });
+            }
         }
 
         private ClientConnectionTable getOuterType() {
@@ -817,6 +937,10 @@ public final class ClientConnectionTable implements FullPageMonitoringGUIUpdate
             log.error("Failed to get client connection static data for: {}", ids, call.getError());
         } else {
             final MonitoringStaticClientData monitoringStaticClientData = call.get();
+            if (this.virtual && !this.duplicates.equals(monitoringStaticClientData.duplications)) {
+                // the duplicate marks are part of the sort order
+                this.needsSort = true;
+            }
             this.duplicates.clear();
             this.duplicates.addAll(monitoringStaticClientData.duplications);
             monitoringStaticClientData.staticClientConnectionData
@@ -8,26 +8,40 @@
 
 package ch.ethz.seb.sebserver.gui.service.session;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.conn.ConnectionReleaseTrigger;
 import org.eclipse.swt.widgets.Composite;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ch.ethz.seb.sebserver.gbl.Constants;
 import ch.ethz.seb.sebserver.gbl.api.API;
+import ch.ethz.seb.sebserver.gbl.api.JSONMapper;
 import ch.ethz.seb.sebserver.gbl.async.AsyncRunner;
 import ch.ethz.seb.sebserver.gbl.model.exam.ClientGroup;
 import ch.ethz.seb.sebserver.gbl.model.exam.Indicator;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionIssueStatus;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientMonitoringData;
 import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringFullPageData;
+import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringSEBConnectionData;
+import ch.ethz.seb.sebserver.gbl.util.Result;
 import ch.ethz.seb.sebserver.gbl.util.Utils;
 import ch.ethz.seb.sebserver.gui.service.page.PageContext;
 import ch.ethz.seb.sebserver.gui.service.page.PageService;
@@ -37,12 +51,22 @@ import ch.ethz.seb.sebserver.gui.service.push.UpdateErrorHandler;
 import ch.ethz.seb.sebserver.gui.service.remote.webservice.api.RestCall;
 import ch.ethz.seb.sebserver.gui.service.remote.webservice.api.exam.clientgroup.GetClientGroups;
 import ch.ethz.seb.sebserver.gui.service.remote.webservice.api.session.GetMonitoringFullPageData;
+import ch.ethz.seb.sebserver.gui.service.remote.webservice.api.session.StreamMonitoringFullPageData;
 import ch.ethz.seb.sebserver.gui.service.remote.webservice.auth.DisposedOAuth2RestTemplateException;
 
 /** Encapsulates the update and the current status of all monitoring data needed for a
  * full page monitoring.
  *
- * This handles server push and GUI update and also implements kind of circuit breaker and error handling */
+ * This handles server push and GUI update and also implements kind of circuit breaker and error handling
+ *
+ * The monitoring data is requested as delta to the last seen monitoring data and merged into the full
+ * monitoring data here. The changes are collected until the next GUI update takes them.
+ *
+ * The monitoring data is pushed by the webservice over a Server-Sent Events stream. The stream reader is
+ * started by the server push of RAP and runs on the reader executor of the ServerPushService until the server
+ * push session stops. The server push of RAP is only used to update the GUI then. If the stream is
+ * not available, the monitoring data is polled with every GUI update as a fallback and the stream is
+ * tried again after a while. */
 public class FullPageMonitoringUpdate implements MonitoringFilter {
 
     static final Logger log = LoggerFactory.getLogger(FullPageMonitoringUpdate.class);
@@ -53,10 +77,15 @@ public class FullPageMonitoringUpdate implements MonitoringFilter {
 
     private static final String USER_SESSION_GROUP_FILTER_ATTRIBUTE = "USER_SESSION_GROUP_FILTER";
 
+    private static final String SSE_DATA_FIELD = "data:";
+    private static final long STREAM_RETRY_INTERVAL = 30 * Constants.SECOND_IN_MILLIS;
+
     private final ServerPushService serverPushService;
     private final PageService pageService;
     private final AsyncRunner asyncRunner;
     private final RestCall<MonitoringFullPageData>.RestCallBuilder restCallBuilder;
+    private final RestCall<Boolean>.RestCallBuilder streamCallBuilder;
+    private final Long examId;
     private final Collection<FullPageMonitoringGUIUpdate> guiUpdates;
 
     private ServerPushContext pushContext;
@@ -71,9 +100,26 @@ public class FullPageMonitoringUpdate implements MonitoringFilter {
     private String clientGroupFilterParam = "";
     private boolean filterChanged = false;
 
+    private int filterVersion = 0;
+
     private boolean updateInProgress = false;
+    private volatile boolean streaming = false;
+    private volatile boolean streamReaderRunning = false;
+    private volatile long nextStreamAttempt = 0;
+    private volatile InputStream stream = null;
     private MonitoringFullPageData monitoringFullPageData = null;
 
+    // the merged client connection data and the last seen change sequence
+    private final Map<Long, ClientMonitoringData> connectionData = new LinkedHashMap<>();
+    private Long epoch = null;
+    private Long sequence = null;
+    // changes since the last GUI update, pendingChanges is null if a full sync is needed
+    private Map<Long, ClientMonitoringData> pendingChanges = null;
+    private final Set<Long> pendingRemovals = new LinkedHashSet<>();
+    // changes for the current GUI update
+    private Collection<ClientMonitoringData> changes = null;
+    private Collection<Long> removals = Collections.emptyList();
+
     public FullPageMonitoringUpdate(
             final Long examId,
             final PageService pageService,
@@ -84,10 +130,15 @@ public class FullPageMonitoringUpdate implements MonitoringFilter {
         this.serverPushService = serverPushService;
         this.pageService = pageService;
         this.asyncRunner = asyncRunner;
+        this.examId = examId;
         this.restCallBuilder = pageService
                 .getRestService()
                 .getBuilder(GetMonitoringFullPageData.class)
                 .withURIVariable(API.PARAM_PARENT_MODEL_ID, String.valueOf(examId));
+        this.streamCallBuilder = pageService
+                .getRestService()
+                .getBuilder(StreamMonitoringFullPageData.class)
+                .withURIVariable(API.PARAM_PARENT_MODEL_ID, String.valueOf(examId));
         this.guiUpdates = guiUpdates;
 
         this.statusFilter = EnumSet.noneOf(ConnectionStatus.class);
@@ -119,6 +170,8 @@ public class FullPageMonitoringUpdate implements MonitoringFilter {
                     Utils.truePredicate(),
                     updateErrorHandler);
 
+            this.pushContext.addStopListener(this::abortStream);
+
             this.serverPushService.runServerPush(
                     this.pushContext,
                     pollInterval,
@@ -227,47 +280,238 @@ public class FullPageMonitoringUpdate implements MonitoringFilter {
         return this.monitoringFullPageData;
     }
 
+    @Override
+    public Collection<ClientMonitoringData> getChangedConnectionData() {
+        return this.changes;
+    }
+
+    @Override
+    public Collection<Long> getRemovedConnectionIds() {
+        return this.removals;
+    }
+
     private void update() {
+        startStreamReader();
+
         if (this.updateInProgress) {
             return;
         }
 
-        this.updateInProgress = true;
+        // the monitoring data is only polled if it is not pushed by the webservice
+        if (!this.streaming) {
+            this.updateInProgress = true;
 
-        this.asyncRunner.runAsync(() -> {
+            this.asyncRunner.runAsync(() -> {
 
-            try {
-                updateBusinessData();
+                try {
+                    updateBusinessData();
 
-            } catch (final Exception e) {
-                log.error("Failed to update full page monitoring: ", e);
-            } finally {
-                this.updateInProgress = false;
-            }
-        });
+                } catch (final Exception e) {
+                    log.error("Failed to update full page monitoring: ", e);
+                } finally {
+                    this.updateInProgress = false;
+                }
+            });
+        }
 
         if (this.monitoringFullPageData != null) {
+            takeChanges();
             callGUIUpdates();
         }
     }
 
     private void updateBusinessData() {
-        RestCall<MonitoringFullPageData>.RestCallBuilder restCallBuilder = this.restCallBuilder
-                .withHeader(API.EXAM_MONITORING_STATE_FILTER, this.statusFilterParam)
+        final int filterVersion = this.filterVersion;
+        final MonitoringFullPageData data = withRequestHeaders(this.restCallBuilder)
+                .call()
+                .get(error -> {
+                    this.pushContext.reportError(error);
+                    recoverFromDisposedRestTemplate(error);
+                    return null;
+                });
+
+        if (data != null) {
+            mergeMonitoringData(data, filterVersion);
+        }
+    }
+
+    private <T> RestCall<T>.RestCallBuilder withRequestHeaders(final RestCall<T>.RestCallBuilder builder) {
+        builder.withHeader(API.EXAM_MONITORING_STATE_FILTER, this.statusFilterParam)
                 .withHeader(API.EXAM_MONITORING_ISSUE_FILTER, this.issueFilterParam);
 
         if (hasClientGroupFilter()) {
-            restCallBuilder = restCallBuilder
-                    .withHeader(API.EXAM_MONITORING_CLIENT_GROUP_FILTER, this.clientGroupFilterParam);
+            builder.withHeader(API.EXAM_MONITORING_CLIENT_GROUP_FILTER, this.clientGroupFilterParam);
         }
 
-        this.monitoringFullPageData = restCallBuilder
-                .call()
-                .get(error -> {
-                    this.pushContext.reportError(error);
+        synchronized (this) {
+            if (this.epoch != null && this.sequence != null) {
+                builder.withHeader(API.EXAM_MONITORING_EPOCH, String.valueOf(this.epoch))
+                        .withHeader(API.EXAM_MONITORING_SEQUENCE, String.valueOf(this.sequence));
+            } else {
+                builder.withoutHeader(API.EXAM_MONITORING_EPOCH)
+                        .withoutHeader(API.EXAM_MONITORING_SEQUENCE);
+            }
+        }
+
+        return builder;
+    }
+
+    /** Starts the reader of the monitoring stream if it is not running and the retry interval has passed
+     * since the last failed attempt. If there is no capacity to run the reader, the monitoring data
+     * is polled until the next attempt. */
+    private void startStreamReader() {
+        if (this.streamReaderRunning || Utils.getMillisecondsNow() < this.nextStreamAttempt) {
+            return;
+        }
+
+        this.streamReaderRunning = true;
+        if (!this.serverPushService.runReader(this.pushContext, this::readMonitoringStream)) {
+            this.streamReaderRunning = false;
+            this.nextStreamAttempt = Utils.getMillisecondsNow() + STREAM_RETRY_INTERVAL;
+        }
+    }
+
+    /** Subscribes for the monitoring stream of the webservice and reads the monitoring data from it until the
+     * server push session stops. A stream that has ended is resumed from the last seen sequence, a stream that
+     * is not available ends the reader and is tried again with the next GUI update after the retry interval. */
+    private void readMonitoringStream() {
+        try {
+            while (!this.pushContext.isDisposed() && this.pushContext.runAgain()) {
+                final int filterVersion = this.filterVersion;
+                final Result<Boolean> result = withRequestHeaders(this.streamCallBuilder)
+                        .withResponseExtractor(response -> readFrames(response.getBody(), filterVersion))
+                        .call();
+
+                this.streaming = false;
+                this.stream = null;
+
+                if (result.hasError() && filterVersion == this.filterVersion && !this.pushContext.isDisposed()) {
+                    final Exception error = result.getError();
+                    log.info("Monitoring stream for exam {} not available, use polling. Cause: {}",
+                            this.examId,
+                            error.getMessage());
                     recoverFromDisposedRestTemplate(error);
-                    return this.monitoringFullPageData;
-                });
+                    this.nextStreamAttempt = Utils.getMillisecondsNow() + STREAM_RETRY_INTERVAL;
+                    return;
+                }
+            }
+        } finally {
+            this.streaming = false;
+            this.streamReaderRunning = false;
+        }
+    }
+
+    private Boolean readFrames(final InputStream body, final int filterVersion) throws IOException {
+        this.stream = body;
+        this.streaming = true;
+
+        final JSONMapper jsonMapper = this.pageService.getJSONMapper();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        final StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (this.pushContext.isDisposed()
+                    || !this.pushContext.runAgain()
+                    || filterVersion != this.filterVersion) {
+                abortStream();
+                return false;
+            }
+
+            if (line.isEmpty()) {
+                if (data.length() > 0) {
+                    mergeMonitoringData(
+                            jsonMapper.readValue(data.toString(), MonitoringFullPageData.class),
+                            filterVersion);
+                    data.setLength(0);
+                }
+            } else if (line.startsWith(SSE_DATA_FIELD)) {
+                data.append(StringUtils.removeStart(line.substring(SSE_DATA_FIELD.length()), " "));
+            }
+        }
+
+        return true;
+    }
+
+    /** Aborts the current monitoring stream. Since the stream never ends by itself, the underlying connection
+     * is aborted instead of closing the stream what would try to consume the stream to its end. */
+    private void abortStream() {
+        final InputStream stream = this.stream;
+        if (stream == null) {
+            return;
+        }
+
+        try {
+            if (stream instanceof ConnectionReleaseTrigger) {
+                ((ConnectionReleaseTrigger) stream).abortConnection();
+            } else {
+                stream.close();
+            }
+        } catch (final Exception e) {
+            log.warn("Failed to abort monitoring stream: {}", e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized void mergeMonitoringData(final MonitoringFullPageData data, final int filterVersion) {
+        final MonitoringSEBConnectionData connections = data.monitoringConnectionData;
+        if (connections == null) {
+            this.monitoringFullPageData = data;
+            return;
+        }
+
+        final Collection<ClientMonitoringData> monitoringData =
+                (Collection<ClientMonitoringData>) connections.monitoringData;
+        if (connections.delta && this.epoch != null && this.epoch.equals(connections.epoch)) {
+            connections.removed.forEach(id -> {
+                if (this.connectionData.remove(id) != null && this.pendingChanges != null) {
+                    this.pendingChanges.remove(id);
+                    this.pendingRemovals.add(id);
+                }
+            });
+            monitoringData.forEach(c -> {
+                this.connectionData.put(c.id, c);
+                if (this.pendingChanges != null) {
+                    this.pendingChanges.put(c.id, c);
+                    this.pendingRemovals.remove(c.id);
+                }
+            });
+        } else {
+            this.connectionData.clear();
+            monitoringData.forEach(c -> this.connectionData.put(c.id, c));
+            this.pendingChanges = null;
+            this.pendingRemovals.clear();
+        }
+
+        // if the filter has changed while requesting, the next request must get a full snapshot
+        final boolean filterUnchanged = filterVersion == this.filterVersion;
+        this.epoch = filterUnchanged ? connections.epoch : null;
+        this.sequence = filterUnchanged ? connections.sequence : null;
+
+        this.monitoringFullPageData = new MonitoringFullPageData(
+                data.examId,
+                new MonitoringSEBConnectionData(
+                        connections.connectionsPerStatus,
+                        connections.connectionsPerClientGroup,
+                        connections.connectionPerIssue,
+                        new ArrayList<>(this.connectionData.values()),
+                        connections.epoch,
+                        connections.sequence,
+                        false,
+                        null),
+                data.getScreenProctoringData());
+    }
+
+    private synchronized void takeChanges() {
+        if (this.pendingChanges == null) {
+            this.changes = null;
+            this.removals = Collections.emptyList();
+            this.pendingChanges = new LinkedHashMap<>();
+        } else {
+            this.changes = new ArrayList<>(this.pendingChanges.values());
+            this.removals = new ArrayList<>(this.pendingRemovals);
+            this.pendingChanges.clear();
+        }
+        this.pendingRemovals.clear();
     }
 
     private void callGUIUpdates() {
@@ -309,9 +553,17 @@ public class FullPageMonitoringUpdate implements MonitoringFilter {
                 this.clientGroupFilterParam = StringUtils.join(this.clientGroupFilter, Constants.LIST_SEPARATOR);
             }
             this.filterChanged = true;
+            resetSequence();
+            abortStream();
         }
     }
 
+    private synchronized void resetSequence() {
+        this.filterVersion++;
+        this.epoch = null;
+        this.sequence = null;
+    }
+
     private void loadStatusFilter() {
         try {
             final String attribute = this.pageService
@@ -378,6 +630,7 @@ public class FullPageMonitoringUpdate implements MonitoringFilter {
             }
             if (error instanceof DisposedOAuth2RestTemplateException) {
                 this.pageService.getRestService().injectCurrentRestTemplate(this.restCallBuilder);
+                this.pageService.getRestService().injectCurrentRestTemplate(this.streamCallBuilder);
             }
         } catch (final Exception e) {
             log.error("Failed to recover from disposed rest template: ", e);
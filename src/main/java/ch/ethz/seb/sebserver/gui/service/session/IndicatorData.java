@@ -19,6 +19,7 @@ import org.eclipse.swt.widgets.Display;
 
 import ch.ethz.seb.sebserver.gbl.model.exam.Indicator;
 import ch.ethz.seb.sebserver.gbl.model.exam.Indicator.Threshold;
+import ch.ethz.seb.sebserver.gbl.monitoring.IndicatorValue;
 import ch.ethz.seb.sebserver.gbl.util.Utils;
 
 final class IndicatorData {
@@ -29,6 +30,7 @@ final class IndicatorData {
     final Color defaultColor;
     final Color defaultTextColor;
     final ThresholdColor[] thresholdColor;
+    final double[] thresholdValues;
 
     protected IndicatorData(
             final Indicator indicator,
@@ -48,8 +50,10 @@ final class IndicatorData {
         this.thresholdColor = new ThresholdColor[indicator.thresholds.size()];
         final ArrayList<Threshold> sortedThresholds = new ArrayList<>(indicator.thresholds);
         sortedThresholds.sort(Comparator.comparing(t -> t.value));
+        this.thresholdValues = new double[indicator.thresholds.size()];
         for (int i = 0; i < indicator.thresholds.size(); i++) {
             this.thresholdColor[i] = new ThresholdColor(sortedThresholds.get(i), display, colorData);
+            this.thresholdValues[i] = this.thresholdColor[i].value;
         }
     }
 
@@ -74,18 +78,10 @@ final class IndicatorData {
     }
 
     static int getWeight(final IndicatorData indicatorData, final double value) {
-        
-        for (int j = 0; j < indicatorData.thresholdColor.length; j++) {
-            if (value < indicatorData.thresholdColor[j].value) {
-                if (indicatorData.indicator.type.inverse) {
-                    return j;
-                } else {
-                    return (j == 0) ? -1 : j - 1;
-                }
-            }
-       }
-
-        return (indicatorData.indicator.type.inverse) ? -1 : indicatorData.thresholdColor.length - 1;
+        return IndicatorValue.getThresholdWeight(
+                value,
+                indicatorData.thresholdValues,
+                indicatorData.indicator.type.inverse);
     }
 
     static final class ThresholdColor {
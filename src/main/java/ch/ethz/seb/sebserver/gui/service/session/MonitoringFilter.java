@@ -80,6 +80,22 @@ public interface MonitoringFilter {
         }
     }
 
+    /** Get the client connection data that has been inserted or changed since the last GUI update.
+     *
+     * @return the inserted or changed client connection data or null if there are no known changes and the GUI
+     *         must synchronize with the full client connection data of getConnectionData */
+    default Collection<ClientMonitoringData> getChangedConnectionData() {
+        return null;
+    }
+
+    /** Get the identifiers of the client connections that has been removed since the last GUI update.
+     * This is only relevant if getChangedConnectionData is not null.
+     *
+     * @return the identifiers of the client connections that has been removed since the last GUI update */
+    default Collection<Long> getRemovedConnectionIds() {
+        return Collections.emptyList();
+    }
+
     default int getNumOfConnections(final ConnectionStatus status) {
         final MonitoringSEBConnectionData monitoringSEBConnectionData = getMonitoringSEBConnectionData();
         if (monitoringSEBConnectionData != null) {
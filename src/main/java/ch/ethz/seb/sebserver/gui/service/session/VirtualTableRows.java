@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.gui.service.session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/** Keeps the rows of a virtual table in table order and clears the table items that have to be filled again.
+ * <p>
+ * A virtual table only materializes the table items of the visible rows and requests the data of a cleared
+ * table item again when it gets visible. If the order or the set of rows has changed, all table items are
+ * cleared, otherwise only the table items of the rows that have changed since the last update.
+ *
+ * @param <T> the type of the rows */
+final class VirtualTableRows<T extends VirtualTableRows.Row> {
+
+    /** A row of a virtual table that tracks its own changes */
+    interface Row {
+
+        boolean hasChanged();
+
+        void clearChanged();
+    }
+
+    /** The table item operations of a virtual table that are used to update it */
+    interface ItemTable {
+
+        int getItemCount();
+
+        void setItemCount(int count);
+
+        void clear(int index);
+
+        void clearAll();
+    }
+
+    private final List<T> rows = new ArrayList<>();
+
+    /** Updates the given table with the given rows.
+     *
+     * @param rowsInOrder the rows in table order
+     * @param sorted indicates that the rows have been sorted since the last update
+     * @param table the table to update */
+    void update(final Collection<T> rowsInOrder, final boolean sorted, final ItemTable table) {
+        final boolean orderChanged = sorted || !isSameOrder(rowsInOrder);
+        if (orderChanged) {
+            this.rows.clear();
+            this.rows.addAll(rowsInOrder);
+        }
+
+        if (table.getItemCount() != this.rows.size()) {
+            table.setItemCount(this.rows.size());
+        }
+
+        if (orderChanged) {
+            table.clearAll();
+            this.rows.forEach(Row::clearChanged);
+        } else {
+            for (int i = 0; i < this.rows.size(); i++) {
+                final T row = this.rows.get(i);
+                if (row.hasChanged()) {
+                    // the cleared item is filled again with all data when it gets visible
+                    table.clear(i);
+                    row.clearChanged();
+                }
+            }
+        }
+    }
+
+    /** Get the row at the given table index
+     *
+     * @param index the table index
+     * @return the row at the given table index or null if there is none */
+    T get(final int index) {
+        if (index < 0 || index >= this.rows.size()) {
+            return null;
+        }
+        return this.rows.get(index);
+    }
+
+    int size() {
+        return this.rows.size();
+    }
+
+    private boolean isSameOrder(final Collection<T> rowsInOrder) {
+        if (rowsInOrder.size() != this.rows.size()) {
+            return false;
+        }
+
+        // rows that are removed and added within the same update do not change the number of rows
+        final Iterator<T> iterator = rowsInOrder.iterator();
+        for (final T row : this.rows) {
+            if (row != iterator.next()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -18,16 +18,19 @@ import javax.cache.spi.CachingProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.cache.jcache.JCacheCacheManager;
 import org.springframework.cache.jcache.config.JCacheConfigurerSupport;
 import org.springframework.cache.support.CompositeCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationValueDAO;
 
 @EnableCaching
 @WebServiceProfile
@@ -51,7 +54,17 @@ public class CacheConfig extends JCacheConfigurerSupport {
 
             final CompositeCacheManager composite = new CompositeCacheManager();
             composite.setCacheManagers(Arrays.asList(
-                    new JCacheCacheManager(cacheManager),
+                    new JCacheCacheManager(cacheManager) {
+                        @Override
+                        protected Cache decorateCache(final Cache cache) {
+                            // Config-Key evictions must not be applied before the changed values are committed,
+                            // otherwise a concurrent export may cache the Config-Key of the old values again
+                            if (ConfigurationValueDAO.CACHE_NAME_CONFIG_KEY.equals(cache.getName())) {
+                                return new TransactionAwareCacheDecorator(cache);
+                            }
+                            return super.decorateCache(cache);
+                        }
+                    },
                     new ConcurrentMapCacheManager()));
             composite.setFallbackToNoOpCache(true);
 
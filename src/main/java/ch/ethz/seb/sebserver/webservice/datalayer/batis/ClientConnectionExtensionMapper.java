@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.datalayer.batis;
+
+import java.util.Collection;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ClientConnectionRecord;
+
+@Mapper
+public interface ClientConnectionExtensionMapper {
+
+    /** Inserts all given client connection records with one multi-row INSERT statement.
+     *
+     * The generated identifiers are set to the given records.
+     *
+     * @param records the client connection records to insert (must not be empty)
+     * @return the number of inserted rows */
+    @Insert({
+            "<script>",
+            "INSERT INTO client_connection (institution_id, exam_id, status, connection_token, exam_user_session_id, ",
+            "client_address, virtual_client_address, vdi, vdi_pair_token, creation_time, update_time, ",
+            "screen_proctoring_group_id, screen_proctoring_group_update, remote_proctoring_room_id, ",
+            "remote_proctoring_room_update, client_machine_name, client_os_name, client_version, ",
+            "security_check_granted, ask, client_version_granted) VALUES ",
+            "<foreach collection='records' item='record' separator=','>",
+            "(#{record.institutionId,jdbcType=BIGINT}, #{record.examId,jdbcType=BIGINT}, ",
+            "#{record.status,jdbcType=VARCHAR}, #{record.connectionToken,jdbcType=VARCHAR}, ",
+            "#{record.examUserSessionId,jdbcType=VARCHAR}, #{record.clientAddress,jdbcType=VARCHAR}, ",
+            "#{record.virtualClientAddress,jdbcType=VARCHAR}, #{record.vdi,jdbcType=INTEGER}, ",
+            "#{record.vdiPairToken,jdbcType=VARCHAR}, #{record.creationTime,jdbcType=BIGINT}, ",
+            "#{record.updateTime,jdbcType=BIGINT}, #{record.screenProctoringGroupId,jdbcType=BIGINT}, ",
+            "#{record.screenProctoringGroupUpdate,jdbcType=TINYINT}, #{record.remoteProctoringRoomId,jdbcType=BIGINT}, ",
+            "#{record.remoteProctoringRoomUpdate,jdbcType=INTEGER}, #{record.clientMachineName,jdbcType=VARCHAR}, ",
+            "#{record.clientOsName,jdbcType=VARCHAR}, #{record.clientVersion,jdbcType=VARCHAR}, ",
+            "#{record.securityCheckGranted,jdbcType=TINYINT}, #{record.ask,jdbcType=VARCHAR}, ",
+            "#{record.clientVersionGranted,jdbcType=TINYINT})",
+            "</foreach>",
+            "</script>"
+    })
+    @Options(useGeneratedKeys = true, keyProperty = "records.id", keyColumn = "id")
+    int insertMultiple(@Param("records") Collection<ClientConnectionRecord> records);
+
+}
@@ -14,8 +14,12 @@ import java.util.Collection;
 
 import org.apache.ibatis.annotations.Arg;
 import org.apache.ibatis.annotations.ConstructorArgs;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.SelectProvider;
 import org.apache.ibatis.type.JdbcType;
 import org.mybatis.dynamic.sql.BasicColumn;
@@ -28,6 +32,7 @@ import org.mybatis.dynamic.sql.util.SqlProviderAdapter;
 
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientConnectionRecordDynamicSqlSupport;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientEventRecordDynamicSqlSupport;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ClientEventRecord;
 
 @Mapper
 public interface ClientEventExtensionMapper {
@@ -45,6 +50,85 @@ public interface ClientEventExtensionMapper {
                 .from(ClientEventRecordDynamicSqlSupport.clientEventRecord);
     }
 
+    /** Inserts all given client event records with one multi-row INSERT statement.
+     * The generated identifiers are set to the given records.
+     *
+     * @param records the client event records to insert (must not be empty)
+     * @return the number of inserted rows */
+    @Insert({
+            "<script>",
+            "INSERT INTO client_event (client_connection_id, type, client_time, server_time, numeric_value, text) VALUES ",
+            "<foreach collection='records' item='record' separator=','>",
+            "(#{record.clientConnectionId,jdbcType=BIGINT}, #{record.type,jdbcType=INTEGER}, ",
+            "#{record.clientTime,jdbcType=BIGINT}, #{record.serverTime,jdbcType=BIGINT}, ",
+            "#{record.numericValue,jdbcType=DECIMAL}, #{record.text,jdbcType=VARCHAR})",
+            "</foreach>",
+            "</script>"
+    })
+    @Options(useGeneratedKeys = true, keyProperty = "records.id", keyColumn = "id")
+    int insertMultiple(@Param("records") Collection<ClientEventRecord> records);
+
+    /** Counts the client events of the given types per client connection and type for all client connections
+     * of the given exam within one query.
+     * <p>
+     * The result contains one additional record without client connection and type that holds the highest
+     * client event identifier seen by the query (the watermark). Events with a higher identifier are not counted.
+     *
+     * @param examId the exam identifier
+     * @param types the client event type identifiers to count (must not be empty)
+     * @return the event counts per client connection and type and the watermark record */
+    @Select({
+            "<script>",
+            "SELECT e.client_connection_id, e.type, COUNT(*) AS num FROM client_event e ",
+            "JOIN client_connection c ON e.client_connection_id = c.id ",
+            "WHERE c.exam_id = #{examId} AND e.type IN ",
+            "<foreach collection='types' item='type' open='(' separator=',' close=')'>#{type}</foreach>",
+            " GROUP BY e.client_connection_id, e.type",
+            " UNION ALL SELECT NULL, NULL, COALESCE(MAX(id), 0) FROM client_event",
+            "</script>"
+    })
+    @ConstructorArgs({
+            @Arg(column = "client_connection_id", javaType = Long.class, jdbcType = JdbcType.BIGINT),
+            @Arg(column = "type", javaType = Integer.class, jdbcType = JdbcType.INTEGER),
+            @Arg(column = "num", javaType = Long.class, jdbcType = JdbcType.BIGINT)
+    })
+    Collection<EventCountRecord> countEventsOfExam(
+            @Param("examId") Long examId,
+            @Param("types") Collection<Integer> types);
+
+    /** Counts the client events of the given types with a text that matches one of the given patterns
+     * per client connection and type for all client connections of the given exam within one query.
+     * <p>
+     * Like countEventsOfExam the result contains one additional watermark record without client connection and type.
+     *
+     * @param examId the exam identifier
+     * @param types the client event type identifiers to count (must not be empty)
+     * @param patterns the SQL LIKE patterns of the event text (must not be empty)
+     * @return the event counts per client connection and type and the watermark record */
+    @Select({
+            "<script>",
+            "SELECT e.client_connection_id, e.type, COUNT(*) AS num FROM client_event e ",
+            "JOIN client_connection c ON e.client_connection_id = c.id ",
+            "WHERE c.exam_id = #{examId} AND e.type IN ",
+            "<foreach collection='types' item='type' open='(' separator=',' close=')'>#{type}</foreach>",
+            " AND ",
+            "<foreach collection='patterns' item='pattern' open='(' separator=' OR ' close=')'>",
+            "e.text LIKE #{pattern}",
+            "</foreach>",
+            " GROUP BY e.client_connection_id, e.type",
+            " UNION ALL SELECT NULL, NULL, COALESCE(MAX(id), 0) FROM client_event",
+            "</script>"
+    })
+    @ConstructorArgs({
+            @Arg(column = "client_connection_id", javaType = Long.class, jdbcType = JdbcType.BIGINT),
+            @Arg(column = "type", javaType = Integer.class, jdbcType = JdbcType.INTEGER),
+            @Arg(column = "num", javaType = Long.class, jdbcType = JdbcType.BIGINT)
+    })
+    Collection<EventCountRecord> countTaggedEventsOfExam(
+            @Param("examId") Long examId,
+            @Param("types") Collection<Integer> types,
+            @Param("patterns") Collection<String> patterns);
+
     @SelectProvider(type = SqlProviderAdapter.class, method = "select")
     @ResultType(ClientEventExtensionMapper.ConnectionEventJoinRecord.class)
     @ConstructorArgs({
@@ -86,6 +170,23 @@ public interface ClientEventExtensionMapper {
                         equalTo(ClientConnectionRecordDynamicSqlSupport.clientConnectionRecord.id));
     }
 
+    final class EventCountRecord {
+
+        public final Long connection_id;
+        public final Integer type;
+        public final Long count;
+
+        protected EventCountRecord(
+                final Long connection_id,
+                final Integer type,
+                final Long count) {
+
+            this.connection_id = connection_id;
+            this.type = type;
+            this.count = count;
+        }
+    }
+
     final class ConnectionEventJoinRecord {
 
         public final Long id;
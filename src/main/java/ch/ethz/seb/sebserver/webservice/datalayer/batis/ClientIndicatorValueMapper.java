@@ -15,8 +15,11 @@ import java.util.Collection;
 
 import org.apache.ibatis.annotations.Arg;
 import org.apache.ibatis.annotations.ConstructorArgs;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.SelectProvider;
 import org.apache.ibatis.annotations.Update;
 import org.apache.ibatis.annotations.UpdateProvider;
@@ -25,11 +28,11 @@ import org.mybatis.dynamic.sql.select.MyBatis3SelectModelAdapter;
 import org.mybatis.dynamic.sql.select.QueryExpressionDSL;
 import org.mybatis.dynamic.sql.select.SelectDSL;
 import org.mybatis.dynamic.sql.select.render.SelectStatementProvider;
-import org.mybatis.dynamic.sql.update.UpdateDSL;
 import org.mybatis.dynamic.sql.update.render.UpdateStatementProvider;
 import org.mybatis.dynamic.sql.util.SqlProviderAdapter;
 
 import ch.ethz.seb.sebserver.gbl.model.exam.Indicator.IndicatorType;
+import ch.ethz.seb.sebserver.gbl.util.Utils;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientIndicatorRecordDynamicSqlSupport;
 
 @Mapper
@@ -100,18 +103,89 @@ public interface ClientIndicatorValueMapper {
                 .from(ClientIndicatorRecordDynamicSqlSupport.clientIndicatorRecord);
     }
 
-    @Update("UPDATE client_indicator SET value = value + 1 WHERE id =#{pk}")
-    int incrementIndicatorValue(final Long pk);
+    /** Selects all indicator records that has been updated at or after the given time.
+     *
+     * @param updateTime the update time in milliseconds
+     * @return all indicator records that has been updated at or after the given time */
+    @Select("SELECT id, value FROM client_indicator WHERE update_time >= #{updateTime}")
+    @ConstructorArgs({
+            @Arg(column = "id", javaType = Long.class, jdbcType = JdbcType.BIGINT),
+            @Arg(column = "value", javaType = Long.class, jdbcType = JdbcType.BIGINT)
+    })
+    Collection<ClientIndicatorValueRecord> selectUpdatedSince(@Param("updateTime") long updateTime);
+
+    @Update("UPDATE client_indicator SET value = value + 1, update_time = #{updateTime} WHERE id = #{pk}")
+    int incrementIndicatorValueAt(@Param("pk") Long pk, @Param("updateTime") long updateTime);
+
+    @Update("UPDATE client_indicator SET value = value - 1, update_time = #{updateTime} WHERE id = #{pk}")
+    int decrementIndicatorValueAt(@Param("pk") Long pk, @Param("updateTime") long updateTime);
+
+    @Update("UPDATE client_indicator SET value = #{value}, update_time = #{updateTime} WHERE id = #{pk}")
+    int updateIndicatorValueAt(@Param("pk") Long pk, @Param("value") Long value, @Param("updateTime") long updateTime);
+
+    /** Inserts a new indicator record with the given initial value and update time.
+     *
+     * @param connectionId the client connection identifier
+     * @param type the indicator type identifier
+     * @param value the initial value
+     * @param updateTime the update time to set for the new indicator record
+     * @return the number of inserted rows */
+    @Insert("INSERT INTO client_indicator (client_connection_id, type, value, update_time) "
+            + "VALUES (#{connectionId}, #{type}, #{value}, #{updateTime})")
+    int insertIndicatorValueAt(
+            @Param("connectionId") Long connectionId,
+            @Param("type") Integer type,
+            @Param("value") Long value,
+            @Param("updateTime") long updateTime);
+
+    default int insertIndicatorValue(final Long connectionId, final Integer type, final Long value) {
+        return insertIndicatorValueAt(connectionId, type, value, Utils.getMillisecondsNow());
+    }
 
-    @Update("UPDATE client_indicator SET value = value - 1 WHERE id =#{pk}")
-    int decrementIndicatorValue(final Long pk);
+    default int incrementIndicatorValue(final Long pk) {
+        return incrementIndicatorValueAt(pk, Utils.getMillisecondsNow());
+    }
+
+    default int decrementIndicatorValue(final Long pk) {
+        return decrementIndicatorValueAt(pk, Utils.getMillisecondsNow());
+    }
+
+    /** Sets the values of all given indicator records with one batched UPDATE statement.
+     *
+     * @param records the indicator records with the new values (must not be empty)
+     * @param updateTime the update time to set for all given indicator records
+     * @return the number of updated rows */
+    @Update({
+            "<script>",
+            "UPDATE client_indicator SET update_time = #{updateTime}, value = CASE id ",
+            "<foreach collection='records' item='record'>WHEN #{record.id} THEN #{record.indicatorValue} </foreach>",
+            "END WHERE id IN ",
+            "<foreach collection='records' item='record' open='(' separator=',' close=')'>#{record.id}</foreach>",
+            "</script>"
+    })
+    int updateIndicatorValues(
+            @Param("records") Collection<ClientIndicatorValueRecord> records,
+            @Param("updateTime") long updateTime);
+
+    /** Adds the deltas of all given indicator records to the actual values with one batched UPDATE statement.
+     *
+     * @param records the indicator records with the deltas as value (must not be empty)
+     * @param updateTime the update time to set for all given indicator records
+     * @return the number of updated rows */
+    @Update({
+            "<script>",
+            "UPDATE client_indicator SET update_time = #{updateTime}, value = value + CASE id ",
+            "<foreach collection='records' item='record'>WHEN #{record.id} THEN #{record.indicatorValue} </foreach>",
+            "END WHERE id IN ",
+            "<foreach collection='records' item='record' open='(' separator=',' close=')'>#{record.id}</foreach>",
+            "</script>"
+    })
+    int addIndicatorValues(
+            @Param("records") Collection<ClientIndicatorValueRecord> records,
+            @Param("updateTime") long updateTime);
 
     default int updateIndicatorValue(final Long pk, final Long v) {
-        return UpdateDSL.updateWithMapper(this::update, clientIndicatorRecord)
-                .set(value).equalTo(v)
-                .where(id, isEqualTo(pk))
-                .build()
-                .execute();
+        return updateIndicatorValueAt(pk, v, Utils.getMillisecondsNow());
     }
 
     final class ClientIndicatorValueRecord {
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.datalayer.batis;
+
+import java.util.Collection;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ClientInstructionRecord;
+
+@Mapper
+public interface ClientInstructionExtensionMapper {
+
+    /** Inserts all given client instruction records with one multi-row INSERT statement.
+     * The generated identifiers are set to the given records.
+     *
+     * @param records the client instruction records to insert (must not be empty)
+     * @return the number of inserted rows */
+    @Insert({
+            "<script>",
+            "INSERT INTO client_instruction (exam_id, connection_token, type, attributes, needs_confirmation, timestamp) VALUES ",
+            "<foreach collection='records' item='record' separator=','>",
+            "(#{record.examId,jdbcType=BIGINT}, #{record.connectionToken,jdbcType=VARCHAR}, ",
+            "#{record.type,jdbcType=VARCHAR}, #{record.attributes,jdbcType=VARCHAR}, ",
+            "#{record.needsConfirmation,jdbcType=INTEGER}, #{record.timestamp,jdbcType=BIGINT})",
+            "</foreach>",
+            "</script>"
+    })
+    @Options(useGeneratedKeys = true, keyProperty = "records.id", keyColumn = "id")
+    int insertMultiple(@Param("records") Collection<ClientInstructionRecord> records);
+
+    /** Updates the attributes of all given client instruction records with one batched UPDATE statement.
+     *
+     * @param records the client instruction records with id and new attributes (must not be empty)
+     * @return the number of updated rows */
+    @Update({
+            "<script>",
+            "UPDATE client_instruction SET attributes = CASE id ",
+            "<foreach collection='records' item='record'>WHEN #{record.id} THEN #{record.attributes,jdbcType=VARCHAR} </foreach>",
+            "END WHERE id IN ",
+            "<foreach collection='records' item='record' open='(' separator=',' close=')'>#{record.id}</foreach>",
+            "</script>"
+    })
+    int updateAttributes(@Param("records") Collection<ClientInstructionRecord> records);
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.datalayer.batis;
+
+import java.util.Collection;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ConfigurationValueRecord;
+
+@Mapper
+public interface ConfigurationValueExtensionMapper {
+
+    /** Copies all values of a configuration to another configuration with one INSERT ... SELECT statement
+     * on the database server.
+     * </p>
+     * NOTE: This is used with the batch SQL session where the statement is executed on flush and no
+     * row count is available.
+     *
+     * @param institutionId the institution identifier of both configurations
+     * @param fromConfigurationId the identifier of the configuration to copy the values from
+     * @param toConfigurationId the identifier of the configuration to copy the values to */
+    @Insert({
+            "INSERT INTO configuration_value (institution_id, configuration_id, configuration_attribute_id, list_index, value) ",
+            "SELECT #{institutionId,jdbcType=BIGINT}, #{toConfigurationId,jdbcType=BIGINT}, configuration_attribute_id, list_index, value ",
+            "FROM configuration_value ",
+            "WHERE institution_id = #{institutionId,jdbcType=BIGINT} AND configuration_id = #{fromConfigurationId,jdbcType=BIGINT}"
+    })
+    void copyValues(
+            @Param("institutionId") Long institutionId,
+            @Param("fromConfigurationId") Long fromConfigurationId,
+            @Param("toConfigurationId") Long toConfigurationId);
+
+    /** Inserts all given configuration value records with one multi-row INSERT statement.
+     * </p>
+     * NOTE: This is used with the batch SQL session where the statement is executed on flush and no
+     * row count is available.
+     *
+     * @param records the configuration value records to insert (must not be empty) */
+    @Insert({
+            "<script>",
+            "INSERT INTO configuration_value (institution_id, configuration_id, configuration_attribute_id, list_index, value) VALUES ",
+            "<foreach collection='records' item='record' separator=','>",
+            "(#{record.institutionId,jdbcType=BIGINT}, #{record.configurationId,jdbcType=BIGINT}, ",
+            "#{record.configurationAttributeId,jdbcType=BIGINT}, #{record.listIndex,jdbcType=INTEGER}, ",
+            "#{record.value,jdbcType=VARCHAR})",
+            "</foreach>",
+            "</script>"
+    })
+    void insertMultiple(@Param("records") Collection<ConfigurationValueRecord> records);
+
+}
@@ -9,6 +9,7 @@
 package ch.ethz.seb.sebserver.webservice.servicelayer.dao;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -57,6 +58,14 @@ public interface ClientConnectionDAO extends
         }
     }
 
+    /** Creates all given new client connections in state CONNECTION_REQUESTED within batched statements.
+     * This is the bulk variant of createNew and needs a unique connection token for each client connection.
+     *
+     * @param data the client connections to create, each with its pre-generated connection token
+     * @return Result refer to the created client connections in the order of the given data or to an error when
+     *         happened */
+    Result<List<ClientConnection>> createAll(Collection<ClientConnection> data);
+
     /** Get a list of all connection tokens of all connections of an exam
      * that are in state <code>ConnectionStatus.ACTIVE</code>
      *
@@ -34,6 +34,24 @@ public interface ClientInstructionDAO {
             String connectionToken,
             boolean needsConfirmation);
 
+    /** Inserts a new client instruction with the given attributes for each of the given connection tokens
+     * with batched statements instead of one insert per connection token.
+     * Note, if a client instruction needs confirmation an "instruction-confirm" attribute
+     * is added to the given attributes of each instruction with a unique confirmation number
+     *
+     * @param examId The exam identifier
+     * @param type the type of instruction
+     * @param attributes attributes in a JSON array
+     * @param connectionTokens the connection tokens of the SEB Client connections
+     * @param needsConfirmation indicates whether the instructions needs confirmation or not
+     * @return Result refer to all inserted ClientInstructionRecord or to an error when happened*/
+    Result<Collection<ClientInstructionRecord>> insert(
+            Long examId,
+            InstructionType type,
+            String attributes,
+            Collection<String> connectionTokens,
+            boolean needsConfirmation);
+
     /** Gets all instructions that are younger then one minute
      *
      * @return Result refer to all instructions that are younger then one minute or to an error when happened */
@@ -59,4 +77,10 @@ public interface ClientInstructionDAO {
      * @return Void Result refer to an error if happened */
     Result<Void> delete(Long id);
 
+    /** Deletes all specified instructions from the data base within one statement
+     *
+     * @param ids the identifiers (PK) of the ClientInstructions to delete
+     * @return Result refer to the number of deleted instructions or to an error if happened */
+    Result<Integer> delete(Collection<Long> ids);
+
 }
@@ -9,12 +9,35 @@
 package ch.ethz.seb.sebserver.webservice.servicelayer.dao;
 
 import java.util.Collection;
+import java.util.Set;
 
+import org.springframework.cache.annotation.CacheEvict;
+
+import ch.ethz.seb.sebserver.gbl.model.EntityKey;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationAttribute;
 import ch.ethz.seb.sebserver.gbl.util.Result;
 
 public interface ConfigurationAttributeDAO extends EntityDAO<ConfigurationAttribute, ConfigurationAttribute> {
 
+    /** Attribute changes apply to all configurations and evict all cached Config-Keys */
+    @Override
+    @CacheEvict(
+            cacheNames = ConfigurationValueDAO.CACHE_NAME_CONFIG_KEY,
+            allEntries = true)
+    Result<ConfigurationAttribute> createNew(ConfigurationAttribute data);
+
+    @Override
+    @CacheEvict(
+            cacheNames = ConfigurationValueDAO.CACHE_NAME_CONFIG_KEY,
+            allEntries = true)
+    Result<ConfigurationAttribute> save(ConfigurationAttribute data);
+
+    @Override
+    @CacheEvict(
+            cacheNames = ConfigurationValueDAO.CACHE_NAME_CONFIG_KEY,
+            allEntries = true)
+    Result<Collection<EntityKey>> delete(Set<EntityKey> all);
+
     /** Use this to get all ConfigurationAttribute that are root attributes and no child
      * attributes (has no parent reference).
      *
@@ -11,6 +11,8 @@ package ch.ethz.seb.sebserver.webservice.servicelayer.dao;
 import java.util.Collection;
 import java.util.Set;
 
+import org.springframework.cache.annotation.CacheEvict;
+
 import ch.ethz.seb.sebserver.gbl.model.EntityKey;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.Configuration;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationNode;
@@ -47,6 +49,9 @@ public interface ConfigurationDAO extends EntityDAO<Configuration, Configuration
      *
      * @param configurationNodeId ConfigurationNode identifier to apply the undo on
      * @return the current and reset follow-up version */
+    @CacheEvict(
+            cacheNames = ConfigurationValueDAO.CACHE_NAME_CONFIG_KEY,
+            allEntries = true)
     Result<Configuration> undo(Long configurationNodeId);
 
     /** Restores the attribute values to the default values that have been set for the specified configuration
@@ -57,6 +62,9 @@ public interface ConfigurationDAO extends EntityDAO<Configuration, Configuration
      *
      * @param configurationNodeId the ConfigurationNode identifier
      * @return the Configuration instance for which the attribute values have been reset */
+    @CacheEvict(
+            cacheNames = ConfigurationValueDAO.CACHE_NAME_CONFIG_KEY,
+            allEntries = true)
     Result<Configuration> restoreToDefaultValues(final Long configurationNodeId);
 
     /** Restores the attribute values to the default values that have been set for the specified configuration
@@ -67,6 +75,9 @@ public interface ConfigurationDAO extends EntityDAO<Configuration, Configuration
      *
      * @param configuration the Configuration that defines the ConfigurationNode identifier
      * @return the Configuration instance for which the attribute values have been reset */
+    @CacheEvict(
+            cacheNames = ConfigurationValueDAO.CACHE_NAME_CONFIG_KEY,
+            allEntries = true)
     default Result<Configuration> restoreToDefaultValues(final Configuration configuration) {
         if (configuration == null) {
             return Result.ofError(new NullPointerException("configuration"));
@@ -80,6 +91,9 @@ public interface ConfigurationDAO extends EntityDAO<Configuration, Configuration
      * @param configurationNodeId the ConfigurationNode identifier
      * @param configId the identifier of historical Configuration that defines the restore point and values
      * @return the follow-up Configuration with restored values */
+    @CacheEvict(
+            cacheNames = ConfigurationValueDAO.CACHE_NAME_CONFIG_KEY,
+            allEntries = true)
     Result<Configuration> restoreToVersion(Long configurationNodeId, Long configId);
 
     /** Use this to get the follow-up configuration for a specified configuration node.
@@ -8,6 +8,8 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.dao;
 
+import java.util.Collection;
+
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigCreationInfo;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationNode;
 import ch.ethz.seb.sebserver.gbl.util.Result;
@@ -28,4 +30,12 @@ public interface ConfigurationNodeDAO extends
             String newOwner,
             ConfigCreationInfo copyInfo);
 
+    /** Use this to create many new configurations at once. This creates all given configuration nodes
+     * with its initial configuration and follow-up like createNew but prepares the initial attribute
+     * values only once for all configuration nodes of the same institution and template.
+     *
+     * @param data the configuration nodes to create
+     * @return Result refer to the created configuration root nodes or to an error if happened */
+    Result<Collection<ConfigurationNode>> createNew(Collection<ConfigurationNode> data);
+
 }
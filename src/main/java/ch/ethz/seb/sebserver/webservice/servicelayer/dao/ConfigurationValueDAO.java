@@ -12,6 +12,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
+import org.springframework.cache.annotation.CacheEvict;
+
 import ch.ethz.seb.sebserver.gbl.model.EntityKey;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationTableValues;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationValue;
@@ -20,6 +22,30 @@ import ch.ethz.seb.sebserver.gbl.util.Result;
 
 public interface ConfigurationValueDAO extends EntityDAO<ConfigurationValue, ConfigurationValue> {
 
+    /** Cache of the Config-Key per configuration identifier.
+     * Writes to the values of a configuration evict the Config-Key of this configuration */
+    String CACHE_NAME_CONFIG_KEY = "CONFIG_KEY_CACHE";
+
+    @Override
+    @CacheEvict(
+            cacheNames = CACHE_NAME_CONFIG_KEY,
+            key = "#data.configurationId",
+            condition = "#data.configurationId!=null")
+    Result<ConfigurationValue> createNew(ConfigurationValue data);
+
+    @Override
+    @CacheEvict(
+            cacheNames = CACHE_NAME_CONFIG_KEY,
+            key = "#data.configurationId",
+            condition = "#data.configurationId!=null")
+    Result<ConfigurationValue> save(ConfigurationValue data);
+
+    @Override
+    @CacheEvict(
+            cacheNames = CACHE_NAME_CONFIG_KEY,
+            allEntries = true)
+    Result<Collection<EntityKey>> delete(Set<EntityKey> all);
+
     /** Use this to get all ConfigurationValue for a specific configuration and for a all
      * root attributes that are not child attributes.
      *
@@ -66,6 +92,10 @@ public interface ConfigurationValueDAO extends EntityDAO<ConfigurationValue, Con
      *
      * @param value the ConfigurationTableValues instance containing all actual table attribute and value information
      * @return the saved table values of the attribute and configuration */
+    @CacheEvict(
+            cacheNames = CACHE_NAME_CONFIG_KEY,
+            key = "#value.configurationId",
+            condition = "#value.configurationId!=null")
     Result<ConfigurationTableValues> saveTableValues(ConfigurationTableValues value);
 
     /** Use this to (re)set the default value(s) for a configuration attributes of a given configuration entry.
@@ -75,6 +105,10 @@ public interface ConfigurationValueDAO extends EntityDAO<ConfigurationValue, Con
      * @param configurationId the configuration identifier
      * @param attributeId the configuration attribute identifier
      * @return Result refer to a set of all keys of default values or to an error if happened */
+    @CacheEvict(
+            cacheNames = CACHE_NAME_CONFIG_KEY,
+            key = "#configurationId",
+            condition = "#configurationId!=null")
     Result<Set<EntityKey>> setDefaultValues(
             Long institutionId,
             Long configurationId,
@@ -92,16 +126,28 @@ public interface ConfigurationValueDAO extends EntityDAO<ConfigurationValue, Con
     /** This applies the ignore SEB Service policy as described in Issue SEBWIN-464 on the given configuration
      *
      * @param configurationId The configuration identifier*/
+    @CacheEvict(
+            cacheNames = CACHE_NAME_CONFIG_KEY,
+            key = "#configurationId",
+            condition = "#configurationId!=null")
     void applyIgnoreSEBService(Long institutionId, Long configurationId);
 
     /** Saves the given hashed quit password as value for the given configuration
      *
-     * @param configurationId The configuration identifier
+     * @param configId The configuration identifier
      * @param pwd The hashed quit password
      * @return Result refer to void or to an error when happened*/
-    Result<Void> saveQuitPassword(Long configurationId, String pwd);
-
-    Result<ConfigurationValue> saveForce(ConfigurationValue configurationValue);
+    @CacheEvict(
+            cacheNames = CACHE_NAME_CONFIG_KEY,
+            key = "#configId",
+            condition = "#configId!=null")
+    Result<Void> saveQuitPassword(Long configId, String pwd);
+
+    @CacheEvict(
+            cacheNames = CACHE_NAME_CONFIG_KEY,
+            key = "#data.configurationId",
+            condition = "#data.configurationId!=null")
+    Result<ConfigurationValue> saveForce(ConfigurationValue data);
 
     
 }
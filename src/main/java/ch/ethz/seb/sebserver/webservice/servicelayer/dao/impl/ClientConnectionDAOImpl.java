@@ -41,6 +41,7 @@ import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus
 import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
 import ch.ethz.seb.sebserver.gbl.util.Result;
 import ch.ethz.seb.sebserver.gbl.util.Utils;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientConnectionExtensionMapper;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientConnectionTokenMapper;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientConnectionRecordDynamicSqlSupport;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientConnectionRecordMapper;
@@ -75,6 +76,7 @@ public class ClientConnectionDAOImpl implements ClientConnectionDAO {
     private final ClientIndicatorRecordMapper clientIndicatorRecordMapper;
     private final ClientNotificationRecordMapper clientNotificationRecordMapper;
     private final ClientConnectionTokenMapper clientConnectionMinMapper;
+    private final ClientConnectionExtensionMapper clientConnectionExtensionMapper;
     private final CacheManager cacheManager;
 
     protected ClientConnectionDAOImpl(
@@ -84,6 +86,7 @@ public class ClientConnectionDAOImpl implements ClientConnectionDAO {
             final ClientIndicatorRecordMapper clientIndicatorRecordMapper,
             final ClientNotificationRecordMapper clientNotificationRecordMapper,
             final ClientConnectionTokenMapper clientConnectionMinMapper,
+            final ClientConnectionExtensionMapper clientConnectionExtensionMapper,
             final CacheManager cacheManager) {
 
         this.clientConnectionRecordMapper = clientConnectionRecordMapper;
@@ -92,6 +95,7 @@ public class ClientConnectionDAOImpl implements ClientConnectionDAO {
         this.clientIndicatorRecordMapper = clientIndicatorRecordMapper;
         this.clientNotificationRecordMapper = clientNotificationRecordMapper;
         this.clientConnectionMinMapper = clientConnectionMinMapper;
+        this.clientConnectionExtensionMapper = clientConnectionExtensionMapper;
         this.cacheManager = cacheManager;
     }
 
@@ -376,34 +380,7 @@ public class ClientConnectionDAOImpl implements ClientConnectionDAO {
     public Result<ClientConnection> createNew(final ClientConnection data) {
         return Result.tryCatch(() -> {
 
-            final long millisecondsNow = Utils.getMillisecondsNow();
-            // NOTE: we use nanoseconds here to get a better precision to better avoid
-            //       same value of real concurrent calls on distributed systems
-            final long nanosecondsNow = System.nanoTime();
-            final ClientConnectionRecord newRecord = new ClientConnectionRecord(
-                    null,
-                    data.institutionId,
-                    data.examId,
-                    ConnectionStatus.CONNECTION_REQUESTED.name(),
-                    data.connectionToken,
-                    data.userSessionId,
-                    data.clientAddress,
-                    data.sebClientUserId,
-                    BooleanUtils.toInteger(data.vdi, 1, 0, 0),
-                    data.vdiPairToken,
-                    millisecondsNow,
-                    nanosecondsNow,
-                    data.screenProctoringGroupId,
-                    (byte) 0,
-                    data.remoteProctoringRoomId,
-                    0,
-                    Utils.truncateText(data.sebMachineName, 255),
-                    Utils.truncateText(data.sebOSName, 255),
-                    Utils.truncateText(data.sebVersion, 255),
-                    Utils.toByte(data.securityCheckGranted),
-                    data.ask,
-                    Utils.toByte(data.clientVersionGranted));
-
+            final ClientConnectionRecord newRecord = toNewRecord(data, Utils.getMillisecondsNow());
             this.clientConnectionRecordMapper.insert(newRecord);
             return newRecord;
         })
@@ -411,6 +388,65 @@ public class ClientConnectionDAOImpl implements ClientConnectionDAO {
                 .onError(TransactionHandler::rollback);
     }
 
+    @Override
+    @Transactional
+    public Result<List<ClientConnection>> createAll(final Collection<ClientConnection> data) {
+        return Result.<List<ClientConnection>> tryCatch(() -> {
+
+            if (data == null || data.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            final long millisecondsNow = Utils.getMillisecondsNow();
+            final List<ClientConnectionRecord> newRecords = data
+                    .stream()
+                    .map(cc -> toNewRecord(cc, millisecondsNow))
+                    .collect(Collectors.toList());
+
+            this.clientConnectionExtensionMapper.insertMultiple(newRecords);
+
+            final List<ClientConnection> result = new ArrayList<>(newRecords.size());
+            for (final ClientConnectionRecord record : newRecords) {
+                if (record.getId() == null) {
+                    throw new IllegalStateException(
+                            "Failed to create client connection for token: " + record.getConnectionToken());
+                }
+                result.add(toDomainModel(record).getOrThrow());
+            }
+            return result;
+        })
+                .onError(TransactionHandler::rollback);
+    }
+
+    private static ClientConnectionRecord toNewRecord(final ClientConnection data, final long millisecondsNow) {
+        // NOTE: we use nanoseconds here to get a better precision to better avoid
+        //       same value of real concurrent calls on distributed systems
+        final long nanosecondsNow = System.nanoTime();
+        return new ClientConnectionRecord(
+                null,
+                data.institutionId,
+                data.examId,
+                ConnectionStatus.CONNECTION_REQUESTED.name(),
+                data.connectionToken,
+                data.userSessionId,
+                data.clientAddress,
+                data.sebClientUserId,
+                BooleanUtils.toInteger(data.vdi, 1, 0, 0),
+                data.vdiPairToken,
+                millisecondsNow,
+                nanosecondsNow,
+                data.screenProctoringGroupId,
+                (byte) 0,
+                data.remoteProctoringRoomId,
+                0,
+                Utils.truncateText(data.sebMachineName, 255),
+                Utils.truncateText(data.sebOSName, 255),
+                Utils.truncateText(data.sebVersion, 255),
+                Utils.toByte(data.securityCheckGranted),
+                data.ask,
+                Utils.toByte(data.clientVersionGranted));
+    }
+
     @Override
     @Transactional
     public Result<ClientConnection> save(final ClientConnection data) {
@@ -8,6 +8,8 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.dao.impl;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -34,6 +36,7 @@ import ch.ethz.seb.sebserver.gbl.model.EntityKey;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientInstruction.InstructionType;
 import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
 import ch.ethz.seb.sebserver.gbl.util.Result;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientInstructionExtensionMapper;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientInstructionRecordDynamicSqlSupport;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientInstructionRecordMapper;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ClientInstructionRecord;
@@ -46,14 +49,19 @@ public class ClientInstructionDAOImpl implements ClientInstructionDAO {
 
     private static final Logger log = LoggerFactory.getLogger(ClientInstructionDAOImpl.class);
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final ClientInstructionRecordMapper clientInstructionRecordMapper;
+    private final ClientInstructionExtensionMapper clientInstructionExtensionMapper;
     private final JSONMapper jsonMapper;
 
     protected ClientInstructionDAOImpl(
             final ClientInstructionRecordMapper clientInstructionRecordMapper,
+            final ClientInstructionExtensionMapper clientInstructionExtensionMapper,
             final JSONMapper jsonMapper) {
 
         this.clientInstructionRecordMapper = clientInstructionRecordMapper;
+        this.clientInstructionExtensionMapper = clientInstructionExtensionMapper;
         this.jsonMapper = jsonMapper;
     }
 
@@ -132,6 +140,92 @@ public class ClientInstructionDAOImpl implements ClientInstructionDAO {
         });
     }
 
+    @Override
+    @Transactional
+    public Result<Integer> delete(final Collection<Long> ids) {
+        return Result.tryCatch(() -> {
+            if (ids == null || ids.isEmpty()) {
+                return 0;
+            }
+
+            final List<Long> idList = new ArrayList<>(ids);
+            int deleted = 0;
+            for (int i = 0; i < idList.size(); i += MAX_BATCH_SIZE) {
+                deleted += this.clientInstructionRecordMapper
+                        .deleteByExample()
+                        .where(ClientInstructionRecordDynamicSqlSupport.id,
+                                SqlBuilder.isIn(idList.subList(i, Math.min(i + MAX_BATCH_SIZE, idList.size()))))
+                        .build()
+                        .execute();
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Deleted {} client instructions", deleted);
+            }
+
+            return deleted;
+        });
+    }
+
+    @Override
+    @Transactional
+    public Result<Collection<ClientInstructionRecord>> insert(
+            final Long examId,
+            final InstructionType type,
+            final String attributes,
+            final Collection<String> connectionTokens,
+            final boolean needsConfirmation) {
+
+        return Result.tryCatch(() -> {
+            if (connectionTokens == null || connectionTokens.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            final long timestamp = DateTime.now(DateTimeZone.UTC).getMillis();
+            final List<String> tokens = new ArrayList<>(connectionTokens);
+            final List<ClientInstructionRecord> result = new ArrayList<>(tokens.size());
+
+            for (int i = 0; i < tokens.size(); i += MAX_BATCH_SIZE) {
+                final List<String> batch = tokens.subList(i, Math.min(i + MAX_BATCH_SIZE, tokens.size()));
+
+                // the generated identifiers are set to the records and are needed for the cache
+                // and the confirmation attribute
+                final List<ClientInstructionRecord> inserted = batch
+                        .stream()
+                        .map(token -> new ClientInstructionRecord(
+                                null,
+                                examId,
+                                token,
+                                type.name(),
+                                attributes,
+                                (needsConfirmation) ? 1 : 0,
+                                timestamp))
+                        .collect(Collectors.toList());
+                this.clientInstructionExtensionMapper.insertMultiple(inserted);
+
+                if (needsConfirmation && !inserted.isEmpty()) {
+                    final List<ClientInstructionRecord> confirmable = new ArrayList<>(inserted.size());
+                    for (final ClientInstructionRecord rec : inserted) {
+                        confirmable.add(new ClientInstructionRecord(
+                                rec.getId(),
+                                rec.getExamId(),
+                                rec.getConnectionToken(),
+                                rec.getType(),
+                                addConfirmAttribute(attributes, rec.getId()),
+                                rec.getNeedsConfirmation(),
+                                rec.getTimestamp()));
+                    }
+                    this.clientInstructionExtensionMapper.updateAttributes(confirmable);
+                    result.addAll(confirmable);
+                } else {
+                    result.addAll(inserted);
+                }
+            }
+
+            return result;
+        });
+    }
+
     @Override
     @Transactional
     public Result<ClientInstructionRecord> insert(
@@ -155,21 +249,13 @@ public class ClientInstructionDAOImpl implements ClientInstructionDAO {
 
             if (needsConfirmation) {
 
-                final Map<String, String> attrs = (StringUtils.isNotBlank(attributes))
-                        ? this.jsonMapper.readValue(
-                                attributes,
-                                new TypeReference<Map<String, String>>() {
-                                })
-                        : new HashMap<>();
-                attrs.put(API.EXAM_API_PING_INSTRUCTION_CONFIRM, String.valueOf(clientInstructionRecord.getId()));
-
                 this.clientInstructionRecordMapper.updateByPrimaryKeySelective(
                         new ClientInstructionRecord(
                                 clientInstructionRecord.getId(),
                                 null,
                                 null,
                                 null,
-                                this.jsonMapper.writeValueAsString(attrs),
+                                addConfirmAttribute(attributes, clientInstructionRecord.getId()),
                                 null,
                                 null));
 
@@ -181,4 +267,15 @@ public class ClientInstructionDAOImpl implements ClientInstructionDAO {
         });
     }
 
+    private String addConfirmAttribute(final String attributes, final Long instructionId) throws IOException {
+        final Map<String, String> attrs = (StringUtils.isNotBlank(attributes))
+                ? this.jsonMapper.readValue(
+                        attributes,
+                        new TypeReference<Map<String, String>>() {
+                        })
+                : new HashMap<>();
+        attrs.put(API.EXAM_API_PING_INSTRUCTION_CONFIRM, String.valueOf(instructionId));
+        return this.jsonMapper.writeValueAsString(attrs);
+    }
+
 }
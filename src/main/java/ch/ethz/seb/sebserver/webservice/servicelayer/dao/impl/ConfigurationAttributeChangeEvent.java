@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.dao.impl;
+
+import org.springframework.context.ApplicationEvent;
+
+/** Fired by the ConfigurationAttributeDAO when SEB Configuration attributes have been created, changed or deleted */
+public class ConfigurationAttributeChangeEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = -2613385470562209514L;
+
+    public ConfigurationAttributeChangeEvent(final Object source) {
+        super(source);
+    }
+
+}
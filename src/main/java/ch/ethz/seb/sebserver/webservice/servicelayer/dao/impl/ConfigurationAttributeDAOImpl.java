@@ -15,6 +15,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.mybatis.dynamic.sql.SqlBuilder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -46,15 +47,18 @@ public class ConfigurationAttributeDAOImpl implements ConfigurationAttributeDAO
     private final ConfigurationAttributeRecordMapper configurationAttributeRecordMapper;
     private final ConfigurationValueRecordMapper configurationValueRecordMapper;
     private final OrientationRecordMapper orientationRecordMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     protected ConfigurationAttributeDAOImpl(
             final ConfigurationAttributeRecordMapper configurationAttributeRecordMapper,
             final ConfigurationValueRecordMapper configurationValueRecordMapper,
-            final OrientationRecordMapper orientationRecordMapper) {
+            final OrientationRecordMapper orientationRecordMapper,
+            final ApplicationEventPublisher applicationEventPublisher) {
 
         this.configurationAttributeRecordMapper = configurationAttributeRecordMapper;
         this.configurationValueRecordMapper = configurationValueRecordMapper;
         this.orientationRecordMapper = orientationRecordMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     @Override
@@ -175,6 +179,7 @@ public class ConfigurationAttributeDAOImpl implements ConfigurationAttributeDAO
             return newRecord;
         })
                 .flatMap(ConfigurationAttributeDAOImpl::toDomainModel)
+                .onSuccess(this::notifyChange)
                 .onError(TransactionHandler::rollback);
     }
 
@@ -197,13 +202,14 @@ public class ConfigurationAttributeDAOImpl implements ConfigurationAttributeDAO
             return this.configurationAttributeRecordMapper.selectByPrimaryKey(data.id);
         })
                 .flatMap(ConfigurationAttributeDAOImpl::toDomainModel)
+                .onSuccess(this::notifyChange)
                 .onError(TransactionHandler::rollback);
     }
 
     @Override
     @Transactional
     public Result<Collection<EntityKey>> delete(final Set<EntityKey> all) {
-        return Result.tryCatch(() -> {
+        return Result.<Collection<EntityKey>> tryCatch(() -> {
 
             final List<Long> ids = extractListOfPKs(all);
             final List<EntityKey> result = new ArrayList<>();
@@ -254,7 +260,12 @@ public class ConfigurationAttributeDAOImpl implements ConfigurationAttributeDAO
                     .toList());
 
             return result;
-        });
+        })
+                .onSuccess(this::notifyChange);
+    }
+
+    private void notifyChange(final Object source) {
+        this.applicationEventPublisher.publishEvent(new ConfigurationAttributeChangeEvent(source));
     }
 
     Result<ConfigurationAttributeRecord> recordById(final Long id) {
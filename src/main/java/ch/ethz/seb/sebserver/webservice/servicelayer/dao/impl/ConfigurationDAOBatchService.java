@@ -11,7 +11,11 @@ package ch.ethz.seb.sebserver.webservice.servicelayer.dao.impl;
 import static org.mybatis.dynamic.sql.SqlBuilder.isEqualTo;
 import static org.mybatis.dynamic.sql.SqlBuilder.isNotEqualTo;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -27,10 +31,12 @@ import org.mybatis.spring.SqlSessionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import ch.ethz.seb.sebserver.gbl.Constants;
 import ch.ethz.seb.sebserver.gbl.api.APIMessage.FieldValidationException;
 import ch.ethz.seb.sebserver.gbl.api.EntityType;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.AttributeType;
@@ -45,6 +51,7 @@ import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
 import ch.ethz.seb.sebserver.gbl.util.Result;
 import ch.ethz.seb.sebserver.gbl.util.Utils;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.BatisConfig;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ConfigurationValueExtensionMapper;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ConfigurationAttributeRecordDynamicSqlSupport;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ConfigurationAttributeRecordMapper;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ConfigurationNodeRecordDynamicSqlSupport;
@@ -63,7 +70,11 @@ import ch.ethz.seb.sebserver.webservice.servicelayer.dao.TransactionHandler;
 import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.ExamConfigInitService;
 
 /** This service is internally used to implement MyBatis batch functionality for the most
- * intensive write operation on Configuration domain. */
+ * intensive write operation on Configuration domain.
+ * <p>
+ * Configuration values are copied from one configuration to another on the database server with
+ * INSERT ... SELECT and new configuration values are written with multi-row INSERT statements of
+ * a configurable number of rows. */
 @Lazy
 @Component
 @WebServiceProfile
@@ -78,14 +89,17 @@ public class ConfigurationDAOBatchService {
     private final ConfigurationValueRecordMapper batchConfigurationValueRecordMapper;
     private final ConfigurationAttributeRecordMapper batchConfigurationAttributeRecordMapper;
     private final ConfigurationRecordMapper batchConfigurationRecordMapper;
+    private final ConfigurationValueExtensionMapper batchConfigurationValueExtensionMapper;
     private final ExamConfigInitService examConfigInitService;
     private final SqlSessionTemplate batchSqlSessionTemplate;
     private final DAOUserServcie daoUserServcie;
+    private final int insertChunkSize;
 
     protected ConfigurationDAOBatchService(
             final DAOUserServcie daoUserServcie,
             @Qualifier(BatisConfig.SQL_BATCH_SESSION_TEMPLATE) final SqlSessionTemplate batchSqlSessionTemplate,
-            final ExamConfigInitService examConfigInitService) {
+            final ExamConfigInitService examConfigInitService,
+            @Value("${sebserver.webservice.configtemplate.values.insert.chunkSize:500}") final int insertChunkSize) {
 
         final org.apache.ibatis.session.Configuration batisConfig =
                 batchSqlSessionTemplate.getConfiguration();
@@ -110,6 +124,10 @@ public class ConfigurationDAOBatchService {
             batisConfig.addMapper(ConfigurationRecordMapper.class);
         }
 
+        if (!batisConfig.hasMapper(ConfigurationValueExtensionMapper.class)) {
+            batisConfig.addMapper(ConfigurationValueExtensionMapper.class);
+        }
+
         this.batchConfigurationNodeRecordMapper =
                 batchSqlSessionTemplate.getMapper(ConfigurationNodeRecordMapper.class);
         this.batchConfigurationValueRecordMapper =
@@ -118,48 +136,80 @@ public class ConfigurationDAOBatchService {
                 batchSqlSessionTemplate.getMapper(ConfigurationAttributeRecordMapper.class);
         this.batchConfigurationRecordMapper =
                 batchSqlSessionTemplate.getMapper(ConfigurationRecordMapper.class);
+        this.batchConfigurationValueExtensionMapper =
+                batchSqlSessionTemplate.getMapper(ConfigurationValueExtensionMapper.class);
         this.batchSqlSessionTemplate = batchSqlSessionTemplate;
         this.daoUserServcie = daoUserServcie;
+        this.insertChunkSize = Math.max(1, insertChunkSize);
     }
 
     Result<ConfigurationNode> createNewConfiguration(final ConfigurationNode data) {
-        return Result.tryCatch(() -> {
+        return Result.tryCatch(() -> createNodeRecord(data))
+                .flatMap(ConfigurationNodeDAOImpl::toDomainModel)
+                .flatMap(this::createInitialConfiguration);
+    }
 
-            final Long count = this.batchConfigurationNodeRecordMapper.countByExample()
-                    .where(
-                            ConfigurationNodeRecordDynamicSqlSupport.name,
-                            isEqualTo(data.name))
-                    .and(
-                            ConfigurationNodeRecordDynamicSqlSupport.type,
-                            SqlBuilder.isEqualTo(data.type.name()))
-                    .and(
-                            ConfigurationNodeRecordDynamicSqlSupport.institutionId,
-                            SqlBuilder.isEqualTo(data.institutionId))
-                    .build()
-                    .execute();
+    /*
+     * Creates all given ConfigurationNode with its initial Configuration and follow-up.
+     * The initial attribute values are prepared only once for all ConfigurationNode of the same
+     * institution and template.
+     */
+    Result<Collection<ConfigurationNode>> createNewConfigurations(final Collection<ConfigurationNode> data) {
+        return Result.tryCatch(() -> {
 
-            if (count != null && count > 0) {
-                throw new FieldValidationException("name", "configurationNode:name:exists");
+            final Map<String, List<ConfigurationValueRecord>> initialValues = new HashMap<>();
+            final List<ConfigurationNode> result = new ArrayList<>(data.size());
+            for (final ConfigurationNode node : data) {
+                final ConfigurationNode newNode = ConfigurationNodeDAOImpl
+                        .toDomainModel(createNodeRecord(node))
+                        .getOrThrow();
+
+                final String initialValuesKey = newNode.institutionId + Constants.LIST_SEPARATOR + newNode.templateId;
+                List<ConfigurationValueRecord> values = initialValues.get(initialValuesKey);
+                if (values == null) {
+                    values = getInitialValues(newNode).getOrThrow();
+                    initialValues.put(initialValuesKey, values);
+                }
+
+                result.add(createInitialConfiguration(newNode, values).getOrThrow());
             }
+            return result;
+        });
+    }
 
-            final ConfigurationNodeRecord newRecord = new ConfigurationNodeRecord(
-                    null,
-                    data.institutionId,
-                    data.templateId,
-                    data.owner,
-                    data.name,
-                    data.description,
-                    data.type.name(),
-                    (data.status != null) ? data.status.name() : ConfigurationStatus.CONSTRUCTION.name(),
-                    Utils.getMillisecondsNow(),
-                    this.daoUserServcie.getCurrentUserUUID());
-
-            this.batchConfigurationNodeRecordMapper.insert(newRecord);
-            this.batchSqlSessionTemplate.flushStatements();
-            return newRecord;
-        })
-                .flatMap(ConfigurationNodeDAOImpl::toDomainModel)
-                .flatMap(this::createInitialConfiguration);
+    private ConfigurationNodeRecord createNodeRecord(final ConfigurationNode data) {
+        final Long count = this.batchConfigurationNodeRecordMapper.countByExample()
+                .where(
+                        ConfigurationNodeRecordDynamicSqlSupport.name,
+                        isEqualTo(data.name))
+                .and(
+                        ConfigurationNodeRecordDynamicSqlSupport.type,
+                        SqlBuilder.isEqualTo(data.type.name()))
+                .and(
+                        ConfigurationNodeRecordDynamicSqlSupport.institutionId,
+                        SqlBuilder.isEqualTo(data.institutionId))
+                .build()
+                .execute();
+
+        if (count != null && count > 0) {
+            throw new FieldValidationException("name", "configurationNode:name:exists");
+        }
+
+        final ConfigurationNodeRecord newRecord = new ConfigurationNodeRecord(
+                null,
+                data.institutionId,
+                data.templateId,
+                data.owner,
+                data.name,
+                data.description,
+                data.type.name(),
+                (data.status != null) ? data.status.name() : ConfigurationStatus.CONSTRUCTION.name(),
+                Utils.getMillisecondsNow(),
+                this.daoUserServcie.getCurrentUserUUID());
+
+        this.batchConfigurationNodeRecordMapper.insert(newRecord);
+        this.batchSqlSessionTemplate.flushStatements();
+        return newRecord;
     }
 
     Result<ConfigurationTableValues> saveNewTableValues(final ConfigurationTableValues value) {
@@ -194,15 +244,6 @@ public class ConfigurationDAOBatchService {
             // get follow-up configuration...
             final ConfigurationRecord followupConfig = getFollowupConfigurationRecord(configurationNodeId);
 
-            // with actual attribute values
-            final List<ConfigurationValueRecord> allValues = this.batchConfigurationValueRecordMapper
-                    .selectByExample()
-                    .where(
-                            ConfigurationValueRecordDynamicSqlSupport.configurationId,
-                            isEqualTo(followupConfig.getId()))
-                    .build()
-                    .execute();
-
             // get current versions count
 
             // close follow-up configuration to save in history
@@ -230,15 +271,10 @@ public class ConfigurationDAOBatchService {
             this.batchSqlSessionTemplate.flushStatements();
 
             // with the current attribute values
-            allValues.stream()
-                    .map(oldValRec -> new ConfigurationValueRecord(
-                            null,
-                            oldValRec.getInstitutionId(),
-                            newFollowup.getId(),
-                            oldValRec.getConfigurationAttributeId(),
-                            oldValRec.getListIndex(),
-                            oldValRec.getValue()))
-                    .forEach(this.batchConfigurationValueRecordMapper::insert);
+            copyValues(
+                    followupConfig.getInstitutionId(),
+                    followupConfig.getId(),
+                    newFollowup.getId());
 
             return this.batchConfigurationRecordMapper
                     .selectByPrimaryKey(newFollowup.getId());
@@ -314,15 +350,6 @@ public class ConfigurationDAOBatchService {
                     .stream()
                     .collect(Utils.toSingleton());
 
-            // with historic attribute values
-            final List<ConfigurationValueRecord> historicValues = this.batchConfigurationValueRecordMapper
-                    .selectByExample()
-                    .where(
-                            ConfigurationValueRecordDynamicSqlSupport.configurationId,
-                            isEqualTo(config.getId()))
-                    .build()
-                    .execute();
-
             // get follow-up configuration id
             final ConfigurationRecord followup = getFollowupConfigurationRecord(configurationNodeId);
 
@@ -336,15 +363,10 @@ public class ConfigurationDAOBatchService {
                     .execute();
 
             // restore all current values of the follow-up with historic values
-            historicValues.stream()
-                    .map(historicValRec -> new ConfigurationValueRecord(
-                            null,
-                            followup.getInstitutionId(),
-                            followup.getId(),
-                            historicValRec.getConfigurationAttributeId(),
-                            historicValRec.getListIndex(),
-                            historicValRec.getValue()))
-                    .forEach(this.batchConfigurationValueRecordMapper::insert);
+            copyValues(
+                    followup.getInstitutionId(),
+                    config.getId(),
+                    followup.getId());
 
             return followup;
         })
@@ -501,25 +523,32 @@ public class ConfigurationDAOBatchService {
             final Long fromConfigId,
             final Long toConfigId) {
 
-        this.batchConfigurationValueRecordMapper
-                .selectByExample()
-                .where(
-                        ConfigurationValueRecordDynamicSqlSupport.institutionId,
-                        isEqualTo(institutionId))
-                .and(
-                        ConfigurationValueRecordDynamicSqlSupport.configurationId,
-                        isEqualTo(fromConfigId))
-                .build()
-                .execute()
+        this.batchConfigurationValueExtensionMapper.copyValues(
+                institutionId,
+                fromConfigId,
+                toConfigId);
+    }
+
+    /*
+     * Inserts the given attribute values for the given Configuration with multi-row INSERT statements
+     * of at most insertChunkSize rows. The configuration identifier of the given records is ignored.
+     */
+    private void insertValues(final Long configurationId, final List<ConfigurationValueRecord> values) {
+        final List<ConfigurationValueRecord> records = values
                 .stream()
-                .map(fromRec -> new ConfigurationValueRecord(
+                .map(valRec -> new ConfigurationValueRecord(
                         null,
-                        fromRec.getInstitutionId(),
-                        toConfigId,
-                        fromRec.getConfigurationAttributeId(),
-                        fromRec.getListIndex(),
-                        fromRec.getValue()))
-                .forEach(this.batchConfigurationValueRecordMapper::insert);
+                        valRec.getInstitutionId(),
+                        configurationId,
+                        valRec.getConfigurationAttributeId(),
+                        valRec.getListIndex(),
+                        valRec.getValue()))
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < records.size(); i += this.insertChunkSize) {
+            this.batchConfigurationValueExtensionMapper.insertMultiple(
+                    records.subList(i, Math.min(records.size(), i + this.insertChunkSize)));
+        }
     }
 
     private ConfigurationRecord getFollowupConfigurationRecord(final Long configurationNodeId) {
@@ -571,18 +600,18 @@ public class ConfigurationDAOBatchService {
         }
 
         // then add the new values
+        final List<ConfigurationValueRecord> valueRecords = new ArrayList<>(value.values.size());
         for (final TableValue tableValue : value.values) {
             final ConfigurationAttributeRecord columnAttr = attributeMap.get(tableValue.attributeId);
-            final ConfigurationValueRecord valueRecord = new ConfigurationValueRecord(
+            valueRecords.add(new ConfigurationValueRecord(
                     null,
                     value.institutionId,
                     value.configurationId,
                     columnAttr.getId(),
-                    tableValue.listIndex,
-                    tableValue.value);
-
-            this.batchConfigurationValueRecordMapper.insertSelective(valueRecord);
+                    (tableValue.listIndex != null) ? tableValue.listIndex : 0,
+                    tableValue.value));
         }
+        insertValues(value.configurationId, valueRecords);
     }
 
     private void saveAsComposite(final ConfigurationTableValues value) {
@@ -661,6 +690,14 @@ public class ConfigurationDAOBatchService {
      * Then a follow-up Configuration is created with the same values to follow-up user input
      */
     private Result<ConfigurationNode> createInitialConfiguration(final ConfigurationNode config) {
+        return getInitialValues(config)
+                .flatMap(values -> createInitialConfiguration(config, values));
+    }
+
+    private Result<ConfigurationNode> createInitialConfiguration(
+            final ConfigurationNode config,
+            final List<ConfigurationValueRecord> initialValues) {
+
         return Result.tryCatch(() -> {
 
             final ConfigurationRecord initConfig = new ConfigurationRecord(
@@ -674,8 +711,7 @@ public class ConfigurationDAOBatchService {
             this.batchConfigurationRecordMapper.insert(initConfig);
             this.batchSqlSessionTemplate.flushStatements();
 
-            createAttributeValues(config, initConfig)
-                    .getOrThrow();
+            insertValues(initConfig.getId(), initialValues);
 
             final ConfigurationRecord followup = new ConfigurationRecord(
                     null,
@@ -698,53 +734,50 @@ public class ConfigurationDAOBatchService {
     }
 
     /*
-     * Creates all attribute values for a given ConfigurationNode with its newly created first ConfigurationRecord
+     * Gets all initial attribute values for a given newly created ConfigurationNode without configuration identifier.
      * If the ConfigurationNode has a templateId this will gather all attributes values from the latest
      * configuration of this ConfigurationNode template to override the default values.
      * Otherwise creates all attribute values from the default values.
      */
-    private Result<ConfigurationNode> createAttributeValues(
-            final ConfigurationNode configNode,
-            final ConfigurationRecord config) {
+    private Result<List<ConfigurationValueRecord>> getInitialValues(final ConfigurationNode configNode) {
 
         return Result.tryCatch(() -> {
 
-            // go through all configuration attributes and create and store the default value
-            this.batchConfigurationAttributeRecordMapper
+            final List<ConfigurationAttributeRecord> attributes = this.batchConfigurationAttributeRecordMapper
                     .selectByExample()
                     .build()
-                    .execute()
+                    .execute();
+
+            // go through all configuration attributes and create the default value
+            final List<ConfigurationValueRecord> values = attributes
                     .stream()
                     // filter child attributes of tables. No default value for tables. Use templates for that
                     .filter(ConfigurationDAOBatchService::filterChildAttribute)
-                    .forEach(attrRec -> this.batchConfigurationValueRecordMapper.insert(new ConfigurationValueRecord(
+                    .map(attrRec -> new ConfigurationValueRecord(
                             null,
                             configNode.institutionId,
-                            config.getId(),
+                            null,
                             attrRec.getId(),
                             0,
-                            attrRec.getDefaultValue())));
+                            attrRec.getDefaultValue()))
+                    .collect(Collectors.toList());
 
             // override with template values if available
             if (configNode.templateId == null || configNode.templateId.equals(ConfigurationNode.DEFAULT_TEMPLATE_ID)) {
-                initAdditionalDefaultValues(configNode, config);
+                values.addAll(getAdditionalDefaultValues(configNode, attributes));
+                return values;
             } else {
-                writeTemplateValues(configNode, config);
+                return applyTemplateValues(configNode, values);
             }
-
-            return configNode;
         });
     }
 
-    private void initAdditionalDefaultValues(
+    private List<ConfigurationValueRecord> getAdditionalDefaultValues(
             final ConfigurationNode configNode,
-            final ConfigurationRecord config) {
+            final List<ConfigurationAttributeRecord> attributes) {
 
-        // get all attributes and map the names to id's
-        final Map<String, ConfigurationAttribute> attributeMap = this.batchConfigurationAttributeRecordMapper
-                .selectByExample()
-                .build()
-                .execute()
+        // map the attribute names to id's
+        final Map<String, ConfigurationAttribute> attributeMap = attributes
                 .stream()
                 .map(ConfigurationAttributeDAOImpl::toDomainModel)
                 .map(Result::get)
@@ -753,64 +786,44 @@ public class ConfigurationDAOBatchService {
                         attr -> attr.name,
                         Function.identity()));
 
-        this.examConfigInitService.getAdditionalDefaultValues(
+        return this.examConfigInitService.getAdditionalDefaultValues(
                 configNode.institutionId,
-                config.getId(),
+                null,
                 attributeMap::get)
-                .forEach(value -> {
-                    final ConfigurationValueRecord valueRec = new ConfigurationValueRecord(
-                            null,
-                            value.institutionId,
-                            value.configurationId,
-                            value.attributeId,
-                            value.listIndex,
-                            value.value);
-
-                    this.batchConfigurationValueRecordMapper.insert(valueRec);
-                });
-
-        this.batchSqlSessionTemplate.flushStatements();
+                .stream()
+                .map(value -> new ConfigurationValueRecord(
+                        null,
+                        value.institutionId,
+                        null,
+                        value.attributeId,
+                        value.listIndex,
+                        value.value))
+                .collect(Collectors.toList());
     }
 
-    private void writeTemplateValues(
+    private List<ConfigurationValueRecord> applyTemplateValues(
             final ConfigurationNode configNode,
-            final ConfigurationRecord config) {
+            final List<ConfigurationValueRecord> defaultValues) {
 
-        final List<ConfigurationValueRecord> templateValues = getTemplateValues(configNode);
-        templateValues.forEach(templateValue -> {
-            final Long existingId = this.batchConfigurationValueRecordMapper
-                    .selectIdsByExample()
-                    .where(
-                            ConfigurationValueRecordDynamicSqlSupport.configurationId,
-                            isEqualTo(config.getId()))
-                    .and(
-                            ConfigurationValueRecordDynamicSqlSupport.configurationAttributeId,
-                            isEqualTo(templateValue.getConfigurationAttributeId()))
-                    .and(
-                            ConfigurationValueRecordDynamicSqlSupport.listIndex,
-                            isEqualTo(templateValue.getListIndex()))
-                    .build()
-                    .execute()
-                    .stream()
-                    .findFirst()
-                    .orElse(null);
+        // the values mapped by attribute id and list index
+        final Map<String, ConfigurationValueRecord> values = new LinkedHashMap<>();
+        defaultValues.forEach(valRec -> values.putIfAbsent(valueKey(valRec), valRec));
 
-            final ConfigurationValueRecord valueRec = new ConfigurationValueRecord(
-                    existingId,
-                    configNode.institutionId,
-                    config.getId(),
-                    templateValue.getConfigurationAttributeId(),
-                    templateValue.getListIndex(),
-                    templateValue.getValue());
+        getTemplateValues(configNode).forEach(templateValue -> values.put(
+                valueKey(templateValue),
+                new ConfigurationValueRecord(
+                        null,
+                        configNode.institutionId,
+                        null,
+                        templateValue.getConfigurationAttributeId(),
+                        templateValue.getListIndex(),
+                        templateValue.getValue())));
 
-            if (existingId != null) {
-                this.batchConfigurationValueRecordMapper.updateByPrimaryKey(valueRec);
-            } else {
-                this.batchConfigurationValueRecordMapper.insert(valueRec);
-            }
-        });
+        return new ArrayList<>(values.values());
+    }
 
-        this.batchSqlSessionTemplate.flushStatements();
+    private static String valueKey(final ConfigurationValueRecord valRec) {
+        return valRec.getConfigurationAttributeId() + Constants.LIST_SEPARATOR + valRec.getListIndex();
     }
 
     private static boolean filterChildAttribute(final ConfigurationAttributeRecord rec) {
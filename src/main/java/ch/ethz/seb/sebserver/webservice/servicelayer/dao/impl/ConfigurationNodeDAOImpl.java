@@ -224,6 +224,14 @@ public class ConfigurationNodeDAOImpl implements ConfigurationNodeDAO {
                 .onError(TransactionHandler::rollback);
     }
 
+    @Override
+    @Transactional
+    public Result<Collection<ConfigurationNode>> createNew(final Collection<ConfigurationNode> data) {
+        return this.configurationDAOBatchService
+                .createNewConfigurations(data)
+                .onError(TransactionHandler::rollback);
+    }
+
     @Override
     @Transactional
     public Result<ConfigurationNode> save(final ConfigurationNode data) {
@@ -18,6 +18,7 @@ import java.util.stream.Stream;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.AttributeType;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationAttribute;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationValue;
+import ch.ethz.seb.sebserver.gbl.util.Utils;
 
 /** Defines the interface of a XML converter to be used to convert
  * ConfigurationValue for defined ConfigurationAttribute */
@@ -67,6 +68,57 @@ public interface AttributeValueConverter {
             ConfigurationAttribute attribute,
             Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException;
 
+    /** Used to convert the a given ConfigurationAttribute to plain XML text with the pre-encoded key of the attribute.
+     * This is used by the export that encodes the keys of all attributes only once. The default ignores the key.
+     *
+     * @param out The output stream to write the plain XML text block to
+     * @param attribute The ConfigurationAttribute containing all attribute information
+     * @param key The UTF-8 encoded XML key of the attribute (see xmlKey)
+     * @param valueSupplier The ConfigurationValue supplier
+     * @throws IOException on error */
+    default void convertToXML(
+            final OutputStream out,
+            final ConfigurationAttribute attribute,
+            final byte[] key,
+            final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
+
+        convertToXML(out, attribute, valueSupplier);
+    }
+
+    /** Used to convert the a given ConfigurationAttribute to plain JSON text with the pre-encoded key of the
+     * attribute. This is used by the export that encodes the keys of all attributes only once. The default ignores
+     * the key.
+     *
+     * @param out The output stream to write the plain JSON text block to
+     * @param attribute The ConfigurationAttribute containing all attribute information
+     * @param key The UTF-8 encoded JSON key of the attribute (see jsonKey)
+     * @param valueSupplier The ConfigurationValue supplier
+     * @throws IOException on error */
+    default void convertToJSON(
+            final OutputStream out,
+            final ConfigurationAttribute attribute,
+            final byte[] key,
+            final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
+
+        convertToJSON(out, attribute, valueSupplier);
+    }
+
+    /** Get the UTF-8 encoded XML key of the given attribute: <key>name</key>
+     *
+     * @param attribute ConfigurationAttribute instance
+     * @return the UTF-8 encoded XML key */
+    static byte[] xmlKey(final ConfigurationAttribute attribute) {
+        return Utils.toByteArray("<key>" + extractName(attribute) + "</key>");
+    }
+
+    /** Get the UTF-8 encoded JSON key of the given attribute including the name separator: "name":
+     *
+     * @param attribute ConfigurationAttribute instance
+     * @return the UTF-8 encoded JSON key */
+    static byte[] jsonKey(final ConfigurationAttribute attribute) {
+        return Utils.toByteArray("\"" + extractName(attribute) + "\":");
+    }
+
     /** Get the real name of the SEB configuration attribute
      * by cutting of the prefixed used for nested attributes
      *
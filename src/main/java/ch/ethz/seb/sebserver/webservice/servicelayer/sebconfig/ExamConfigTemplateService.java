@@ -8,8 +8,10 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig;
 
+import java.util.Collection;
 import java.util.List;
 
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationNode;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.TemplateAttribute;
 import ch.ethz.seb.sebserver.gbl.util.Result;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.FilterMap;
@@ -75,4 +77,21 @@ public interface ExamConfigTemplateService {
             final Long attributeId,
             Long viewId);
 
+    /** Creates new exam configurations from a specified exam configuration template at once.
+     * The values of the template are read only once and written for all new exam configurations
+     * with bulk inserts.
+     *
+     * @param institutionId The institution identifier of the exam configuration template
+     * @param templateId The exam configuration template identifier
+     * @param owner The owner of the new exam configurations
+     * @param names The names of the new exam configurations
+     * @param description The description for all new exam configurations
+     * @return Result refer to the new exam configurations or to an error if happened */
+    Result<Collection<ConfigurationNode>> createExamConfigs(
+            final Long institutionId,
+            final Long templateId,
+            final String owner,
+            final Collection<String> names,
+            final String description);
+
 }
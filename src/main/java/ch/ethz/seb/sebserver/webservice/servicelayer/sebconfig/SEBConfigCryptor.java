@@ -8,6 +8,7 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Set;
@@ -40,6 +41,18 @@ public interface SEBConfigCryptor {
             final InputStream input,
             final SEBConfigEncryptionContext context);
 
+    /** Get an encryption stream that encrypts all plain data written to it and writes the cipher data
+     * to the given output stream on the calling thread.
+     * Closing the encryption stream finishes the cipher data and closes the given output stream.
+     *
+     * @param output the output stream to write encrypted data to
+     * @param context the SEBConfigEncryptionContext to access strategy specific data needed for encryption
+     * @return the output stream to write the plain data to
+     * @throws IOException if the encryption cannot be initialized or written to the given output stream */
+    OutputStream encryptionStream(
+            final OutputStream output,
+            final SEBConfigEncryptionContext context) throws IOException;
+
     /** Decrypt an incoming cipher data stream to an outgoing plain text data stream
      * This uses Springs @Async annotation to run in a separated thread
      *
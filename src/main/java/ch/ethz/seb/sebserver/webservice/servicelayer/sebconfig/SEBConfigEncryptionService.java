@@ -8,6 +8,7 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
@@ -72,6 +73,18 @@ public interface SEBConfigEncryptionService {
             final InputStream input,
             SEBConfigEncryptionContext context);
 
+    /** This can be used to get an encryption stream that writes the header of the strategy of the given context
+     * to the given output stream and then encrypts all plain text written to it on the calling thread.
+     * Closing the encryption stream finishes the cipher data and closes the given output stream.
+     *
+     * @param output the output data stream to write the cipher text to
+     * @param context the SEBConfigEncryptionContext to access strategy specific data needed for encryption
+     * @return the output stream to write the plain text to
+     * @throws IOException if the encryption cannot be initialized or written to the given output stream */
+    OutputStream encryptionStream(
+            final OutputStream output,
+            SEBConfigEncryptionContext context) throws IOException;
+
     /** This can be used to stream incoming cipher data to decrypted plain text data output stream.
      *
      * @param output the output data stream to write encrypted plain text to
@@ -8,6 +8,7 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
@@ -27,6 +28,15 @@ public interface ZipService {
     @Async(AsyncServiceSpringConfig.EXECUTOR_BEAN_NAME)
     void write(OutputStream out, InputStream in);
 
+    /** Use this to get a gzip-compression stream that compresses all data written to it and
+     * writes the compressed data to the given output stream on the calling thread.
+     * Closing the compression stream finishes the compressed data and closes the given output stream.
+     *
+     * @param out the OutputStream to write the compressed data to
+     * @return the OutputStream to write the uncompressed data to
+     * @throws IOException if the gzip header cannot be written to the given output stream */
+    OutputStream compressionStream(OutputStream out) throws IOException;
+
     /** Use this to read gzip-compressed data from a given input-stream,
      * uncompress this data and write the uncompressed data to
      * a given output stream.
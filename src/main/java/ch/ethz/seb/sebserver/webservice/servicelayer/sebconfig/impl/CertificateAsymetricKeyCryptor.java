@@ -8,6 +8,7 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.impl;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.security.cert.Certificate;
@@ -90,6 +91,18 @@ public class CertificateAsymetricKeyCryptor extends AbstractCertificateCryptor i
 
     }
 
+    @Override
+    public OutputStream encryptionStream(
+            final OutputStream output,
+            final SEBConfigEncryptionContext context) throws IOException {
+
+        final Certificate certificate = context.getCertificate();
+        final byte[] publicKeyHash = generatePublicKeyHash(certificate);
+        output.write(publicKeyHash, 0, publicKeyHash.length);
+
+        return new BlockEncryptionOutputStream(output, certificate);
+    }
+
     @Override
     public void decrypt(
             final OutputStream output,
@@ -137,4 +150,73 @@ public class CertificateAsymetricKeyCryptor extends AbstractCertificateCryptor i
         return Strategy.PUBLIC_KEY_HASH;
     }
 
+    /** Encrypts the written data in blocks of BUFFER_LENGTH bytes with the certificate.
+     * The last block that may be shorter is encrypted on close. */
+    private final class BlockEncryptionOutputStream extends OutputStream {
+
+        private final OutputStream output;
+        private final Certificate certificate;
+        private final byte[] buffer = new byte[BUFFER_LENGTH];
+        private int length = 0;
+
+        BlockEncryptionOutputStream(final OutputStream output, final Certificate certificate) {
+            this.output = output;
+            this.certificate = certificate;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            this.buffer[this.length++] = (byte) b;
+            if (this.length == BUFFER_LENGTH) {
+                writeBlock();
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            int offset = off;
+            int remaining = len;
+            while (remaining > 0) {
+                final int chunk = Math.min(remaining, BUFFER_LENGTH - this.length);
+                System.arraycopy(b, offset, this.buffer, this.length, chunk);
+                this.length += chunk;
+                offset += chunk;
+                remaining -= chunk;
+                if (this.length == BUFFER_LENGTH) {
+                    writeBlock();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // only full blocks are written before close
+            this.output.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (this.length > 0) {
+                    writeBlock();
+                }
+                this.output.flush();
+            } finally {
+                this.output.close();
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            try {
+                final byte[] encryptedBlock = encryptWithCert(this.certificate, this.buffer, this.length);
+                this.output.write(encryptedBlock, 0, encryptedBlock.length);
+                this.length = 0;
+            } catch (final IOException e) {
+                throw e;
+            } catch (final Exception e) {
+                throw new IOException("Failed to encrypt block with certificate: ", e);
+            }
+        }
+    }
+
 }
@@ -109,6 +109,31 @@ public class CertificateSymetricKeyCryptor extends AbstractCertificateCryptor im
         }
     }
 
+    @Override
+    public OutputStream encryptionStream(
+            final OutputStream output,
+            final SEBConfigEncryptionContext context) throws IOException {
+
+        final CharSequence symetricKeyBase64;
+        try {
+
+            final Certificate certificate = context.getCertificate();
+            final byte[] publicKeyHash = generatePublicKeyHash(certificate);
+            final byte[] symetricKey = generateSymetricKey();
+            symetricKeyBase64 = Base64.getEncoder().encodeToString(symetricKey);
+            final byte[] generateParameter = generateParameter(certificate, publicKeyHash, symetricKey);
+
+            output.write(generateParameter, 0, generateParameter.length);
+
+        } catch (final IOException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new IOException("Failed to initialize certificate symmetric-key encryption: ", e);
+        }
+
+        return this.passwordEncryptor.encryptionStream(output, symetricKeyBase64);
+    }
+
     @Override
     public void decrypt(
             final OutputStream output,
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.impl;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ch.ethz.seb.sebserver.SEBServerInitEvent;
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationAttribute;
+import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationAttributeDAO;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.impl.ConfigurationAttributeChangeEvent;
+import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.AttributeValueConverter;
+import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.AttributeValueConverterService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.ConfigurationFormat;
+
+/** Catalog of the SEB Configuration attributes for the plain text export.
+ * <p>
+ * The SEB Configuration attributes only change with a database migration or with the configuration attribute API.
+ * The catalog loads all root attributes once and prepares the sorted attributes for each export format together
+ * with the converter and the UTF-8 encoded key of each attribute. An export then only loops over these arrays.
+ * <p>
+ * The catalog is loaded on server initialization or on the first export. The ConfigurationAttributeDAO notifies
+ * every change of the attributes and the catalog is reloaded on the next export after the change has been committed.
+ * If a reload fails, the previous catalog is used and the reload is tried again on the next export.
+ * <p>
+ * In a distributed setup the attributes may be changed by another webservice that is not notified here.
+ * Therefore the catalog is loaded for each export in this case. */
+@Lazy
+@Component
+@WebServiceProfile
+public class ExamConfigAttributeCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ExamConfigAttributeCatalog.class);
+
+    private final ConfigurationAttributeDAO configurationAttributeDAO;
+    private final AttributeValueConverterService attributeValueConverterService;
+    private final boolean distributedSetup;
+
+    private volatile Map<ConfigurationFormat, Entries> entries = null;
+    private volatile boolean stale = true;
+
+    protected ExamConfigAttributeCatalog(
+            final ConfigurationAttributeDAO configurationAttributeDAO,
+            final AttributeValueConverterService attributeValueConverterService,
+            @Value("${sebserver.webservice.distributed:false}") final boolean distributedSetup) {
+
+        this.configurationAttributeDAO = configurationAttributeDAO;
+        this.attributeValueConverterService = attributeValueConverterService;
+        this.distributedSetup = distributedSetup;
+    }
+
+    @EventListener(SEBServerInitEvent.class)
+    public void init() {
+        if (this.distributedSetup) {
+            return;
+        }
+
+        try {
+            reload();
+        } catch (final Exception e) {
+            log.error("Failed to load SEB Configuration attribute catalog. Try again on first export: ", e);
+        }
+    }
+
+    /** Marks the catalog as stale after SEB Configuration attributes have been changed. This is only applied
+     * after the change has been committed, so that the reload on next export gets the changed attributes.
+     *
+     * @param event the ConfigurationAttributeChangeEvent */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void notifyAttributeChange(final ConfigurationAttributeChangeEvent event) {
+        this.stale = true;
+    }
+
+    /** Get the prepared attributes of the catalog for the given export format.
+     *
+     * @param exportFormat the format of the plain text export
+     * @return the prepared attributes for the given export format */
+    Entries getEntries(final ConfigurationFormat exportFormat) {
+        if (this.distributedSetup) {
+            return load().get(exportFormat);
+        }
+
+        if (this.stale) {
+            try {
+                reload();
+            } catch (final Exception e) {
+                if (this.entries == null) {
+                    throw e;
+                }
+                log.error("Failed to reload SEB Configuration attribute catalog. Use previous catalog: ", e);
+            }
+        }
+
+        final Map<ConfigurationFormat, Entries> entries = this.entries;
+        return (entries != null) ? entries.get(exportFormat) : Entries.EMPTY;
+    }
+
+    private void reload() {
+        // clear the mark before loading, so that a change during the load is loaded again on the next export
+        this.stale = false;
+        final Map<ConfigurationFormat, Entries> newEntries;
+        try {
+            newEntries = load();
+        } catch (final RuntimeException e) {
+            this.stale = true;
+            throw e;
+        }
+
+        if (newEntries.get(ConfigurationFormat.XML).size() > 0) {
+            this.entries = newEntries;
+        } else {
+            // no attributes are available yet (initial data not yet applied). Try again on next export
+            this.stale = true;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Loaded SEB Configuration attribute catalog with {} attributes",
+                    newEntries.get(ConfigurationFormat.XML).size());
+        }
+    }
+
+    private Map<ConfigurationFormat, Entries> load() {
+        final List<ConfigurationAttribute> sortedAttributes = this.configurationAttributeDAO
+                .getAllRootAttributes()
+                .getOrThrow()
+                .stream()
+                .flatMap(this::convertAttribute)
+                .sorted()
+                .collect(Collectors.toList());
+
+        final Map<ConfigurationFormat, Entries> result = new EnumMap<>(ConfigurationFormat.class);
+        for (final ConfigurationFormat format : ConfigurationFormat.values()) {
+            result.put(format, new Entries(
+                    format,
+                    sortedAttributes
+                            .stream()
+                            .filter(exportFormatBasedAttributeFilter(format))
+                            .collect(Collectors.toList()),
+                    this.attributeValueConverterService));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private Stream<ConfigurationAttribute> convertAttribute(final ConfigurationAttribute attr) {
+        final AttributeValueConverter attributeValueConverter =
+                this.attributeValueConverterService.getAttributeValueConverter(attr);
+        if (attributeValueConverter != null) {
+            return attributeValueConverter.convertAttribute(attr);
+        } else {
+            return Stream.of(attr);
+        }
+    }
+
+    private static Predicate<ConfigurationAttribute> exportFormatBasedAttributeFilter(
+            final ConfigurationFormat format) {
+
+        // Filter originatorVersion according to: https://www.safeexambrowser.org/developer/seb-config-key.html
+        return attr -> !("originatorVersion".equals(attr.getName()) && format == ConfigurationFormat.JSON);
+    }
+
+    /** The sorted attributes of one export format with the converter and the UTF-8 encoded key of each attribute
+     * at the same index. */
+    static final class Entries {
+
+        static final Entries EMPTY = new Entries();
+
+        final ConfigurationAttribute[] attributes;
+        final AttributeValueConverter[] converters;
+        final byte[][] keys;
+
+        private Entries() {
+            this.attributes = new ConfigurationAttribute[0];
+            this.converters = new AttributeValueConverter[0];
+            this.keys = new byte[0][];
+        }
+
+        Entries(
+                final ConfigurationFormat format,
+                final List<ConfigurationAttribute> sortedAttributes,
+                final AttributeValueConverterService attributeValueConverterService) {
+
+            this.attributes = sortedAttributes.toArray(new ConfigurationAttribute[0]);
+            this.converters = new AttributeValueConverter[this.attributes.length];
+            this.keys = new byte[this.attributes.length][];
+            for (int i = 0; i < this.attributes.length; i++) {
+                this.converters[i] = attributeValueConverterService.getAttributeValueConverter(this.attributes[i]);
+                this.keys[i] = (format == ConfigurationFormat.XML)
+                        ? AttributeValueConverter.xmlKey(this.attributes[i])
+                        : AttributeValueConverter.jsonKey(this.attributes[i]);
+            }
+        }
+
+        int size() {
+            return this.attributes.length;
+        }
+    }
+
+}
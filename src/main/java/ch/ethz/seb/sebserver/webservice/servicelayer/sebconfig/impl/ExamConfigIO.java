@@ -8,6 +8,7 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.impl;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -15,29 +16,29 @@ import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.io.SequenceInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.xml.sax.SAXException;
 
 import ch.ethz.seb.sebserver.gbl.Constants;
-import ch.ethz.seb.sebserver.gbl.async.AsyncServiceSpringConfig;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.Configuration;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationAttribute;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationValue;
@@ -48,8 +49,6 @@ import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationAttributeD
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationDAO;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationValueDAO;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.FilterMap;
-import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.AttributeValueConverter;
-import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.AttributeValueConverterService;
 import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.ConfigurationFormat;
 import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.SEBConfigEncryptionService.Strategy;
 import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.ZipService;
@@ -74,7 +73,7 @@ public class ExamConfigIO {
     private final ConfigurationAttributeDAO configurationAttributeDAO;
     private final ConfigurationValueDAO configurationValueDAO;
     private final ConfigurationDAO configurationDAO;
-    private final AttributeValueConverterService attributeValueConverterService;
+    private final ExamConfigAttributeCatalog attributeCatalog;
     private final ZipService zipService;
     private final Cryptor cryptor;
 
@@ -82,50 +81,29 @@ public class ExamConfigIO {
             final ConfigurationAttributeDAO configurationAttributeDAO,
             final ConfigurationValueDAO configurationValueDAO,
             final ConfigurationDAO configurationDAO,
-            final AttributeValueConverterService attributeValueConverterService,
+            final ExamConfigAttributeCatalog attributeCatalog,
             final ZipService zipService,
             final Cryptor cryptor) {
 
         this.configurationAttributeDAO = configurationAttributeDAO;
         this.configurationValueDAO = configurationValueDAO;
         this.configurationDAO = configurationDAO;
-        this.attributeValueConverterService = attributeValueConverterService;
+        this.attributeCatalog = attributeCatalog;
         this.zipService = zipService;
         this.cryptor = cryptor;
     }
 
-    @Async(AsyncServiceSpringConfig.EXECUTOR_BEAN_NAME)
+    /** Writes the plain text SEB Configuration in the given format to the given output stream.
+     * This runs on the calling thread and writes the converted attributes through a buffer to the given
+     * output stream that usually is the first stream of a compression and encryption stream chain.
+     * The given output stream is flushed but not closed.
+     *
+     * @param exportFormat the format of the plain text export
+     * @param out the output stream to write the plain text to
+     * @param institutionId the institution identifier
+     * @param configurationNodeId the configuration node identifier
+     * @param configId the configuration identifier or null for the last stable version of the configuration node */
     void exportPlain(
-            final ConfigurationFormat exportFormat,
-            final OutputStream out,
-            final Long institutionId,
-            final Long configurationNodeId) throws Exception {
-
-        exportPlain(exportFormat, out, institutionId, configurationNodeId, null);
-    }
-
-    @Async(AsyncServiceSpringConfig.EXECUTOR_BEAN_NAME)
-    void exportForConfig(
-            final ConfigurationFormat exportFormat,
-            final OutputStream out,
-            final Long institutionId,
-            final Long configurationNodeId,
-            final Long configId) throws Exception {
-
-        exportPlain(exportFormat, out, institutionId, configurationNodeId, configId);
-    }
-
-    @Async(AsyncServiceSpringConfig.EXECUTOR_BEAN_NAME)
-    void exportForConfig(
-            final OutputStream out,
-            final Long institutionId,
-            final Long configurationNodeId,
-            final Long configId) throws Exception {
-
-        exportPlain(ConfigurationFormat.JSON, out, institutionId, configurationNodeId, configId);
-    }
-
-    private void exportPlain(
             final ConfigurationFormat exportFormat,
             final OutputStream out,
             final Long institutionId,
@@ -133,9 +111,11 @@ public class ExamConfigIO {
             final Long configId) throws Exception {
 
         if (log.isDebugEnabled()) {
-            log.debug("Start export SEB plain XML configuration asynchronously");
+            log.debug("Start export SEB plain XML configuration");
         }
 
+        // the attribute value converters write many small chunks
+        final OutputStream bufferedOut = new BufferedOutputStream(out, Constants.CONFIG_STREAM_BUFFER_SIZE);
         try {
             // get configurationId for given configId or configurationNodeId last stable if null
             final Long configurationId = (configId == null)
@@ -145,67 +125,96 @@ public class ExamConfigIO {
                     : configId;
 
             // get all defined root configuration attributes prepared and sorted
-            final List<ConfigurationAttribute> sortedAttributes = this.configurationAttributeDAO.getAllRootAttributes()
-                    .getOrThrow()
-                    .stream()
-                    .flatMap(this::convertAttribute)
-                    .filter(exportFormatBasedAttributeFilter(exportFormat))
-                    .sorted()
-                    .collect(Collectors.toList());
+            final ExamConfigAttributeCatalog.Entries entries = this.attributeCatalog.getEntries(exportFormat);
 
             final Function<ConfigurationAttribute, ConfigurationValue> configurationValueSupplier =
                     getConfigurationValueSupplier(configurationId);
 
-            writeHeader(exportFormat, out);
+            writeHeader(exportFormat, bufferedOut);
 
             // write attributes
-            final Iterator<ConfigurationAttribute> iterator = sortedAttributes.iterator();
-            while (iterator.hasNext()) {
-
-                final ConfigurationAttribute attribute = iterator.next();
-                final AttributeValueConverter attributeValueConverter =
-                        this.attributeValueConverterService.getAttributeValueConverter(attribute);
-
+            final int size = entries.size();
+            for (int i = 0; i < size; i++) {
                 switch (exportFormat) {
                     case XML: {
-                        attributeValueConverter.convertToXML(
-                                out,
-                                attribute,
+                        entries.converters[i].convertToXML(
+                                bufferedOut,
+                                entries.attributes[i],
+                                entries.keys[i],
                                 configurationValueSupplier);
                         break;
                     }
                     case JSON: {
-                        attributeValueConverter.convertToJSON(
-                                out,
-                                attribute,
+                        entries.converters[i].convertToJSON(
+                                bufferedOut,
+                                entries.attributes[i],
+                                entries.keys[i],
                                 configurationValueSupplier);
-                        if (iterator.hasNext()) {
-                            out.write(JSON_SEPARATOR);
+                        if (i < size - 1) {
+                            bufferedOut.write(JSON_SEPARATOR);
                         }
                         break;
                     }
                 }
             }
 
-            writeFooter(exportFormat, out);
+            writeFooter(exportFormat, bufferedOut);
+            bufferedOut.flush();
 
             if (log.isDebugEnabled()) {
-                log.debug("Finished export SEB plain XML configuration asynconously");
+                log.debug("Finished export SEB plain XML configuration");
             }
 
         } catch (final Exception e) {
             log.error("Unexpected error while trying to write SEB Exam Configuration XML to output stream: ", e);
             throw e;
-        } finally {
-            try {
-                out.flush();
-            } catch (final IOException e1) {
-                log.error("Unable to flush output stream after error");
-            }
-            IOUtils.closeQuietly(out);
         }
     }
 
+    /** Get the Config-Key of the given configuration from the cache or generate it if not cached yet.
+     * The cache entry of a configuration is evicted on every write of the ConfigurationValueDAO to the
+     * configuration and all entries are evicted on writes that may change more than one configuration.
+     * See https://www.safeexambrowser.org/developer/seb-config-key.html for more information about the Config-Key
+     *
+     * @param institutionId the institution identifier
+     * @param configurationNodeId the configuration node identifier
+     * @param configId the configuration identifier
+     * @return the Config-Key of the configuration */
+    @Cacheable(
+            cacheNames = ConfigurationValueDAO.CACHE_NAME_CONFIG_KEY,
+            key = "#configId",
+            condition = "#configId!=null")
+    public String getConfigKey(
+            final Long institutionId,
+            final Long configurationNodeId,
+            final Long configId) throws Exception {
+
+        return generateConfigKey(institutionId, configurationNodeId, configId);
+    }
+
+    /** Generates the Config-Key of the given configuration by streaming the plain JSON export of the configuration
+     * directly into a SHA-256 digest on the calling thread.
+     *
+     * @param institutionId the institution identifier
+     * @param configurationNodeId the configuration node identifier
+     * @param configId the configuration identifier
+     * @return the Config-Key of the configuration */
+    String generateConfigKey(
+            final Long institutionId,
+            final Long configurationNodeId,
+            final Long configId) throws Exception {
+
+        final MessageDigest digest = DigestUtils.getSha256Digest();
+        exportPlain(
+                ConfigurationFormat.JSON,
+                new DigestOutputStream(NullOutputStream.NULL_OUTPUT_STREAM, digest),
+                institutionId,
+                configurationNodeId,
+                configId);
+
+        return Hex.encodeHexString(digest.digest());
+    }
+
     /** This parses the XML from given InputStream with a SAX parser to avoid keeping the
      * whole XML file in memory and keep up with the streaming approach of SEB Exam Configuration
      * to avoid trouble with big SEB Exam Configuration in the future.
@@ -280,11 +289,6 @@ public class ExamConfigIO {
         }
     }
 
-    private Predicate<ConfigurationAttribute> exportFormatBasedAttributeFilter(final ConfigurationFormat format) {
-        // Filter originatorVersion according to: https://www.safeexambrowser.org/developer/seb-config-key.html
-        return attr -> !("originatorVersion".equals(attr.getName()) && format == ConfigurationFormat.JSON);
-    }
-
     private void writeFooter(
             final ConfigurationFormat exportFormat,
             final OutputStream out) throws IOException {
@@ -323,16 +327,6 @@ public class ExamConfigIO {
         out.write(XML_DICT_START_UTF_8);
     }
 
-    private Stream<ConfigurationAttribute> convertAttribute(final ConfigurationAttribute attr) {
-        final AttributeValueConverter attributeValueConverter =
-                this.attributeValueConverterService.getAttributeValueConverter(attr);
-        if (attributeValueConverter != null) {
-            return attributeValueConverter.convertAttribute(attr);
-        } else {
-            return Stream.of(attr);
-        }
-    }
-
     private Function<ConfigurationAttribute, ConfigurationValue> getConfigurationValueSupplier(
             final Long configurationId) {
 
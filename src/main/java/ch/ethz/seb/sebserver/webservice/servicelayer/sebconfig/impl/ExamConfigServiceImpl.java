@@ -8,7 +8,6 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.impl;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
@@ -21,11 +20,12 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.*;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
@@ -68,6 +68,7 @@ public class ExamConfigServiceImpl implements ExamConfigService {
     private final ZipService zipService;
     private final SEBConfigEncryptionService sebConfigEncryptionService;
     private final ConfigurationDAO configurationDAO;
+    private final boolean distributedSetup;
 
     protected ExamConfigServiceImpl(
             final ExamConfigIO examConfigIO,
@@ -79,7 +80,8 @@ public class ExamConfigServiceImpl implements ExamConfigService {
             final ClientCredentialService clientCredentialService,
             final ZipService zipService,
             final SEBConfigEncryptionService sebConfigEncryptionService,
-            final ConfigurationDAO configurationDAO) {
+            final ConfigurationDAO configurationDAO,
+            @Value("${sebserver.webservice.distributed:false}") final boolean distributedSetup) {
 
         this.examConfigIO = examConfigIO;
         this.configurationNodeDAO = configurationNodeDAO;
@@ -91,6 +93,7 @@ public class ExamConfigServiceImpl implements ExamConfigService {
         this.zipService = zipService;
         this.sebConfigEncryptionService = sebConfigEncryptionService;
         this.configurationDAO = configurationDAO;
+        this.distributedSetup = distributedSetup;
     }
 
     @Override
@@ -207,56 +210,25 @@ public class ExamConfigServiceImpl implements ExamConfigService {
                     .decrypt(passwordCipher)
                     .getOrThrow();
 
-            PipedOutputStream plainOut = null;
-            PipedInputStream zipIn = null;
+            // streaming on the calling thread: plain text -> zip -> encryption -> output
+            // closing the zip stream finishes the zip and the cipher data but not the given output
+            try (final OutputStream zipOut = this.zipService.compressionStream(
+                    this.sebConfigEncryptionService.encryptionStream(
+                            new CloseShieldOutputStream(out),
+                            EncryptionContext.contextOf(
+                                    institutionId,
+                                    Strategy.PASSWORD_PSWD,
+                                    encryptionPasswordPlaintext)))) {
 
-            PipedOutputStream zipOut = null;
-            PipedInputStream cryptIn = null;
-
-            PipedOutputStream cryptOut = null;
-            PipedInputStream in = null;
-
-            try {
-
-                plainOut = new PipedOutputStream();
-                zipIn = new PipedInputStream(plainOut);
-
-                zipOut = new PipedOutputStream();
-                cryptIn = new PipedInputStream(zipOut);
-
-                cryptOut = new PipedOutputStream();
-                in = new PipedInputStream(cryptOut);
-
-                // streaming...
-                // export plain text
                 this.examConfigIO.exportPlain(
                         ConfigurationFormat.XML,
-                        plainOut,
+                        zipOut,
                         institutionId,
-                        configurationNodeId);
-                // zip the plain text
-                this.zipService.write(zipOut, zipIn);
-                // encrypt the zipped plain text
-                this.sebConfigEncryptionService.streamEncrypted(
-                        cryptOut,
-                        cryptIn,
-                        EncryptionContext.contextOf(
-                                institutionId,
-                                Strategy.PASSWORD_PSWD,
-                                encryptionPasswordPlaintext));
-
-                // copy to output
-                IOUtils.copyLarge(in, out);
+                        configurationNodeId,
+                        null);
 
             } catch (final Exception e) {
                 log.error("Error while zip and encrypt seb exam config stream: ", e);
-            } finally {
-                IOUtils.closeQuietly(zipIn);
-                IOUtils.closeQuietly(plainOut);
-                IOUtils.closeQuietly(cryptIn);
-                IOUtils.closeQuietly(zipOut);
-                IOUtils.closeQuietly(in);
-                IOUtils.closeQuietly(cryptOut);
             }
         } else {
             // just export in plain text XML format
@@ -292,19 +264,12 @@ public class ExamConfigServiceImpl implements ExamConfigService {
             log.debug("Start to stream plain JSON SEB Configuration data for Config-Key generation");
         }
 
-        PipedOutputStream pout = null;
-        PipedInputStream pin = null;
         try {
-            pout = new PipedOutputStream();
-            pin = new PipedInputStream(pout);
 
-            this.examConfigIO.exportForConfig(
-                    pout,
-                    institutionId,
-                    configurationNodeId,
-                    configId);
-
-            final String configKey = DigestUtils.sha256Hex(pin);
+            // the cached Config-Key is only evicted on the web service that changes the configuration
+            final String configKey = (this.distributedSetup)
+                    ? this.examConfigIO.generateConfigKey(institutionId, configurationNodeId, configId)
+                    : this.examConfigIO.getConfigKey(institutionId, configurationNodeId, configId);
 
             return Result.of(configKey);
 
@@ -312,21 +277,6 @@ public class ExamConfigServiceImpl implements ExamConfigService {
             log.error("Error while stream plain JSON SEB Configuration data for Config-Key generation: ", e);
             return Result.ofError(e);
         } finally {
-            try {
-                if (pin != null) {
-                    pin.close();
-                }
-            } catch (final IOException e1) {
-                log.error("Failed to close PipedInputStream: ", e1);
-            }
-            try {
-                if (pout != null) {
-                    pout.close();
-                }
-            } catch (final IOException e1) {
-                log.error("Failed to close PipedOutputStream: ", e1);
-            }
-
             if (log.isDebugEnabled()) {
                 log.debug("Finished to stream plain JSON SEB Configuration data for Config-Key generation");
             }
@@ -536,40 +486,18 @@ public class ExamConfigServiceImpl implements ExamConfigService {
             log.debug("Start to stream plain text SEB Configuration data");
         }
 
-        PipedOutputStream pout = null;
-        PipedInputStream pin = null;
         try {
-            pout = new PipedOutputStream();
-            pin = new PipedInputStream(pout);
 
-            this.examConfigIO.exportForConfig(
+            this.examConfigIO.exportPlain(
                     exportFormat,
-                    pout,
+                    out,
                     institutionId,
                     configurationNodeId,
                     configId);
 
-            IOUtils.copyLarge(pin, out);
-
         } catch (final Exception e) {
             log.error("Error while stream plain text SEB Configuration export data: ", e);
         } finally {
-            try {
-                if (pin != null) {
-                    pin.close();
-                }
-            } catch (final IOException e1) {
-                log.error("Failed to close PipedInputStream: ", e1);
-            }
-            try {
-                if (pout != null) {
-                    pout.flush();
-                    pout.close();
-                }
-            } catch (final IOException e1) {
-                log.error("Failed to close PipedOutputStream: ", e1);
-            }
-
             if (log.isDebugEnabled()) {
                 log.debug("Finished to stream plain text SEB Configuration export data");
             }
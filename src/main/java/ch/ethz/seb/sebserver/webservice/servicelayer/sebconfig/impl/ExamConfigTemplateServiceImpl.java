@@ -9,6 +9,7 @@
 package ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.impl;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
@@ -31,6 +32,8 @@ import ch.ethz.seb.sebserver.gbl.model.PageSortOrder;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.AttributeType;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationAttribute;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationNode;
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationNode.ConfigurationStatus;
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationNode.ConfigurationType;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.Orientation;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.TemplateAttribute;
 import ch.ethz.seb.sebserver.gbl.model.sebconfig.View;
@@ -38,6 +41,7 @@ import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
 import ch.ethz.seb.sebserver.gbl.util.Result;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationAttributeDAO;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationDAO;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationNodeDAO;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationValueDAO;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.FilterMap;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.NoResourceFoundException;
@@ -57,19 +61,22 @@ public class ExamConfigTemplateServiceImpl implements ExamConfigTemplateService
     private final OrientationDAO orientationDAO;
     private final ConfigurationAttributeDAO configurationAttributeDAO;
     private final ConfigurationValueDAO configurationValueDAO;
+    private final ConfigurationNodeDAO configurationNodeDAO;
 
     protected ExamConfigTemplateServiceImpl(
             final ViewDAO viewDAO,
             final ConfigurationDAO configurationDAO,
             final OrientationDAO orientationDAO,
             final ConfigurationAttributeDAO configurationAttributeDAO,
-            final ConfigurationValueDAO configurationValueDAO) {
+            final ConfigurationValueDAO configurationValueDAO,
+            final ConfigurationNodeDAO configurationNodeDAO) {
 
         this.viewDAO = viewDAO;
         this.configurationDAO = configurationDAO;
         this.orientationDAO = orientationDAO;
         this.configurationAttributeDAO = configurationAttributeDAO;
         this.configurationValueDAO = configurationValueDAO;
+        this.configurationNodeDAO = configurationNodeDAO;
     }
 
     @Override
@@ -252,6 +259,46 @@ public class ExamConfigTemplateServiceImpl implements ExamConfigTemplateService
         });
     }
 
+    @Override
+    public Result<Collection<ConfigurationNode>> createExamConfigs(
+            final Long institutionId,
+            final Long templateId,
+            final String owner,
+            final Collection<String> names,
+            final String description) {
+
+        return Result.tryCatch(() -> {
+            if (templateId != null && !templateId.equals(ConfigurationNode.DEFAULT_TEMPLATE_ID)) {
+                final ConfigurationNode template = this.configurationNodeDAO
+                        .byPK(templateId)
+                        .getOrThrow();
+
+                if (!template.institutionId.equals(institutionId)) {
+                    throw new IllegalArgumentException("Institution integrity violation");
+                }
+                if (template.type != ConfigurationType.TEMPLATE) {
+                    throw new IllegalArgumentException("No exam configuration template: " + templateId);
+                }
+            }
+
+            return names
+                    .stream()
+                    .map(name -> new ConfigurationNode(
+                            null,
+                            institutionId,
+                            templateId,
+                            name,
+                            description,
+                            ConfigurationType.EXAM_CONFIG,
+                            owner,
+                            ConfigurationStatus.CONSTRUCTION,
+                            null,
+                            null))
+                    .collect(Collectors.toList());
+        })
+                .flatMap(this.configurationNodeDAO::createNew);
+    }
+
     private Orientation getOrientation(final Long templateId, final Long attributeId) {
         final FilterMap filterMap = new FilterMap.Builder()
                 .put(Orientation.FILTER_ATTR_TEMPLATE_ID, String.valueOf(templateId))
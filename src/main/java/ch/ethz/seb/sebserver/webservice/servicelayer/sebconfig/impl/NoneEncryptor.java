@@ -71,6 +71,14 @@ public class NoneEncryptor implements SEBConfigCryptor {
         }
     }
 
+    @Override
+    public OutputStream encryptionStream(
+            final OutputStream output,
+            final SEBConfigEncryptionContext context) {
+
+        return output;
+    }
+
     @Override
     public void decrypt(
             final OutputStream output,
@@ -8,6 +8,7 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.impl;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Set;
@@ -52,6 +53,14 @@ public class PasswordCryptor implements SEBConfigCryptor {
         this.passwordEncryptor.encrypt(output, input, context.getPassword());
     }
 
+    @Override
+    public OutputStream encryptionStream(
+            final OutputStream output,
+            final SEBConfigEncryptionContext context) throws IOException {
+
+        return this.passwordEncryptor.encryptionStream(output, context.getPassword());
+    }
+
     @Override
     public void decrypt(
             final OutputStream output,
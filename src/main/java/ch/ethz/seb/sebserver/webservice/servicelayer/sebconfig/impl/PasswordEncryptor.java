@@ -43,22 +43,9 @@ public class PasswordEncryptor {
         OutputStream encryptOutput = null;
         try {
 
-            if (password.length() == 0) {
-                encryptOutput = new AES256JNCryptorOutputStreamEmptyPwdSupport(
-                        output,
-                        Utils.toCharArray(password),
-                        Constants.JN_CRYPTOR_ITERATIONS);
-            } else {
-                encryptOutput = new AES256JNCryptorOutputStream(
-                        output,
-                        Utils.toCharArray(password),
-                        Constants.JN_CRYPTOR_ITERATIONS);
-            }
-
+            encryptOutput = encryptionStream(output, password);
             IOUtils.copyLarge(input, encryptOutput);
 
-        } catch (final CryptorException e) {
-            log.error("Error while trying to stream and encrypt data: ", e);
         } catch (final IOException e) {
             log.error("Error while trying to read/write form/to streams: ", e);
         } finally {
@@ -78,4 +65,32 @@ public class PasswordEncryptor {
         }
     }
 
+    /** Get a password encryption stream that encrypts all data written to it on the calling thread
+     * and writes the cipher data to the given output stream.
+     *
+     * @param output the output stream to write the cipher data to
+     * @param password the password
+     * @return the output stream to write the plain data to
+     * @throws IOException if the password based encryption cannot be initialized */
+    public OutputStream encryptionStream(
+            final OutputStream output,
+            final CharSequence password) throws IOException {
+
+        try {
+            if (password.length() == 0) {
+                return new AES256JNCryptorOutputStreamEmptyPwdSupport(
+                        output,
+                        Utils.toCharArray(password),
+                        Constants.JN_CRYPTOR_ITERATIONS);
+            } else {
+                return new AES256JNCryptorOutputStream(
+                        output,
+                        Utils.toCharArray(password),
+                        Constants.JN_CRYPTOR_ITERATIONS);
+            }
+        } catch (final CryptorException e) {
+            throw new IOException("Failed to initialize password encryption: ", e);
+        }
+    }
+
 }
@@ -65,44 +65,42 @@ public final class SEBConfigEncryptionServiceImpl implements SEBConfigEncryption
             final InputStream input,
             final SEBConfigEncryptionContext context) {
 
-        final Strategy strategy = context.getStrategy();
-        PipedOutputStream pout = null;
-        PipedInputStream pin = null;
+        OutputStream encryptionOutput = null;
         try {
-            pout = new PipedOutputStream();
-            pin = new PipedInputStream(pout);
-
-            if (log.isDebugEnabled()) {
-                log.debug("Encryption with strategy: {}", strategy);
-            }
-
-            output.write(strategy.header);
 
-            getEncryptor(strategy)
-                    .getOrThrow()
-                    .encrypt(pout, input, context);
-
-            IOUtils.copyLarge(pin, output);
+            encryptionOutput = encryptionStream(output, context);
+            IOUtils.copyLarge(input, encryptionOutput);
 
-        } catch (final IOException e) {
+        } catch (final Exception e) {
             log.error("Error while stream encrypted data: ", e);
         } finally {
+            IOUtils.closeQuietly(input);
             try {
-                if (pin != null) {
-                    pin.close();
-                }
-                if (pout != null) {
-                    pout.flush();
-                    pout.close();
-                }
-                output.flush();
-                output.close();
+                // closing the encryption stream also closes the output
+                final OutputStream out = (encryptionOutput != null) ? encryptionOutput : output;
+                out.flush();
+                out.close();
             } catch (final IOException e1) {
-                log.error("Failed to close PipedInputStream: ", e1);
+                log.error("Failed to close encryption output stream: ", e1);
             }
         }
     }
 
+    @Override
+    public OutputStream encryptionStream(
+            final OutputStream output,
+            final SEBConfigEncryptionContext context) throws IOException {
+
+        final Strategy strategy = context.getStrategy();
+        if (log.isDebugEnabled()) {
+            log.debug("Encryption with strategy: {}", strategy);
+        }
+
+        final SEBConfigCryptor encryptor = getEncryptor(strategy).getOrThrow();
+        output.write(strategy.header);
+        return encryptor.encryptionStream(output, context);
+    }
+
     @Override
     public Future<Exception> streamDecrypted(
             final OutputStream output,
@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
+import ch.ethz.seb.sebserver.gbl.Constants;
 import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
 import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.ZipService;
 
@@ -37,10 +38,10 @@ public class ZipServiceImpl implements ZipService {
             log.debug("*** Start streaming asynchronous zipping of SEB exam configuration data");
         }
 
-        GZIPOutputStream zipOutputStream = null;
+        OutputStream zipOutputStream = null;
         try {
 
-            zipOutputStream = new GZIPOutputStream(out);
+            zipOutputStream = compressionStream(out);
             IOUtils.copyLarge(in, zipOutputStream);
 
         } catch (final IOException e) {
@@ -64,6 +65,11 @@ public class ZipServiceImpl implements ZipService {
         }
     }
 
+    @Override
+    public OutputStream compressionStream(final OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, Constants.CONFIG_STREAM_BUFFER_SIZE);
+    }
+
     @Override
     public void read(final OutputStream out, final InputStream in) {
         if (log.isDebugEnabled()) {
@@ -37,8 +37,7 @@ public class BooleanConverter implements AttributeValueConverter {
             new HashSet<>(Arrays.asList(
                     AttributeType.CHECKBOX)));
 
-    private static final String XML_TEMPLATE = "<key>%s</key><%s />";
-    private static final String JSON_TEMPLATE = "\"%s\":%s";
+    private static final String XML_VALUE_TEMPLATE = "<%s />";
 
     @Override
     public Set<AttributeType> types() {
@@ -51,7 +50,20 @@ public class BooleanConverter implements AttributeValueConverter {
             final ConfigurationAttribute attribute,
             final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
 
-        convert(out, attribute, valueSupplier.apply(attribute), XML_TEMPLATE);
+        convertToXML(out, attribute, AttributeValueConverter.xmlKey(attribute), valueSupplier);
+    }
+
+    @Override
+    public void convertToXML(
+            final OutputStream out,
+            final ConfigurationAttribute attribute,
+            final byte[] key,
+            final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
+
+        out.write(key);
+        out.write(Utils.toByteArray(String.format(
+                XML_VALUE_TEMPLATE,
+                convert(attribute, valueSupplier.apply(attribute)))));
     }
 
     @Override
@@ -60,25 +72,30 @@ public class BooleanConverter implements AttributeValueConverter {
             final ConfigurationAttribute attribute,
             final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
 
-        convert(out, attribute, valueSupplier.apply(attribute), JSON_TEMPLATE);
+        convertToJSON(out, attribute, AttributeValueConverter.jsonKey(attribute), valueSupplier);
     }
 
-    private void convert(
+    @Override
+    public void convertToJSON(
             final OutputStream out,
             final ConfigurationAttribute attribute,
-            final ConfigurationValue value,
-            final String template) throws IOException {
+            final byte[] key,
+            final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
+
+        out.write(key);
+        out.write(Utils.toByteArray(convert(attribute, valueSupplier.apply(attribute))));
+    }
+
+    private String convert(
+            final ConfigurationAttribute attribute,
+            final ConfigurationValue value) {
 
         String defaultValue = attribute.getDefaultValue();
         if (StringUtils.isBlank(defaultValue)) {
             defaultValue = Constants.FALSE_STRING;
         }
 
-        out.write(Utils.toByteArray(
-                String.format(
-                        template,
-                        AttributeValueConverter.extractName(attribute),
-                        (value != null && value.value != null) ? value.value : defaultValue)));
+        return (value != null && value.value != null) ? value.value : defaultValue;
     }
 
 }
@@ -45,8 +45,7 @@ public class IntegerConverter implements AttributeValueConverter {
             AttributeType.SINGLE_SELECTION,
             AttributeType.RADIO_SELECTION);
 
-    private static final String XML_TEMPLATE = "<key>%s</key><integer>%s</integer>";
-    private static final String JSON_TEMPLATE = "\"%s\":%s";
+    private static final String XML_VALUE_TEMPLATE = "<integer>%s</integer>";
 
     @Override
     public Set<String> names() {
@@ -64,7 +63,20 @@ public class IntegerConverter implements AttributeValueConverter {
             final ConfigurationAttribute attribute,
             final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
 
-        convert(out, attribute, valueSupplier.apply(attribute), XML_TEMPLATE);
+        convertToXML(out, attribute, AttributeValueConverter.xmlKey(attribute), valueSupplier);
+    }
+
+    @Override
+    public void convertToXML(
+            final OutputStream out,
+            final ConfigurationAttribute attribute,
+            final byte[] key,
+            final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
+
+        out.write(key);
+        out.write(Utils.toByteArray(String.format(
+                XML_VALUE_TEMPLATE,
+                convert(attribute, valueSupplier.apply(attribute)))));
     }
 
     @Override
@@ -73,14 +85,23 @@ public class IntegerConverter implements AttributeValueConverter {
             final ConfigurationAttribute attribute,
             final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
 
-        convert(out, attribute, valueSupplier.apply(attribute), JSON_TEMPLATE);
+        convertToJSON(out, attribute, AttributeValueConverter.jsonKey(attribute), valueSupplier);
     }
 
-    private void convert(
+    @Override
+    public void convertToJSON(
             final OutputStream out,
             final ConfigurationAttribute attribute,
-            final ConfigurationValue value,
-            final String template) throws IOException {
+            final byte[] key,
+            final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
+
+        out.write(key);
+        out.write(Utils.toByteArray(String.valueOf(convert(attribute, valueSupplier.apply(attribute)))));
+    }
+
+    private int convert(
+            final ConfigurationAttribute attribute,
+            final ConfigurationValue value) {
 
         final String val = (value != null && value.value != null)
                 ? value.value
@@ -94,10 +115,7 @@ public class IntegerConverter implements AttributeValueConverter {
             intVal = 0;
         }
 
-        out.write(Utils.toByteArray(String.format(
-                template,
-                AttributeValueConverter.extractName(attribute),
-                intVal)));
+        return intVal;
     }
 
 }
@@ -45,11 +45,11 @@ public class StringConverter implements AttributeValueConverter {
                     AttributeType.COMBO_SELECTION,
                     AttributeType.COLOR_SELECTOR)));
 
-    private static final String XML_TEMPLATE = "<key>%s</key><string>%s</string>";
-    private static final String XML_TEMPLATE_EMPTY = "<key>%s</key><string />";
+    private static final String XML_VALUE_TEMPLATE = "<string>%s</string>";
+    private static final String XML_VALUE_EMPTY = "<string />";
 
-    private static final String JSON_TEMPLATE = "\"%s\":\"%s\"";
-    private static final String JSON_TEMPLATE_EMPTY = "\"%s\":\"\"";
+    private static final String JSON_VALUE_TEMPLATE = "\"%s\"";
+    private static final String JSON_VALUE_EMPTY = "\"\"";
 
     private final ClientCredentialService clientCredentialService;
 
@@ -68,6 +68,16 @@ public class StringConverter implements AttributeValueConverter {
             final ConfigurationAttribute attribute,
             final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
 
+        convertToXML(out, attribute, AttributeValueConverter.xmlKey(attribute), valueSupplier);
+    }
+
+    @Override
+    public void convertToXML(
+            final OutputStream out,
+            final ConfigurationAttribute attribute,
+            final byte[] key,
+            final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
+
         final ConfigurationValue cValue = valueSupplier.apply(attribute);
         final String val = StringEscapeUtils.escapeXml10((cValue != null && cValue.value != null)
                 ? cValue.value
@@ -76,8 +86,9 @@ public class StringConverter implements AttributeValueConverter {
         convert(
                 out,
                 attribute,
+                key,
                 val,
-                XML_TEMPLATE, XML_TEMPLATE_EMPTY);
+                XML_VALUE_TEMPLATE, XML_VALUE_EMPTY);
     }
 
     @Override
@@ -86,6 +97,16 @@ public class StringConverter implements AttributeValueConverter {
             final ConfigurationAttribute attribute,
             final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
 
+        convertToJSON(out, attribute, AttributeValueConverter.jsonKey(attribute), valueSupplier);
+    }
+
+    @Override
+    public void convertToJSON(
+            final OutputStream out,
+            final ConfigurationAttribute attribute,
+            final byte[] key,
+            final Function<ConfigurationAttribute, ConfigurationValue> valueSupplier) throws IOException {
+
         // NOTE: Don't escape JSON characters on the value strings here,
         //       otherwise the Config-Key will be different then in SEB and SEB Config Tool
         final ConfigurationValue cValue = valueSupplier.apply(attribute);
@@ -96,27 +117,26 @@ public class StringConverter implements AttributeValueConverter {
         convert(
                 out,
                 attribute,
+                key,
                 val,
-                JSON_TEMPLATE, JSON_TEMPLATE_EMPTY);
+                JSON_VALUE_TEMPLATE, JSON_VALUE_EMPTY);
     }
 
     private void convert(
             final OutputStream out,
             final ConfigurationAttribute attribute,
+            final byte[] key,
             final String value,
             final String template,
-            final String emptyTemplate) throws IOException {
+            final String emptyValue) throws IOException {
 
-        final String realName = AttributeValueConverter.extractName(attribute);
+        out.write(key);
         if (StringUtils.isNotBlank(value)) {
             out.write(Utils.toByteArray(String.format(
                     template,
-                    realName,
-                    convertSecret(realName, value))));
+                    convertSecret(AttributeValueConverter.extractName(attribute), value))));
         } else {
-            out.write(Utils.toByteArray(String.format(
-                    emptyTemplate,
-                    realName)));
+            out.write(Utils.toByteArray(emptyValue));
         }
     }
 
@@ -78,6 +78,16 @@ public interface ClientIndicator extends IndicatorValue {
      * @return true if this indicator indicates an incident */
     boolean hasWarning();
 
+    /** This indicates if the value of this indicator is held in memory and only changes on value change
+     * notifications on this machine (server-instance). If not, the value may change on read access,
+     * e.g.: when it is read from the distributed indicator value store in a distributed setup.
+     *
+     * @return true if the indicator value only changes on notifications on this machine */
+    @JsonIgnore
+    default boolean isValueCached() {
+        return false;
+    }
+
     /** Get the indicators threshold data mapping for efficient indicator and threshold analysis
      * 
      * @return Indicator.DataMap*/
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session;
+
+import java.util.function.Predicate;
+
+import ch.ethz.seb.sebserver.gbl.model.exam.Exam;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnectionData;
+import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringFullPageData;
+
+/** Broadcasts the full page monitoring data of running exams to subscribed monitoring clients.
+ * <p>
+ * There is one producer per exam that creates the monitoring snapshot of the exam once per interval and fans it out
+ * to all subscribers of the exam. Each subscriber gets the monitoring data with its own filter applied and only with
+ * the SEB connections that has changed since the last frame it has received. A subscriber that is not able to
+ * receive the frames in time gets the latest state coalesced into one frame instead of a growing backlog. */
+public interface ExamMonitoringBroadcastService {
+
+    /** Subscribes for the full page monitoring data of a running exam.
+     *
+     * @param exam the running exam
+     * @param filter the filter to apply to the SEB connections
+     * @param epoch the epoch of the last monitoring data the subscriber has seen to resume from (may be null)
+     * @param sequence the sequence number of the last monitoring data the subscriber has seen to resume from
+     *            (may be null)
+     * @param sink the sink to send the monitoring frames to
+     * @return the Subscription that can be used to cancel the subscription */
+    Subscription subscribe(
+            Exam exam,
+            Predicate<ClientConnectionData> filter,
+            Long epoch,
+            Long sequence,
+            MonitoringFrameSink sink);
+
+    /** Get the number of current subscribers for a given exam
+     *
+     * @param examId the exam identifier
+     * @return the number of current subscribers for the given exam */
+    int getNumberOfSubscribers(Long examId);
+
+    /** A sink for monitoring frames of a subscriber */
+    interface MonitoringFrameSink {
+
+        /** Sends the given monitoring frame to the subscriber. This is never called concurrently for one subscriber.
+         *
+         * @param frame the monitoring frame to send
+         * @throws Exception if the frame could not be sent. This cancels the subscription */
+        void send(MonitoringFullPageData frame) throws Exception;
+
+        /** Called when the subscription has ended, e.g. because the exam is not running anymore */
+        void close();
+    }
+
+    /** A subscription for monitoring frames */
+    interface Subscription {
+
+        /** Cancels the subscription. No more frames are sent afterwards. */
+        void cancel();
+    }
+
+}
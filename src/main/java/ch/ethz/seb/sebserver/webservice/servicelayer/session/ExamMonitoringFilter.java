@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import ch.ethz.seb.sebserver.gbl.Constants;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionIssueStatus;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnectionData;
+
+/** The filter of the exam monitoring connection list.
+ * <p>
+ * This can be used as a Predicate for single SEB connections but also holds the filter criteria so that a monitoring
+ * snapshot can apply the filter to all SEB connections of the exam with its connection index instead of testing
+ * every SEB connection.
+ * <p>
+ * - SEB connections with a hidden status are not shown. If the ACTIVE status is hidden, only the active SEB
+ * connections that has an incident are shown.
+ * - If an issue is selected, only the SEB connections that has this issue (not granted) are shown.
+ * - SEB connections where all client groups are hidden are not shown. SEB connections without client groups are
+ * always shown. */
+public final class ExamMonitoringFilter implements Predicate<ClientConnectionData> {
+
+    /** Hidden states without the ACTIVE state */
+    public final Set<ConnectionStatus> hiddenStates;
+    /** Indicates if active SEB connections without incident are hidden */
+    public final boolean activeHidden;
+    /** Issues of the SEB connections to show */
+    public final Set<ConnectionIssueStatus> issues;
+    /** Hidden client groups */
+    public final Set<Long> hiddenClientGroups;
+
+    public ExamMonitoringFilter(
+            final Set<ConnectionStatus> hiddenStates,
+            final Set<ConnectionIssueStatus> issues,
+            final Set<Long> hiddenClientGroups) {
+
+        final EnumSet<ConnectionStatus> states = EnumSet.noneOf(ConnectionStatus.class);
+        if (hiddenStates != null) {
+            states.addAll(hiddenStates);
+        }
+        // Note: the ACTIVE state is only filtered in combination with other hidden states
+        this.activeHidden = states.remove(ConnectionStatus.ACTIVE) && !states.isEmpty();
+        this.hiddenStates = Collections.unmodifiableSet(states);
+        this.issues = Collections.unmodifiableSet((issues != null && !issues.isEmpty())
+                ? EnumSet.copyOf(issues)
+                : EnumSet.noneOf(ConnectionIssueStatus.class));
+        this.hiddenClientGroups = (hiddenClientGroups != null)
+                ? Collections.unmodifiableSet(new HashSet<>(hiddenClientGroups))
+                : Collections.emptySet();
+    }
+
+    @Override
+    public boolean test(final ClientConnectionData connection) {
+        if (connection == null) {
+            return false;
+        }
+
+        final ConnectionStatus status = connection.clientConnection.status;
+        if (status == ConnectionStatus.ACTIVE) {
+            if (this.activeHidden && !connection.hasAnyIncident()) {
+                return false;
+            }
+        } else if (this.hiddenStates.contains(status)) {
+            return false;
+        }
+
+        if (this.issues.contains(ConnectionIssueStatus.SEB_VERSION_GRANTED)
+                && !BooleanUtils.isFalse(connection.clientConnection.clientVersionGranted)) {
+            return false;
+        }
+        if (this.issues.contains(ConnectionIssueStatus.ASK_GRANTED)
+                && !BooleanUtils.isFalse(connection.clientConnection.securityCheckGranted)) {
+            return false;
+        }
+
+        return connection.filter(this.hiddenClientGroups);
+    }
+
+    /** Creates the ExamMonitoringFilter from the filter parameters of the monitoring API
+     *
+     * @param hiddenStates Comma separated list of exam state names that are hidden
+     * @param hiddenClientGroups Comma separated list of client group ids of client groups that are hidden
+     * @param issues Comma separated list of ConnectionIssueStatus names to show
+     * @return ExamMonitoringFilter for the given parameters */
+    public static ExamMonitoringFilter of(
+            final String hiddenStates,
+            final String hiddenClientGroups,
+            final String issues) {
+
+        final EnumSet<ConnectionStatus> filterStates = EnumSet.noneOf(ConnectionStatus.class);
+        if (StringUtils.isNotBlank(hiddenStates)) {
+            for (final String s : StringUtils.split(hiddenStates, Constants.LIST_SEPARATOR)) {
+                filterStates.add(ConnectionStatus.valueOf(s));
+            }
+        }
+
+        final EnumSet<ConnectionIssueStatus> filterIssues = EnumSet.noneOf(ConnectionIssueStatus.class);
+        if (StringUtils.isNotBlank(issues)) {
+            for (final String s : StringUtils.split(issues, Constants.LIST_SEPARATOR)) {
+                filterIssues.add(ConnectionIssueStatus.valueOf(s));
+            }
+        }
+
+        final Set<Long> filterClientGroups = new HashSet<>();
+        if (StringUtils.isNotBlank(hiddenClientGroups)) {
+            for (final String s : StringUtils.split(hiddenClientGroups, Constants.LIST_SEPARATOR)) {
+                filterClientGroups.add(Long.parseLong(s));
+            }
+        }
+
+        return new ExamMonitoringFilter(filterStates, filterIssues, filterClientGroups);
+    }
+
+}
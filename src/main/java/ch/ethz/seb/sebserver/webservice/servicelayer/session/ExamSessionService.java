@@ -28,7 +28,9 @@ import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ExamDAO;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.FilterMap;
 import ch.ethz.seb.sebserver.webservice.servicelayer.lms.LmsAPIService;
 import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.ClientConnectionDataInternal;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.ExamMonitoringSnapshot;
 import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.ExamSessionCacheService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.InMemorySEBConfig;
 
 /** A Service to handle running exam sessions */
 public interface ExamSessionService {
@@ -163,6 +165,16 @@ public interface ExamSessionService {
             String connectionToken,
             OutputStream out);
 
+    /** Get the cached, pre-rendered default SEB Exam Configuration for a ClientConnection with given
+     * connectionToken. The configuration is rendered once per exam and configuration version.
+     *
+     * @param institutionId the Institution identifier
+     * @param connectionToken The connection token that identifiers the ClientConnection
+     * @return the InMemorySEBConfig with the final configuration data and its ETag or null if not available */
+    InMemorySEBConfig getDefaultExamConfig(
+            Long institutionId,
+            String connectionToken);
+
     /** Get current ClientConnectionData for a specified active SEB client connection.
      * <p>
      * active SEB client connections are connections that were initialized by a SEB client
@@ -194,6 +206,32 @@ public interface ExamSessionService {
             final Long examId,
             final Predicate<ClientConnectionData> filter);
 
+    /** Get the MonitoringSEBConnectionsData for the given exam with only the SEB client connections that has been
+     * inserted, changed or removed since the given change sequence number.
+     * <p>
+     * If the given epoch and sequence number are not known to this service, a full snapshot is given like with
+     * getMonitoringSEBConnectionsData(examId, filter). The connection number mappings always contain the numbers of
+     * all SEB client connections.
+     *
+     * @param examId The exam identifier
+     * @param filter a filter predicate to apply
+     * @param epoch the epoch of the last MonitoringSEBConnectionData the requester has seen (may be null)
+     * @param sequence the sequence number of the last MonitoringSEBConnectionData the requester has seen (may be null)
+     * @return Result refer to delta or full MonitoringSEBConnectionsData of a running exam or to an error when happened */
+    Result<MonitoringSEBConnectionData> getMonitoringSEBConnectionsData(
+            final Long examId,
+            final Predicate<ClientConnectionData> filter,
+            final Long epoch,
+            final Long sequence);
+
+    /** Creates a snapshot of the monitoring data of all SEB client connections of a running exam.
+     * The SEB client connections are resolved and the connection number mappings are computed once and the snapshot
+     * can then be used to create the MonitoringSEBConnectionData for several filters.
+     *
+     * @param examId The exam identifier
+     * @return Result refer to the ExamMonitoringSnapshot of a running exam or to an error when happened */
+    Result<ExamMonitoringSnapshot> getMonitoringSnapshot(Long examId);
+
     /** Get SEB client connection statically data for the given exam and list of connection ids.
      * This is useful if you have monitoring real-time data as MonitoringSEBConnectionData for example and you need to
      * complete this data with the more static client connection data of SEB client, one can reload the static data like
@@ -160,18 +160,22 @@ public interface SEBClientConnectionService {
      *         happened */
     Result<Collection<EntityKey>> disableConnections(final String[] connectionTokens, final Long institutionId);
 
-    /** Streams the requested exam configuration to given HttpServletResponse output stream
+    /** Streams the requested exam configuration to given HttpServletResponse output stream.
+     * The response has the ETag of the exam configuration data. If the given ETag of the client matches,
+     * the response has status NOT_MODIFIED and no content.
      *
      * @param institutionId the institution identifier
      * @param examId the exam identifier
      * @param connectionToken the connection identifier token
      * @param ipAddress the IP Address of the SEB client request
+     * @param clientETag the ETag (If-None-Match header) of the SEB client request or null
      * @param response HttpServletResponse instance to stream the exam configuration to */
     void streamExamConfig(
             Long institutionId,
             Long examId,
             String connectionToken,
             String ipAddress,
+            String clientETag,
             HttpServletResponse response);
 
     void streamLightExamConfig(
@@ -12,7 +12,8 @@ public interface SEBClientPingService {
 
     enum PingServiceType {
         BLOCKING,
-        BATCH
+        BATCH,
+        SHARDED
     }
 
     PingServiceType pingServiceType();
@@ -8,6 +8,8 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.session;
 
+import java.io.InputStream;
+
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnectionData;
 import ch.ethz.seb.sebserver.gbl.util.Result;
@@ -61,6 +63,13 @@ public interface SEBClientSessionService extends ExamUpdateTask, SessionUpdateTa
      * @param jsonBody The SEB client event JSON data */
     void notifyClientEvent(String connectionToken, String jsonBody);
 
+    /** Notify a SEB client event for live indication and storing to database.
+     * The SEB client event JSON data is decoded directly from the given stream on the calling thread.
+     *
+     * @param connectionToken the connection token
+     * @param jsonBody The input stream of the SEB client event JSON data */
+    void notifyClientEvent(String connectionToken, InputStream jsonBody);
+
     /** This is used to confirm SEB instructions that must be confirmed by the SEB client.
      *
      * @param connectionToken The SEB client connection token
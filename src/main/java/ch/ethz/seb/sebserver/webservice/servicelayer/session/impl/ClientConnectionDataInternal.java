@@ -9,7 +9,7 @@
 package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import ch.ethz.seb.sebserver.gbl.model.exam.Indicator;
 import org.apache.commons.lang3.BooleanUtils;
@@ -34,16 +34,35 @@ public class ClientConnectionDataInternal extends ClientConnectionData {
 
     private static final Logger log = LoggerFactory.getLogger(ClientConnectionDataInternal.class);
 
+    private static final int PING_BIT = 1 << Indicator.IndicatorType.LAST_PING.ordinal();
+
     // TODO why list for type? Is it possible to restrict to one per type?
     final EnumMap<EventType, Collection<ClientIndicator>> indicatorMapping;
     final EnumMap<Indicator.IndicatorType, ClientIndicator> indicatorTypeMapping;
 
     PingIntervalClientIndicator pingIndicator = null;
+    // the slot of this connection within the ClientConnectionRegistry or -1 if not registered
+    volatile int registrySlot = -1;
     private final PendingNotificationIndication pendingNotificationIndication;
 
     private final Boolean grantDenied;
     private final Boolean sebVersionDenied;
 
+    // Incident and warning bits per indicator type (ordinal). If all indicator values are held in memory,
+    // the bits are precomputed on indicator value changes and on ping deadline expiry, and incident
+    // checks are bit tests. Otherwise (distributed setup) the indicators are evaluated on each check.
+    private final boolean precomputed;
+    private final AtomicInteger incidentBits = new AtomicInteger();
+    private final AtomicInteger warningBits = new AtomicInteger();
+
+    // The display values and threshold weights of the indicators in the order of the indicator values.
+    // Precomputed on indicator value changes like the incident bits, except for the ping indicator
+    // whose value changes with time.
+    private final ClientIndicator[] indicators;
+    private final long[] indicatorIds;
+    private final String[] displayValues;
+    private final byte[] thresholdWeights;
+
     public ClientConnectionDataInternal(
             final ClientConnection clientConnection,
             final PendingNotificationIndication pendingNotificationIndication,
@@ -82,14 +101,60 @@ public class ClientConnectionDataInternal extends ClientConnectionData {
         } else {
             this.sebVersionDenied = !clientConnection.clientVersionGranted;
         }
+
+        this.indicators = clientIndicators.toArray(new ClientIndicator[0]);
+        this.indicatorIds = new long[this.indicators.length];
+        for (int i = 0; i < this.indicators.length; i++) {
+            final Long indicatorId = this.indicators[i].getIndicatorId();
+            this.indicatorIds[i] = (indicatorId != null) ? indicatorId : -1L;
+        }
+        this.displayValues = new String[this.indicators.length];
+        this.thresholdWeights = new byte[this.indicators.length];
+
+        this.precomputed = clientIndicators.stream().allMatch(ClientIndicator::isValueCached);
+        for (final ClientIndicator indicator : this.indicators) {
+            updateIndicatorState(indicator);
+        }
     }
 
     public final void notifyPing(final long timestamp) {
         if (this.pingIndicator != null) {
             this.pingIndicator.notifyPing(timestamp);
+            // a ping is never missing
+            this.incidentBits.getAndUpdate(bits -> bits & ~PING_BIT);
+            this.warningBits.getAndUpdate(bits -> bits & ~PING_BIT);
+        }
+    }
+
+    /** Restores the last ping time of a reloaded connection without propagating it to the persistent store */
+    final void restoreLastPing(final long timestamp) {
+        if (this.pingIndicator != null) {
+            this.pingIndicator.restorePing(timestamp);
+            updateIndicatorState(this.pingIndicator);
+        }
+    }
+
+    /** Notifies a value change to all indicators of this connection that observe the given event type
+     * and updates the incident and warning bits of these indicators.
+     *
+     * @param eventType the event type
+     * @param textValue the text value of the event
+     * @param numValue the number value of the event */
+    final void notifyValueChange(final EventType eventType, final String textValue, final double numValue) {
+        for (final ClientIndicator indicator : getIndicatorMapping(eventType)) {
+            indicator.notifyValueChange(textValue, numValue);
+            updateIndicatorState(indicator);
         }
     }
 
+    /** Checks the ping indicator of this connection with the current time and updates its incident bit.
+     * This is called on ping deadline expiry and for connections with a missing ping.
+     *
+     * @return true if the ping of this connection is missing */
+    final boolean checkMissingPing() {
+        return this.pingIndicator != null && updateIndicatorState(this.pingIndicator);
+    }
+
     Collection<ClientIndicator> getIndicatorMapping(final EventType eventType) {
         return this.indicatorMapping.getOrDefault(
                 eventType,
@@ -99,6 +164,9 @@ public class ClientConnectionDataInternal extends ClientConnectionData {
     @Override
     @JsonProperty(ATTR_MISSING_PING)
     public final Boolean getMissingPing() {
+        if (this.precomputed) {
+            return (this.incidentBits.get() & PING_BIT) != 0;
+        }
         return this.pingIndicator != null && this.pingIndicator.hasIncident();
     }
 
@@ -111,17 +179,27 @@ public class ClientConnectionDataInternal extends ClientConnectionData {
     @Override
     @JsonIgnore
     public final boolean hasAnyIncident() {
+        if (this.precomputed) {
+            return this.incidentBits.get() != 0 || pendingNotification();
+        }
         return getMissingPing() || pendingNotification() || hasIncident();
     }
 
     @JsonIgnore
     public final boolean hasIncident(final Indicator.IndicatorType type) {
+        if (this.precomputed) {
+            return (this.incidentBits.get() & (1 << type.ordinal())) != 0;
+        }
         final ClientIndicator clientIndicator = indicatorTypeMapping.get(type);
         return clientIndicator != null && clientIndicator.hasIncident();
     }
 
     @JsonIgnore
     public final boolean hasWarning(final Indicator.IndicatorType type) {
+        // the ping warning is not scheduled and therefore always checked with the current time
+        if (this.precomputed && type != Indicator.IndicatorType.LAST_PING) {
+            return (this.warningBits.get() & (1 << type.ordinal())) != 0;
+        }
         final ClientIndicator clientIndicator = indicatorTypeMapping.get(type);
         return clientIndicator != null && clientIndicator.hasWarning();
     }
@@ -145,6 +223,52 @@ public class ClientConnectionDataInternal extends ClientConnectionData {
                 .anyMatch(ClientIndicator::hasIncident);
     }
 
+    private boolean updateIndicatorState(final ClientIndicator indicator) {
+        final int bit = 1 << indicator.getType().ordinal();
+        final boolean incident = indicator.hasIncident();
+        final boolean warning = indicator.hasWarning();
+        this.incidentBits.getAndUpdate(bits -> incident ? bits | bit : bits & ~bit);
+        this.warningBits.getAndUpdate(bits -> warning ? bits | bit : bits & ~bit);
+
+        if (this.precomputed && indicator != this.pingIndicator) {
+            for (int i = 0; i < this.indicators.length; i++) {
+                if (this.indicators[i] == indicator) {
+                    this.displayValues[i] = IndicatorValue.getDisplayValue(indicator);
+                    this.thresholdWeights[i] = (byte) getThresholdWeight(indicator);
+                }
+            }
+        }
+        return incident;
+    }
+
+    private int indicatorIndex(final long indicatorId) {
+        for (int i = 0; i < this.indicatorIds.length; i++) {
+            if (this.indicatorIds[i] == indicatorId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isPrecomputed(final int index) {
+        return this.precomputed && this.indicators[index] != this.pingIndicator;
+    }
+
+    private static int getThresholdWeight(final ClientIndicator indicator) {
+        final Indicator.DataMap dataMap = indicator.getDataMap();
+        if (dataMap == null) {
+            return -1;
+        }
+
+        // the weight of the display value (integer values are truncated)
+        final double value = indicator.getValue();
+        final Indicator.IndicatorType type = indicator.getType();
+        return IndicatorValue.getThresholdWeight(
+                (type.integerValue && !Double.isNaN(value)) ? (long) value : value,
+                dataMap.thresholdValues,
+                type.inverse);
+    }
+
     /** This is a wrapper for the live monitoring data view of this client connection data */
     @JsonIgnore
     public final ClientMonitoringDataView monitoringDataView = new ClientMonitoringDataView() {
@@ -161,11 +285,40 @@ public class ClientConnectionDataInternal extends ClientConnectionData {
 
         @Override
         public Map<Long, String> getIndicatorValues() {
-            return ClientConnectionDataInternal.this.indicatorValues
-                    .stream()
-                    .collect(Collectors.toMap(
-                            IndicatorValue::getIndicatorId,
-                            IndicatorValue::getDisplayValue));
+            final long[] ids = ClientConnectionDataInternal.this.indicatorIds;
+            final Map<Long, String> result = new HashMap<>(ids.length * 2);
+            for (int i = 0; i < ids.length; i++) {
+                result.put(ids[i], getIndicatorValue(ids[i]));
+            }
+            return result;
+        }
+
+        @Override
+        @JsonIgnore
+        public long[] getIndicatorIds() {
+            return ClientConnectionDataInternal.this.indicatorIds;
+        }
+
+        @Override
+        public String getIndicatorValue(final long indicatorId) {
+            final int index = indicatorIndex(indicatorId);
+            if (index < 0) {
+                return null;
+            }
+            return isPrecomputed(index)
+                    ? ClientConnectionDataInternal.this.displayValues[index]
+                    : IndicatorValue.getDisplayValue(ClientConnectionDataInternal.this.indicators[index]);
+        }
+
+        @Override
+        public int getIndicatorWeight(final long indicatorId) {
+            final int index = indicatorIndex(indicatorId);
+            if (index < 0) {
+                return NO_WEIGHT;
+            }
+            return isPrecomputed(index)
+                    ? ClientConnectionDataInternal.this.thresholdWeights[index]
+                    : getThresholdWeight(ClientConnectionDataInternal.this.indicators[index]);
         }
 
         @Override
@@ -0,0 +1,581 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryRemovedListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
+import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
+import ch.ethz.seb.sebserver.gbl.util.Utils;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.indicator.PingIntervalClientIndicator;
+
+/** In-process registry of active SEB client connections of this webservice.
+ * <p>
+ * Each active connection that is resolved by its connection token gets a dense integer slot assigned. The slot is
+ * used to index the ClientConnectionDataInternal and the last ping timestamp in arrays and the connection token is
+ * resolved to the slot by an open-addressing map. Lookups are lock-free and do not go through the Spring cache
+ * proxy. Only a lookup miss falls back to ExamSessionCacheService.getClientConnection.
+ * <p>
+ * The registry listens to removals and expirations of the ACTIVE_CLIENT_CONNECTION cache and invalidates the
+ * respective slot. The slot itself (and the last ping time) is kept for the connection until the exam is finished
+ * or reset and is re-populated with the reloaded ClientConnectionDataInternal on next lookup.
+ * <p>
+ * The ping deadline of each registered connection with a ping indicator is kept in a PingDeadlineWheel that is
+ * rescheduled on every ping. processPingDeadlines only checks the connections whose deadline has passed or
+ * that have a missing ping, instead of all connections.
+ * <p>
+ * If the registry is not able to register the cache listener it is disabled and all lookups fall back to the cache. */
+@Lazy
+@Service
+@WebServiceProfile
+public class ClientConnectionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientConnectionRegistry.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long NO_EXAM = -1L;
+    private static final long PING_DEADLINE_TICK = 100;
+    private static final int PING_DEADLINE_BUCKETS = 1024;
+
+    private final ExamSessionCacheService examSessionCacheService;
+    private final CacheManager cacheManager;
+
+    private volatile boolean enabled = false;
+    private volatile Slots slots = new Slots(INITIAL_CAPACITY);
+    private volatile TokenSlotMap tokenSlotMap = new TokenSlotMap(INITIAL_CAPACITY * 2);
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeSlotsSize = 0;
+    private volatile int highWaterMark = 0;
+    private final Map<Long, AtomicLong> modifications = new ConcurrentHashMap<>();
+    private final PingDeadlineWheel pingDeadlines = new PingDeadlineWheel(
+            PING_DEADLINE_TICK,
+            PING_DEADLINE_BUCKETS,
+            INITIAL_CAPACITY);
+
+    public ClientConnectionRegistry(
+            final ExamSessionCacheService examSessionCacheService,
+            final CacheManager cacheManager) {
+
+        this.examSessionCacheService = examSessionCacheService;
+        this.cacheManager = cacheManager;
+    }
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    protected void init() {
+        try {
+            final Cache cache = this.cacheManager.getCache(ExamSessionCacheService.CACHE_NAME_ACTIVE_CLIENT_CONNECTION);
+            if (cache == null || !(cache.getNativeCache() instanceof javax.cache.Cache)) {
+                log.warn("No JCache for active client connections available. ClientConnectionRegistry is disabled");
+                return;
+            }
+
+            final javax.cache.Cache<String, ClientConnectionDataInternal> nativeCache =
+                    (javax.cache.Cache<String, ClientConnectionDataInternal>) cache.getNativeCache();
+            final CacheEvictionListener listener = new CacheEvictionListener();
+            nativeCache.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(
+                    () -> listener,
+                    null,
+                    false,
+                    true));
+
+            this.enabled = true;
+        } catch (final Exception e) {
+            log.error("Failed to register cache listener. ClientConnectionRegistry is disabled: ", e);
+        }
+    }
+
+    /** Indicates if the registry is enabled. If not, all lookups fall back to the cache and there are no
+     * ping deadlines.
+     *
+     * @return true if the registry is enabled */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /** Get the ClientConnectionDataInternal for a given connection token.
+     * First tries to get it directly from the registry. If not registered, this gets it from
+     * ExamSessionCacheService and registers it.
+     *
+     * @param connectionToken the connection token
+     * @return ClientConnectionDataInternal or null if there is no active client connection for the given token */
+    public ClientConnectionDataInternal getConnection(final String connectionToken) {
+        if (connectionToken == null) {
+            return null;
+        }
+
+        final ClientConnectionDataInternal registered = getRegistered(connectionToken);
+        if (registered != null) {
+            return registered;
+        }
+
+        final ClientConnectionDataInternal connection = this.examSessionCacheService
+                .getClientConnection(connectionToken);
+        if (connection != null) {
+            register(connection);
+        }
+        return connection;
+    }
+
+    /** Get the ClientConnectionDataInternal for a given connection token only if it is registered.
+     *
+     * @param connectionToken the connection token
+     * @return ClientConnectionDataInternal or null if not registered or invalidated */
+    public ClientConnectionDataInternal getRegistered(final String connectionToken) {
+        if (!this.enabled || connectionToken == null) {
+            return null;
+        }
+
+        final int slot = this.tokenSlotMap.get(connectionToken);
+        if (slot < 0) {
+            return null;
+        }
+
+        final ClientConnectionDataInternal connection = this.slots.get(slot);
+        if (connection == null || !connectionToken.equals(connection.clientConnection.connectionToken)) {
+            return null;
+        }
+        return connection;
+    }
+
+    /** Notifies a SEB client ping for the given client connection. Stores the timestamp in the
+     * ping slot of the connection, reschedules the ping deadline of the connection and propagates
+     * the ping to the ping indicator of the connection.
+     *
+     * @param connection the ClientConnectionDataInternal
+     * @param timestamp the ping timestamp */
+    public void notifyPing(final ClientConnectionDataInternal connection, final long timestamp) {
+        final int slot = connection.registrySlot;
+        final Slots slots = this.slots;
+        if (slot >= 0 && slots.get(slot) == connection) {
+            slots.pingTimes.set(slot, timestamp);
+            if (slots.retired) {
+                // the slot arrays are grown concurrently and the write may not have been copied
+                updatePingTime(slot, timestamp);
+            }
+            schedulePingDeadline(slot, connection, timestamp);
+        }
+        connection.notifyPing(timestamp);
+    }
+
+    /** Checks the ping of all registered connections whose ping deadline has passed since the last call
+     * or that had a missing ping on the last check. The given check is applied to each of these connections
+     * and is expected to detect and handle the missing ping and back to normal transitions.
+     * <p>
+     * A connection without a missing ping after the check is rescheduled with the last ping time of its ping
+     * indicator. This also covers pings that were received by another webservice in a distributed setup.
+     * A connection with a missing ping is checked on every call until it is back to normal.
+     *
+     * @param now the current time in milliseconds
+     * @param check the check for each connection with a passed ping deadline or a missing ping */
+    public void processPingDeadlines(final long now, final Consumer<ClientConnectionDataInternal> check) {
+        if (!this.enabled) {
+            return;
+        }
+
+        for (final int slot : this.pingDeadlines.advance(now)) {
+            final Slots slots = this.slots;
+            ClientConnectionDataInternal connection = slots.get(slot);
+            if (connection == null && slot < slots.capacity && slots.tokens[slot] != null) {
+                // invalidated connection, reload and register it again
+                connection = getConnection(slots.tokens[slot]);
+            }
+
+            if (connection == null
+                    || connection.pingIndicator == null
+                    || !ClientConnection.ACTIVE_STATES.contains(connection.clientConnection.status.name())) {
+                this.pingDeadlines.cancel(slot);
+                continue;
+            }
+
+            check.accept(connection);
+
+            if (connection.checkMissingPing()) {
+                this.pingDeadlines.setMissing(slot, true);
+            } else {
+                this.pingDeadlines.setMissing(slot, false);
+                final double sinceLastPing = connection.pingIndicator.getValue();
+                if (!Double.isNaN(sinceLastPing)) {
+                    schedulePingDeadline(slot, connection, now - (long) sinceLastPing);
+                }
+            }
+        }
+    }
+
+    /** Get the last ping time that was notified for the given connection token.
+     *
+     * @param connectionToken the connection token
+     * @return the last ping time or 0 if there was no ping notified for the connection */
+    public long getLastPing(final String connectionToken) {
+        final int slot = this.tokenSlotMap.get(connectionToken);
+        return (slot < 0) ? 0 : this.slots.pingTimes.get(slot);
+    }
+
+    /** Get all ClientConnectionDataInternal of a given exam.
+     * <p>
+     * If all connections of the exam are registered and valid, this iterates the registry slots directly.
+     * Otherwise, this resolves each given token with getConnection and therefore registers missing connections.
+     *
+     * @param examId the exam identifier
+     * @param connectionTokens all connection tokens of the exam
+     * @return Collection of all active ClientConnectionDataInternal of the exam */
+    public Collection<ClientConnectionDataInternal> getConnectionsOfExam(
+            final Long examId,
+            final Collection<String> connectionTokens) {
+
+        if (this.enabled) {
+            final List<ClientConnectionDataInternal> result = new ArrayList<>(connectionTokens.size());
+            if (forEachOfExam(examId, result::add) && result.size() == connectionTokens.size()) {
+                return result;
+            }
+        }
+
+        final List<ClientConnectionDataInternal> result = new ArrayList<>(connectionTokens.size());
+        for (final String token : connectionTokens) {
+            final ClientConnectionDataInternal connection = getConnection(token);
+            if (connection != null) {
+                result.add(connection);
+            }
+        }
+        return result;
+    }
+
+    /** Iterates over all registered connections of the given exam.
+     *
+     * @param examId the exam identifier
+     * @param consumer the consumer for each registered connection
+     * @return true if all registered slots of the exam hold a valid connection, false if there are invalidated
+     *         slots */
+    public boolean forEachOfExam(final Long examId, final Consumer<ClientConnectionDataInternal> consumer) {
+        final long exam = (examId != null) ? examId : NO_EXAM;
+        final Slots slots = this.slots;
+        final int max = Math.min(this.highWaterMark, slots.capacity);
+        boolean valid = true;
+        for (int i = 0; i < max; i++) {
+            if (slots.examIds.get(i) != exam) {
+                continue;
+            }
+            final ClientConnectionDataInternal connection = slots.get(i);
+            if (connection != null) {
+                consumer.accept(connection);
+            } else {
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    /** Invalidates the registered connection for the given token. The slot of the connection is kept
+     * and re-populated on next lookup.
+     *
+     * @param connectionToken the connection token */
+    public synchronized void invalidate(final String connectionToken) {
+        final int slot = this.tokenSlotMap.get(connectionToken);
+        if (slot >= 0) {
+            this.slots.connections.set(slot, null);
+            modified(this.slots.examIds.get(slot));
+        }
+    }
+
+    /** Get the modification count of the registered connections of the given exam. The count is increased
+     * whenever a connection of the exam is registered or invalidated and can be used to check if data that
+     * is derived from the connections of the exam is still up to date.
+     *
+     * @param examId the exam identifier
+     * @return the modification count of the registered connections of the given exam */
+    public long getModificationCount(final Long examId) {
+        final AtomicLong count = this.modifications.get((examId != null) ? examId : NO_EXAM);
+        return (count != null) ? count.get() : 0;
+    }
+
+    /** Removes all registered connections of the given exam and releases the slots.
+     *
+     * @param examId the exam identifier */
+    public synchronized void removeExam(final Long examId) {
+        final long exam = (examId != null) ? examId : NO_EXAM;
+        final Slots slots = this.slots;
+        for (int i = 0; i < this.highWaterMark; i++) {
+            if (slots.examIds.get(i) == exam && slots.tokens[i] != null) {
+                releaseSlot(i);
+            }
+        }
+        modified(exam);
+    }
+
+    /** Get the number of currently registered connections */
+    public synchronized int size() {
+        return this.highWaterMark - this.freeSlotsSize;
+    }
+
+    synchronized void register(final ClientConnectionDataInternal connection) {
+        if (!this.enabled) {
+            return;
+        }
+
+        final String token = connection.clientConnection.connectionToken;
+        final long examId = (connection.clientConnection.examId != null)
+                ? connection.clientConnection.examId
+                : NO_EXAM;
+
+        int slot = this.tokenSlotMap.get(token);
+        if (slot < 0) {
+            slot = allocateSlot();
+            this.slots.tokens[slot] = token;
+            this.slots.pingTimes.set(slot, 0L);
+            this.tokenSlotMap = this.tokenSlotMap.put(token, slot);
+        } else {
+            // restore the last ping time of a reloaded connection
+            final long lastPing = this.slots.pingTimes.get(slot);
+            if (lastPing > 0 && this.slots.get(slot) != connection) {
+                connection.restoreLastPing(lastPing);
+            }
+        }
+
+        connection.registrySlot = slot;
+        this.slots.examIds.set(slot, examId);
+        this.slots.connections.set(slot, connection);
+        modified(examId);
+
+        final long lastPing = this.slots.pingTimes.get(slot);
+        schedulePingDeadline(slot, connection, (lastPing > 0) ? lastPing : Utils.getMillisecondsNow());
+    }
+
+    private synchronized void updatePingTime(final int slot, final long timestamp) {
+        this.slots.pingTimes.accumulateAndGet(slot, timestamp, Math::max);
+    }
+
+    private void schedulePingDeadline(
+            final int slot,
+            final ClientConnectionDataInternal connection,
+            final long lastPing) {
+
+        final PingIntervalClientIndicator pingIndicator = connection.pingIndicator;
+        if (pingIndicator == null || pingIndicator.getDataMap() == null) {
+            return;
+        }
+
+        // no deadline for ping indicators without incident threshold
+        final double threshold = pingIndicator.getDataMap().incidentThreshold;
+        if (threshold >= Integer.MAX_VALUE) {
+            return;
+        }
+
+        this.pingDeadlines.schedule(slot, lastPing + (long) threshold);
+    }
+
+    private void modified(final long examId) {
+        this.modifications.computeIfAbsent(examId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    private int allocateSlot() {
+        if (this.freeSlotsSize > 0) {
+            return this.freeSlots[--this.freeSlotsSize];
+        }
+
+        if (this.highWaterMark == this.slots.capacity) {
+            this.slots = this.slots.grow();
+        }
+        return this.highWaterMark++;
+    }
+
+    private void releaseSlot(final int slot) {
+        final Slots slots = this.slots;
+        final String token = slots.tokens[slot];
+        final ClientConnectionDataInternal connection = slots.get(slot);
+        if (connection != null) {
+            connection.registrySlot = -1;
+        }
+
+        this.tokenSlotMap.remove(token);
+        slots.tokens[slot] = null;
+        slots.connections.set(slot, null);
+        slots.examIds.set(slot, NO_EXAM - 1);
+        slots.pingTimes.set(slot, 0L);
+        this.pingDeadlines.cancel(slot);
+
+        if (this.freeSlotsSize == this.freeSlots.length) {
+            final int[] newFreeSlots = new int[this.freeSlots.length * 2];
+            System.arraycopy(this.freeSlots, 0, newFreeSlots, 0, this.freeSlotsSize);
+            this.freeSlots = newFreeSlots;
+        }
+        this.freeSlots[this.freeSlotsSize++] = slot;
+    }
+
+    private final class CacheEvictionListener implements
+            CacheEntryRemovedListener<String, ClientConnectionDataInternal>,
+            CacheEntryExpiredListener<String, ClientConnectionDataInternal> {
+
+        @Override
+        public void onRemoved(
+                final Iterable<CacheEntryEvent<? extends String, ? extends ClientConnectionDataInternal>> events) {
+            events.forEach(event -> invalidate(event.getKey()));
+        }
+
+        @Override
+        public void onExpired(
+                final Iterable<CacheEntryEvent<? extends String, ? extends ClientConnectionDataInternal>> events) {
+            events.forEach(event -> invalidate(event.getKey()));
+        }
+    }
+
+    /** Slot arrays. Only grown and modified within the registry lock, read lock-free.
+     * The ping times are also written lock-free. Before a grow copies the ping times, the arrays are
+     * marked retired, so that a ping writer that sees the retired mark writes its ping time again within
+     * the registry lock to the grown arrays. */
+    private static final class Slots {
+
+        final int capacity;
+        final String[] tokens;
+        final AtomicReferenceArray<ClientConnectionDataInternal> connections;
+        final AtomicLongArray examIds;
+        final AtomicLongArray pingTimes;
+        volatile boolean retired = false;
+
+        Slots(final int capacity) {
+            this.capacity = capacity;
+            this.tokens = new String[capacity];
+            this.connections = new AtomicReferenceArray<>(capacity);
+            this.examIds = new AtomicLongArray(capacity);
+            this.pingTimes = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                this.examIds.set(i, NO_EXAM - 1);
+            }
+        }
+
+        ClientConnectionDataInternal get(final int slot) {
+            return (slot < this.capacity) ? this.connections.get(slot) : null;
+        }
+
+        Slots grow() {
+            this.retired = true;
+            final Slots grown = new Slots(this.capacity * 2);
+            System.arraycopy(this.tokens, 0, grown.tokens, 0, this.capacity);
+            for (int i = 0; i < this.capacity; i++) {
+                grown.connections.set(i, this.connections.get(i));
+                grown.examIds.set(i, this.examIds.get(i));
+                grown.pingTimes.set(i, this.pingTimes.get(i));
+            }
+            return grown;
+        }
+    }
+
+    /** Open-addressing (linear probing) map from connection token to slot.
+     * Writes are done within the registry lock, reads are lock-free. */
+    static final class TokenSlotMap {
+
+        private static final String TOMBSTONE = new String("TOMBSTONE");
+
+        private final int mask;
+        private final AtomicReferenceArray<String> keys;
+        private final AtomicIntegerArray values;
+        private int used = 0;
+
+        TokenSlotMap(final int capacity) {
+            int cap = 16;
+            while (cap < capacity) {
+                cap <<= 1;
+            }
+            this.mask = cap - 1;
+            this.keys = new AtomicReferenceArray<>(cap);
+            this.values = new AtomicIntegerArray(cap);
+        }
+
+        int get(final String key) {
+            int index = hash(key) & this.mask;
+            for (int i = 0; i <= this.mask; i++) {
+                final String k = this.keys.get(index);
+                if (k == null) {
+                    return -1;
+                }
+                if (k != TOMBSTONE && k.equals(key)) {
+                    return this.values.get(index);
+                }
+                index = (index + 1) & this.mask;
+            }
+            return -1;
+        }
+
+        /** Puts the key/value and returns the map to use from now on, that is a new one if it has been resized */
+        TokenSlotMap put(final String key, final int value) {
+            if ((this.used + 1) * 2 > this.mask + 1) {
+                final TokenSlotMap resized = new TokenSlotMap((this.mask + 1) * 2);
+                for (int i = 0; i <= this.mask; i++) {
+                    final String k = this.keys.get(i);
+                    if (k != null && k != TOMBSTONE) {
+                        resized.put(k, this.values.get(i));
+                    }
+                }
+                return resized.put(key, value);
+            }
+
+            int index = hash(key) & this.mask;
+            while (true) {
+                final String k = this.keys.get(index);
+                if (k == null || k == TOMBSTONE) {
+                    // value first, readers see the value when they see the key
+                    this.values.set(index, value);
+                    this.keys.set(index, key);
+                    if (k == null) {
+                        this.used++;
+                    }
+                    return this;
+                }
+                if (k.equals(key)) {
+                    this.values.set(index, value);
+                    return this;
+                }
+                index = (index + 1) & this.mask;
+            }
+        }
+
+        void remove(final String key) {
+            int index = hash(key) & this.mask;
+            for (int i = 0; i <= this.mask; i++) {
+                final String k = this.keys.get(index);
+                if (k == null) {
+                    return;
+                }
+                if (k != TOMBSTONE && k.equals(key)) {
+                    this.keys.set(index, TOMBSTONE);
+                    return;
+                }
+                index = (index + 1) & this.mask;
+            }
+        }
+
+        private static int hash(final String key) {
+            final int h = Objects.hashCode(key);
+            return h ^ (h >>> 16);
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import ch.ethz.seb.sebserver.gbl.model.Domain;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent.EventType;
+
+/** Decodes SEB client event JSON directly from a stream with the Jackson streaming parser.
+ * </p>
+ * This avoids to materialize the request body as String and the data-binding overhead for the hot SEB event
+ * endpoint. The decoding follows the data-binding of ClientEvent: unknown properties are ignored, the event type
+ * is accepted either by name or by index and null values are treated as not present. Numeric properties are
+ * accepted as JSON numbers or as numeric Strings, other values are rejected. */
+public final class ClientEventDecoder {
+
+    private ClientEventDecoder() {
+    }
+
+    /** Decodes one SEB client event from the given JSON input stream.
+     *
+     * @param jsonFactory the Jackson JsonFactory to create the parser with
+     * @param jsonBody the input stream of the JSON event object
+     * @return the decoded ClientEvent
+     * @throws IOException if the stream cannot be read or contains no valid SEB client event JSON object */
+    public static ClientEvent decode(final JsonFactory jsonFactory, final InputStream jsonBody) throws IOException {
+        try (final JsonParser parser = jsonFactory.createParser(jsonBody)) {
+            return decode(parser);
+        }
+    }
+
+    /** Decodes one SEB client event from the given JSON String.
+     *
+     * @param jsonFactory the Jackson JsonFactory to create the parser with
+     * @param jsonBody the JSON event object
+     * @return the decoded ClientEvent
+     * @throws IOException if the String contains no valid SEB client event JSON object */
+    public static ClientEvent decode(final JsonFactory jsonFactory, final String jsonBody) throws IOException {
+        try (final JsonParser parser = jsonFactory.createParser(jsonBody)) {
+            return decode(parser);
+        }
+    }
+
+    private static ClientEvent decode(final JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a SEB client event JSON object");
+        }
+
+        Long id = null;
+        Long connectionId = null;
+        EventType eventType = null;
+        Long clientTime = null;
+        Long serverTime = null;
+        Double numValue = null;
+        String text = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            final JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+
+            switch (name) {
+                case Domain.CLIENT_EVENT.ATTR_ID:
+                    id = decodeLong(parser, token, name);
+                    break;
+                case Domain.CLIENT_EVENT.ATTR_CLIENT_CONNECTION_ID:
+                    connectionId = decodeLong(parser, token, name);
+                    break;
+                case Domain.CLIENT_EVENT.ATTR_TYPE:
+                    eventType = decodeEventType(parser, token);
+                    break;
+                case ClientEvent.ATTR_TIMESTAMP:
+                    clientTime = decodeLong(parser, token, name);
+                    break;
+                case Domain.CLIENT_EVENT.ATTR_SERVER_TIME:
+                    serverTime = decodeLong(parser, token, name);
+                    break;
+                case Domain.CLIENT_EVENT.ATTR_NUMERIC_VALUE:
+                    numValue = decodeDouble(parser, token, name);
+                    break;
+                case Domain.CLIENT_EVENT.ATTR_TEXT:
+                    text = parser.getValueAsString();
+                    break;
+                default:
+                    // ignore unknown properties
+            }
+        }
+
+        return new ClientEvent(id, connectionId, eventType, clientTime, serverTime, numValue, text);
+    }
+
+    private static Long decodeLong(
+            final JsonParser parser,
+            final JsonToken token,
+            final String name) throws IOException {
+
+        if (token.isNumeric()) {
+            return parser.getValueAsLong();
+        }
+
+        final String value = getNumericString(parser, token, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (final NumberFormatException e) {
+            throw new JsonParseException(parser, "Invalid numeric value for SEB client event property: " + name);
+        }
+    }
+
+    private static Double decodeDouble(
+            final JsonParser parser,
+            final JsonToken token,
+            final String name) throws IOException {
+
+        if (token.isNumeric()) {
+            return parser.getValueAsDouble();
+        }
+
+        final String value = getNumericString(parser, token, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (final NumberFormatException e) {
+            throw new JsonParseException(parser, "Invalid numeric value for SEB client event property: " + name);
+        }
+    }
+
+    private static String getNumericString(
+            final JsonParser parser,
+            final JsonToken token,
+            final String name) throws IOException {
+
+        if (token != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, "Invalid numeric value for SEB client event property: " + name);
+        }
+
+        // an empty String is treated as not present like within the data-binding
+        final String value = parser.getText().trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static EventType decodeEventType(final JsonParser parser, final JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            final int index = parser.getIntValue();
+            final EventType[] values = EventType.values();
+            if (index < 0 || index >= values.length) {
+                throw new JsonParseException(parser, "Invalid SEB client event type index: " + index);
+            }
+            return values[index];
+        }
+
+        final String name = parser.getValueAsString();
+        try {
+            return EventType.valueOf(name);
+        } catch (final IllegalArgumentException e) {
+            throw new JsonParseException(parser, "Invalid SEB client event type: " + name);
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.BooleanUtils;
+
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionIssueStatus;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamMonitoringFilter;
+
+/** Bitset index over the SEB client connections of a monitoring snapshot.
+ * </p>
+ * The index of a client connection is its position in the connection list of the snapshot. There is one bitset
+ * per connection status, per connection issue and per client group, and one for active client connections with
+ * an incident. The ExamMonitoringFilter and the connection counters are so applied with bitwise operations and
+ * cardinality instead of testing every client connection.
+ * </p>
+ * The index is immutable after creation and can be read concurrently. */
+final class ExamConnectionIndex {
+
+    private static final ConnectionStatus[] STATES = ConnectionStatus.values();
+    private static final ConnectionIssueStatus[] ISSUES = ConnectionIssueStatus.values();
+
+    final int size;
+
+    private final BitSet[] byStatus = new BitSet[STATES.length];
+    private final BitSet[] byIssue = new BitSet[ISSUES.length];
+    private final Map<Long, BitSet> byClientGroup = new HashMap<>();
+    private final BitSet withoutClientGroup;
+    private final BitSet activeIncident;
+    private final Map<Long, Integer> positions;
+
+    ExamConnectionIndex(final List<ClientConnectionDataInternal> connections) {
+        this.size = connections.size();
+        for (int i = 0; i < this.byStatus.length; i++) {
+            this.byStatus[i] = new BitSet(this.size);
+        }
+        for (int i = 0; i < this.byIssue.length; i++) {
+            this.byIssue[i] = new BitSet(this.size);
+        }
+        this.withoutClientGroup = new BitSet(this.size);
+        this.activeIncident = new BitSet(this.size);
+        this.positions = new HashMap<>(this.size * 2);
+
+        for (int i = 0; i < this.size; i++) {
+            final ClientConnectionDataInternal connection = connections.get(i);
+            final ConnectionStatus status = connection.clientConnection.status;
+
+            this.positions.put(connection.clientConnection.id, i);
+            this.byStatus[status.ordinal()].set(i);
+
+            if (BooleanUtils.isFalse(connection.clientConnection.securityCheckGranted)) {
+                this.byIssue[ConnectionIssueStatus.ASK_GRANTED.ordinal()].set(i);
+            }
+            if (BooleanUtils.isFalse(connection.clientConnection.clientVersionGranted)) {
+                this.byIssue[ConnectionIssueStatus.SEB_VERSION_GRANTED.ordinal()].set(i);
+            }
+
+            if (connection.groups == null) {
+                this.withoutClientGroup.set(i);
+            } else {
+                for (final Long groupId : connection.groups) {
+                    this.byClientGroup.computeIfAbsent(groupId, id -> new BitSet(this.size)).set(i);
+                }
+            }
+
+            // incidents are only relevant for the filter of active connections
+            if (status == ConnectionStatus.ACTIVE && connection.hasAnyIncident()) {
+                this.activeIncident.set(i);
+            }
+        }
+    }
+
+    /** Get the position of the client connection with the given identifier
+     *
+     * @param connectionId the client connection identifier (PK)
+     * @return the position of the client connection or -1 if it is not part of the index */
+    int position(final Long connectionId) {
+        final Integer position = this.positions.get(connectionId);
+        return (position != null) ? position : -1;
+    }
+
+    /** Selects all client connections that match the given filter
+     *
+     * @param filter the ExamMonitoringFilter
+     * @return BitSet with the positions of all client connections that match the filter */
+    BitSet select(final ExamMonitoringFilter filter) {
+        final BitSet result = new BitSet(this.size);
+        result.set(0, this.size);
+
+        for (final ConnectionStatus status : filter.hiddenStates) {
+            result.andNot(this.byStatus[status.ordinal()]);
+        }
+        if (filter.activeHidden) {
+            final BitSet activeWithoutIncident = (BitSet) this.byStatus[ConnectionStatus.ACTIVE.ordinal()].clone();
+            activeWithoutIncident.andNot(this.activeIncident);
+            result.andNot(activeWithoutIncident);
+        }
+
+        for (final ConnectionIssueStatus issue : filter.issues) {
+            result.and(this.byIssue[issue.ordinal()]);
+        }
+
+        if (!filter.hiddenClientGroups.isEmpty()) {
+            final BitSet visible = (BitSet) this.withoutClientGroup.clone();
+            this.byClientGroup.forEach((groupId, connections) -> {
+                if (!filter.hiddenClientGroups.contains(groupId)) {
+                    visible.or(connections);
+                }
+            });
+            result.and(visible);
+        }
+
+        return result;
+    }
+
+    /** Get the number of client connections per connection status indexed by the status code */
+    int[] countPerStatus() {
+        final int[] result = new int[STATES.length];
+        for (final ConnectionStatus status : STATES) {
+            result[status.code] = this.byStatus[status.ordinal()].cardinality();
+        }
+        return result;
+    }
+
+    /** Get the number of client connections with an issue indexed by the issue code */
+    int[] countPerIssue() {
+        final int[] result = new int[ISSUES.length];
+        for (final ConnectionIssueStatus issue : ISSUES) {
+            result[issue.code] = this.byIssue[issue.ordinal()].cardinality();
+        }
+        return result;
+    }
+
+    /** Get the number of client connections per client group for all client groups that has connections */
+    Map<Long, Integer> countPerClientGroup() {
+        final Map<Long, Integer> result = new HashMap<>();
+        this.byClientGroup.forEach((groupId, connections) -> result.put(groupId, connections.cardinality()));
+        return result;
+    }
+
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import ch.ethz.seb.sebserver.gbl.async.AsyncServiceSpringConfig;
+import ch.ethz.seb.sebserver.gbl.model.exam.Exam;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnectionData;
+import ch.ethz.seb.sebserver.gbl.model.session.ProctoringGroupMonitoringData;
+import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringFullPageData;
+import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringSEBConnectionData;
+import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
+import ch.ethz.seb.sebserver.gbl.util.Result;
+import ch.ethz.seb.sebserver.webservice.servicelayer.exam.ExamAdminService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamMonitoringBroadcastService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamSessionService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ScreenProctoringService;
+
+@Lazy
+@Service
+@WebServiceProfile
+public class ExamMonitoringBroadcastServiceImpl implements ExamMonitoringBroadcastService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExamMonitoringBroadcastServiceImpl.class);
+
+    private static final long REJECTED_RETRY_DELAY = 200;
+
+    private final ExamSessionService examSessionService;
+    private final ExamAdminService examAdminService;
+    private final ScreenProctoringService screenProctoringService;
+    private final TaskScheduler taskScheduler;
+    private final Executor executor;
+    private final long interval;
+
+    private final Map<Long, ExamProducer> producers = new ConcurrentHashMap<>();
+
+    public ExamMonitoringBroadcastServiceImpl(
+            final ExamSessionService examSessionService,
+            final ExamAdminService examAdminService,
+            final ScreenProctoringService screenProctoringService,
+            final TaskScheduler taskScheduler,
+            @Qualifier(AsyncServiceSpringConfig.EXAM_MONITORING_PUSH_EXECUTOR_BEAN_NAME) final Executor executor,
+            @Value("${sebserver.webservice.api.exam.monitoring.push.interval:2000}") final long interval) {
+
+        this.examSessionService = examSessionService;
+        this.examAdminService = examAdminService;
+        this.screenProctoringService = screenProctoringService;
+        this.taskScheduler = taskScheduler;
+        this.executor = executor;
+        this.interval = Math.max(100, interval);
+    }
+
+    @Override
+    public Subscription subscribe(
+            final Exam exam,
+            final Predicate<ClientConnectionData> filter,
+            final Long epoch,
+            final Long sequence,
+            final MonitoringFrameSink sink) {
+
+        final Subscriber subscriber = new Subscriber(filter, epoch, sequence, sink);
+        final ExamProducer producer = this.producers.compute(exam.id, (id, current) -> {
+            final ExamProducer examProducer = (current != null) ? current : new ExamProducer(exam);
+            examProducer.subscribers.add(subscriber);
+            subscriber.producer = examProducer;
+            if (current == null) {
+                examProducer.start();
+            }
+            return examProducer;
+        });
+
+        if (log.isDebugEnabled()) {
+            log.debug("New monitoring subscriber for exam: {} subscribers: {}",
+                    exam.id,
+                    producer.subscribers.size());
+        }
+
+        // if the producer is already running, send the latest snapshot immediately
+        if (producer.snapshot != null) {
+            subscriber.signal();
+        }
+
+        return subscriber;
+    }
+
+    @Override
+    public int getNumberOfSubscribers(final Long examId) {
+        final ExamProducer producer = this.producers.get(examId);
+        return (producer != null) ? producer.subscribers.size() : 0;
+    }
+
+    @PreDestroy
+    protected void shutdown() {
+        this.producers.values().forEach(ExamProducer::close);
+        this.producers.clear();
+    }
+
+    private void unsubscribe(final Subscriber subscriber) {
+        final ExamProducer producer = subscriber.producer;
+        if (producer == null) {
+            return;
+        }
+
+        this.producers.computeIfPresent(producer.exam.id, (id, current) -> {
+            current.subscribers.remove(subscriber);
+            if (current.subscribers.isEmpty()) {
+                current.stop();
+                return null;
+            }
+            return current;
+        });
+    }
+
+    /** The producer of the monitoring snapshots of one exam. The shared task scheduler only triggers the
+     * production that runs on the monitoring push executor. A trigger is skipped while the previous snapshot
+     * of the exam is still produced or if the push executor rejects the production. */
+    private final class ExamProducer {
+
+        final Exam exam;
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean producing = new AtomicBoolean(false);
+
+        volatile ExamMonitoringSnapshot snapshot = null;
+        volatile Collection<ProctoringGroupMonitoringData> screenProctoringData = Collections.emptyList();
+        private ScheduledFuture<?> task = null;
+
+        ExamProducer(final Exam exam) {
+            this.exam = exam;
+        }
+
+        void start() {
+            this.task = ExamMonitoringBroadcastServiceImpl.this.taskScheduler.scheduleWithFixedDelay(
+                    this::trigger,
+                    Instant.now(),
+                    Duration.ofMillis(ExamMonitoringBroadcastServiceImpl.this.interval));
+        }
+
+        void stop() {
+            if (this.task != null) {
+                this.task.cancel(false);
+                this.task = null;
+            }
+        }
+
+        void close() {
+            stop();
+            this.subscribers.forEach(Subscriber::close);
+            this.subscribers.clear();
+        }
+
+        private void trigger() {
+            if (!this.producing.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                ExamMonitoringBroadcastServiceImpl.this.executor.execute(this::produce);
+            } catch (final RejectedExecutionException e) {
+                this.producing.set(false);
+                if (log.isDebugEnabled()) {
+                    log.debug("Monitoring push executor is busy, skip monitoring snapshot for exam: {}", this.exam.id);
+                }
+            }
+        }
+
+        private void produce() {
+            try {
+
+                final ExamSessionService examSessionService = ExamMonitoringBroadcastServiceImpl.this.examSessionService;
+                if (!examSessionService.isExamRunning(this.exam.id)) {
+                    log.info("Exam {} is not running anymore. Close all monitoring subscriptions", this.exam.id);
+                    ExamMonitoringBroadcastServiceImpl.this.producers.remove(this.exam.id, this);
+                    close();
+                    return;
+                }
+
+                final Result<ExamMonitoringSnapshot> snapshot = examSessionService.getMonitoringSnapshot(this.exam.id);
+                if (snapshot.hasError()) {
+                    log.warn("Failed to create monitoring snapshot for exam: {} cause: {}",
+                            this.exam.id,
+                            snapshot.getError().getMessage());
+                    return;
+                }
+
+                this.screenProctoringData = ExamMonitoringBroadcastServiceImpl.this.examAdminService
+                        .isScreenProctoringEnabled(this.exam)
+                                ? ExamMonitoringBroadcastServiceImpl.this.screenProctoringService
+                                        .getCollectingGroupsMonitoringData(this.exam.id)
+                                        .getOr(Collections.emptyList())
+                                : Collections.emptyList();
+                this.snapshot = snapshot.get();
+
+                this.subscribers.forEach(Subscriber::signal);
+
+            } catch (final Exception e) {
+                log.error("Unexpected error while producing monitoring data for exam: {}", this.exam.id, e);
+            } finally {
+                this.producing.set(false);
+            }
+        }
+    }
+
+    /** A subscriber that gets the latest monitoring snapshot of the exam when it is ready to receive.
+     * If the subscriber is still sending a frame when a new snapshot is produced, the new snapshot is only
+     * marked as pending and sent after the current frame, coalesced with all snapshots produced meanwhile.
+     * If the push executor rejects the sending, the snapshot stays pending and the sending is retried after a
+     * short delay with the latest snapshot at that time. */
+    private final class Subscriber implements Subscription {
+
+        final Predicate<ClientConnectionData> filter;
+        final MonitoringFrameSink sink;
+        final AtomicBoolean sending = new AtomicBoolean(false);
+
+        volatile ExamProducer producer = null;
+        volatile boolean pending = false;
+        volatile boolean cancelled = false;
+
+        // only accessed by the sending thread
+        private Long epoch;
+        private Long sequence;
+
+        Subscriber(
+                final Predicate<ClientConnectionData> filter,
+                final Long epoch,
+                final Long sequence,
+                final MonitoringFrameSink sink) {
+
+            this.filter = filter;
+            this.epoch = epoch;
+            this.sequence = sequence;
+            this.sink = sink;
+        }
+
+        @Override
+        public void cancel() {
+            if (!this.cancelled) {
+                this.cancelled = true;
+                unsubscribe(this);
+            }
+        }
+
+        void close() {
+            this.cancelled = true;
+            try {
+                this.sink.close();
+            } catch (final Exception e) {
+                log.warn("Failed to close monitoring subscription: {}", e.getMessage());
+            }
+        }
+
+        void signal() {
+            this.pending = true;
+            trySchedule();
+        }
+
+        private void trySchedule() {
+            if (this.cancelled || !this.sending.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                ExamMonitoringBroadcastServiceImpl.this.executor.execute(this::drain);
+            } catch (final RejectedExecutionException e) {
+                this.sending.set(false);
+                if (log.isDebugEnabled()) {
+                    log.debug("Monitoring push executor is busy, retry sending of pending snapshot");
+                }
+                ExamMonitoringBroadcastServiceImpl.this.taskScheduler.schedule(
+                        this::trySchedule,
+                        Instant.now().plusMillis(REJECTED_RETRY_DELAY));
+            }
+        }
+
+        private void drain() {
+            try {
+                while (this.pending && !this.cancelled) {
+                    this.pending = false;
+                    send();
+                }
+            } catch (final Exception e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Failed to send monitoring frame, cancel subscription. Cause: {}", e.getMessage());
+                }
+                cancel();
+            } finally {
+                this.sending.set(false);
+            }
+
+            if (this.pending) {
+                trySchedule();
+            }
+        }
+
+        private void send() throws Exception {
+            final ExamProducer producer = this.producer;
+            final ExamMonitoringSnapshot snapshot = (producer != null) ? producer.snapshot : null;
+            if (snapshot == null) {
+                return;
+            }
+
+            final MonitoringSEBConnectionData connectionData = snapshot.createConnectionData(
+                    this.filter,
+                    this.epoch,
+                    this.sequence);
+
+            this.sink.send(new MonitoringFullPageData(
+                    snapshot.examId,
+                    connectionData,
+                    producer.screenProctoringData));
+
+            this.epoch = connectionData.epoch;
+            this.sequence = connectionData.sequence;
+        }
+    }
+
+}
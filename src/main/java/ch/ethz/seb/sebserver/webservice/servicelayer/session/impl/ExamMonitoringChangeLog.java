@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import ch.ethz.seb.sebserver.gbl.model.session.ClientMonitoringData;
+
+/** Keeps a change sequence of the monitoring data of all SEB client connections of one exam.
+ * </p>
+ * Each call of record compares the current monitoring data of the client connections with the recorded one and
+ * assigns the next sequence number to all client connections that has changed since. Client connections that are
+ * not part of the exam anymore are recorded as removed with the sequence number of the removal.
+ * A monitoring client that knows the epoch and the last sequence number it has seen, can so get only the
+ * client connections that has been inserted, changed or removed since.
+ * </p>
+ * The epoch identifies this change log instance. Since every webservice keeps its own change log, a monitoring
+ * client that sends an unknown epoch gets a full snapshot. */
+final class ExamMonitoringChangeLog {
+
+    /** The maximal number of removed client connections that are remembered */
+    static final int MAX_REMOVED_ENTRIES = 10000;
+
+    final Long examId;
+    final long epoch;
+
+    private long sequence = 0;
+    private long round = 0;
+    // removals with a sequence number lower or equal this horizon has been dropped
+    private long removedHorizon = 0;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final LinkedHashMap<Long, Long> removed = new LinkedHashMap<>();
+
+    ExamMonitoringChangeLog(final Long examId) {
+        this.examId = examId;
+        this.epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    /** Records the current monitoring data of the given client connections and gets the changes since the given
+     * sequence number.
+     *
+     * @param connections all client connections of the exam
+     * @param epoch the epoch the given sequence number belongs to or null if no changes are known yet
+     * @param lastSequence the last sequence number the monitoring client has seen or null
+     * @return Changes since the given sequence number or a full snapshot if no delta can be applied */
+    synchronized Changes update(
+            final Collection<ClientConnectionDataInternal> connections,
+            final Long epoch,
+            final Long lastSequence) {
+
+        record(connections);
+        return changesSince(epoch, lastSequence);
+    }
+
+    /** Records the current monitoring data of the given client connections.
+     *
+     * @param connections all client connections of the exam
+     * @return the current sequence number */
+    synchronized long record(final Collection<ClientConnectionDataInternal> connections) {
+        final long next = this.sequence + 1;
+        final long currentRound = ++this.round;
+        boolean changed = false;
+
+        for (final ClientConnectionDataInternal connection : connections) {
+            final ClientMonitoringData data = ClientMonitoringData.of(connection.monitoringDataView);
+
+            final Entry entry = this.entries.get(data.id);
+            if (entry == null) {
+                this.entries.put(data.id, new Entry(data, next, currentRound));
+                this.removed.remove(data.id);
+                changed = true;
+            } else {
+                entry.round = currentRound;
+                if (entry.data.hasChanged(data) || !entry.data.indicatorValuesEquals(data)) {
+                    entry.data = data;
+                    entry.sequence = next;
+                    changed = true;
+                }
+            }
+        }
+
+        final Iterator<Map.Entry<Long, Entry>> iterator = this.entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Long, Entry> entry = iterator.next();
+            if (entry.getValue().round != currentRound) {
+                iterator.remove();
+                this.removed.put(entry.getKey(), next);
+                changed = true;
+            }
+        }
+
+        final Iterator<Long> removedIterator = this.removed.values().iterator();
+        while (this.removed.size() > MAX_REMOVED_ENTRIES && removedIterator.hasNext()) {
+            this.removedHorizon = Math.max(this.removedHorizon, removedIterator.next());
+            removedIterator.remove();
+        }
+
+        if (changed) {
+            this.sequence = next;
+        }
+
+        return this.sequence;
+    }
+
+    /** Gets the changes since the given sequence number.
+     *
+     * @param epoch the epoch the given sequence number belongs to or null if no changes are known yet
+     * @param lastSequence the last sequence number the monitoring client has seen or null
+     * @return Changes since the given sequence number or a full snapshot if no delta can be applied */
+    synchronized Changes changesSince(final Long epoch, final Long lastSequence) {
+        if (!Objects.equals(epoch, this.epoch)
+                || lastSequence == null
+                || lastSequence > this.sequence
+                || lastSequence < this.removedHorizon) {
+            return new Changes(this.sequence, null, null);
+        }
+
+        final Set<Long> changedIds = new HashSet<>();
+        this.entries.forEach((id, entry) -> {
+            if (entry.sequence > lastSequence) {
+                changedIds.add(id);
+            }
+        });
+        final Collection<Long> removedIds = new ArrayList<>();
+        this.removed.forEach((id, removedSequence) -> {
+            if (removedSequence > lastSequence) {
+                removedIds.add(id);
+            }
+        });
+
+        return new Changes(this.sequence, changedIds, removedIds);
+    }
+
+    private static final class Entry {
+
+        ClientMonitoringData data;
+        long sequence;
+        long round;
+
+        Entry(final ClientMonitoringData data, final long sequence, final long round) {
+            this.data = data;
+            this.sequence = sequence;
+            this.round = round;
+        }
+    }
+
+    /** The changes of the monitoring data since a given sequence number */
+    static final class Changes {
+
+        /** The current sequence number */
+        final long sequence;
+        /** Identifiers of inserted or changed client connections or null if this is a full snapshot */
+        final Set<Long> changed;
+        /** Identifiers of removed client connections or null if this is a full snapshot */
+        final Collection<Long> removed;
+
+        Changes(final long sequence, final Set<Long> changed, final Collection<Long> removed) {
+            this.sequence = sequence;
+            this.changed = changed;
+            this.removed = removed;
+        }
+
+        boolean isDelta() {
+            return this.changed != null;
+        }
+
+        Collection<Long> getRemoved() {
+            return (this.removed != null) ? this.removed : Collections.emptyList();
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnectionData;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientMonitoringDataView;
+import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringSEBConnectionData;
+import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringStaticClientData;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamMonitoringFilter;
+
+/** The monitoring data of all SEB client connections of a running exam at a specific point in time.
+ * </p>
+ * The client connections of the exam are resolved and the connection number mappings are computed only once for a
+ * snapshot. The snapshot can then be used to create the MonitoringSEBConnectionData for different filters and last
+ * seen change sequence numbers with request-time filtering only. An ExamMonitoringFilter is applied with the
+ * bitset index of the snapshot, other filter predicates are tested for each client connection.
+ * </p>
+ * Other monitoring data that is derived from all client connections of the exam, like the monitoring overview,
+ * can be attached to the snapshot with getDerived and is so also only computed once per snapshot. */
+public final class ExamMonitoringSnapshot {
+
+    public final Long examId;
+    public final long timestamp;
+    public final long epoch;
+    public final long sequence;
+
+    final List<ClientConnectionDataInternal> connections;
+    final ExamConnectionIndex index;
+    final int[] connectionsPerStatus;
+    final Map<Long, Integer> connectionsPerClientGroup;
+    final int[] connectionsPerIssue;
+    final Set<Long> duplicates;
+
+    private final ExamMonitoringChangeLog changeLog;
+    private final Map<Object, Object> derived = new ConcurrentHashMap<>();
+
+    ExamMonitoringSnapshot(
+            final Long examId,
+            final long timestamp,
+            final ExamMonitoringChangeLog changeLog,
+            final long sequence,
+            final List<ClientConnectionDataInternal> connections,
+            final boolean withClientGroups,
+            final Set<Long> duplicates) {
+
+        this.examId = examId;
+        this.timestamp = timestamp;
+        this.changeLog = changeLog;
+        this.epoch = changeLog.epoch;
+        this.sequence = sequence;
+        this.connections = Collections.unmodifiableList(connections);
+        this.index = new ExamConnectionIndex(connections);
+        this.connectionsPerStatus = this.index.countPerStatus();
+        this.connectionsPerClientGroup = withClientGroups ? this.index.countPerClientGroup() : null;
+        this.connectionsPerIssue = this.index.countPerIssue();
+        this.duplicates = Collections.unmodifiableSet(duplicates);
+    }
+
+    /** Get the number of SEB client connections of the exam
+     *
+     * @return the number of SEB client connections of the exam */
+    public int size() {
+        return this.connections.size();
+    }
+
+    /** Get all client connections of the exam that matches the given filter.
+     *
+     * @param filter the filter predicate to apply
+     * @return all client connections of the exam that matches the given filter */
+    public List<ClientConnectionData> getConnectionData(final Predicate<ClientConnectionData> filter) {
+        final BitSet selected = select(filter);
+        if (selected == null) {
+            return this.connections
+                    .stream()
+                    .filter(filter)
+                    .collect(Collectors.toList());
+        }
+
+        final List<ClientConnectionData> result = new ArrayList<>(selected.cardinality());
+        for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+            result.add(this.connections.get(i));
+        }
+        return result;
+    }
+
+    /** Get the static monitoring data of the client connections with the given identifiers.
+     *
+     * @param connectionIds the client connection identifiers (PKs)
+     * @return MonitoringStaticClientData of the requested client connections */
+    public MonitoringStaticClientData getStaticData(final Set<Long> connectionIds) {
+        return new MonitoringStaticClientData(
+                this.connections
+                        .stream()
+                        .filter(ccd -> connectionIds.contains(ccd.clientConnection.id))
+                        .map(ccd -> ccd.clientStaticData)
+                        .collect(Collectors.toList()),
+                this.duplicates);
+    }
+
+    private BitSet select(final Predicate<ClientConnectionData> filter) {
+        return (filter instanceof ExamMonitoringFilter)
+                ? this.index.select((ExamMonitoringFilter) filter)
+                : null;
+    }
+
+    /** Get data that is derived from this snapshot. The data is computed with the given function
+     * only for the first request and shared by all further requests for this snapshot.
+     *
+     * @param key the key of the derived data
+     * @param compute the function to compute the derived data from this snapshot
+     * @return the derived data */
+    @SuppressWarnings("unchecked")
+    public <T> T getDerived(final Object key, final Function<ExamMonitoringSnapshot, T> compute) {
+        return (T) this.derived.computeIfAbsent(key, k -> compute.apply(this));
+    }
+
+    /** Creates the MonitoringSEBConnectionData of this snapshot for the given filter.
+     * <p>
+     * If the given epoch and sequence number are known, only the client connections that has been inserted, changed
+     * or removed since are included. Changed client connections that do not match the filter anymore are reported
+     * as removed. Otherwise, a full snapshot of all client connections that match the filter is created.
+     *
+     * @param filter the filter predicate to apply
+     * @param epoch the epoch of the last MonitoringSEBConnectionData the requester has seen (may be null)
+     * @param lastSequence the sequence number of the last MonitoringSEBConnectionData the requester has seen
+     *            (may be null)
+     * @return the MonitoringSEBConnectionData for the given filter */
+    public MonitoringSEBConnectionData createConnectionData(
+            final Predicate<ClientConnectionData> filter,
+            final Long epoch,
+            final Long lastSequence) {
+
+        final ExamMonitoringChangeLog.Changes changes = this.changeLog.changesSince(epoch, lastSequence);
+
+        final BitSet selected = select(filter);
+        final List<Long> removed = new ArrayList<>(changes.getRemoved());
+        final List<ClientMonitoringDataView> filteredConnections = new ArrayList<>();
+        if (changes.isDelta()) {
+            for (final Long id : changes.changed) {
+                final int position = this.index.position(id);
+                if (position < 0) {
+                    // changed after this snapshot was taken
+                    continue;
+                }
+
+                final ClientConnectionDataInternal c = this.connections.get(position);
+                if ((selected != null) ? selected.get(position) : filter.test(c)) {
+                    filteredConnections.add(c.monitoringDataView);
+                } else {
+                    removed.add(id);
+                }
+            }
+        } else if (selected != null) {
+            for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+                filteredConnections.add(this.connections.get(i).monitoringDataView);
+            }
+        } else {
+            for (final ClientConnectionDataInternal c : this.connections) {
+                if (filter.test(c)) {
+                    filteredConnections.add(c.monitoringDataView);
+                }
+            }
+        }
+
+        // Note: the sequence number of this snapshot is given even if the change log has proceeded since.
+        // Changes after this snapshot are so sent again with the next request.
+        return new MonitoringSEBConnectionData(
+                this.connectionsPerStatus,
+                this.connectionsPerClientGroup,
+                this.connectionsPerIssue,
+                filteredConnections,
+                this.epoch,
+                this.sequence,
+                changes.isDelta(),
+                removed);
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import java.util.function.Function;
+
+import ch.ethz.seb.sebserver.gbl.util.Utils;
+
+/** Holds the change log and the latest monitoring snapshot of one exam.
+ * </p>
+ * The snapshot is shared by all monitoring requests of the exam as long as it is not older than the max age.
+ * If it is outdated, the first request creates the next snapshot while concurrent requests wait for it and
+ * share it then. The monitoring work is so bound to one snapshot per max age regardless of the number of
+ * monitoring clients.
+ * </p>
+ * A snapshot is also outdated if the client connections of the exam has been modified since. Connections
+ * that change their state are so visible with the next request. */
+final class ExamMonitoringSnapshotCache {
+
+    final Long examId;
+    final ExamMonitoringChangeLog changeLog;
+    private final long maxAge;
+
+    private volatile Current current = null;
+
+    ExamMonitoringSnapshotCache(final Long examId, final long maxAge) {
+        this.examId = examId;
+        this.changeLog = new ExamMonitoringChangeLog(examId);
+        this.maxAge = maxAge;
+    }
+
+    /** Get the latest monitoring snapshot or create a new one if the latest is outdated.
+     *
+     * @param modificationCount the current modification count of the client connections of the exam
+     * @param factory the factory to create a new snapshot with the change log of the exam
+     * @return the latest monitoring snapshot */
+    ExamMonitoringSnapshot get(
+            final long modificationCount,
+            final Function<ExamMonitoringChangeLog, ExamMonitoringSnapshot> factory) {
+
+        final Current current = this.current;
+        if (isValid(current, modificationCount)) {
+            return current.snapshot;
+        }
+
+        synchronized (this) {
+            // another request may have created the snapshot while this one was waiting
+            final Current latest = this.current;
+            if (isValid(latest, modificationCount)) {
+                return latest.snapshot;
+            }
+
+            final ExamMonitoringSnapshot next = factory.apply(this.changeLog);
+            this.current = new Current(next, modificationCount);
+            return next;
+        }
+    }
+
+    /** Invalidates the latest snapshot so that the next request creates a new one */
+    void invalidate() {
+        this.current = null;
+    }
+
+    private boolean isValid(final Current current, final long modificationCount) {
+        return current != null
+                && current.modificationCount == modificationCount
+                && Utils.getMillisecondsNow() - current.snapshot.timestamp < this.maxAge;
+    }
+
+    private static final class Current {
+
+        final ExamMonitoringSnapshot snapshot;
+        final long modificationCount;
+
+        Current(final ExamMonitoringSnapshot snapshot, final long modificationCount) {
+            this.snapshot = snapshot;
+            this.modificationCount = modificationCount;
+        }
+    }
+
+}
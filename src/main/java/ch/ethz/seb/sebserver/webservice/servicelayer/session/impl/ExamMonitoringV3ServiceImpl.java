@@ -25,7 +25,6 @@ import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringFullPageData;
 import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringSEBConnectionData;
 import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
 import ch.ethz.seb.sebserver.gbl.util.Utils;
-import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ClientConnectionDAO;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ClientGroupDAO;
 import ch.ethz.seb.sebserver.webservice.servicelayer.exam.ExamAdminService;
 import ch.ethz.seb.sebserver.webservice.servicelayer.session.*;
@@ -45,7 +44,6 @@ public class ExamMonitoringV3ServiceImpl implements ExamMonitoringV3Service {
     private final ExamSessionCacheService examSessionCacheService;
     private final SEBClientNotificationService sebClientNotificationService;
     private final ExamAdminService examAdminService;
-    private final ClientConnectionDAO clientConnectionDAO;
     private final ClientGroupDAO clientGroupDAO;
     private final ExamSessionService examSessionService;
 
@@ -53,21 +51,29 @@ public class ExamMonitoringV3ServiceImpl implements ExamMonitoringV3Service {
             final ExamSessionCacheService examSessionCacheService,
             final SEBClientNotificationService sebClientNotificationService,
             final ExamAdminService examAdminService,
-            final ClientConnectionDAO clientConnectionDAO,
             final ClientGroupDAO clientGroupDAO, 
             final ExamSessionService examSessionService) {
         
         this.examSessionCacheService = examSessionCacheService;
         this.sebClientNotificationService = sebClientNotificationService;
         this.examAdminService = examAdminService;
-        this.clientConnectionDAO = clientConnectionDAO;
         this.clientGroupDAO = clientGroupDAO;
         this.examSessionService = examSessionService;
     }
 
     @Override
     public ExamMonitoringOverviewData getExamMonitoringOverviewData(final Exam runningExam) {
-        
+        // the overview data is computed only once per monitoring snapshot and shared by all supporters
+        return this.examSessionService
+                .getMonitoringSnapshot(runningExam.id)
+                .getOrThrow()
+                .getDerived(ExamMonitoringOverviewData.class, snapshot -> createOverviewData(runningExam, snapshot));
+    }
+
+    private ExamMonitoringOverviewData createOverviewData(
+            final Exam runningExam,
+            final ExamMonitoringSnapshot snapshot) {
+
         final boolean screenProctoringEnabled = this.examAdminService.isScreenProctoringEnabled(runningExam);
         
         final Map<Long, ScreenProctoringGroup> spsGroups = (screenProctoringEnabled)
@@ -127,13 +133,8 @@ public class ExamMonitoringV3ServiceImpl implements ExamMonitoringV3Service {
         final ClientStatesData clientStates = new ClientStatesData();
         final NotificationData notifications = new NotificationData();
 
-        // get a list of all connection Tokens of the exam from cache and iterate over cached Client Connections
-        this.clientConnectionDAO
-                .getConnectionTokens(runningExam.id)
-                .getOrThrow()
-                .stream()
-                .map(this.examSessionCacheService::getClientConnection)
-                .filter(Objects::nonNull)
+        // iterate over all Client Connections of the monitoring snapshot
+        snapshot.connections
                 .forEach(cc -> {
                     
                     // states
@@ -207,12 +208,11 @@ public class ExamMonitoringV3ServiceImpl implements ExamMonitoringV3Service {
             final Exam runningExam,
             final Predicate<ClientConnectionData> filter) {
         
-        final List<? extends ClientMonitoringDataView> filteredConnections = this.clientConnectionDAO
-                .getConnectionTokens(runningExam.id)
+        final List<? extends ClientMonitoringDataView> filteredConnections = this.examSessionService
+                .getMonitoringSnapshot(runningExam.id)
                 .getOrThrow()
+                .connections
                 .stream()
-                .map(this.examSessionService::getConnectionDataInternal)
-                .filter(Objects::nonNull)
                 .filter(filter)
                 .map(ccd -> ccd.monitoringDataView)
                 .toList();
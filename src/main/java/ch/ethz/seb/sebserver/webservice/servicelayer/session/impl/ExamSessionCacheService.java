@@ -21,13 +21,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import ch.ethz.seb.sebserver.gbl.Constants;
+import ch.ethz.seb.sebserver.gbl.async.SingleFlight;
 import ch.ethz.seb.sebserver.gbl.model.exam.Exam;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
 import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
 import ch.ethz.seb.sebserver.gbl.util.Result;
+import ch.ethz.seb.sebserver.gbl.util.Utils;
 import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.ExamConfigService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamConfigUpdateEvent;
 
 /** Handles caching for exam session and defines caching for following object:
  * <p>
@@ -40,8 +45,6 @@ import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.ExamConfigService
 @WebServiceProfile
 public class ExamSessionCacheService {
 
-    public static final Object CLIENT_CONNECTION_CREATION_LOCK = new Object();
-
     public static final String CACHE_NAME_RUNNING_EXAM = "RUNNING_EXAM";
     public static final String CACHE_NAME_EXAM_SHORT_TIME = "EXAM_SHORT_TIME";
     public static final String CACHE_NAME_ACTIVE_CLIENT_CONNECTION = "ACTIVE_CLIENT_CONNECTION";
@@ -52,6 +55,8 @@ public class ExamSessionCacheService {
 
     private static final Logger log = LoggerFactory.getLogger(ExamSessionCacheService.class);
 
+    private static final long SEB_CONFIG_UP_TO_DATE_CHECK_INTERVAL = 2 * Constants.SECOND_IN_MILLIS;
+
     private final ExamDAO examDAO;
     private final ClientGroupDAO clientGroupDAO;
     private final ClientConnectionDAO clientConnectionDAO;
@@ -59,6 +64,8 @@ public class ExamSessionCacheService {
     private final ExamConfigService sebExamConfigService;
     private final ScreenProctoringGroupDAO screenProctoringGroupDAO;
     private final IndicatorDAO indicatorDAO;
+    // concurrent cache misses for the same exam load the exam only once without blocking other exams
+    private final SingleFlight<Long, Exam> runningExamLoads = new SingleFlight<>();
 
     protected ExamSessionCacheService(
             final ExamDAO examDAO,
@@ -83,8 +90,15 @@ public class ExamSessionCacheService {
             cacheNames = CACHE_NAME_RUNNING_EXAM,
             key = "#examId",
             unless = "#result == null")
-    public synchronized Exam getRunningExam(final Long examId) {
+    public Exam getRunningExam(final Long examId) {
+        if (examId == null) {
+            return null;
+        }
 
+        return this.runningExamLoads.load(examId, () -> loadRunningExam(examId));
+    }
+
+    private Exam loadRunningExam(final Long examId) {
         if (log.isDebugEnabled()) {
             log.debug("Verify running exam for id: {}", examId);
         }
@@ -257,7 +271,19 @@ public class ExamSessionCacheService {
         }
     }
 
+    /** Checks if the given cached exam configuration is still the latest version of the configuration.
+     * Since this needs a database query it is checked at most once per SEB_CONFIG_UP_TO_DATE_CHECK_INTERVAL
+     * for a cached configuration and considered up-to-date in between.
+     *
+     * @param inMemorySEBConfig the cached exam configuration
+     * @return true if the cached exam configuration is up-to-date */
     public boolean isUpToDate(final InMemorySEBConfig inMemorySEBConfig) {
+        if (!inMemorySEBConfig.markUpToDateCheck(
+                Utils.getMillisecondsNow(),
+                SEB_CONFIG_UP_TO_DATE_CHECK_INTERVAL)) {
+            return true;
+        }
+
         try {
             final Long followupId = this.sebExamConfigService
                     .getFollowupConfigurationId(inMemorySEBConfig.configId)
@@ -279,6 +305,17 @@ public class ExamSessionCacheService {
         }
     }
 
+    @EventListener(ExamConfigUpdateEvent.class)
+    @CacheEvict(
+            cacheNames = CACHE_NAME_SEB_CONFIG_EXAM,
+            key = "#event.examId")
+    public void notifyExamConfigChange(final ExamConfigUpdateEvent event) {
+        if (log.isDebugEnabled()) {
+            log.debug("Exam configuration changed, evict default SEB Configuration from cache for exam: {}",
+                    event.examId);
+        }
+    }
+
     private ClientConnection getClientConnectionByToken(final String connectionToken) {
         final Result<ClientConnection> result = this.clientConnectionDAO
                 .byConnectionToken(connectionToken);
@@ -38,15 +38,13 @@ import org.springframework.stereotype.Service;
 import ch.ethz.seb.sebserver.gbl.Constants;
 import ch.ethz.seb.sebserver.gbl.api.APIMessage;
 import ch.ethz.seb.sebserver.gbl.api.APIMessage.ErrorMessage;
+import ch.ethz.seb.sebserver.gbl.async.SingleFlight;
 import ch.ethz.seb.sebserver.gbl.model.Entity;
 import ch.ethz.seb.sebserver.gbl.model.exam.ClientGroup;
 import ch.ethz.seb.sebserver.gbl.model.exam.Exam;
 import ch.ethz.seb.sebserver.gbl.model.exam.Exam.ExamStatus;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
-import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
-import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionIssueStatus;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnectionData;
-import ch.ethz.seb.sebserver.gbl.model.session.ClientMonitoringDataView;
 import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringSEBConnectionData;
 import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringStaticClientData;
 import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
@@ -73,6 +71,7 @@ public class ExamSessionServiceImpl implements ExamSessionService {
     private final ClientConnectionDAO clientConnectionDAO;
     private final IndicatorDAO indicatorDAO;
     private final ExamSessionCacheService examSessionCacheService;
+    private final ClientConnectionRegistry clientConnectionRegistry;
     private final ExamDAO examDAO;
     private final ClientGroupDAO clientGroupDAO;
     private final ExamConfigurationMapDAO examConfigurationMapDAO;
@@ -81,9 +80,14 @@ public class ExamSessionServiceImpl implements ExamSessionService {
     private final boolean checkExamSupporter;
     private final boolean distributedSetup;
     private final long distributedConnectionUpdate;
+    private final long monitoringSnapshotMaxAge;
+    private final Map<Long, ExamMonitoringSnapshotCache> monitoringSnapshots = new ConcurrentHashMap<>();
+    // concurrent lookups of a not registered client connection create it only once
+    private final SingleFlight<String, ClientConnectionDataInternal> connectionLoads = new SingleFlight<>();
 
     protected ExamSessionServiceImpl(
             final ExamSessionCacheService examSessionCacheService,
+            final ClientConnectionRegistry clientConnectionRegistry,
             final ExamDAO examDAO,
             final ClientGroupDAO clientGroupDAO,
             final ExamConfigurationMapDAO examConfigurationMapDAO,
@@ -93,9 +97,11 @@ public class ExamSessionServiceImpl implements ExamSessionService {
             final SEBRestrictionService sebRestrictionService,
             @Value("${sebserver.webservice.exam.check.supporter:false}") final boolean checkExamSupporter,
             @Value("${sebserver.webservice.distributed:false}") final boolean distributedSetup,
-            @Value("${sebserver.webservice.distributed.connectionUpdate:2000}") final long distributedConnectionUpdate) {
+            @Value("${sebserver.webservice.distributed.connectionUpdate:2000}") final long distributedConnectionUpdate,
+            @Value("${sebserver.webservice.api.exam.monitoring.snapshot.maxAge:1000}") final long monitoringSnapshotMaxAge) {
 
         this.examSessionCacheService = examSessionCacheService;
+        this.clientConnectionRegistry = clientConnectionRegistry;
         this.examDAO = examDAO;
         this.clientGroupDAO = clientGroupDAO;
         this.examConfigurationMapDAO = examConfigurationMapDAO;
@@ -106,6 +112,7 @@ public class ExamSessionServiceImpl implements ExamSessionService {
         this.checkExamSupporter = checkExamSupporter;
         this.distributedSetup = distributedSetup;
         this.distributedConnectionUpdate = distributedConnectionUpdate;
+        this.monitoringSnapshotMaxAge = monitoringSnapshotMaxAge;
     }
 
     @Override
@@ -216,7 +223,7 @@ public class ExamSessionServiceImpl implements ExamSessionService {
     }
 
     @Override
-    public synchronized Result<Exam> getRunningExam(final Long examId) {
+    public Result<Exam> getRunningExam(final Long examId) {
 
         if (log.isTraceEnabled()) {
             log.trace("Running exam request for exam {}", examId);
@@ -307,6 +314,31 @@ public class ExamSessionServiceImpl implements ExamSessionService {
             final String connectionToken,
             final OutputStream out) {
 
+        final InMemorySEBConfig sebConfigForExam = getDefaultExamConfig(institutionId, connectionToken);
+        if (sebConfigForExam == null) {
+            return;
+        }
+
+        try {
+
+            if (log.isTraceEnabled()) {
+                log.trace("SEB exam configuration download request, start writing SEB exam configuration");
+            }
+
+            out.write(sebConfigForExam.getData());
+
+            if (log.isTraceEnabled()) {
+                log.trace("SEB exam configuration download request, finished writing SEB exam configuration");
+            }
+
+        } catch (final IOException e) {
+            log.error("SEB exam configuration download request, failed to write SEB exam configuration: ", e);
+        }
+    }
+
+    @Override
+    public InMemorySEBConfig getDefaultExamConfig(final Long institutionId, final String connectionToken) {
+
         if (log.isDebugEnabled()) {
             log.debug("SEB exam configuration download request, connectionToken: {}", connectionToken);
         }
@@ -337,7 +369,7 @@ public class ExamSessionServiceImpl implements ExamSessionService {
 
         if (sebConfigForExam == null) {
             log.error("Failed to get and cache InMemorySEBConfig for connection: {}", connection);
-            return;
+            return null;
         }
 
         // for distributed setups check if cached config is still up-to-date. Flush and reload if not.
@@ -354,32 +386,25 @@ public class ExamSessionServiceImpl implements ExamSessionService {
 
         if (sebConfigForExam == null) {
             log.error("Failed to get and cache InMemorySEBConfig for connection: {}", connection);
-            return;
         }
 
-        try {
-
-            if (log.isTraceEnabled()) {
-                log.trace("SEB exam configuration download request, start writing SEB exam configuration");
-            }
-
-            out.write(sebConfigForExam.getData());
-
-            if (log.isTraceEnabled()) {
-                log.trace("SEB exam configuration download request, finished writing SEB exam configuration");
-            }
-
-        } catch (final IOException e) {
-            log.error("SEB exam configuration download request, failed to write SEB exam configuration: ", e);
-        }
+        return sebConfigForExam;
     }
 
     @Override
     public ClientConnectionDataInternal getConnectionDataInternal(final String connectionToken) {
-        // TODO do we really need to synchronize here?
-        synchronized (ExamSessionCacheService.CLIENT_CONNECTION_CREATION_LOCK) {
-            return this.examSessionCacheService.getClientConnection(connectionToken);
+        final ClientConnectionDataInternal registered = this.clientConnectionRegistry.getRegistered(connectionToken);
+        if (registered != null) {
+            return registered;
+        }
+
+        if (connectionToken == null) {
+            return null;
         }
+
+        return this.connectionLoads.load(
+                connectionToken,
+                () -> this.clientConnectionRegistry.getConnection(connectionToken));
     }
 
     @Override
@@ -423,79 +448,77 @@ public class ExamSessionServiceImpl implements ExamSessionService {
             final Long examId,
             final Predicate<ClientConnectionData> filter) {
 
-        return Result.tryCatch(() -> {
-
-            updateClientConnections(examId);
+        return getMonitoringSnapshot(examId)
+                .map(snapshot -> snapshot.getConnectionData(filter));
+    }
 
-            return this.clientConnectionDAO
-                    .getConnectionTokens(examId)
-                    .getOrThrow()
-                    .stream()
-                    .map(token -> getConnectionData(token).getOr(null))
-                    .filter(Objects::nonNull)
-                    .filter(filter)
-                    .collect(Collectors.toList());
+    @Override
+    public Result<MonitoringSEBConnectionData> getMonitoringSEBConnectionsData(
+            final Long examId,
+            final Predicate<ClientConnectionData> filter) {
 
-        });
+        return getMonitoringSEBConnectionsData(examId, filter, null, null);
     }
 
     @Override
     public Result<MonitoringSEBConnectionData> getMonitoringSEBConnectionsData(
             final Long examId,
-            final Predicate<ClientConnectionData> filter) {
+            final Predicate<ClientConnectionData> filter,
+            final Long epoch,
+            final Long sequence) {
 
-        return Result.tryCatch(() -> {
+        return getMonitoringSnapshot(examId)
+                .map(snapshot -> snapshot.createConnectionData(filter, epoch, sequence));
+    }
 
-            // needed to store connection numbers per status
-            final int[] statusMapping = new int[ConnectionStatus.values().length];
-            // needed to store connection numbers per client group too
-            final Collection<ClientGroup> groups = this.clientGroupDAO.allForExam(examId).getOr(null);
-            final Map<Long, Integer> clientGroupMapping = (groups != null && !groups.isEmpty())
-                    ? new HashMap<>()
-                    : null;
-
-            final int[] issueMapping = new int[ConnectionIssueStatus.values().length];
-            updateClientConnections(examId);
-
-            final List<? extends ClientMonitoringDataView> filteredConnections = this.clientConnectionDAO
-                    .getConnectionTokens(examId)
-                    .getOrThrow()
-                    .stream()
-                    .map(this::getConnectionDataInternal)
-                    .filter(Objects::nonNull)
-                    .map(c -> {
-                        statusMapping[c.clientConnection.status.code]++;
-                        processClientGroupMapping(c.groups, clientGroupMapping);
-                        processIssueMapping(c.clientConnection, issueMapping);
-                        return c;
-                    })
-                    .filter(filter)
-                    .map(ccd -> ccd.monitoringDataView)
-                    .collect(Collectors.toList());
-
-            return new MonitoringSEBConnectionData(
-                    statusMapping,
-                    clientGroupMapping,
-                    issueMapping,
-                    filteredConnections);
-        });
+    @Override
+    public Result<ExamMonitoringSnapshot> getMonitoringSnapshot(final Long examId) {
+        return Result.tryCatch(() -> this.monitoringSnapshots
+                .computeIfAbsent(examId, id -> new ExamMonitoringSnapshotCache(id, this.monitoringSnapshotMaxAge))
+                .get(
+                        this.clientConnectionRegistry.getModificationCount(examId),
+                        changeLog -> createMonitoringSnapshot(examId, changeLog)));
+    }
+
+    private ExamMonitoringSnapshot createMonitoringSnapshot(
+            final Long examId,
+            final ExamMonitoringChangeLog changeLog) {
+
+        // connection numbers per client group are only needed if the exam has client groups
+        final Collection<ClientGroup> groups = this.clientGroupDAO.allForExam(examId).getOr(null);
+        final boolean withClientGroups = groups != null && !groups.isEmpty();
+
+        updateClientConnections(examId);
+
+        final List<ClientConnectionDataInternal> connections = new ArrayList<>(this.clientConnectionRegistry
+                .getConnectionsOfExam(examId, this.clientConnectionDAO
+                        .getConnectionTokens(examId)
+                        .getOrThrow()));
+
+        final Map<String, Long> duplicateCheck = new HashMap<>();
+        final Set<Long> duplicates = new HashSet<>();
+        for (final ClientConnectionDataInternal c : connections) {
+            processDuplicateCheck(c, duplicateCheck, duplicates);
+        }
+
+        // the connection numbers per status, client group and issue are counted by the index of the snapshot
+        return new ExamMonitoringSnapshot(
+                examId,
+                Utils.getMillisecondsNow(),
+                changeLog,
+                changeLog.record(connections),
+                connections,
+                withClientGroups,
+                duplicates);
     }
 
     @Override
-    public synchronized Result<MonitoringStaticClientData> getMonitoringSEBConnectionStaticData(
+    public Result<MonitoringStaticClientData> getMonitoringSEBConnectionStaticData(
             final Long examId,
             final Set<Long> connectionIds) {
 
-        this.duplicateCheck.clear();
-        final Set<Long> duplicates = new HashSet<>();
-        return this.clientConnectionDAO
-                .getConnectionTokens(examId)
-                .map(tokens -> tokens.stream()
-                        .map(token -> this.getForTokenAndCheckDuplication(token, duplicates))
-                        .filter(ccd -> connectionIds.contains(ccd.clientConnection.id))
-                        .map(ccd -> ccd.clientStaticData)
-                        .collect(Collectors.toList()))
-                .map(staticData -> new MonitoringStaticClientData(staticData, duplicates));
+        return getMonitoringSnapshot(examId)
+                .map(snapshot -> snapshot.getStaticData(connectionIds));
     }
 
     @Override
@@ -517,6 +540,8 @@ public class ExamSessionServiceImpl implements ExamSessionService {
         try {
             if (!isExamRunning(event.exam.id)) {
                 this.flushCache(event.exam);
+                this.clientConnectionRegistry.removeExam(event.exam.id);
+                this.monitoringSnapshots.remove(event.exam.id);
                 if (this.distributedSetup) {
                     this.clientConnectionDAO
                             .deleteClientIndicatorValues(event.exam)
@@ -536,6 +561,8 @@ public class ExamSessionServiceImpl implements ExamSessionService {
         try {
             if (!isExamRunning(event.exam.id)) {
                 this.flushCache(event.exam);
+                this.clientConnectionRegistry.removeExam(event.exam.id);
+                this.monitoringSnapshots.remove(event.exam.id);
                 if (this.distributedSetup) {
                     this.clientConnectionDAO
                             .deleteClientIndicatorValues(event.exam)
@@ -547,7 +574,7 @@ public class ExamSessionServiceImpl implements ExamSessionService {
         }
     }
     
-    private long lastExamUpToDateCheckTime = 0;
+    private volatile long lastExamUpToDateCheckTime = 0;
     
     @Override
     public void updateExamCache(final Long examId) {
@@ -576,6 +603,10 @@ public class ExamSessionServiceImpl implements ExamSessionService {
             this.examSessionCacheService.evictScreenProctoringGroups(exam.id);
             this.examSessionCacheService.evictExamIndicators(exam.id);
             this.examSessionCacheService.evictExamScreenProctoringGroups(exam.id);
+            final ExamMonitoringSnapshotCache monitoringSnapshot = this.monitoringSnapshots.get(exam.id);
+            if (monitoringSnapshot != null) {
+                monitoringSnapshot.invalidate();
+            }
             // evict client connection
             this.clientConnectionDAO
                     .getConnectionTokens(exam.id)
@@ -634,44 +665,14 @@ public class ExamSessionServiceImpl implements ExamSessionService {
                 && Objects.equals(exam.name, runningExam.name);
     }
 
-    private void processClientGroupMapping(final Set<Long> groups, final Map<Long, Integer> clientGroupMapping) {
-        if (groups == null || clientGroupMapping == null) {
-            return;
-        }
-
-        groups.forEach(id -> {
-            if (clientGroupMapping.containsKey(id)) {
-                clientGroupMapping.put(id, clientGroupMapping.get(id) + 1);
-            } else {
-                clientGroupMapping.put(id, 1);
-            }
-        });
-    }
-
-    private void processIssueMapping(final ClientConnection clientConnection, final int[] issueMapping){
-        if (clientConnection == null || issueMapping == null) {
-            return;
-        }
-
-        if(BooleanUtils.isFalse(clientConnection.securityCheckGranted)){
-            issueMapping[0] += 1;
-        }
-
-        if(BooleanUtils.isFalse(clientConnection.clientVersionGranted)){
-            issueMapping[1] += 1;
-        }
-    }
-
-    private final Map<String, Long> duplicateCheck = new HashMap<>();
-
-    private ClientConnectionDataInternal getForTokenAndCheckDuplication(
-            final String token,
+    private void processDuplicateCheck(
+            final ClientConnectionDataInternal cc,
+            final Map<String, Long> duplicateCheck,
             final Set<Long> duplicates) {
 
-        final ClientConnectionDataInternal cc = this.examSessionCacheService.getClientConnection(token);
         if (cc.clientConnection.status.duplicateCheckStatus) {
             if (cc.clientConnection.userSessionId != null) {
-                final Long id = this.duplicateCheck.put(
+                final Long id = duplicateCheck.put(
                         cc.clientConnection.userSessionId,
                         cc.getConnectionId());
                 if (id != null) {
@@ -680,7 +681,6 @@ public class ExamSessionServiceImpl implements ExamSessionService {
                 }
             }
         }
-        return cc;
     }
 
 }
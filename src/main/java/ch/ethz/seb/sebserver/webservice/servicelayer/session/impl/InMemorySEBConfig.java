@@ -8,12 +8,27 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import ch.ethz.seb.sebserver.gbl.Constants;
+
+/** The final (zipped and encrypted if needed) data of a SEB Exam Configuration that is rendered once
+ * and then sent to all SEB clients of the exam. The data is identified by its content hash that is used
+ * as HTTP ETag for the download. */
 public final class InMemorySEBConfig {
 
+    private static final String WILDCARD_ETAG = "*";
+    private static final String WEAK_ETAG_PREFIX = "W/";
+
     public final Long configId;
     public final Long follwupId;
     public final Long examId;
     private final byte[] data;
+    private final String eTag;
+
+    // the last time this was checked to be up-to-date within a distributed setup
+    private volatile long upToDateCheckTime;
 
     protected InMemorySEBConfig(
             final Long configId,
@@ -26,6 +41,8 @@ public final class InMemorySEBConfig {
         this.follwupId = follwupId;
         this.examId = examId;
         this.data = data;
+        this.eTag = "\"" + DigestUtils.sha256Hex(data) + "\"";
+        this.upToDateCheckTime = System.currentTimeMillis();
     }
 
     public Long getConfigId() {
@@ -40,6 +57,45 @@ public final class InMemorySEBConfig {
         return this.data;
     }
 
+    /** Get the strong HTTP ETag of the configuration data
+     *
+     * @return the quoted SHA-256 hash of the configuration data */
+    public String getETag() {
+        return this.eTag;
+    }
+
+    /** Indicates if the given If-None-Match header of a client matches the ETag of the configuration data.
+     * The header may contain a comma separated list of (weak) ETags or the wildcard "*".
+     *
+     * @param clientETag the If-None-Match header of a client request, may be null
+     * @return true if one of the given ETags matches the ETag of the configuration data */
+    public boolean matchesETag(final String clientETag) {
+        if (StringUtils.isBlank(clientETag)) {
+            return false;
+        }
+
+        for (final String tag : StringUtils.split(clientETag, Constants.LIST_SEPARATOR_CHAR)) {
+            final String trimmed = tag.trim();
+            if (WILDCARD_ETAG.equals(trimmed) || this.eTag.equals(StringUtils.removeStart(trimmed, WEAK_ETAG_PREFIX))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Marks this as checked to be up-to-date if the last check is longer ago than the given interval.
+     *
+     * @param now the current time in milliseconds
+     * @param interval the interval in milliseconds
+     * @return true if this needs to be checked and was marked, false if it was checked within the interval */
+    boolean markUpToDateCheck(final long now, final long interval) {
+        if (now - this.upToDateCheckTime < interval) {
+            return false;
+        }
+        this.upToDateCheckTime = now;
+        return true;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
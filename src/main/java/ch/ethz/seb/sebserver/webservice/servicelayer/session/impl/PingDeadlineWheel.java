@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Hashed timing wheel for the ping deadlines of the registered SEB client connections.
+ * <p>
+ * The deadline of a connection is the time of its last ping plus the incident threshold of its ping indicator.
+ * A connection is identified by its registry slot. Advancing the wheel only visits the buckets of the ticks that
+ * have passed since the last advance. The slots of a bucket are linked by slot index so that moving or canceling
+ * a slot is O(1) and creates no objects. A deadline that is more than one revolution ahead stays in its bucket
+ * until the wheel reaches its tick.
+ * <p>
+ * Scheduling is lock-free since it is done on every ping: the deadline of a slot is written to an atomic per
+ * slot and a slot that is already in the wheel stays in its bucket. If the wheel reaches that bucket and the
+ * deadline has moved on in the meantime, the slot is moved to the bucket of its current deadline (lazy
+ * re-bucketing). Only a slot that is not in the wheel yet or whose deadline moved backwards is passed to the wheel
+ * with a queue of schedule requests that is drained on the next advance.
+ * <p>
+ * A slot can additionally be marked as missing. A missing slot is returned on every advance until it is unmarked,
+ * to detect the transition back to normal.
+ * <p>
+ * All operations but schedule are synchronized on the wheel. */
+final class PingDeadlineWheel {
+
+    private static final int NONE = -1;
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
+    private static final int[] EMPTY = new int[0];
+    private static final int SEGMENT_SHIFT = 10;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    // the atomic per slot state is kept in segments that are never copied on grow,
+    // so that a lock-free write to a segment is never lost
+    private volatile Segment[] segments = new Segment[0];
+    private final Queue<Integer> scheduleRequests = new ConcurrentLinkedQueue<>();
+
+    private final long tickMillis;
+    private final int mask;
+    private final int[] heads;
+    private final BitSet missing = new BitSet();
+
+    private int[] next;
+    private int[] prev;
+    // the tick of the deadline per slot or NONE if the slot is not scheduled
+    private long[] ticks;
+    private long currentTick = NONE;
+    private int size = 0;
+
+    /** Creates a new PingDeadlineWheel
+     *
+     * @param tickMillis the duration of one tick in milliseconds
+     * @param buckets the number of buckets. Is rounded up to the next power of two
+     * @param initialCapacity the initial number of slots */
+    PingDeadlineWheel(final long tickMillis, final int buckets, final int initialCapacity) {
+        this.tickMillis = tickMillis;
+        int size = 1;
+        while (size < buckets) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.heads = new int[size];
+        Arrays.fill(this.heads, NONE);
+        this.next = new int[0];
+        this.prev = new int[0];
+        this.ticks = new long[0];
+        ensureCapacity(Math.max(initialCapacity, 1));
+    }
+
+    /** Schedules or reschedules the deadline of the given slot. A deadline that has already passed is
+     * returned on the next advance. This is lock-free if the slot is within the capacity of the wheel.
+     *
+     * @param slot the registry slot
+     * @param deadline the deadline in milliseconds */
+    void schedule(final int slot, final long deadline) {
+        Segment[] segments = this.segments;
+        if ((slot >> SEGMENT_SHIFT) >= segments.length) {
+            synchronized (this) {
+                ensureCapacity(slot + 1);
+            }
+            segments = this.segments;
+        }
+
+        final Segment segment = segments[slot >> SEGMENT_SHIFT];
+        final int index = slot & SEGMENT_MASK;
+        final long previous = segment.deadlines.getAndSet(index, deadline);
+        // a slot that is not in the wheel yet must be linked, a slot in the wheel only if the deadline
+        // moved backwards, since the wheel would report it too late otherwise
+        if (segment.pending.compareAndSet(index, 0, 1) || deadline < previous) {
+            this.scheduleRequests.offer(slot);
+        }
+    }
+
+    /** Cancels the deadline of the given slot and removes the missing mark.
+     *
+     * @param slot the registry slot */
+    synchronized void cancel(final int slot) {
+        if (slot < this.ticks.length) {
+            unlink(slot);
+            final Segment segment = this.segments[slot >> SEGMENT_SHIFT];
+            segment.pending.set(slot & SEGMENT_MASK, 0);
+            segment.deadlines.set(slot & SEGMENT_MASK, NO_DEADLINE);
+        }
+        this.missing.clear(slot);
+    }
+
+    /** Marks the given slot as missing or removes the mark.
+     *
+     * @param slot the registry slot
+     * @param missing true to mark the slot as missing */
+    synchronized void setMissing(final int slot, final boolean missing) {
+        this.missing.set(slot, missing);
+    }
+
+    synchronized boolean isMissing(final int slot) {
+        return this.missing.get(slot);
+    }
+
+    synchronized boolean isScheduled(final int slot) {
+        drainScheduleRequests();
+        return slot < this.ticks.length && this.ticks[slot] != NONE;
+    }
+
+    /** Get the number of scheduled slots */
+    synchronized int size() {
+        drainScheduleRequests();
+        return this.size;
+    }
+
+    /** Advances the wheel to the given time. All slots with a deadline before or at the given time are
+     * removed from the wheel.
+     *
+     * @param now the current time in milliseconds
+     * @return the slots with a passed deadline and all slots that are marked as missing, each slot once */
+    synchronized int[] advance(final long now) {
+        drainScheduleRequests();
+
+        final long nowTick = Math.floorDiv(now, this.tickMillis);
+        if (this.currentTick != NONE && nowTick <= this.currentTick) {
+            return collectMissing(EMPTY, 0);
+        }
+
+        // visit each bucket at most once, also if more than one revolution has passed
+        final long from = (this.currentTick == NONE)
+                ? nowTick - this.mask
+                : Math.max(this.currentTick + 1, nowTick - this.mask);
+        this.currentTick = nowTick;
+
+        int[] result = EMPTY;
+        int count = 0;
+        for (long tick = from; tick <= nowTick; tick++) {
+            int slot = this.heads[(int) (tick & this.mask)];
+            while (slot != NONE) {
+                final int nextSlot = this.next[slot];
+                if (this.ticks[slot] <= nowTick && expire(slot, nowTick) && !this.missing.get(slot)) {
+                    if (count == result.length) {
+                        result = Arrays.copyOf(result, Math.max(16, count * 2));
+                    }
+                    result[count++] = slot;
+                }
+                slot = nextSlot;
+            }
+        }
+
+        return collectMissing(result, count);
+    }
+
+    /** Removes the given slot from the wheel if its current deadline has passed and moves it to the bucket
+     * of its current deadline otherwise.
+     *
+     * @return true if the deadline of the slot has passed */
+    private boolean expire(final int slot, final long nowTick) {
+        final Segment segment = this.segments[slot >> SEGMENT_SHIFT];
+        final int index = slot & SEGMENT_MASK;
+        final long deadline = segment.deadlines.get(index);
+        if (deadline != NO_DEADLINE && ceilTick(deadline) > nowTick) {
+            unlink(slot);
+            link(slot, tickOf(deadline));
+            return false;
+        }
+
+        unlink(slot);
+        segment.pending.set(index, 0);
+        // a concurrent schedule may have missed the pending mark, check the deadline again after clearing it
+        final long current = segment.deadlines.get(index);
+        if (current != NO_DEADLINE && ceilTick(current) > nowTick && segment.pending.compareAndSet(index, 0, 1)) {
+            link(slot, tickOf(current));
+            return false;
+        }
+        return deadline != NO_DEADLINE;
+    }
+
+    private void drainScheduleRequests() {
+        Integer request;
+        while ((request = this.scheduleRequests.poll()) != null) {
+            final int slot = request;
+            ensureCapacity(slot + 1);
+            final Segment segment = this.segments[slot >> SEGMENT_SHIFT];
+            final int index = slot & SEGMENT_MASK;
+            long deadline = segment.deadlines.get(index);
+            if (deadline == NO_DEADLINE) {
+                // canceled after the request. A concurrent schedule may have missed the pending mark,
+                // check the deadline again after clearing it
+                segment.pending.set(index, 0);
+                deadline = segment.deadlines.get(index);
+                if (deadline == NO_DEADLINE || !segment.pending.compareAndSet(index, 0, 1)) {
+                    continue;
+                }
+            }
+
+            final long tick = tickOf(deadline);
+            segment.pending.set(index, 1);
+            if (this.ticks[slot] != tick) {
+                unlink(slot);
+                link(slot, tick);
+            }
+        }
+    }
+
+    // round up so that a deadline is never reported before it has passed
+    private long ceilTick(final long deadline) {
+        return Math.floorDiv(deadline + this.tickMillis - 1, this.tickMillis);
+    }
+
+    // the tick of the bucket for the given deadline. A deadline that has already passed goes to the next tick
+    private long tickOf(final long deadline) {
+        final long tick = ceilTick(deadline);
+        if (this.currentTick != NONE && tick <= this.currentTick) {
+            return this.currentTick + 1;
+        }
+        return tick;
+    }
+
+    private int[] collectMissing(final int[] result, final int count) {
+        final int[] all = Arrays.copyOf(result, count + this.missing.cardinality());
+        int index = count;
+        for (int slot = this.missing.nextSetBit(0); slot >= 0; slot = this.missing.nextSetBit(slot + 1)) {
+            all[index++] = slot;
+        }
+        return all;
+    }
+
+    private void link(final int slot, final long tick) {
+        final int bucket = (int) (tick & this.mask);
+        final int head = this.heads[bucket];
+        this.ticks[slot] = tick;
+        this.prev[slot] = NONE;
+        this.next[slot] = head;
+        if (head != NONE) {
+            this.prev[head] = slot;
+        }
+        this.heads[bucket] = slot;
+        this.size++;
+    }
+
+    private void unlink(final int slot) {
+        final long tick = this.ticks[slot];
+        if (tick == NONE) {
+            return;
+        }
+
+        final int prevSlot = this.prev[slot];
+        final int nextSlot = this.next[slot];
+        if (prevSlot != NONE) {
+            this.next[prevSlot] = nextSlot;
+        } else {
+            this.heads[(int) (tick & this.mask)] = nextSlot;
+        }
+        if (nextSlot != NONE) {
+            this.prev[nextSlot] = prevSlot;
+        }
+        this.ticks[slot] = NONE;
+        this.next[slot] = NONE;
+        this.prev[slot] = NONE;
+        this.size--;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= this.ticks.length) {
+            return;
+        }
+
+        final int oldCapacity = this.ticks.length;
+        final int newCapacity = Math.max(capacity, oldCapacity * 2);
+        this.next = Arrays.copyOf(this.next, newCapacity);
+        this.prev = Arrays.copyOf(this.prev, newCapacity);
+        this.ticks = Arrays.copyOf(this.ticks, newCapacity);
+        Arrays.fill(this.next, oldCapacity, newCapacity, NONE);
+        Arrays.fill(this.prev, oldCapacity, newCapacity, NONE);
+        Arrays.fill(this.ticks, oldCapacity, newCapacity, NONE);
+
+        final Segment[] segments = this.segments;
+        final int segmentCount = (newCapacity + SEGMENT_SIZE - 1) >> SEGMENT_SHIFT;
+        if (segmentCount > segments.length) {
+            final Segment[] newSegments = Arrays.copyOf(segments, segmentCount);
+            for (int i = segments.length; i < segmentCount; i++) {
+                newSegments[i] = new Segment();
+            }
+            this.segments = newSegments;
+        }
+    }
+
+    private static final class Segment {
+        // the latest scheduled deadline per slot or NO_DEADLINE
+        final AtomicLongArray deadlines = new AtomicLongArray(SEGMENT_SIZE);
+        // 1 if the slot is in the wheel or a schedule request for the slot is queued, 0 otherwise
+        final AtomicIntegerArray pending = new AtomicIntegerArray(SEGMENT_SIZE);
+
+        Segment() {
+            for (int i = 0; i < SEGMENT_SIZE; i++) {
+                this.deadlines.set(i, NO_DEADLINE);
+            }
+        }
+    }
+
+}
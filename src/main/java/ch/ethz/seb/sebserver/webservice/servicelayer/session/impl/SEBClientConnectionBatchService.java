@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import ch.ethz.seb.sebserver.gbl.Constants;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
+import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
+import ch.ethz.seb.sebserver.gbl.util.Result;
+import ch.ethz.seb.sebserver.gbl.util.Utils;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ClientConnectionDAO;
+
+/** Admission pipeline for the creation of new SEB client connections on handshake.
+ * </p>
+ * On exam start thousands of SEB clients may create their connection within a few seconds. Instead of one INSERT
+ * per SEB client, the connection creations are queued and coalesced by a background worker into multi-row INSERTs
+ * of at most max-batch connections every max-wait milliseconds. The waiting handshake is completed as soon as the
+ * batch that contains its connection has been committed. If a batch fails, the connections of the batch are
+ * created one by one to isolate the failure.
+ * </p>
+ * The service also keeps the p50/p99 handshake latency per report interval to be able to size the pipeline. */
+@Lazy
+@Component
+@WebServiceProfile
+public class SEBClientConnectionBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SEBClientConnectionBatchService.class);
+
+    private static final long CREATION_TIMEOUT = 30 * Constants.SECOND_IN_MILLIS;
+    private static final long REPORT_INTERVAL = Constants.MINUTE_IN_MILLIS;
+
+    private final ClientConnectionDAO clientConnectionDAO;
+    private final TaskScheduler taskScheduler;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWait;
+
+    private final Queue<PendingConnection> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger(0);
+    private final AtomicLong created = new AtomicLong(0);
+    private final AtomicLong batches = new AtomicLong(0);
+    private final AtomicLong fallbacks = new AtomicLong(0);
+
+    private volatile LatencyHistogram latencies = new LatencyHistogram();
+    private long lastReport = Utils.getMillisecondsNow();
+    private ScheduledFuture<?> task = null;
+
+    public SEBClientConnectionBatchService(
+            final ClientConnectionDAO clientConnectionDAO,
+            final TaskScheduler taskScheduler,
+            @Value("${sebserver.webservice.api.exam.session.connection.batch.enabled:true}") final boolean enabled,
+            @Value("${sebserver.webservice.api.exam.session.connection.batch.size.max:200}") final int maxBatchSize,
+            @Value("${sebserver.webservice.api.exam.session.connection.batch.wait:20}") final long maxWait) {
+
+        this.clientConnectionDAO = clientConnectionDAO;
+        this.taskScheduler = taskScheduler;
+        this.enabled = enabled;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWait = Math.max(1, maxWait);
+    }
+
+    @PostConstruct
+    protected void init() {
+        if (!this.enabled) {
+            log.info("SEB client connection batch creation is disabled");
+            return;
+        }
+
+        log.info("Start SEB client connection batch creation with max-batch: {} max-wait: {}",
+                this.maxBatchSize,
+                this.maxWait);
+
+        this.task = this.taskScheduler.scheduleWithFixedDelay(
+                this::processBatches,
+                Instant.now().plusMillis(this.maxWait),
+                Duration.ofMillis(this.maxWait));
+    }
+
+    @PreDestroy
+    protected void shutdown() {
+        if (this.task != null) {
+            this.task.cancel(false);
+            this.task = null;
+        }
+        // create the remaining connections
+        processBatches();
+    }
+
+    /** Creates a new client connection in state CONNECTION_REQUESTED. The client connection is created within the
+     * next batch and this call blocks until the batch has been committed.
+     *
+     * @param data the client connection data with a pre-generated connection token
+     * @return Result refer to the created client connection or to an error when happened */
+    public Result<ClientConnection> createNew(final ClientConnection data) {
+        if (this.task == null) {
+            return this.clientConnectionDAO.createNew(data);
+        }
+
+        return Result.tryCatch(() -> {
+            final PendingConnection pending = new PendingConnection(data);
+            this.queue.offer(pending);
+            this.queueSize.incrementAndGet();
+
+            try {
+                return pending.future.get(CREATION_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException e) {
+                if (pending.cancel()) {
+                    // the batch worker has not claimed the connection yet and will skip it
+                    throw new RuntimeException("Timeout while waiting for client connection creation", e);
+                }
+                // the connection is part of a running batch. Wait for the batch to get the created connection
+                // and not leave a created connection behind that no SEB client knows about
+                return awaitClaimed(pending);
+            } catch (final ExecutionException e) {
+                throw toRuntimeException(e);
+            }
+        });
+    }
+
+    /** Records the latency of one SEB client connection handshake.
+     *
+     * @param latency the handshake latency in milliseconds */
+    public void notifyHandshakeLatency(final long latency) {
+        this.latencies.record(latency);
+    }
+
+    /** Get the current statistics of the connection creation pipeline.
+     *
+     * @return ConnectionBatchStats with the overall counters and the latencies of the current report interval */
+    public ConnectionBatchStats getStats() {
+        final LatencyHistogram current = this.latencies;
+        return new ConnectionBatchStats(
+                this.created.get(),
+                this.batches.get(),
+                this.fallbacks.get(),
+                this.queueSize.get(),
+                current.count(),
+                current.percentile(0.5),
+                current.percentile(0.99));
+    }
+
+    private ClientConnection awaitClaimed(final PendingConnection pending) {
+        try {
+            return pending.future.get(CREATION_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (final ExecutionException e) {
+            throw toRuntimeException(e);
+        } catch (final TimeoutException e) {
+            throw new RuntimeException("Timeout while waiting for client connection creation", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for client connection creation", e);
+        }
+    }
+
+    private static RuntimeException toRuntimeException(final ExecutionException e) {
+        return (e.getCause() instanceof RuntimeException)
+                ? (RuntimeException) e.getCause()
+                : new RuntimeException(e.getCause());
+    }
+
+    private void processBatches() {
+        try {
+
+            while (!this.queue.isEmpty()) {
+                final List<PendingConnection> batch = new ArrayList<>(this.maxBatchSize);
+                PendingConnection pending;
+                while (batch.size() < this.maxBatchSize && (pending = this.queue.poll()) != null) {
+                    this.queueSize.decrementAndGet();
+                    // skip the connections of handshakes that already gave up waiting
+                    if (pending.claim()) {
+                        batch.add(pending);
+                    }
+                }
+
+                if (!batch.isEmpty()) {
+                    processBatch(batch);
+                }
+            }
+
+            report();
+
+        } catch (final Exception e) {
+            log.error("Unexpected error while creating SEB client connections: ", e);
+        }
+    }
+
+    private void processBatch(final List<PendingConnection> batch) {
+        final Result<List<ClientConnection>> result = this.clientConnectionDAO.createAll(batch
+                .stream()
+                .map(pending -> pending.data)
+                .collect(Collectors.toList()));
+
+        this.batches.incrementAndGet();
+
+        if (result.hasError()) {
+            log.warn("Failed to create batch of {} SEB client connections, create them one by one. Cause: {}",
+                    batch.size(),
+                    result.getError().getMessage());
+
+            this.fallbacks.incrementAndGet();
+            for (final PendingConnection pending : batch) {
+                final Result<ClientConnection> single = this.clientConnectionDAO.createNew(pending.data);
+                if (single.hasError()) {
+                    pending.future.completeExceptionally(single.getError());
+                } else {
+                    this.created.incrementAndGet();
+                    pending.future.complete(single.get());
+                }
+            }
+            return;
+        }
+
+        final List<ClientConnection> connections = result.get();
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(connections.get(i));
+        }
+        this.created.addAndGet(connections.size());
+    }
+
+    private void report() {
+        final long now = Utils.getMillisecondsNow();
+        if (now - this.lastReport < REPORT_INTERVAL) {
+            return;
+        }
+
+        this.lastReport = now;
+        final ConnectionBatchStats stats = getStats();
+        this.latencies = new LatencyHistogram();
+
+        if (stats.handshakes > 0) {
+            log.info("SEB client connection handshakes: {}", stats);
+        }
+    }
+
+    private static final class PendingConnection {
+
+        private static final int WAITING = 0;
+        private static final int CLAIMED = 1;
+        private static final int CANCELLED = 2;
+
+        final ClientConnection data;
+        final CompletableFuture<ClientConnection> future = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        PendingConnection(final ClientConnection data) {
+            this.data = data;
+        }
+
+        /** Claims the pending connection for a batch.
+         *
+         * @return true if the connection has been claimed, false if the waiting handshake has cancelled it */
+        boolean claim() {
+            return this.state.compareAndSet(WAITING, CLAIMED);
+        }
+
+        /** Cancels the pending connection on handshake timeout.
+         *
+         * @return true if the connection has been cancelled, false if a batch has already claimed it */
+        boolean cancel() {
+            if (this.state.compareAndSet(WAITING, CANCELLED)) {
+                this.future.cancel(false);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /** Latency histogram with a resolution of one millisecond up to MAX_LATENCY milliseconds. */
+    private static final class LatencyHistogram {
+
+        private static final int MAX_LATENCY = 10000;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(MAX_LATENCY + 1);
+        private final AtomicLong count = new AtomicLong(0);
+
+        void record(final long latency) {
+            this.buckets.incrementAndGet((int) Math.max(0, Math.min(latency, MAX_LATENCY)));
+            this.count.incrementAndGet();
+        }
+
+        long count() {
+            return this.count.get();
+        }
+
+        long percentile(final double p) {
+            final long total = this.count.get();
+            if (total <= 0) {
+                return 0;
+            }
+
+            final long rank = (long) Math.ceil(total * p);
+            long sum = 0;
+            for (int i = 0; i <= MAX_LATENCY; i++) {
+                sum += this.buckets.get(i);
+                if (sum >= rank) {
+                    return i;
+                }
+            }
+            return MAX_LATENCY;
+        }
+    }
+
+    /** Statistics of the SEB client connection creation pipeline */
+    public static final class ConnectionBatchStats {
+
+        public final long created;
+        public final long batches;
+        public final long fallbacks;
+        public final int queueDepth;
+        public final long handshakes;
+        public final long p50;
+        public final long p99;
+
+        public ConnectionBatchStats(
+                final long created,
+                final long batches,
+                final long fallbacks,
+                final int queueDepth,
+                final long handshakes,
+                final long p50,
+                final long p99) {
+
+            this.created = created;
+            this.batches = batches;
+            this.fallbacks = fallbacks;
+            this.queueDepth = queueDepth;
+            this.handshakes = handshakes;
+            this.p50 = p50;
+            this.p99 = p99;
+        }
+
+        @Override
+        public String toString() {
+            return "ConnectionBatchStats [created=" + this.created + ", batches=" + this.batches + ", fallbacks="
+                    + this.fallbacks + ", queueDepth=" + this.queueDepth + ", handshakes=" + this.handshakes
+                    + ", p50=" + this.p50 + "ms, p99=" + this.p99 + "ms]";
+        }
+    }
+
+}
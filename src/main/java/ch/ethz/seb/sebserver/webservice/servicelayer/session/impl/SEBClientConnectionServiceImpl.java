@@ -43,6 +43,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
@@ -86,6 +87,7 @@ public class SEBClientConnectionServiceImpl implements SEBClientConnectionServic
     private final DistributedIndicatorValueService distributedPingCache;
     private final SecurityKeyService securityKeyService;
     private final SEBClientEventBatchService sebClientEventBatchService;
+    private final SEBClientConnectionBatchService sebClientConnectionBatchService;
     private final SEBClientInstructionService sebClientInstructionService;
     private final ConnectionConfigurationService connectionConfigurationService;
     private final JSONMapper jsonMapper;
@@ -100,6 +102,7 @@ public class SEBClientConnectionServiceImpl implements SEBClientConnectionServic
             final SecurityKeyService securityKeyService,
             final WebserviceInfo webserviceInfo,
             final SEBClientEventBatchService sebClientEventBatchService,
+            final SEBClientConnectionBatchService sebClientConnectionBatchService,
             final SEBClientInstructionService sebClientInstructionService,
             final ConnectionConfigurationService connectionConfigurationService,
             final JSONMapper jsonMapper) {
@@ -114,6 +117,7 @@ public class SEBClientConnectionServiceImpl implements SEBClientConnectionServic
         this.securityKeyService = securityKeyService;
         this.isDistributedSetup = webserviceInfo.isDistributed();
         this.sebClientEventBatchService = sebClientEventBatchService;
+        this.sebClientConnectionBatchService = sebClientConnectionBatchService;
         this.sebClientInstructionService = sebClientInstructionService;
         this.connectionConfigurationService = connectionConfigurationService;
         this.jsonMapper = jsonMapper;
@@ -137,6 +141,7 @@ public class SEBClientConnectionServiceImpl implements SEBClientConnectionServic
 
         return Result.tryCatch(() -> {
 
+            final long startTime = Utils.getMillisecondsNow();
             final SEBClientConfig clientConfig = principal == null ? null : this.sebClientConfigDAO
                     .byClientName(principal.getName())
                     .getOr(null);
@@ -185,7 +190,8 @@ public class SEBClientConnectionServiceImpl implements SEBClientConnectionServic
                     null);
 
             // Create ClientConnection in status CONNECTION_REQUESTED for further processing
-            final ClientConnection clientConnection = this.clientConnectionDAO.createNew(new ClientConnection(
+            // NOTE: this is done within the next batch of new connections to not have one INSERT per SEB
+            final ClientConnection clientConnection = this.sebClientConnectionBatchService.createNew(new ClientConnection(
                     null,
                     institutionId,
                     examId,
@@ -231,6 +237,7 @@ public class SEBClientConnectionServiceImpl implements SEBClientConnectionServic
                 }
             }
 
+            this.sebClientConnectionBatchService.notifyHandshakeLatency(Utils.getMillisecondsNow() - startTime);
             return clientConnection;
         });
     }
@@ -558,6 +565,7 @@ public class SEBClientConnectionServiceImpl implements SEBClientConnectionServic
             final Long examId,
             final String connectionToken,
             final String ipAddress,
+            final String clientETag,
             final HttpServletResponse response) {
 
         try {
@@ -594,11 +602,21 @@ public class SEBClientConnectionServiceImpl implements SEBClientConnectionServic
 
             try {
 
-                this.examSessionService
-                        .streamDefaultExamConfig(
-                                institutionId,
-                                connectionToken,
-                                outputStream);
+                final InMemorySEBConfig sebConfig = this.examSessionService
+                        .getDefaultExamConfig(institutionId, connectionToken);
+
+                if (sebConfig != null) {
+                    response.setHeader(HttpHeaders.ETAG, sebConfig.getETag());
+                    if (sebConfig.matchesETag(clientETag)) {
+                        response.setStatus(HttpStatus.NOT_MODIFIED.value());
+                        return;
+                    }
+
+                    // the pre-rendered data is written as is
+                    final byte[] data = sebConfig.getData();
+                    response.setContentLength(data.length);
+                    outputStream.write(data);
+                }
 
                 response.setStatus(HttpStatus.OK.value());
 
@@ -8,38 +8,58 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
 
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
-
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
-import org.apache.ibatis.session.ExecutorType;
-import org.apache.ibatis.session.SqlSessionFactory;
-import org.mybatis.spring.SqlSessionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import ch.ethz.seb.sebserver.gbl.Constants;
 import ch.ethz.seb.sebserver.gbl.api.JSONMapper;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientNotification;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientNotification.NotificationType;
 import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
+import ch.ethz.seb.sebserver.gbl.util.MPSCRingBuffer;
 import ch.ethz.seb.sebserver.gbl.util.Pair;
 import ch.ethz.seb.sebserver.gbl.util.Utils;
-import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientEventRecordMapper;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientEventExtensionMapper;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ClientEventRecord;
 import ch.ethz.seb.sebserver.webservice.servicelayer.session.SEBClientNotificationService;
-
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.indicator.LogLevelCountService;
+
+/** Persists incoming SEB client events in batches.
+ * </p>
+ * Events are routed by connection token to one of a configurable number of workers, each with its own bounded
+ * lock-free queue. This keeps the order of events per connection. A worker drains its queue periodically and
+ * writes the events with multi-row INSERT statements in transactions of at most the maximum batch size.
+ * The batch size adapts within the configured bounds: it grows while the queue is backlogged and the commit
+ * latency is below the target and shrinks when commits get slower then the target.
+ * </p>
+ * If a worker queue is full, the configured overflow policy applies. By default the calling thread persists the
+ * queued events of the worker itself before it queues the event. This keeps the order of events per connection and
+ * loses no event but slows down the calling SEB client requests until the worker has caught up. */
 @Lazy
 @Component
 @WebServiceProfile
@@ -47,139 +67,311 @@ public class SEBClientEventBatchService {
 
     private static final Logger log = LoggerFactory.getLogger(SEBClientEventBatchService.class);
 
+    private static final int MAX_ROUNDS_PER_CYCLE = 10;
+    private static final long OVERFLOW_LOG_INTERVAL = 10 * Constants.SECOND_IN_MILLIS;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** Defines what happens with an event if the queue of the responsible worker is full */
+    public enum OverflowPolicy {
+        /** The calling thread waits a bounded time for free queue space. If the queue is still full after that
+         * time, the event is dropped and counted */
+        BLOCK,
+        /** The event is dropped and counted */
+        DROP,
+        /** The calling thread persists the queued events of the worker, including the earlier events of the same
+         * connection, and then queues the event. No event is dropped (default) */
+        CALLER_RUNS
+    }
+
     private final SEBClientNotificationService sebClientNotificationService;
     private final TransactionTemplate transactionTemplate;
-    private final ExamSessionCacheService examSessionCacheService;
+    private final ClientConnectionRegistry clientConnectionRegistry;
+    private final ClientEventExtensionMapper clientEventExtensionMapper;
+    private final LogLevelCountService logLevelCountService;
     private final JSONMapper jsonMapper;
-
-    private final SqlSessionTemplate sqlSessionTemplate;
-    private final ClientEventRecordMapper clientEventMapper;
+    private final TaskScheduler taskScheduler;
+
+    private final long interval;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long targetCommitLatency;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeout;
+    private final Worker[] workers;
+
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong blocked = new AtomicLong(0);
+    private final AtomicLong callerRuns = new AtomicLong(0);
+    private final AtomicLong persisted = new AtomicLong(0);
+    private final AtomicLong lastOverflowLog = new AtomicLong(0);
 
     public SEBClientEventBatchService(
             final SEBClientNotificationService sebClientNotificationService,
-            final SqlSessionFactory sqlSessionFactory,
             final PlatformTransactionManager transactionManager,
-            final ExamSessionCacheService examSessionCacheService,
-            final JSONMapper jsonMapper) {
+            final ClientConnectionRegistry clientConnectionRegistry,
+            final ClientEventExtensionMapper clientEventExtensionMapper,
+            final LogLevelCountService logLevelCountService,
+            final JSONMapper jsonMapper,
+            final TaskScheduler taskScheduler,
+            @Value("${sebserver.webservice.api.exam.session.event.batch.interval:1000}") final long interval,
+            @Value("${sebserver.webservice.api.exam.session.event.batch.workers:4}") final int workers,
+            @Value("${sebserver.webservice.api.exam.session.event.batch.queue.capacity:65536}") final int queueCapacity,
+            @Value("${sebserver.webservice.api.exam.session.event.batch.size.min:100}") final int minBatchSize,
+            @Value("${sebserver.webservice.api.exam.session.event.batch.size.max:1000}") final int maxBatchSize,
+            @Value("${sebserver.webservice.api.exam.session.event.batch.latency.target:200}") final long targetCommitLatency,
+            @Value("${sebserver.webservice.api.exam.session.event.batch.overflow:CALLER_RUNS}") final OverflowPolicy overflowPolicy,
+            @Value("${sebserver.webservice.api.exam.session.event.batch.block.timeout:500}") final long blockTimeout) {
 
         this.sebClientNotificationService = sebClientNotificationService;
         this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
         this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_UNCOMMITTED);
-        this.examSessionCacheService = examSessionCacheService;
+        this.clientConnectionRegistry = clientConnectionRegistry;
+        this.clientEventExtensionMapper = clientEventExtensionMapper;
+        this.logLevelCountService = logLevelCountService;
         this.jsonMapper = jsonMapper;
-
-        this.sqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
-        this.clientEventMapper = this.sqlSessionTemplate.getMapper(ClientEventRecordMapper.class);
+        this.taskScheduler = taskScheduler;
+
+        this.interval = Math.max(10, interval);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.minBatchSize = Math.max(1, Math.min(minBatchSize, this.maxBatchSize));
+        this.targetCommitLatency = Math.max(1, targetCommitLatency);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeout = Math.max(0, blockTimeout);
+
+        final int numWorkers = Math.max(1, workers);
+        final int capacityPerWorker = Math.max(this.maxBatchSize, queueCapacity / numWorkers);
+        this.workers = new Worker[numWorkers];
+        for (int i = 0; i < numWorkers; i++) {
+            this.workers[i] = new Worker(i, capacityPerWorker);
+        }
     }
 
-    private final BlockingDeque<EventData> eventDataQueue = new LinkedBlockingDeque<>();
+    @PostConstruct
+    protected void init() {
+        log.info("Start SEB client event batch service with {} workers, batch size {}-{}, overflow policy: {}",
+                this.workers.length,
+                this.minBatchSize,
+                this.maxBatchSize,
+                this.overflowPolicy);
+
+        // stagger the workers over the interval so that they not hit the database all at the same time
+        final long offset = this.interval / this.workers.length;
+        for (int i = 0; i < this.workers.length; i++) {
+            final Worker worker = this.workers[i];
+            worker.task = this.taskScheduler.scheduleWithFixedDelay(
+                    worker,
+                    Instant.now().plusMillis(100 + i * offset),
+                    Duration.ofMillis(this.interval));
+        }
+    }
 
     public void accept(final String connectionToken, final String jsonBody) {
-        this.eventDataQueue.add(new EventData(
+        accept(new EventData(
                 connectionToken,
                 Utils.getMillisecondsNow(),
                 jsonBody));
     }
 
-    public void accept(final EventData eventData) {
-        this.eventDataQueue.add(eventData);
-    }
+    /** Decodes the SEB client event JSON from the given stream on the calling thread and queues the decoded event.
+     * Invalid SEB client event JSON is logged and skipped.
+     *
+     * @param connectionToken the connection token of the SEB client connection that sent the event
+     * @param jsonBody the input stream of the SEB client event JSON object */
+    public void accept(final String connectionToken, final InputStream jsonBody) {
+        final long serverTime = Utils.getMillisecondsNow();
+        try {
 
-    private final Collection<EventData> events1 = new ArrayList<>();
+            accept(new EventData(
+                    connectionToken,
+                    serverTime,
+                    ClientEventDecoder.decode(this.jsonMapper.getFactory(), jsonBody)));
 
-    @Scheduled(
-            fixedDelayString = "${sebserver.webservice.api.exam.session.event.batch.interval:1000}",
-            initialDelay = 100)
-    public void worker1() {
-        processEvents("worker1", this.events1);
+        } catch (final Exception e) {
+            log.error("Failed to decode SEB event JSON data for connection: {} cause: {}",
+                    connectionToken,
+                    e.getMessage());
+        }
     }
 
-    private final Collection<EventData> events2 = new ArrayList<>();
+    public void accept(final EventData eventData) {
+        final String token = eventData.connectionToken;
+        final int index = (token != null)
+                ? (token.hashCode() & Integer.MAX_VALUE) % this.workers.length
+                : 0;
+
+        final Worker worker = this.workers[index];
+        if (worker.queue.offer(eventData)) {
+            return;
+        }
 
-    @Scheduled(
-            fixedDelayString = "${sebserver.webservice.api.exam.session.event.batch.interval:1000}",
-            initialDelay = 300)
-    public void worker2() {
-        processEvents("worker2", this.events2);
+        // the worker queue is full, apply the overflow policy
+        switch (this.overflowPolicy) {
+            case BLOCK: {
+                this.blocked.incrementAndGet();
+                if (!offerBlocking(worker, eventData)) {
+                    this.dropped.incrementAndGet();
+                }
+                break;
+            }
+            case DROP: {
+                this.dropped.incrementAndGet();
+                break;
+            }
+            default: {
+                this.callerRuns.incrementAndGet();
+                offerCallerRuns(worker, eventData);
+            }
+        }
+        logOverflow(index);
     }
 
-    private final Collection<EventData> events3 = new ArrayList<>();
+    /** Processes all currently queued events of all workers on the calling thread. */
+    public void processOneTime() {
+        for (final Worker worker : this.workers) {
+            worker.process();
+        }
+    }
 
-    @Scheduled(
-            fixedDelayString = "${sebserver.webservice.api.exam.session.event.batch.interval:1000}",
-            initialDelay = 600)
-    public void worker3() {
-        processEvents("worker3", this.events3);
+    /** Get the actual back-pressure statistics of this service.
+     *
+     * @return EventBatchStats the actual statistics */
+    public EventBatchStats getStats() {
+        final List<WorkerStats> workerStats = new ArrayList<>(this.workers.length);
+        for (final Worker worker : this.workers) {
+            workerStats.add(new WorkerStats(
+                    worker.index,
+                    worker.queue.size(),
+                    worker.queue.capacity(),
+                    worker.batchSize,
+                    worker.lastCommitLatency));
+        }
+        return new EventBatchStats(
+                this.persisted.get(),
+                this.dropped.get(),
+                this.blocked.get(),
+                this.callerRuns.get(),
+                Collections.unmodifiableList(workerStats));
     }
 
-    private final Collection<EventData> events4 = new ArrayList<>();
+    @PreDestroy
+    protected void shutdown() {
+        log.info("Shutdown SEBClientEventBatchStore...");
+        for (final Worker worker : this.workers) {
+            if (worker.task != null) {
+                worker.task.cancel(false);
+            }
+        }
 
-    @Scheduled(
-            fixedDelayString = "${sebserver.webservice.api.exam.session.event.batch.interval:1000}",
-            initialDelay = 900)
-    public void worker4() {
-        processEvents("worker4", this.events4);
+        try {
+            // persist the remaining events
+            processOneTime();
+        } catch (final Exception e) {
+            log.error("Failed to persist remaining SEB events on shutdown: ", e);
+        }
     }
 
-    public void processOneTime() {
-        processEvents("One Time Call", new ArrayList<>());
+    private boolean offerBlocking(final Worker worker, final EventData eventData) {
+        worker.requestDrain();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.blockTimeout);
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (worker.queue.offer(eventData)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private void processEvents(final String workerName, final Collection<EventData> events) {
+    private void offerCallerRuns(final Worker worker, final EventData eventData) {
+        // all earlier events of the connection are queued at this worker and are persisted before this event
+        do {
+            worker.process();
+        } while (!worker.queue.offer(eventData));
+    }
 
-        long start = 0L;
-        if (log.isDebugEnabled()) {
-            start = Utils.getMillisecondsNow();
+    /** Calculates the batch size of a worker for the next round. The batch size is halved if the last commit
+     * took longer than the target latency and doubled if the queue still holds more events than the batch size.
+     *
+     * @param batchSize the actual batch size
+     * @param lastCommitLatency the latency of the last commit in milliseconds
+     * @param remaining the number of events that remain in the queue
+     * @param minBatchSize the minimum batch size
+     * @param maxBatchSize the maximum batch size
+     * @param targetCommitLatency the target commit latency in milliseconds
+     * @return the batch size for the next round */
+    static int nextBatchSize(
+            final int batchSize,
+            final long lastCommitLatency,
+            final int remaining,
+            final int minBatchSize,
+            final int maxBatchSize,
+            final long targetCommitLatency) {
+
+        if (lastCommitLatency > targetCommitLatency) {
+            return Math.max(minBatchSize, batchSize / 2);
+        } else if (remaining > batchSize) {
+            return Math.min(maxBatchSize, batchSize * 2);
         }
+        return batchSize;
+    }
 
-        final int size = this.eventDataQueue.size();
-        if (size > 1000) {
-            log.warn("-----> There are more then 1000 SEB client logs in the waiting queue: {}, worker: {}",
-                    size,
-                    workerName);
+    private void logOverflow(final int workerIndex) {
+        final long now = Utils.getMillisecondsNow();
+        final long last = this.lastOverflowLog.get();
+        if (now - last > OVERFLOW_LOG_INTERVAL && this.lastOverflowLog.compareAndSet(last, now)) {
+            log.warn(
+                    "SEB client event queue of worker {} is full. Overflow policy: {}, dropped: {}, blocked: {}, caller runs: {}",
+                    workerIndex,
+                    this.overflowPolicy,
+                    this.dropped.get(),
+                    this.blocked.get(),
+                    this.callerRuns.get());
         }
+    }
 
-        if (size == 0) {
-            return;
+    private int persist(final List<EventData> events) {
+        final List<EventData> toPersist = events
+                .stream()
+                .map(this::convertData)
+                .map(this::storeNotifications)
+                .filter(Objects::nonNull)
+                .map(this::toEventRecord)
+                .filter(Objects::nonNull)
+                .toList();
+
+        if (toPersist.isEmpty()) {
+            return 0;
         }
 
-        try {
-
-            events.clear();
-            this.eventDataQueue.drainTo(events);
-
-            if (events.isEmpty()) {
-                return;
-            }
+        final List<ClientEventRecord> records = toPersist
+                .stream()
+                .map(eventData -> eventData.record)
+                .toList();
 
-            final List<ClientEventRecord> records = events
-                    .stream()
-                    .map(this::convertData)
-                    .map(this::storeNotifications)
-                    .filter(Objects::nonNull)
-                    .map(this::toEventRecord)
-                    .filter(Objects::nonNull)
-                    .toList();
+        final Lock batchLock = this.logLevelCountService.getBatchLock();
+        batchLock.lock();
+        try {
 
             this.transactionTemplate
-                    .execute(status -> {
-                        records.forEach(this.clientEventMapper::insert);
-                        return null;
-                    });
-
-            this.sqlSessionTemplate.flushStatements();
-
-            if (log.isTraceEnabled()) {
-                log.debug("SEBClientEventBatchService worker {} processes batch of size {} in {} ms",
-                        workerName,
-                        size,
-                        Utils.getMillisecondsNow() - start);
+                    .execute(status -> this.clientEventExtensionMapper.insertMultiple(records));
+
+            // handle log-level counts of the committed events
+            for (final EventData eventData : toPersist) {
+                this.logLevelCountService.notifyEvent(
+                        eventData.examId,
+                        eventData.record.getClientConnectionId(),
+                        eventData.event.eventType,
+                        eventData.record.getId(),
+                        eventData.record.getText());
             }
 
-        } catch (final Exception e) {
-            log.error("Failed to process SEB events from eventDataQueue: ", e);
+        } finally {
+            batchLock.unlock();
         }
+
+        this.persisted.addAndGet(records.size());
+        return records.size();
     }
 
     private EventData convertData(final EventData eventData) {
@@ -189,9 +381,9 @@ public class SEBClientEventBatchService {
 
         try {
 
-            final ClientEvent eventModel = this.jsonMapper.readValue(
-                    eventData.jsonBody,
-                    ClientEvent.class);
+            final ClientEvent eventModel = ClientEventDecoder.decode(
+                    this.jsonMapper.getFactory(),
+                    eventData.jsonBody);
 
             eventData.setEvent(eventModel);
             return eventData;
@@ -209,8 +401,8 @@ public class SEBClientEventBatchService {
                 return eventData;
             }
 
-            final ClientConnectionDataInternal clientConnection = this.examSessionCacheService
-                    .getClientConnection(eventData.connectionToken);
+            final ClientConnectionDataInternal clientConnection = this.clientConnectionRegistry
+                    .getConnection(eventData.connectionToken);
 
             if (clientConnection == null) {
                 log.error("Failed to get ClientConnectionDataInternal for: {}", eventData.connectionToken);
@@ -250,11 +442,11 @@ public class SEBClientEventBatchService {
         }
     }
 
-    private ClientEventRecord toEventRecord(final EventData eventData) {
+    private EventData toEventRecord(final EventData eventData) {
         try {
 
-            final ClientConnectionDataInternal clientConnection = this.examSessionCacheService
-                    .getClientConnection(eventData.connectionToken);
+            final ClientConnectionDataInternal clientConnection = this.clientConnectionRegistry
+                    .getConnection(eventData.connectionToken);
 
             if (clientConnection == null) {
                 if (log.isDebugEnabled()) {
@@ -264,35 +456,162 @@ public class SEBClientEventBatchService {
             }
 
             // handle indicator update
-            clientConnection
-                    .getIndicatorMapping(eventData.event.eventType)
-                    .forEach(indicator -> indicator.notifyValueChange(
-                            eventData.event.text,
-                            (eventData.event.numValue != null) ? eventData.event.numValue : Double.NaN));
+            clientConnection.notifyValueChange(
+                    eventData.event.eventType,
+                    eventData.event.text,
+                    (eventData.event.numValue != null) ? eventData.event.numValue : Double.NaN);
 
-            return ClientEvent.toRecord(eventData.event, clientConnection.clientConnection.id);
+            eventData.setRecord(
+                    clientConnection.clientConnection.examId,
+                    ClientEvent.toRecord(eventData.event, clientConnection.clientConnection.id));
+            return eventData;
 
         } catch (final Exception e) {
             log.error(
-                    "Unexpected error while converting SEB event data to record for: {} Skip this event", 
+                    "Unexpected error while converting SEB event data to record for: {} Skip this event",
                     eventData,
                     e);
             return null;
         }
     }
 
-    @PreDestroy
-    protected void shutdown() {
-        log.info("Shutdown SEBClientEventBatchStore...");
-        if (this.sqlSessionTemplate != null) {
+    private final class Worker implements Runnable {
+
+        final int index;
+        final MPSCRingBuffer<EventData> queue;
+        final List<EventData> batch;
+        final AtomicBoolean drainRequested = new AtomicBoolean(false);
+
+        volatile int batchSize;
+        volatile long lastCommitLatency = 0;
+        ScheduledFuture<?> task = null;
+
+        Worker(final int index, final int capacity) {
+            this.index = index;
+            this.queue = new MPSCRingBuffer<>(capacity);
+            this.batch = new ArrayList<>(SEBClientEventBatchService.this.maxBatchSize);
+            this.batchSize = SEBClientEventBatchService.this.minBatchSize;
+        }
+
+        @Override
+        public void run() {
+            this.drainRequested.set(false);
             try {
-                this.sqlSessionTemplate.destroy();
+                process();
             } catch (final Exception e) {
-                log.error("Failed to close and destroy the SqlSessionTemplate for this thread: {}",
-                        Thread.currentThread(),
-                        e);
+                log.error("Failed to process SEB events of worker: {}", this.index, e);
+            }
+        }
+
+        /** Requests an early run of this worker if there is not already one requested */
+        void requestDrain() {
+            if (this.drainRequested.compareAndSet(false, true)) {
+                try {
+                    SEBClientEventBatchService.this.taskScheduler.schedule(this, Instant.now());
+                } catch (final Exception e) {
+                    this.drainRequested.set(false);
+                    log.warn("Failed to request early drain of worker: {} cause: {}", this.index, e.getMessage());
+                }
             }
         }
+
+        // synchronized since the queue allows only one consumer at a time
+        synchronized void process() {
+            for (int round = 0; round < MAX_ROUNDS_PER_CYCLE; round++) {
+                this.batch.clear();
+                if (this.queue.drain(this.batch::add, this.batchSize) == 0) {
+                    return;
+                }
+
+                final long start = System.nanoTime();
+                try {
+                    persist(this.batch);
+                } catch (final Exception e) {
+                    log.error("Failed to persist batch of {} SEB events of worker: {}",
+                            this.batch.size(),
+                            this.index,
+                            e);
+                } finally {
+                    this.batch.clear();
+                }
+
+                this.lastCommitLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                final int remaining = this.queue.size();
+                this.batchSize = nextBatchSize(
+                        this.batchSize,
+                        this.lastCommitLatency,
+                        remaining,
+                        SEBClientEventBatchService.this.minBatchSize,
+                        SEBClientEventBatchService.this.maxBatchSize,
+                        SEBClientEventBatchService.this.targetCommitLatency);
+
+                if (remaining < this.batchSize) {
+                    // no backlog, wait for the next cycle
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Back-pressure statistics of the SEB client event batch service */
+    public static final class EventBatchStats {
+
+        public final long persisted;
+        public final long dropped;
+        public final long blocked;
+        public final long callerRuns;
+        public final List<WorkerStats> workers;
+
+        public EventBatchStats(
+                final long persisted,
+                final long dropped,
+                final long blocked,
+                final long callerRuns,
+                final List<WorkerStats> workers) {
+
+            this.persisted = persisted;
+            this.dropped = dropped;
+            this.blocked = blocked;
+            this.callerRuns = callerRuns;
+            this.workers = workers;
+        }
+
+        @Override
+        public String toString() {
+            return "EventBatchStats [persisted=" + this.persisted + ", dropped=" + this.dropped + ", blocked="
+                    + this.blocked + ", callerRuns=" + this.callerRuns + ", workers=" + this.workers + "]";
+        }
+    }
+
+    /** Statistics of one event batch worker */
+    public static final class WorkerStats {
+
+        public final int worker;
+        public final int queueDepth;
+        public final int queueCapacity;
+        public final int batchSize;
+        public final long lastCommitLatency;
+
+        public WorkerStats(
+                final int worker,
+                final int queueDepth,
+                final int queueCapacity,
+                final int batchSize,
+                final long lastCommitLatency) {
+
+            this.worker = worker;
+            this.queueDepth = queueDepth;
+            this.queueCapacity = queueCapacity;
+            this.batchSize = batchSize;
+            this.lastCommitLatency = lastCommitLatency;
+        }
+
+        @Override
+        public String toString() {
+            return "WorkerStats [worker=" + this.worker + ", queueDepth=" + this.queueDepth + ", queueCapacity="
+                    + this.queueCapacity + ", batchSize=" + this.batchSize + ", lastCommitLatency="
+                    + this.lastCommitLatency + "]";
+        }
     }
 
     public final static class EventData {
@@ -300,6 +619,8 @@ public class SEBClientEventBatchService {
         final Long serverTime;
         final String jsonBody;
         ClientEvent event;
+        Long examId;
+        ClientEventRecord record;
 
         public EventData(final String connectionToken, final Long serverTime, final String jsonBody) {
             this.connectionToken = connectionToken;
@@ -318,6 +639,11 @@ public class SEBClientEventBatchService {
         void setEvent(final ClientEvent event) {
             this.event = event;
         }
+
+        void setRecord(final Long examId, final ClientEventRecord record) {
+            this.examId = examId;
+            this.record = record;
+        }
     }
 
 }
@@ -8,12 +8,20 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
 
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent;
@@ -28,6 +36,7 @@ import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
 import ch.ethz.seb.sebserver.SEBServerInit;
@@ -37,7 +46,6 @@ import ch.ethz.seb.sebserver.gbl.model.EntityKey;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientInstruction.InstructionType;
 import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
 import ch.ethz.seb.sebserver.gbl.util.Result;
-import ch.ethz.seb.sebserver.gbl.util.SizedArrayNonBlockingQueue;
 import ch.ethz.seb.sebserver.webservice.WebserviceInfo;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ClientInstructionRecord;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ClientConnectionDAO;
@@ -62,11 +70,18 @@ public class SEBClientInstructionServiceImpl implements SEBClientInstructionServ
     private final ClientInstructionDAO clientInstructionDAO;
     private final ClientEventDAO clientEventDAO;
     private final JSONMapper jsonMapper;
+    private final TaskScheduler taskScheduler;
 
-    private final Map<String, SizedArrayNonBlockingQueue<ClientInstructionRecord>> instructions;
+    // NOTE: The instructions are kept per SEB client connection within lock-free queues with their JSON payload
+    //       already rendered. Delivered instructions are deleted on the persistent storage in batches by a
+    //       background task and are remembered until they are inactive anyway, to not load them again.
+    private final Map<String, Queue<PendingInstruction>> instructions;
+    private final Queue<Long> pendingDeletes;
+    private final Map<Long, Long> deliveredInstructions;
+    private final Set<String> pendingQuits;
 
-    private long lastRefresh = 0;
     private long lastClean = 0;
+    private ScheduledFuture<?> persistentUpdateTask = null;
 
     public SEBClientInstructionServiceImpl(
             final WebserviceInfo webserviceInfo,
@@ -74,7 +89,8 @@ public class SEBClientInstructionServiceImpl implements SEBClientInstructionServ
             final ClientConnectionDAO clientConnectionDAO,
             final ClientInstructionDAO clientInstructionDAO, 
             final ClientEventDAO clientEventDAO,
-            final JSONMapper jsonMapper) {
+            final JSONMapper jsonMapper,
+            final TaskScheduler taskScheduler) {
 
         this.webserviceInfo = webserviceInfo;
         this.examDAO = examDAO;
@@ -82,7 +98,11 @@ public class SEBClientInstructionServiceImpl implements SEBClientInstructionServ
         this.clientInstructionDAO = clientInstructionDAO;
         this.clientEventDAO = clientEventDAO;
         this.jsonMapper = jsonMapper;
+        this.taskScheduler = taskScheduler;
         this.instructions = new ConcurrentHashMap<>();
+        this.pendingDeletes = new ConcurrentLinkedQueue<>();
+        this.deliveredInstructions = new ConcurrentHashMap<>();
+        this.pendingQuits = ConcurrentHashMap.newKeySet();
     }
 
     @Override
@@ -107,6 +127,22 @@ public class SEBClientInstructionServiceImpl implements SEBClientInstructionServ
         } else {
             SEBServerInit.INIT_LOGGER.info("------> No pending SEB client instructions found on persistent storage");
         }
+
+        if (this.persistentUpdateTask == null) {
+            this.persistentUpdateTask = this.taskScheduler.scheduleWithFixedDelay(
+                    this::processPersistentUpdate,
+                    Instant.now().plusMillis(PERSISTENT_UPDATE_INTERVAL),
+                    Duration.ofMillis(PERSISTENT_UPDATE_INTERVAL));
+        }
+    }
+
+    @PreDestroy
+    protected void shutdown() {
+        if (this.persistentUpdateTask != null) {
+            this.persistentUpdateTask.cancel(false);
+            this.persistentUpdateTask = null;
+        }
+        purgeDeliveredInstructions();
     }
 
     @Override
@@ -164,15 +200,19 @@ public class SEBClientInstructionServiceImpl implements SEBClientInstructionServ
                     .filterForInstructionStatus(examId, connectionTokens)
                     .getOrElse(Collections::emptySet);
 
-            connectionTokens
+            final Collection<String> tokens = connectionTokens
                     .stream()
                     .filter(activeConnections::contains)
-                    .map(token -> this.clientInstructionDAO
-                            .insert(examId, type, attributesString, token, needsConfirm))
-                    .map(result -> result.get(
-                            error -> log.error("Failed to register instruction: {}", error.getMessage()),
-                            () -> null))
-                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+
+            if (tokens.isEmpty()) {
+                return;
+            }
+
+            this.clientInstructionDAO
+                    .insert(examId, type, attributesString, tokens, needsConfirm)
+                    .onError(error -> log.error("Failed to register instructions: {}", error.getMessage()))
+                    .getOrThrow()
                     .forEach(this::putToCache);
         });
     }
@@ -180,71 +220,50 @@ public class SEBClientInstructionServiceImpl implements SEBClientInstructionServ
     @Override
     public String getInstructionJSON(final String connectionToken) {
 
-        final ClientInstructionRecord clientInstruction = getNextInstruction(connectionToken);
-        if (clientInstruction == null) {
+        final Queue<PendingInstruction> queue = this.instructions.get(connectionToken);
+        if (queue == null) {
             return null;
         }
 
-        final boolean needsConfirm = BooleanUtils.toBoolean(clientInstruction.getNeedsConfirmation());
-        if (needsConfirm) {
-            // add the instruction back to the queue's tail if it need a confirmation
-            final SizedArrayNonBlockingQueue<ClientInstructionRecord> queue = this.instructions.get(connectionToken);
-            if (queue != null) {
-                queue.add(clientInstruction);
-            }
-
-        } else {
-            // otherwise remove it also from the persistent storage
-            final Result<Void> delete = this.clientInstructionDAO.delete(clientInstruction.getId());
-            if (delete.hasError()) {
-                log.error("Failed to delete SEB client instruction on persistent storage: ", delete.getError());
-            }
+        final PendingInstruction instruction = getNextActive(
+                DateTime.now(DateTimeZone.UTC).minusMinutes(1).getMillis(),
+                queue);
+        if (instruction == null) {
+            return null;
         }
 
-        // {"instruction":"%s", "attributes":%s}
-        final String attributes = clientInstruction.getAttributes();
-        final StringBuilder sBuilder = new StringBuilder()
-                .append(Constants.CURLY_BRACE_OPEN)
-                .append(Constants.DOUBLE_QUOTE)
-                .append(JSON_INST)
-                .append(Constants.DOUBLE_QUOTE)
-                .append(Constants.COLON)
-                .append(Constants.DOUBLE_QUOTE)
-                .append(clientInstruction.getType())
-                .append(Constants.DOUBLE_QUOTE);
-
-        if (StringUtils.isNotBlank(attributes)) {
-            sBuilder.append(Constants.COMMA)
-                    .append(Constants.DOUBLE_QUOTE)
-                    .append(JSON_ATTR)
-                    .append(Constants.DOUBLE_QUOTE)
-                    .append(Constants.COLON)
-                    .append(attributes);
+        if (instruction.needsConfirm) {
+            // add the instruction back to the queue's tail if it need a confirmation
+            addToQueue(queue, instruction);
+        } else {
+            // otherwise mark it for deletion on the persistent storage
+            markDelivered(instruction.id, instruction.timestamp);
         }
 
-        final String instructionJSON = sBuilder
-                .append(Constants.CURLY_BRACE_CLOSE)
-                .toString();
-
         if (log.isTraceEnabled()) {
-            log.debug("Send SEB client instruction: {} to: {} ", instructionJSON, connectionToken);
+            log.debug("Send SEB client instruction: {} to: {} ", instruction.json, connectionToken);
         }
 
-        return instructionJSON;
+        return instruction.json;
     }
 
     @Override
     public void confirmInstructionDone(final String connectionToken, final String instructionConfirm) {
         try {
 
-            final SizedArrayNonBlockingQueue<ClientInstructionRecord> queue = this.instructions.get(connectionToken);
             final Long instructionId = Long.valueOf(instructionConfirm);
-            this.clientInstructionDAO.delete(instructionId);
-            if (queue.isEmpty()) {
-                return;
+            final Queue<PendingInstruction> queue = this.instructions.get(connectionToken);
+            long timestamp = Utils.getMillisecondsNow();
+            if (queue != null) {
+                for (final PendingInstruction instruction : queue) {
+                    if (instructionId.equals(instruction.id)) {
+                        timestamp = instruction.timestamp;
+                        queue.remove(instruction);
+                    }
+                }
             }
 
-            queue.removeIf(instruction -> instructionId.equals(instruction.getId()));
+            markDelivered(instructionId, timestamp);
 
         } catch (final Exception e) {
             log.error(
@@ -259,6 +278,8 @@ public class SEBClientInstructionServiceImpl implements SEBClientInstructionServ
     public void cleanupInstructions() {
         try {
 
+            purgeDeliveredInstructions();
+
             final long millisNowMinusOneMinute = DateTime
                     .now(DateTimeZone.UTC)
                     .minusMinutes(1)
@@ -287,8 +308,14 @@ public class SEBClientInstructionServiceImpl implements SEBClientInstructionServ
     @Override
     public void sendQuitInstruction(final String connectionToken, final Long examId) {
 
-        synchronized (instructions) {
-            if (instructions.containsKey(connectionToken) && !instructions.get(connectionToken).isEmpty()) {
+        // there is already a quit instruction in progress for this connection
+        if (!this.pendingQuits.add(connectionToken)) {
+            return;
+        }
+
+        try {
+            final Queue<PendingInstruction> queue = this.instructions.get(connectionToken);
+            if (queue != null && !queue.isEmpty()) {
                 // there is already an instruction 
                 return;
             }
@@ -343,68 +370,74 @@ public class SEBClientInstructionServiceImpl implements SEBClientInstructionServ
                     loadInstructions();
                 }
             }
+        } finally {
+            this.pendingQuits.remove(connectionToken);
         }
     }
 
-    private ClientInstructionRecord getNextInstruction(final String connectionToken) {
-        // if we still have instruction for given connectionToken, process them first
-        final long activeTime = DateTime.now(DateTimeZone.UTC).minusMinutes(1).getMillis();
-        final SizedArrayNonBlockingQueue<ClientInstructionRecord> queue = this.instructions.computeIfAbsent(
-                connectionToken,
-                key -> new SizedArrayNonBlockingQueue<>(INSTRUCTION_QUEUE_MAX_SIZE));
-        final ClientInstructionRecord nextActive = getNextActive(activeTime, queue);
-        if (nextActive != null) {
-            return nextActive;
+    private void processPersistentUpdate() {
+        purgeDeliveredInstructions();
+
+        // In a distributed setup the cache is filled periodically from the persistent storage
+        if (this.webserviceInfo.isDistributed()) {
+            loadInstructions()
+                    .onError(error -> log.error(
+                            "Failed load instructions from persistent storage and to refresh cache: ",
+                            error));
+        }
+    }
+
+    private void markDelivered(final Long instructionId, final long timestamp) {
+        if (this.deliveredInstructions.put(instructionId, timestamp) == null) {
+            this.pendingDeletes.offer(instructionId);
         }
+    }
+
+    private void purgeDeliveredInstructions() {
+        try {
+
+            final Set<Long> ids = new HashSet<>();
+            Long id;
+            while ((id = this.pendingDeletes.poll()) != null) {
+                ids.add(id);
+            }
 
-        // Since the queue is empty check periodically if there are active instructions on the persistent storage
-        final long currentTimeMillis = System.currentTimeMillis();
-        if (currentTimeMillis - this.lastRefresh > PERSISTENT_UPDATE_INTERVAL) {
-            synchronized (this) {
-                this.lastRefresh = currentTimeMillis;
-                loadInstructions()
+            if (!ids.isEmpty()) {
+                // NOTE: instructions that failed to delete are removed anyway after they became inactive
+                this.clientInstructionDAO
+                        .delete(ids)
                         .onError(error -> log.error(
-                                "Failed load instructions from persistent storage and to refresh cache: ",
+                                "Failed to delete SEB client instructions on persistent storage: ",
                                 error));
-
-                if (!queue.isEmpty()) {
-                    return getNextInstruction(connectionToken);
-                }
             }
-        }
 
-        return null;
+            // delivered instructions that are inactive anyway are not loaded from persistent storage any more
+            final long activeTime = DateTime.now(DateTimeZone.UTC).minusMinutes(1).getMillis();
+            this.deliveredInstructions.values().removeIf(timestamp -> timestamp < activeTime);
+
+        } catch (final Exception e) {
+            log.error("Unexpected error while trying to purge delivered instructions: ", e);
+        }
     }
 
     private void cleanupCache() {
         // check if there are still queues in the cache, whether they are empty or not,
         // for closed or disposed client connections and remove them from cache
-        synchronized (this.instructions) {
-
-            final Result<Collection<String>> result = this.clientConnectionDAO
-                    .getInactiveConnectionTokens(this.instructions.keySet());
+        final Result<Collection<String>> result = this.clientConnectionDAO
+                .getInactiveConnectionTokens(this.instructions.keySet());
 
-            if (result.hasValue()) {
-                result.get().forEach(this.instructions::remove);
-            }
+        if (result.hasValue()) {
+            result.get().forEach(this.instructions::remove);
         }
     }
 
-    // Go recursively through the given queue to find the next active instruction
-    private ClientInstructionRecord getNextActive(
-            final long activeTime,
-            final SizedArrayNonBlockingQueue<ClientInstructionRecord> queue) {
-
-        if (queue != null && !queue.isEmpty()) {
-            final ClientInstructionRecord rec = queue.poll();
-            if (rec.getTimestamp().longValue() < activeTime) {
-                return getNextActive(activeTime, queue);
-            } else {
-                return rec;
-            }
-        } else {
-            return null;
+    // Go through the given queue to find the next active instruction
+    private PendingInstruction getNextActive(final long activeTime, final Queue<PendingInstruction> queue) {
+        PendingInstruction instruction = queue.poll();
+        while (instruction != null && instruction.timestamp < activeTime) {
+            instruction = queue.poll();
         }
+        return instruction;
     }
 
     private Result<Void> loadInstructions() {
@@ -418,26 +451,84 @@ public class SEBClientInstructionServiceImpl implements SEBClientInstructionServ
     //       and store the instruction into persistent only for recovering reasons.
     private ClientInstructionRecord putToCache(final ClientInstructionRecord instruction) {
         if (!this.webserviceInfo.isDistributed()) {
+            // a new instruction has not been delivered yet
+            this.deliveredInstructions.remove(instruction.getId());
             return putToCacheIfAbsent(instruction);
         }
         return instruction;
     }
 
     private ClientInstructionRecord putToCacheIfAbsent(final ClientInstructionRecord instruction) {
-        final SizedArrayNonBlockingQueue<ClientInstructionRecord> queue = this.instructions.computeIfAbsent(
+        if (this.deliveredInstructions.containsKey(instruction.getId())) {
+            return instruction;
+        }
+
+        final Queue<PendingInstruction> queue = this.instructions.computeIfAbsent(
                 instruction.getConnectionToken(),
-                key -> new SizedArrayNonBlockingQueue<>(INSTRUCTION_QUEUE_MAX_SIZE));
+                key -> new ConcurrentLinkedQueue<>());
 
-        if (queue.contains(instruction)) {
-            return instruction;
+        for (final PendingInstruction pending : queue) {
+            if (pending.id.equals(instruction.getId())) {
+                return instruction;
+            }
         }
 
         if (log.isTraceEnabled()) {
             log.debug("Put SEB instruction into instruction queue: {}", instruction);
         }
 
-        queue.add(instruction);
+        addToQueue(queue, new PendingInstruction(instruction));
         return instruction;
     }
 
+    private static void addToQueue(final Queue<PendingInstruction> queue, final PendingInstruction instruction) {
+        queue.offer(instruction);
+        // drop the oldest instructions if the queue is full
+        while (queue.size() > INSTRUCTION_QUEUE_MAX_SIZE) {
+            queue.poll();
+        }
+    }
+
+    private static String toInstructionJSON(final ClientInstructionRecord clientInstruction) {
+        // {"instruction":"%s", "attributes":%s}
+        final String attributes = clientInstruction.getAttributes();
+        final StringBuilder sBuilder = new StringBuilder()
+                .append(Constants.CURLY_BRACE_OPEN)
+                .append(Constants.DOUBLE_QUOTE)
+                .append(JSON_INST)
+                .append(Constants.DOUBLE_QUOTE)
+                .append(Constants.COLON)
+                .append(Constants.DOUBLE_QUOTE)
+                .append(clientInstruction.getType())
+                .append(Constants.DOUBLE_QUOTE);
+
+        if (StringUtils.isNotBlank(attributes)) {
+            sBuilder.append(Constants.COMMA)
+                    .append(Constants.DOUBLE_QUOTE)
+                    .append(JSON_ATTR)
+                    .append(Constants.DOUBLE_QUOTE)
+                    .append(Constants.COLON)
+                    .append(attributes);
+        }
+
+        return sBuilder
+                .append(Constants.CURLY_BRACE_CLOSE)
+                .toString();
+    }
+
+    private static final class PendingInstruction {
+
+        final Long id;
+        final long timestamp;
+        final boolean needsConfirm;
+        final String json;
+
+        PendingInstruction(final ClientInstructionRecord record) {
+            this.id = record.getId();
+            this.timestamp = record.getTimestamp();
+            this.needsConfirm = BooleanUtils.toBoolean(record.getNeedsConfirmation());
+            this.json = toInstructionJSON(record);
+        }
+    }
+
 }
@@ -9,12 +9,11 @@
 package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
 
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
 import org.apache.commons.lang3.StringUtils;
-import org.ehcache.impl.internal.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
@@ -35,18 +34,17 @@ public class SEBClientPingBatchService implements SEBClientPingService {
 
     private static final Logger log = LoggerFactory.getLogger(SEBClientPingBatchService.class);
 
-    private final ExamSessionCacheService examSessionCacheService;
+    private final ClientConnectionRegistry clientConnectionRegistry;
     private final SEBClientInstructionService sebClientInstructionService;
 
     private final Set<String> pingKeys = new HashSet<>();
-    private final Map<String, String> pings = new ConcurrentHashMap<>();
-    private final Map<String, String> instructions = new ConcurrentHashMap<>();
+    private final Set<String> pings = ConcurrentHashMap.newKeySet();
 
     public SEBClientPingBatchService(
-            final ExamSessionCacheService examSessionCacheService,
+            final ClientConnectionRegistry clientConnectionRegistry,
             final SEBClientInstructionService sebClientInstructionService) {
 
-        this.examSessionCacheService = examSessionCacheService;
+        this.clientConnectionRegistry = clientConnectionRegistry;
         this.sebClientInstructionService = sebClientInstructionService;
     }
 
@@ -63,11 +61,11 @@ public class SEBClientPingBatchService implements SEBClientPingService {
 
         try {
             this.pingKeys.clear();
-            this.pingKeys.addAll(this.pings.keySet());
-            this.pingKeys.forEach(cid -> processPing(
-                    cid,
-                    this.pings.remove(cid),
-                    Utils.getMillisecondsNow()));
+            this.pingKeys.addAll(this.pings);
+            this.pingKeys.forEach(cid -> {
+                this.pings.remove(cid);
+                processPing(cid, Utils.getMillisecondsNow());
+            });
 
         } catch (final Exception e) {
             log.error("Failed to process SEB pings from pingDataQueue: ", e);
@@ -84,32 +82,27 @@ public class SEBClientPingBatchService implements SEBClientPingService {
             final String connectionToken,
             final String instructionConfirm) {
 
-        final String instruction = this.instructions.remove(connectionToken);
+        this.pings.add(connectionToken);
 
-        if (instructionConfirm != null) {
-
-            this.pings.put(connectionToken, instructionConfirm);
-            if (instruction != null && instruction.contains("\"instruction-confirm\":\"" + instructionConfirm + "\"")) {
-                return null;
-            }
-        } else if (!this.pings.containsKey(connectionToken)) {
-            this.pings.put(connectionToken, StringUtils.EMPTY);
+        // NOTE: instruction confirmation and delivery are in-memory operations of the instruction service
+        //       with pre-rendered instructions and can therefore be done directly on the ping
+        if (StringUtils.isNotBlank(instructionConfirm)) {
+            this.sebClientInstructionService.confirmInstructionDone(connectionToken, instructionConfirm);
         }
 
-        return instruction;
+        return this.sebClientInstructionService.getInstructionJSON(connectionToken);
     }
 
     private void processPing(
             final String connectionToken,
-            final String instructionConfirm,
             final long timestamp) {
 
         if (connectionToken == null) {
             return;
         }
 
-        final ClientConnectionDataInternal connectionData = this.examSessionCacheService
-                .getClientConnection(connectionToken);
+        final ClientConnectionDataInternal connectionData = this.clientConnectionRegistry
+                .getConnection(connectionToken);
 
         if (connectionData != null) {
             if (connectionData.clientConnection.status == ClientConnection.ConnectionStatus.DISABLED) {
@@ -119,24 +112,11 @@ public class SEBClientPingBatchService implements SEBClientPingService {
                         connectionData.clientConnection.examId);
             }
 
-            connectionData.notifyPing(timestamp);
+            this.clientConnectionRegistry.notifyPing(connectionData, timestamp);
         } else {
             log.warn("Failed to get ClientConnectionDataInternal probably due to finished Exam for: {}.", connectionToken);
             this.sebClientInstructionService.sendQuitInstruction(connectionToken,null);
         }
-
-        if (StringUtils.isNotBlank(instructionConfirm)) {
-            this.sebClientInstructionService.confirmInstructionDone(connectionToken, instructionConfirm);
-        }
-
-        if (this.instructions.containsKey(connectionToken)) {
-            return;
-        }
-
-        final String instructionJSON = this.sebClientInstructionService.getInstructionJSON(connectionToken);
-        if (instructionJSON != null) {
-            this.instructions.put(connectionToken, instructionJSON);
-        }
     }
 
     
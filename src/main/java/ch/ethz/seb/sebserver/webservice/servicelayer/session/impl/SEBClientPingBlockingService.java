@@ -29,14 +29,14 @@ public class SEBClientPingBlockingService implements SEBClientPingService {
 
     private static final Logger log = LoggerFactory.getLogger(SEBClientPingBlockingService.class);
 
-    private final ExamSessionCacheService examSessionCacheService;
+    private final ClientConnectionRegistry clientConnectionRegistry;
     private final SEBClientInstructionService sebClientInstructionService;
     
     public SEBClientPingBlockingService(
-            final ExamSessionCacheService examSessionCacheService,
+            final ClientConnectionRegistry clientConnectionRegistry,
             final SEBClientInstructionService sebClientInstructionService) {
 
-        this.examSessionCacheService = examSessionCacheService;
+        this.clientConnectionRegistry = clientConnectionRegistry;
         this.sebClientInstructionService = sebClientInstructionService;
     }
 
@@ -51,8 +51,8 @@ public class SEBClientPingBlockingService implements SEBClientPingService {
             return null;
         }
 
-        final ClientConnectionDataInternal connectionData = this.examSessionCacheService
-                .getClientConnection(connectionToken);
+        final ClientConnectionDataInternal connectionData = this.clientConnectionRegistry
+                .getConnection(connectionToken);
 
         if (connectionData != null) {
             if (connectionData.clientConnection.status == ClientConnection.ConnectionStatus.DISABLED) {
@@ -62,7 +62,7 @@ public class SEBClientPingBlockingService implements SEBClientPingService {
                         connectionData.clientConnection.examId);
             }
 
-            connectionData.notifyPing(Utils.getMillisecondsNow());
+            this.clientConnectionRegistry.notifyPing(connectionData, Utils.getMillisecondsNow());
         } else {
             // SEBSERV-613 send quit instruction if exam is not running
             log.warn("Failed to get ClientConnectionDataInternal probably due to finished Exam for: {}.", connectionToken);
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import ch.ethz.seb.sebserver.gbl.Constants;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
+import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
+import ch.ethz.seb.sebserver.gbl.util.MPSCRingBuffer;
+import ch.ethz.seb.sebserver.gbl.util.Utils;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.SEBClientInstructionService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.SEBClientPingService;
+
+/** Ping service that shards the SEB client pings by connection token over a number of lock-free ring buffers
+ * where each shard has its own drain worker thread.
+ * </p>
+ * A ping only records its timestamp into the primitive ping slot of the connection and enqueues the slot
+ * to the ring buffer of the shard if it is not already queued. Therefore each ring buffer never holds more entries
+ * then active connections of the shard and consecutive pings of the same connection are coalesced until the
+ * drain worker has processed them. If a ring buffer is full, the ping is processed on the calling thread.
+ * Instructions are confirmed and delivered directly with the ping request by the instruction service. */
+@Lazy
+@Component
+@WebServiceProfile
+@ConditionalOnExpression("'${sebserver.webservice.ping.service.strategy}'.equals('SHARDED')")
+public class SEBClientPingShardedService implements SEBClientPingService {
+
+    private static final Logger log = LoggerFactory.getLogger(SEBClientPingShardedService.class);
+
+    private static final int MAX_DRAIN_PER_CYCLE = 1000;
+    private static final long SLOT_EVICTION_TIME = Constants.HOUR_IN_MILLIS;
+
+    private final ClientConnectionRegistry clientConnectionRegistry;
+    private final SEBClientInstructionService sebClientInstructionService;
+    private final long idleParkNanos;
+    private final Shard[] shards;
+
+    public SEBClientPingShardedService(
+            final ClientConnectionRegistry clientConnectionRegistry,
+            final SEBClientInstructionService sebClientInstructionService,
+            @Value("${sebserver.webservice.ping.service.sharded.shards:0}") final int numShards,
+            @Value("${sebserver.webservice.ping.service.sharded.capacity:4096}") final int shardCapacity,
+            @Value("${sebserver.webservice.ping.service.sharded.idle:50}") final long idleMillis) {
+
+        this.clientConnectionRegistry = clientConnectionRegistry;
+        this.sebClientInstructionService = sebClientInstructionService;
+        this.idleParkNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, idleMillis));
+
+        final int shards = (numShards > 0) ? numShards : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard(i, shardCapacity);
+        }
+    }
+
+    @PostConstruct
+    protected void init() {
+        log.info("Start sharded SEB client ping service with {} shards", this.shards.length);
+        for (final Shard shard : this.shards) {
+            shard.start();
+        }
+    }
+
+    @PreDestroy
+    protected void shutdown() {
+        log.info("Shutdown sharded SEB client ping service...");
+        for (final Shard shard : this.shards) {
+            shard.stop();
+        }
+    }
+
+    @Override
+    public PingServiceType pingServiceType() {
+        return PingServiceType.SHARDED;
+    }
+
+    @Override
+    public String notifyPing(final String connectionToken, final String instructionConfirm) {
+        if (connectionToken == null) {
+            return null;
+        }
+
+        final Shard shard = this.shards[(connectionToken.hashCode() & Integer.MAX_VALUE) % this.shards.length];
+        final PingSlot slot = shard.slots.computeIfAbsent(connectionToken, PingSlot::new);
+        slot.lastPing = Utils.getMillisecondsNow();
+
+        if (slot.queued.compareAndSet(false, true)) {
+            slot.enqueueTime = System.nanoTime();
+            if (!shard.ringBuffer.offer(slot)) {
+                // ring buffer is full, process on the calling thread
+                shard.process(slot);
+            }
+        }
+
+        // NOTE: instruction confirmation and delivery are in-memory operations of the instruction service
+        //       with pre-rendered instructions and can therefore be done directly on the ping
+        if (StringUtils.isNotBlank(instructionConfirm)) {
+            this.sebClientInstructionService.confirmInstructionDone(connectionToken, instructionConfirm);
+        }
+
+        return this.sebClientInstructionService.getInstructionJSON(connectionToken);
+    }
+
+    /** Get the actual statistics of all shards of this service.
+     *
+     * @return Collection of ShardStats, one per shard */
+    public Collection<ShardStats> getShardStats() {
+        final List<ShardStats> result = new ArrayList<>(this.shards.length);
+        for (final Shard shard : this.shards) {
+            result.add(new ShardStats(
+                    shard.index,
+                    shard.slots.size(),
+                    shard.ringBuffer.size(),
+                    shard.lastDrainLatency,
+                    shard.maxDrainLatency));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private void processPing(final PingSlot slot) {
+        final String connectionToken = slot.connectionToken;
+        final ClientConnectionDataInternal connectionData = this.clientConnectionRegistry
+                .getConnection(connectionToken);
+
+        if (connectionData != null) {
+            if (connectionData.clientConnection.status == ClientConnection.ConnectionStatus.DISABLED) {
+                // SEBSERV-440 send quit instruction to SEB
+                this.sebClientInstructionService.sendQuitInstruction(
+                        connectionToken,
+                        connectionData.clientConnection.examId);
+            }
+
+            this.clientConnectionRegistry.notifyPing(connectionData, slot.lastPing);
+        } else {
+            log.warn("Failed to get ClientConnectionDataInternal probably due to finished Exam for: {}.", connectionToken);
+            this.sebClientInstructionService.sendQuitInstruction(connectionToken, null);
+        }
+    }
+
+    private final class Shard implements Runnable {
+
+        final int index;
+        final MPSCRingBuffer<PingSlot> ringBuffer;
+        final Map<String, PingSlot> slots = new ConcurrentHashMap<>();
+
+        volatile long lastDrainLatency = 0;
+        volatile long maxDrainLatency = 0;
+
+        private volatile boolean running = false;
+        private Thread worker = null;
+        private long lastEviction = Utils.getMillisecondsNow();
+
+        Shard(final int index, final int capacity) {
+            this.index = index;
+            this.ringBuffer = new MPSCRingBuffer<>(capacity);
+        }
+
+        void start() {
+            this.running = true;
+            this.worker = new Thread(this, "SEBPingShard-" + this.index);
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+
+        void stop() {
+            this.running = false;
+            if (this.worker != null) {
+                LockSupport.unpark(this.worker);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (this.running) {
+                try {
+                    final int drained = this.ringBuffer.drain(this::process, MAX_DRAIN_PER_CYCLE);
+                    if (drained == 0) {
+                        evictIdleSlots();
+                        LockSupport.parkNanos(SEBClientPingShardedService.this.idleParkNanos);
+                    }
+                } catch (final Exception e) {
+                    log.error("Unexpected error while draining ping shard: {}", this.index, e);
+                }
+            }
+        }
+
+        void process(final PingSlot slot) {
+            // release the slot first so that a concurrent ping re-enqueues it
+            slot.queued.set(false);
+            final long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - slot.enqueueTime);
+            this.lastDrainLatency = latency;
+            if (latency > this.maxDrainLatency) {
+                this.maxDrainLatency = latency;
+            }
+
+            try {
+                processPing(slot);
+            } catch (final Exception e) {
+                log.error("Failed to process SEB ping for: {}", slot.connectionToken, e);
+            }
+        }
+
+        private void evictIdleSlots() {
+            final long now = Utils.getMillisecondsNow();
+            if (now - this.lastEviction < SLOT_EVICTION_TIME) {
+                return;
+            }
+
+            this.lastEviction = now;
+            this.maxDrainLatency = this.lastDrainLatency;
+            this.slots.values().removeIf(slot -> !slot.queued.get() && now - slot.lastPing > SLOT_EVICTION_TIME);
+        }
+    }
+
+    private static final class PingSlot {
+
+        final String connectionToken;
+        final AtomicBoolean queued = new AtomicBoolean(false);
+
+        volatile long lastPing = 0;
+        volatile long enqueueTime = 0;
+
+        PingSlot(final String connectionToken) {
+            this.connectionToken = connectionToken;
+        }
+    }
+
+    /** Statistics of one ping shard */
+    public static final class ShardStats {
+
+        public final int shard;
+        public final int connections;
+        public final int queueDepth;
+        public final long lastDrainLatency;
+        public final long maxDrainLatency;
+
+        public ShardStats(
+                final int shard,
+                final int connections,
+                final int queueDepth,
+                final long lastDrainLatency,
+                final long maxDrainLatency) {
+
+            this.shard = shard;
+            this.connections = connections;
+            this.queueDepth = queueDepth;
+            this.lastDrainLatency = lastDrainLatency;
+            this.maxDrainLatency = maxDrainLatency;
+        }
+
+        @Override
+        public String toString() {
+            return "ShardStats [shard=" + this.shard + ", connections=" + this.connections + ", queueDepth="
+                    + this.queueDepth + ", lastDrainLatency=" + this.lastDrainLatency + ", maxDrainLatency="
+                    + this.maxDrainLatency + "]";
+        }
+    }
+
+}
@@ -8,6 +8,7 @@
 
 package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
 
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -17,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import ch.ethz.seb.sebserver.gbl.Constants;
 import ch.ethz.seb.sebserver.gbl.model.exam.AllowedSEBVersion;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientConnectionData;
@@ -41,6 +43,9 @@ public class SEBClientSessionServiceImpl implements SEBClientSessionService {
 
     private static final Logger log = LoggerFactory.getLogger(SEBClientSessionServiceImpl.class);
 
+    // interval to register active connections that are not yet registered for ping deadlines
+    private static final long PING_DEADLINE_RECONCILE_INTERVAL = Constants.MINUTE_IN_MILLIS;
+
     private final ClientConnectionDAO clientConnectionDAO;
     private final ExamSessionService examSessionService;
     private final SEBClientEventBatchService sebClientEventBatchStore;
@@ -50,6 +55,9 @@ public class SEBClientSessionServiceImpl implements SEBClientSessionService {
     private final SecurityKeyService securityKeyService;
     private final SEBClientVersionService sebClientVersionService;
     private final SEBClientPingService sebClientPingService;
+    private final ClientConnectionRegistry clientConnectionRegistry;
+
+    private long lastPingDeadlineReconcile = 0;
 
     public SEBClientSessionServiceImpl(
             final ClientConnectionDAO clientConnectionDAO,
@@ -60,7 +68,8 @@ public class SEBClientSessionServiceImpl implements SEBClientSessionService {
             final InternalClientConnectionDataFactory internalClientConnectionDataFactory,
             final SecurityKeyService securityKeyService,
             final SEBClientVersionService sebClientVersionService,
-            final SEBClientPingService sebClientPingService) {
+            final SEBClientPingService sebClientPingService,
+            final ClientConnectionRegistry clientConnectionRegistry) {
 
         this.clientConnectionDAO = clientConnectionDAO;
         this.examSessionService = examSessionService;
@@ -71,12 +80,18 @@ public class SEBClientSessionServiceImpl implements SEBClientSessionService {
         this.securityKeyService = securityKeyService;
         this.sebClientVersionService = sebClientVersionService;
         this.sebClientPingService = sebClientPingService;
+        this.clientConnectionRegistry = clientConnectionRegistry;
     }
 
     @Override
     public void updatePingEvents() {
         try {
 
+            if (this.clientConnectionRegistry.isEnabled()) {
+                updatePingEventsOnDeadline();
+                return;
+            }
+
             this.examSessionService
                     .getExamDAO()
                     .allRunningExamIds()
@@ -124,6 +139,11 @@ public class SEBClientSessionServiceImpl implements SEBClientSessionService {
         this.sebClientEventBatchStore.accept(connectionToken, jsonBody);
     }
 
+    @Override
+    public void notifyClientEvent(final String connectionToken, final InputStream jsonBody) {
+        this.sebClientEventBatchStore.accept(connectionToken, jsonBody);
+    }
+
     @Override
     public void confirmInstructionDone(final String connectionToken, final String instructionConfirm) {
         this.sebInstructionService.confirmInstructionDone(connectionToken, instructionConfirm);
@@ -137,10 +157,30 @@ public class SEBClientSessionServiceImpl implements SEBClientSessionService {
                 this.internalClientConnectionDataFactory.getGroupIds(clientConnection)));
     }
 
+    private void updatePingEventsOnDeadline() {
+        final long now = Utils.getMillisecondsNow();
+
+        // registers connections that had no lookup since startup (no ping, no monitoring) with a ping deadline
+        if (now - this.lastPingDeadlineReconcile >= PING_DEADLINE_RECONCILE_INTERVAL) {
+            this.lastPingDeadlineReconcile = now;
+            this.examSessionService
+                    .getExamDAO()
+                    .allRunningExamIds()
+                    .getOrThrow()
+                    .forEach(examId -> this.clientConnectionRegistry.getConnectionsOfExam(
+                            examId,
+                            this.clientConnectionDAO
+                                    .getAllActiveConnectionTokens(examId)
+                                    .getOr(Collections.emptyList())));
+        }
+
+        this.clientConnectionRegistry.processPingDeadlines(now, this::missingPingUpdate);
+    }
+
     private void missingPingUpdate(final ClientConnectionDataInternal connection) {
         if (connection.pingIndicator.changeOnIncident()) {
 
-            final boolean missingPing = connection.getMissingPing();
+            final boolean missingPing = connection.checkMissingPing();
             final long millisecondsNow = Utils.getMillisecondsNow();
             final String textValue = (missingPing) ? "Missing Client Ping" : "Client Ping Back To Normal";
             final double numValue = connection.pingIndicator.getValue();
@@ -162,8 +202,7 @@ public class SEBClientSessionServiceImpl implements SEBClientSessionService {
 
             // update indicators
             if (EventType.ERROR_LOG == eventData.event.eventType) {
-                connection.getIndicatorMapping(EventType.ERROR_LOG)
-                        .forEach(indicator -> indicator.notifyValueChange(textValue, numValue));
+                connection.notifyValueChange(EventType.ERROR_LOG, textValue, numValue);
             }
         }
     }
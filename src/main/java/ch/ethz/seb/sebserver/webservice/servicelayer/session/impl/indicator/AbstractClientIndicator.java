@@ -80,6 +80,13 @@ public abstract class AbstractClientIndicator implements ClientIndicator {
         return dataMap;
     }
 
+    @Override
+    @JsonIgnore
+    public boolean isValueCached() {
+        // the value of an inactive indicator is not updated from the distributed store
+        return this.cachingEnabled || !this.active;
+    }
+
     protected void tryRecoverIndicatorRecord() {
         this.distributedIndicatorValueRecordId = this.distributedIndicatorValueService
                 .createIndicatorForConnection(
@@ -26,14 +26,17 @@ public abstract class AbstractLogLevelCountIndicator extends AbstractLogIndicato
     private static final Logger log = LoggerFactory.getLogger(AbstractLogLevelCountIndicator.class);
 
     protected final ClientEventRecordMapper clientEventRecordMapper;
+    protected final LogLevelCountService logLevelCountService;
 
     protected AbstractLogLevelCountIndicator(
             final DistributedIndicatorValueService distributedPingCache,
             final ClientEventRecordMapper clientEventRecordMapper,
+            final LogLevelCountService logLevelCountService,
             final EventType... eventTypes) {
 
         super(distributedPingCache, eventTypes);
         this.clientEventRecordMapper = clientEventRecordMapper;
+        this.logLevelCountService = logLevelCountService;
     }
 
     @Override
@@ -68,6 +71,18 @@ public abstract class AbstractLogLevelCountIndicator extends AbstractLogIndicato
             log.trace("computeValueAt: {}", timestamp);
         }
 
+        // take the in-memory log-level count of the indicators event types and tags if available
+        if (this.cachingEnabled) {
+            final Long count = this.logLevelCountService.getCount(
+                    this.examId,
+                    this.connectionId,
+                    this.eventTypeIds,
+                    this.tags);
+            if (count != null) {
+                return count.doubleValue();
+            }
+        }
+
         try {
 
             final Long numberOfLogs = this.clientEventRecordMapper
@@ -115,7 +130,7 @@ public abstract class AbstractLogLevelCountIndicator extends AbstractLogIndicato
         for (int i = 1; i < this.tags.length; i++) {
             result[i - 1] = SqlBuilder.or(
                     ClientEventRecordDynamicSqlSupport.text,
-                    isLike(Utils.toSQLWildcard(this.tags[1])));
+                    isLike(Utils.toSQLWildcard(this.tags[i])));
         }
 
         return result;
@@ -35,4 +35,11 @@ public abstract class AbstractPingIndicator extends AbstractClientIndicator {
         }
     }
 
+    /** Restores a known last ping time if it is newer then the current value. This is only applied locally. */
+    public final void restorePing(final long timestamp) {
+        if (timestamp > super.currentValue) {
+            super.currentValue = timestamp;
+        }
+    }
+
 }
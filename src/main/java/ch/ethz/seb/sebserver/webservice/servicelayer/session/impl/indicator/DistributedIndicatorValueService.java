@@ -11,19 +11,19 @@ package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.indicator;
 import static org.mybatis.dynamic.sql.SqlBuilder.isEqualTo;
 import static org.mybatis.dynamic.sql.SqlBuilder.isIn;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.event.EventListener;
@@ -34,7 +34,7 @@ import org.springframework.transaction.interceptor.TransactionInterceptor;
 
 import ch.ethz.seb.sebserver.SEBServerInit;
 import ch.ethz.seb.sebserver.SEBServerInitEvent;
-import ch.ethz.seb.sebserver.gbl.async.AsyncServiceSpringConfig;
+import ch.ethz.seb.sebserver.gbl.Constants;
 import ch.ethz.seb.sebserver.gbl.model.exam.Indicator.IndicatorType;
 import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
 import ch.ethz.seb.sebserver.gbl.util.Utils;
@@ -43,7 +43,6 @@ import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientIndicatorValueMapp
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientIndicatorValueMapper.ClientIndicatorValueRecord;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientIndicatorRecordDynamicSqlSupport;
 import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientIndicatorRecordMapper;
-import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ClientIndicatorRecord;
 
 @Lazy
 @Component
@@ -54,17 +53,18 @@ import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ClientIndicatorRec
  * This service handles the SEB client indicator updates within such a setup and implements functionality to
  * efficiently store and load indicator values from and to shared store.
  * </p>
- * The update from the persistent store is done done periodically within a batch while the indicator value writes
- * are done individually per SEB client when they arrive. The update can be done within a dedicated task executor with
- * minimal task
- * queue to do not overflow other executor services when it comes to a leak on storing lot of ping times for example.
- * In this case some ping time updates will be just dropped and not go to the persistent store until the leak
- * is resolved. */
+ * The update from the persistent store is done done periodically within a batch. The indicator value writes
+ * are buffered write-behind: only the latest value per indicator record and the sum of all increments per
+ * indicator record are kept and all pending writes are flushed with batched UPDATE statements right before each
+ * periodical update. This reduces the persistent storage round trips from one per ping or event to one per
+ * update interval. */
 public class DistributedIndicatorValueService implements DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(DistributedIndicatorValueService.class);
 
-    private final Executor indicatorValueUpdateExecutor;
+    private static final int MAX_FLUSH_BATCH_SIZE = 500;
+    private static final long FULL_UPDATE_INTERVAL = 5 * Constants.MINUTE_IN_MILLIS;
+
     private final ClientIndicatorRecordMapper clientIndicatorRecordMapper;
     private final ClientIndicatorValueMapper clientIndicatorValueMapper;
     private final WebserviceInfo webserviceInfo;
@@ -74,14 +74,19 @@ public class DistributedIndicatorValueService implements DisposableBean {
     private ScheduledFuture<?> taskRef;
     private final Map<Long, Long> indicatorValueCache = new ConcurrentHashMap<>();
     private long lastUpdate = 0L;
+    private long lastFullUpdate = 0L;
+    private long syncWatermark = 0L;
+
+    /** Write-behind buffer with the latest value per indicator record that is not yet written */
+    private final Map<Long, Long> pendingValues = new ConcurrentHashMap<>();
+    /** Write-behind buffer with the sum of all increments per indicator record that are not yet written */
+    private final Map<Long, AtomicLong> pendingIncrements = new ConcurrentHashMap<>();
 
     public DistributedIndicatorValueService(
-            @Qualifier(AsyncServiceSpringConfig.EXAM_API_PING_SERVICE_EXECUTOR_BEAN_NAME) final Executor pingUpdateExecutor,
             final ClientIndicatorRecordMapper clientIndicatorRecordMapper,
             final ClientIndicatorValueMapper clientIndicatorValueMapper,
             final WebserviceInfo webserviceInfo) {
 
-        this.indicatorValueUpdateExecutor = pingUpdateExecutor;
         this.clientIndicatorRecordMapper = clientIndicatorRecordMapper;
         this.clientIndicatorValueMapper = clientIndicatorValueMapper;
         this.webserviceInfo = webserviceInfo;
@@ -177,10 +182,9 @@ public class DistributedIndicatorValueService implements DisposableBean {
                 log.debug("Create distributed indicator value cache for: {}, {}", connectionId, type);
             }
 
-            // if not, create new one and return PK
-            final ClientIndicatorRecord clientEventRecord = new ClientIndicatorRecord(
-                    null, connectionId, type.id, initValue);
-            this.clientIndicatorRecordMapper.insert(clientEventRecord);
+            // if not, create new one and return PK. The update time is set to make the new record
+            // visible for the incremental synchronization of other webservice instances
+            this.clientIndicatorValueMapper.insertIndicatorValue(connectionId, type.id, initValue);
 
             try {
                 // This also double-check by trying again. If we have more then one entry here
@@ -257,6 +261,8 @@ public class DistributedIndicatorValueService implements DisposableBean {
 
             final List<Long> toDelete = records.stream().map(rec -> {
                 this.indicatorValueCache.remove(rec.id);
+                this.pendingValues.remove(rec.id);
+                this.pendingIncrements.remove(rec.id);
                 return rec.id;
             }).collect(Collectors.toList());
 
@@ -307,12 +313,20 @@ public class DistributedIndicatorValueService implements DisposableBean {
         return value;
     }
 
-    /** Updates the internal indicator value cache by loading all actual SEB client indicators from persistent storage
-     * and put it in the cache.
+    /** Updates the internal indicator value cache by loading the SEB client indicators from persistent storage
+     * that has changed since the last update and merge them into the cache. Periodically, or if the last update
+     * failed, all indicators are loaded to also remove indicators that has been deleted by other webservices.
+     * </p>
+     * Since the update time of an indicator is set by the webservice that writes it, changes are loaded with an
+     * overlap of one update interval to tolerate clock skew between webservices and commit latency.
+     * </p>
      * This is internally periodically scheduled by the task scheduler but also implements an execution drop if
      * the last update was less then 2/3 of the schedule interval ago. This is to prevent task queue overflows
-     * and wait with update when there is a persistent storage leak or a lot of network latency. */
+     * and wait with update when there is a persistent storage leak or a lot of network latency.
+     * All pending indicator value writes of this webservice are flushed before the update. */
     private void updateIndicatorValueCache() {
+        flushPendingUpdates();
+
         if (this.indicatorValueCache.isEmpty()) {
             return;
         }
@@ -329,77 +343,126 @@ public class DistributedIndicatorValueService implements DisposableBean {
 
         try {
 
-            final Map<Long, Long> mapping = this.clientIndicatorValueMapper
-                    .selectByExample()
-                    .build()
-                    .execute()
-                    .stream()
-                    .collect(Collectors.toMap(entry -> entry.id, entry -> entry.indicatorValue));
+            if (this.syncWatermark <= 0 || millisecondsNow - this.lastFullUpdate > FULL_UPDATE_INTERVAL) {
 
-            if (mapping != null) {
-                this.indicatorValueCache.clear();
+                final Map<Long, Long> mapping = this.clientIndicatorValueMapper
+                        .selectByExample()
+                        .build()
+                        .execute()
+                        .stream()
+                        .filter(entry -> entry.indicatorValue != null)
+                        .collect(Collectors.toMap(entry -> entry.id, entry -> entry.indicatorValue));
+
+                this.indicatorValueCache.keySet().retainAll(mapping.keySet());
                 this.indicatorValueCache.putAll(mapping);
-                this.lastUpdate = millisecondsNow;
+                this.lastFullUpdate = millisecondsNow;
+
+            } else {
+
+                this.clientIndicatorValueMapper
+                        .selectUpdatedSince(this.syncWatermark - this.distributedUpdateInterval)
+                        .stream()
+                        .filter(entry -> entry.indicatorValue != null)
+                        .forEach(entry -> this.indicatorValueCache.put(entry.id, entry.indicatorValue));
             }
 
-            // System.out.println("*** Update distributed indicator value cache: " + this.indicatorValueCache);
+            this.syncWatermark = millisecondsNow;
 
         } catch (final Exception e) {
             log.error("Error while trying to update distributed indicator value cache: {}", this.indicatorValueCache,
                     e);
+            // force a full update next time
+            this.syncWatermark = 0L;
         }
 
         this.lastUpdate = millisecondsNow;
     }
 
-    /** Update last ping time on persistent storage asynchronously within a defines thread pool with no
-     * waiting queue to skip further ping updates if all update threads are busy **/
-    // TODO: we need a better handling strategy here. Try to apply a batch update managed by SEBClientPingBatchService
+    /** Buffers the last ping time for the given ping indicator record. Only the latest ping time per record
+     * is kept and written to the persistent storage within the next flush. **/
     void updatePingAsync(final Long pingRecord) {
-        try {
-            this.indicatorValueUpdateExecutor
-                    .execute(() -> this.clientIndicatorValueMapper.updateIndicatorValue(
-                            pingRecord,
-                            Utils.getMillisecondsNow()));
-        } catch (final Exception e) {
-            if (log.isTraceEnabled()) {
-                log.warn("Failed to schedule ping task: {}" + e.getMessage());
-            }
-        }
+        this.pendingValues.put(pingRecord, Utils.getMillisecondsNow());
     }
 
-    /** Update indicator value on persistent storage asynchronously within a defined thread pool with no
-     * waiting queue to skip further indicator value updates if all update threads are busy **/
-    // TODO: we need a better handling strategy here. Try to apply a batch update managed by SEBClientEventBatchStore
+    /** Buffers the given indicator value for the given indicator record. Only the latest value per record
+     * is kept and written to the persistent storage within the next flush. **/
     boolean updateIndicatorValueAsync(final Long pk, final Long value) {
-        try {
-            this.indicatorValueUpdateExecutor
-                    .execute(() -> this.clientIndicatorValueMapper.updateIndicatorValue(pk, value));
-            return true;
-        } catch (final Exception e) {
-            if (log.isDebugEnabled()) {
-                log.warn("Failed to schedule indicator update task: {}" + e.getMessage());
-            }
-            return false;
-        }
+        this.pendingValues.put(pk, value);
+        return true;
     }
 
-    /** Update an indicator value within a transaction */
+    /** Update an indicator value within a transaction. This overrides all pending writes of the indicator record. */
     @Transactional
     void updateIndicatorValue(final Long pk, final Long value) {
         try {
+            this.pendingValues.remove(pk);
+            final AtomicLong pendingIncrement = this.pendingIncrements.get(pk);
+            if (pendingIncrement != null) {
+                pendingIncrement.set(0);
+            }
             this.clientIndicatorValueMapper.updateIndicatorValue(pk, value);
         } catch (final Exception e) {
             log.warn("Failed to update indicator value: {}" + e.getMessage());
         }
     }
 
-    /** Simply increment a given indicator value */
+    /** Buffers an increment of the given indicator record. All increments per record are coalesced
+     * to one delta that is added to the persistent value within the next flush. */
     void incrementIndicatorValue(final Long pk) {
-        try {
-            this.clientIndicatorValueMapper.incrementIndicatorValue(pk);
-        } catch (final Exception e) {
-            log.warn("Failed to increment indicator value: {}" + e.getMessage());
+        this.pendingIncrements
+                .computeIfAbsent(pk, key -> new AtomicLong())
+                .incrementAndGet();
+    }
+
+    /** Writes all pending indicator values and increments to the persistent storage with batched UPDATE
+     * statements. Values and increments of a batch that fails to write are put back to the write-behind
+     * buffers and are retried within the next flush. A value that was buffered for the same record in the
+     * meantime is newer and wins over the value put back. */
+    void flushPendingUpdates() {
+        final long updateTime = Utils.getMillisecondsNow();
+
+        if (!this.pendingValues.isEmpty()) {
+            final List<ClientIndicatorValueRecord> values = new ArrayList<>(this.pendingValues.size());
+            for (final Long pk : this.pendingValues.keySet()) {
+                final Long value = this.pendingValues.remove(pk);
+                if (value != null) {
+                    values.add(new ClientIndicatorValueRecord(pk, value));
+                }
+            }
+            for (int i = 0; i < values.size(); i += MAX_FLUSH_BATCH_SIZE) {
+                final List<ClientIndicatorValueRecord> batch =
+                        values.subList(i, Math.min(i + MAX_FLUSH_BATCH_SIZE, values.size()));
+                try {
+                    this.clientIndicatorValueMapper.updateIndicatorValues(batch, updateTime);
+                } catch (final Exception e) {
+                    log.error("Failed to flush pending indicator values, retry within next flush: {}",
+                            e.getMessage());
+                    batch.forEach(rec -> this.pendingValues.putIfAbsent(rec.id, rec.indicatorValue));
+                }
+            }
+        }
+
+        if (!this.pendingIncrements.isEmpty()) {
+            final List<ClientIndicatorValueRecord> deltas = new ArrayList<>();
+            this.pendingIncrements.forEach((pk, delta) -> {
+                final long value = delta.getAndSet(0);
+                if (value != 0) {
+                    deltas.add(new ClientIndicatorValueRecord(pk, value));
+                }
+            });
+            for (int i = 0; i < deltas.size(); i += MAX_FLUSH_BATCH_SIZE) {
+                final List<ClientIndicatorValueRecord> batch =
+                        deltas.subList(i, Math.min(i + MAX_FLUSH_BATCH_SIZE, deltas.size()));
+                try {
+                    this.clientIndicatorValueMapper.addIndicatorValues(batch, updateTime);
+                } catch (final Exception e) {
+                    log.error("Failed to flush pending indicator increments, retry within next flush: {}",
+                            e.getMessage());
+                    batch.forEach(rec -> this.pendingIncrements
+                            .computeIfAbsent(rec.id, key -> new AtomicLong())
+                            .addAndGet(rec.indicatorValue));
+                }
+            }
         }
     }
 
@@ -415,6 +478,8 @@ public class DistributedIndicatorValueService implements DisposableBean {
                     log.warn("Failed to cancel distributed indicator cache update task");
                 }
 
+                flushPendingUpdates();
+
                 SEBServerInit.INIT_LOGGER.info("----> Distributed indicator service down");
 
             } catch (final Exception e) {
@@ -24,9 +24,10 @@ public final class ErrorLogCountClientIndicator extends AbstractLogLevelCountInd
 
     protected ErrorLogCountClientIndicator(
             final DistributedIndicatorValueService distributedPingCache,
-            final ClientEventRecordMapper clientEventRecordMapper) {
+            final ClientEventRecordMapper clientEventRecordMapper,
+            final LogLevelCountService logLevelCountService) {
 
-        super(distributedPingCache, clientEventRecordMapper, EventType.ERROR_LOG);
+        super(distributedPingCache, clientEventRecordMapper, logLevelCountService, EventType.ERROR_LOG);
     }
 
     @Override
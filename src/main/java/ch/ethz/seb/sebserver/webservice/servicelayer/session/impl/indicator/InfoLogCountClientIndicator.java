@@ -24,9 +24,10 @@ public class InfoLogCountClientIndicator extends AbstractLogLevelCountIndicator
 
     protected InfoLogCountClientIndicator(
             final DistributedIndicatorValueService distributedPingCache,
-            final ClientEventRecordMapper clientEventRecordMapper) {
+            final ClientEventRecordMapper clientEventRecordMapper,
+            final LogLevelCountService logLevelCountService) {
 
-        super(distributedPingCache, clientEventRecordMapper, EventType.INFO_LOG);
+        super(distributedPingCache, clientEventRecordMapper, logLevelCountService, EventType.INFO_LOG);
     }
 
     @Override
@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.indicator;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent.EventType;
+import ch.ethz.seb.sebserver.gbl.profile.WebServiceProfile;
+import ch.ethz.seb.sebserver.gbl.util.Utils;
+import ch.ethz.seb.sebserver.webservice.WebserviceInfo;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientEventExtensionMapper;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientEventExtensionMapper.EventCountRecord;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamFinishedEvent;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamResetEvent;
+
+/** Keeps an in-memory aggregate of the log-level event counts per SEB client connection and event type
+ * for each running exam. This is used to initialize the log-level count indicators of a client connection
+ * with a lookup instead of a COUNT query over all client events.
+ * </p>
+ * Indicators with tags only count the events with a text that contains one of their tags. For each tag set
+ * of such an indicator, the aggregate of an exam additionally keeps the counts of the matching events per
+ * SEB client connection and event type. These are loaded for all client connections of the exam within one
+ * query when the first indicator with the tag set is initialized.
+ * </p>
+ * The aggregate of an exam is loaded for all client connections of the exam within one query the first time
+ * it is needed and is then maintained incrementally by the SEB client event batch processing. A batch notifies
+ * its events only after it has been committed. The load query also selects the highest event identifier it has
+ * seen (watermark) and only events above the watermark are counted on top of the loaded counts.
+ * Since event identifiers are generated on insert and not on commit, a batch holds the batch lock from insert
+ * to notification and the load query runs exclusively. Thus no batch is in flight while the counts are loaded.
+ * </p>
+ * Since events are only counted by the webservice that processes them, counts are not available within a
+ * distributed setup. */
+@Lazy
+@Component
+@WebServiceProfile
+public class LogLevelCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(LogLevelCountService.class);
+
+    private static final List<Integer> LOG_LEVEL_TYPES = Arrays.asList(
+            EventType.DEBUG_LOG.id,
+            EventType.INFO_LOG.id,
+            EventType.WARN_LOG.id,
+            EventType.ERROR_LOG.id);
+    private static final int MAX_TYPE_ID = EventType.ERROR_LOG.id;
+
+    private final ClientEventExtensionMapper clientEventExtensionMapper;
+    private final boolean distributedSetup;
+    private final Map<Long, ExamCounts> examCounts = new ConcurrentHashMap<>();
+    private final ReadWriteLock batchLock = new ReentrantReadWriteLock();
+
+    public LogLevelCountService(
+            final ClientEventExtensionMapper clientEventExtensionMapper,
+            final WebserviceInfo webserviceInfo) {
+
+        this.clientEventExtensionMapper = clientEventExtensionMapper;
+        this.distributedSetup = webserviceInfo.isDistributed();
+    }
+
+    /** Loads the log-level counts of all client connections of the given exam within one query
+     * if they are not already loaded.
+     *
+     * @param examId the exam identifier
+     * @return true if the counts of the exam are available, false if loading has failed or within a distributed setup */
+    public boolean initExam(final Long examId) {
+        if (examId == null || this.distributedSetup) {
+            return false;
+        }
+
+        final ExamCounts counts = this.examCounts.computeIfAbsent(examId, ExamCounts::new);
+        if (!counts.load()) {
+            this.examCounts.remove(examId, counts);
+            return false;
+        }
+        return true;
+    }
+
+    /** Get the number of log events of the given types for a specified client connection.
+     * This loads the counts of the whole exam if needed.
+     *
+     * @param examId the exam identifier of the client connection
+     * @param connectionId the client connection identifier
+     * @param eventTypeIds the event type identifiers of the log events to count
+     * @return the number of log events or null if the counts are not available */
+    public Long getCount(final Long examId, final Long connectionId, final Collection<Integer> eventTypeIds) {
+        return getCount(examId, connectionId, eventTypeIds, null);
+    }
+
+    /** Get the number of log events of the given types with a text that contains one of the given tags
+     * for a specified client connection. This loads the counts of the whole exam for the given tags if needed.
+     *
+     * @param examId the exam identifier of the client connection
+     * @param connectionId the client connection identifier
+     * @param eventTypeIds the event type identifiers of the log events to count
+     * @param tags the tags of the log events to count or null or empty to count all log events
+     * @return the number of log events or null if the counts are not available */
+    public Long getCount(
+            final Long examId,
+            final Long connectionId,
+            final Collection<Integer> eventTypeIds,
+            final String[] tags) {
+
+        if (examId == null || connectionId == null || !initExam(examId)) {
+            return null;
+        }
+
+        final ExamCounts examCounts = this.examCounts.get(examId);
+        if (examCounts == null) {
+            return null;
+        }
+
+        final Counts counts = (tags == null || tags.length == 0)
+                ? examCounts
+                : examCounts.getTaggedCounts(tags);
+        if (counts == null) {
+            return null;
+        }
+
+        return counts.get(connectionId, eventTypeIds);
+    }
+
+    /** Get the lock a SEB client event batch has to hold from inserting its events until it has notified them
+     * after commit.
+     *
+     * @return the batch lock */
+    public Lock getBatchLock() {
+        return this.batchLock.readLock();
+    }
+
+    /** Notifies a committed SEB client log event. This is only counted if the counts of the exam are
+     * loaded and the event was not already seen by the load query. The same applies to the counts of
+     * each tag set the text of the event matches.
+     *
+     * @param examId the exam identifier of the client connection
+     * @param connectionId the client connection identifier
+     * @param eventType the type of the event
+     * @param eventId the generated identifier of the committed event
+     * @param text the text of the event */
+    public void notifyEvent(
+            final Long examId,
+            final Long connectionId,
+            final EventType eventType,
+            final Long eventId,
+            final String text) {
+
+        if (examId == null || connectionId == null || eventType == null || eventId == null
+                || eventType.id <= 0 || eventType.id > MAX_TYPE_ID) {
+            return;
+        }
+
+        final ExamCounts counts = this.examCounts.get(examId);
+        if (counts == null) {
+            return;
+        }
+
+        counts.notifyEvent(connectionId, eventType.id, eventId);
+        if (text != null && !counts.taggedCounts.isEmpty()) {
+            for (final TaggedCounts taggedCounts : counts.taggedCounts.values()) {
+                if (taggedCounts.matches(text)) {
+                    taggedCounts.notifyEvent(connectionId, eventType.id, eventId);
+                }
+            }
+        }
+    }
+
+    /** Removes the counts of the given exam. Used when an exam has finished or has been reset.
+     *
+     * @param examId the exam identifier */
+    public void removeExam(final Long examId) {
+        if (examId != null) {
+            this.examCounts.remove(examId);
+        }
+    }
+
+    @EventListener
+    public void notifyExamReset(final ExamResetEvent event) {
+        removeExam(event.exam.id);
+    }
+
+    @EventListener
+    public void notifyExamFinished(final ExamFinishedEvent event) {
+        removeExam(event.exam.id);
+    }
+
+    private final class ExamCounts extends Counts {
+
+        final Map<List<String>, TaggedCounts> taggedCounts = new ConcurrentHashMap<>();
+
+        ExamCounts(final Long examId) {
+            super(examId);
+        }
+
+        TaggedCounts getTaggedCounts(final String[] tags) {
+            final TaggedCounts counts = this.taggedCounts.computeIfAbsent(
+                    Arrays.asList(tags),
+                    key -> new TaggedCounts(this.examId, key));
+            if (!counts.load()) {
+                this.taggedCounts.remove(counts.tags, counts);
+                return null;
+            }
+            return counts;
+        }
+
+        @Override
+        Collection<EventCountRecord> query() {
+            return LogLevelCountService.this.clientEventExtensionMapper
+                    .countEventsOfExam(this.examId, LOG_LEVEL_TYPES);
+        }
+    }
+
+    private final class TaggedCounts extends Counts {
+
+        final List<String> tags;
+        final List<String> patterns;
+
+        TaggedCounts(final Long examId, final List<String> tags) {
+            super(examId);
+            this.tags = Utils.immutableListOf(tags);
+            this.patterns = Utils.immutableListOf(tags
+                    .stream()
+                    .map(Utils::toSQLWildcard)
+                    .collect(Collectors.toList()));
+        }
+
+        /** Matches the text like the LIKE patterns of the load query */
+        boolean matches(final String text) {
+            for (final String tag : this.tags) {
+                if (text.contains(tag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Collection<EventCountRecord> query() {
+            return LogLevelCountService.this.clientEventExtensionMapper
+                    .countTaggedEventsOfExam(this.examId, LOG_LEVEL_TYPES, this.patterns);
+        }
+
+        @Override
+        public String toString() {
+            return this.examId + " tags: " + this.tags;
+        }
+    }
+
+    private abstract class Counts {
+
+        final Long examId;
+        final Map<Long, AtomicLongArray> connections = new ConcurrentHashMap<>();
+
+        private volatile long watermark = Long.MAX_VALUE;
+        private volatile boolean loaded = false;
+
+        Counts(final Long examId) {
+            this.examId = examId;
+        }
+
+        abstract Collection<EventCountRecord> query();
+
+        @Override
+        public String toString() {
+            return String.valueOf(this.examId);
+        }
+
+        long get(final Long connectionId, final Collection<Integer> eventTypeIds) {
+            final AtomicLongArray connectionCounts = this.connections.get(connectionId);
+            if (connectionCounts == null) {
+                return 0L;
+            }
+
+            long result = 0;
+            for (final Integer typeId : eventTypeIds) {
+                if (typeId != null && typeId > 0 && typeId <= MAX_TYPE_ID) {
+                    result += connectionCounts.get(typeId);
+                }
+            }
+            return result;
+        }
+
+        void notifyEvent(final Long connectionId, final int typeId, final long eventId) {
+            if (this.loaded && eventId > this.watermark) {
+                increment(connectionId, typeId, 1);
+            }
+        }
+
+        void increment(final Long connectionId, final int typeId, final long delta) {
+            this.connections
+                    .computeIfAbsent(connectionId, id -> new AtomicLongArray(MAX_TYPE_ID + 1))
+                    .addAndGet(typeId, delta);
+        }
+
+        boolean load() {
+            if (this.loaded) {
+                return true;
+            }
+
+            synchronized (this) {
+                if (this.loaded) {
+                    return true;
+                }
+
+                final Lock lock = LogLevelCountService.this.batchLock.writeLock();
+                lock.lock();
+                try {
+
+                    final Collection<EventCountRecord> records = query();
+
+                    long watermark = -1;
+                    for (final EventCountRecord record : records) {
+                        if (record.connection_id == null && record.type == null) {
+                            watermark = (record.count != null) ? record.count : 0;
+                        } else if (record.connection_id != null && record.type != null && record.count != null
+                                && record.type > 0 && record.type <= MAX_TYPE_ID) {
+                            increment(record.connection_id, record.type, record.count);
+                        }
+                    }
+
+                    if (watermark < 0) {
+                        throw new IllegalStateException("Missing event watermark");
+                    }
+
+                    this.watermark = watermark;
+                    this.loaded = true;
+
+                    if (log.isDebugEnabled()) {
+                        log.debug("Loaded log-level counts for exam: {} connections: {}",
+                                this,
+                                this.connections.size());
+                    }
+
+                } catch (final Exception e) {
+                    log.error("Failed to load log-level counts for exam: {} cause: {}", this, e.getMessage());
+                } finally {
+                    lock.unlock();
+                }
+
+                return this.loaded;
+            }
+        }
+    }
+
+}
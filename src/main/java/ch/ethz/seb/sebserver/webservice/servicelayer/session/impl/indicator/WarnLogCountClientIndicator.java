@@ -24,9 +24,10 @@ public class WarnLogCountClientIndicator extends AbstractLogLevelCountIndicator
 
     protected WarnLogCountClientIndicator(
             final DistributedIndicatorValueService distributedPingCache,
-            final ClientEventRecordMapper clientEventRecordMapper) {
+            final ClientEventRecordMapper clientEventRecordMapper,
+            final LogLevelCountService logLevelCountService) {
 
-        super(distributedPingCache, clientEventRecordMapper, EventType.WARN_LOG);
+        super(distributedPingCache, clientEventRecordMapper, logLevelCountService, EventType.WARN_LOG);
     }
 
     @Override
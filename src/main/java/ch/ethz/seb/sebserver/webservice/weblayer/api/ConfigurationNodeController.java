@@ -12,8 +12,10 @@ import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
@@ -227,6 +229,57 @@ public class ConfigurationNodeController extends EntityController<ConfigurationN
                 .getOrThrow();
     }
 
+    @RequestMapping(
+            path = API.CONFIGURATION_BULK_CREATE_PATH_SEGMENT,
+            method = RequestMethod.POST,
+            consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Collection<ConfigurationNode> createExamConfigs(
+            @RequestParam(
+                    name = API.PARAM_INSTITUTION_ID,
+                    required = true,
+                    defaultValue = UserService.USERS_INSTITUTION_AS_DEFAULT) final Long institutionId,
+            @RequestParam(name = Domain.CONFIGURATION_NODE.ATTR_TEMPLATE_ID, required = false) final Long templateId,
+            @RequestParam(name = Domain.CONFIGURATION_NODE.ATTR_NAME, required = true) final List<String> names,
+            @RequestParam(name = Domain.CONFIGURATION_NODE.ATTR_DESCRIPTION, required = false) final String description) {
+
+        // check write privilege for requested institution and read access to the template
+        this.checkWritePrivilege(institutionId);
+        if (templateId != null && !templateId.equals(ConfigurationNode.DEFAULT_TEMPLATE_ID)) {
+            this.entityDAO
+                    .byPK(templateId)
+                    .flatMap(this.authorization::checkRead)
+                    .getOrThrow();
+        }
+
+        if (new HashSet<>(names).size() != names.size()) {
+            throw new APIMessageException(APIMessage.ErrorMessage.ILLEGAL_API_ARGUMENT
+                    .of("Names of the exam configurations to create must be unique"));
+        }
+
+        final String owner = this.authorization.getUserService().getCurrentUser().uuid();
+        names.forEach(name -> this.beanValidationService
+                .validateBean(new ConfigurationNode(
+                        null,
+                        institutionId,
+                        templateId,
+                        name,
+                        description,
+                        ConfigurationType.EXAM_CONFIG,
+                        owner,
+                        ConfigurationStatus.CONSTRUCTION,
+                        null,
+                        null))
+                .getOrThrow());
+
+        return this.sebExamConfigTemplateService
+                .createExamConfigs(institutionId, templateId, owner, names, description)
+                .getOrThrow()
+                .stream()
+                .map(config -> this.logCreate(config).getOrThrow())
+                .collect(Collectors.toList());
+    }
+
     @RequestMapping(
             path = API.MODEL_ID_VAR_PATH_SEGMENT + API.CONFIGURATION_CONFIG_KEY_PATH_SEGMENT,
             method = RequestMethod.GET,
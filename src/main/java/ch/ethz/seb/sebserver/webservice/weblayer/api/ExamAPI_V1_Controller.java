@@ -28,6 +28,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.util.MultiValueMap;
@@ -311,6 +312,11 @@ public class ExamAPI_V1_Controller {
         }
         final Long _examId = examId;
         final String remoteAddr = this.getClientAddress(request);
+        // a client may send its ETags within several If-None-Match header lines
+        final Enumeration<String> eTagHeaders = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+        final String clientETag = (eTagHeaders != null && eTagHeaders.hasMoreElements())
+                ? String.join(Constants.LIST_SEPARATOR, Collections.list(eTagHeaders))
+                : null;
 
         return CompletableFuture.runAsync(
                 () -> this.sebClientConnectionService.streamExamConfig(
@@ -318,6 +324,7 @@ public class ExamAPI_V1_Controller {
                         _examId,
                         connectionToken,
                         remoteAddr,
+                        clientETag,
                         response),
                 this.executor);
     }
@@ -354,9 +361,9 @@ public class ExamAPI_V1_Controller {
     @ResponseStatus(value = HttpStatus.NO_CONTENT)
     public void event(
             @RequestHeader(name = API.EXAM_API_SEB_CONNECTION_TOKEN, required = true) final String connectionToken,
-            @RequestBody(required = true) final String jsonBody) {
+            final HttpServletRequest request) throws IOException {
 
-        this.sebClientSessionService.notifyClientEvent(connectionToken, jsonBody);
+        this.sebClientSessionService.notifyClientEvent(connectionToken, request.getInputStream());
     }
 
     private Long getInstitutionId(final Principal principal) {
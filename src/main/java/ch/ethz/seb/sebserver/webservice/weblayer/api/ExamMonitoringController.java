@@ -10,7 +10,6 @@ package ch.ethz.seb.sebserver.webservice.weblayer.api;
 
 import java.util.*;
 import java.util.concurrent.Executor;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -28,7 +27,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.WebDataBinder;
@@ -40,18 +41,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import ch.ethz.seb.sebserver.gbl.Constants;
 import ch.ethz.seb.sebserver.gbl.api.API;
 import ch.ethz.seb.sebserver.gbl.api.EntityType;
+import ch.ethz.seb.sebserver.gbl.api.JSONMapper;
 import ch.ethz.seb.sebserver.gbl.api.authorization.PrivilegeType;
 import ch.ethz.seb.sebserver.gbl.async.AsyncServiceSpringConfig;
 import ch.ethz.seb.sebserver.gbl.model.Domain;
 import ch.ethz.seb.sebserver.gbl.model.Page;
 import ch.ethz.seb.sebserver.gbl.model.exam.Exam;
 import ch.ethz.seb.sebserver.gbl.model.institution.SecurityKey;
-import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
-import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionIssueStatus;
 import ch.ethz.seb.sebserver.gbl.model.user.UserInfo;
 import ch.ethz.seb.sebserver.gbl.model.user.UserRole;
 import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringFullPageData;
@@ -76,6 +77,8 @@ public class ExamMonitoringController {
 
     private static final Logger log = LoggerFactory.getLogger(ExamMonitoringController.class);
 
+    private static final MediaType COMPACT_MEDIA_TYPE = MediaType.valueOf(API.EXAM_MONITORING_COMPACT_MEDIA_TYPE);
+
     private final ExamMonitoringV3Service examMonitoringV3Service;
     private final SEBClientConnectionService sebClientConnectionService;
     private final ExamSessionService examSessionService;
@@ -90,6 +93,9 @@ public class ExamMonitoringController {
     private final UserActivityLogDAO userActivityLogDAO;
     private final ExamDAO examDAO;
     private final Executor executor;
+    private final ExamMonitoringBroadcastService examMonitoringBroadcastService;
+    private final JSONMapper jsonMapper;
+    private final long monitoringStreamTimeout;
 
     public ExamMonitoringController(
             final ExamMonitoringV3Service examMonitoringV3Service,
@@ -104,7 +110,10 @@ public class ExamMonitoringController {
             final ApplicationEventPublisher applicationEventPublisher, 
             final UserActivityLogDAO userActivityLogDAO,
             final ExamDAO examDAO,
-            @Qualifier(AsyncServiceSpringConfig.EXECUTOR_BEAN_NAME) final Executor executor) {
+            @Qualifier(AsyncServiceSpringConfig.EXECUTOR_BEAN_NAME) final Executor executor,
+            final ExamMonitoringBroadcastService examMonitoringBroadcastService,
+            final JSONMapper jsonMapper,
+            @Value("${sebserver.webservice.api.exam.monitoring.push.timeout:1800000}") final long monitoringStreamTimeout) {
         this.examMonitoringV3Service = examMonitoringV3Service;
 
         this.sebClientConnectionService = sebClientConnectionService;
@@ -120,6 +129,9 @@ public class ExamMonitoringController {
         this.userActivityLogDAO = userActivityLogDAO;
         this.examDAO = examDAO;
         this.executor = executor;
+        this.examMonitoringBroadcastService = examMonitoringBroadcastService;
+        this.jsonMapper = jsonMapper;
+        this.monitoringStreamTimeout = monitoringStreamTimeout;
     }
 
     /** This is called by Spring to initialize the WebDataBinder and is used here to
@@ -382,7 +394,7 @@ public class ExamMonitoringController {
         checkPrivileges(institutionId, examId);
 
         return this.examSessionService
-                .getConnectionData(examId, createMonitoringFilter(hiddenStates, hiddenClientGroups, hiddenIssues))
+                .getConnectionData(examId, ExamMonitoringFilter.of(hiddenStates, hiddenClientGroups, hiddenIssues))
                 .getOrThrow();
     }
 
@@ -427,12 +439,30 @@ public class ExamMonitoringController {
                 .getOrThrow();
     }
     
+    /** Get the full monitoring page data of a running exam.
+     * <p>
+     * If the requester sends the epoch and sequence number of the last monitoring data it has seen, only the SEB
+     * connections that has been inserted, changed or removed since are sent. The requester has to apply this delta
+     * to its last seen data. If the epoch or sequence number is unknown, a full snapshot is sent.
+     * <p>
+     * If the requester accepts the media type API.EXAM_MONITORING_COMPACT_MEDIA_TYPE, the SEB connections are sent
+     * in the compact table layout of MonitoringConnectionTable instead of one JSON object per SEB connection.
+     *
+     * @param institutionId the institution identifier from the user. If absent the system will get the one from logged in user
+     * @param examId The exam identifier
+     * @param hiddenStates Comma separated list of exam state names that are hidden from the filter and shall not be included
+     * @param hiddenClientGroups Comma separated list of client group ids of client groups that are hidden from the filter and shall not be included
+     * @param hiddenIssues Comma separated list of ConnectionIssueStatus names that are hidden from the filter and shall not be included
+     * @param epoch the epoch of the last monitoring data the requester has seen
+     * @param sequence the sequence number of the last monitoring data the requester has seen
+     * @param accept the accepted media types of the requester
+     * @return MonitoringFullPageData with the full or delta SEB connection data of the running exam */
     @RequestMapping(
             path = API.PARENT_MODEL_ID_VAR_PATH_SEGMENT +
                     API.EXAM_MONITORING_FULLPAGE,
             method = RequestMethod.GET,
             consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE,
-            produces = MediaType.APPLICATION_JSON_VALUE)
+            produces = { MediaType.APPLICATION_JSON_VALUE, API.EXAM_MONITORING_COMPACT_MEDIA_TYPE })
     public MonitoringFullPageData getFullMonitoringPageData(
             @RequestParam(
                     name = API.PARAM_INSTITUTION_ID,
@@ -441,12 +471,19 @@ public class ExamMonitoringController {
             @PathVariable(name = API.PARAM_PARENT_MODEL_ID, required = true) final Long examId,
             @RequestHeader(name = API.EXAM_MONITORING_STATE_FILTER, required = false) final String hiddenStates,
             @RequestHeader(name = API.EXAM_MONITORING_CLIENT_GROUP_FILTER, required = false) final String hiddenClientGroups,
-            @RequestHeader(name = API.EXAM_MONITORING_ISSUE_FILTER, required = false) final String hiddenIssues){
+            @RequestHeader(name = API.EXAM_MONITORING_ISSUE_FILTER, required = false) final String hiddenIssues,
+            @RequestHeader(name = API.EXAM_MONITORING_EPOCH, required = false) final Long epoch,
+            @RequestHeader(name = API.EXAM_MONITORING_SEQUENCE, required = false) final Long sequence,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) final String accept){
 
         final Exam runningExam = checkPrivileges(institutionId, examId);
 
         final MonitoringSEBConnectionData monitoringSEBConnectionData = this.examSessionService
-                .getMonitoringSEBConnectionsData(examId, createMonitoringFilter(hiddenStates, hiddenClientGroups, hiddenIssues))
+                .getMonitoringSEBConnectionsData(
+                        examId,
+                        ExamMonitoringFilter.of(hiddenStates, hiddenClientGroups, hiddenIssues),
+                        epoch,
+                        sequence)
                 .getOrThrow();
         
         final boolean screenProctoringEnabled = this.examAdminService.isScreenProctoringEnabled(runningExam);
@@ -458,10 +495,73 @@ public class ExamMonitoringController {
 
         return new MonitoringFullPageData(
                 examId,
-                monitoringSEBConnectionData,
+                acceptsCompact(accept) ? monitoringSEBConnectionData.toCompact() : monitoringSEBConnectionData,
                 screenProctoringData);
     }
 
+    /** Subscribes for the full monitoring page data of a running exam as a Server-Sent Events stream.
+     * <p>
+     * The full monitoring page data is produced once per interval for all subscribers of an exam. Each event contains
+     * the MonitoringFullPageData as JSON with only the SEB connections that has been inserted, changed or removed since
+     * the last event (see getFullMonitoringPageData). A subscriber that is too slow to receive all events gets the
+     * latest state coalesced into one event. The stream ends when the exam is not running anymore or after a timeout.
+     * The subscriber may then subscribe again with the epoch and sequence number of the last event.
+     *
+     * @param institutionId the institution identifier from the user. If absent the system will get the one from logged in user
+     * @param examId The exam identifier
+     * @param hiddenStates Comma separated list of exam state names that are hidden from the filter and shall not be included
+     * @param hiddenClientGroups Comma separated list of client group ids of client groups that are hidden from the filter and shall not be included
+     * @param hiddenIssues Comma separated list of ConnectionIssueStatus names that are hidden from the filter and shall not be included
+     * @param epoch the epoch of the last monitoring data the subscriber has seen
+     * @param sequence the sequence number of the last monitoring data the subscriber has seen
+     * @return SseEmitter that streams the MonitoringFullPageData of the running exam */
+    @RequestMapping(
+            path = API.PARENT_MODEL_ID_VAR_PATH_SEGMENT +
+                    API.EXAM_MONITORING_FULLPAGE +
+                    API.EXAM_MONITORING_STREAM_PATH_SEGMENT,
+            method = RequestMethod.GET,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamFullMonitoringPageData(
+            @RequestParam(
+                    name = API.PARAM_INSTITUTION_ID,
+                    required = true,
+                    defaultValue = UserService.USERS_INSTITUTION_AS_DEFAULT) final Long institutionId,
+            @PathVariable(name = API.PARAM_PARENT_MODEL_ID, required = true) final Long examId,
+            @RequestHeader(name = API.EXAM_MONITORING_STATE_FILTER, required = false) final String hiddenStates,
+            @RequestHeader(name = API.EXAM_MONITORING_CLIENT_GROUP_FILTER, required = false) final String hiddenClientGroups,
+            @RequestHeader(name = API.EXAM_MONITORING_ISSUE_FILTER, required = false) final String hiddenIssues,
+            @RequestHeader(name = API.EXAM_MONITORING_EPOCH, required = false) final Long epoch,
+            @RequestHeader(name = API.EXAM_MONITORING_SEQUENCE, required = false) final Long sequence) {
+
+        final Exam runningExam = checkPrivileges(institutionId, examId);
+
+        final SseEmitter emitter = new SseEmitter(this.monitoringStreamTimeout);
+        final ExamMonitoringBroadcastService.Subscription subscription = this.examMonitoringBroadcastService.subscribe(
+                runningExam,
+                ExamMonitoringFilter.of(hiddenStates, hiddenClientGroups, hiddenIssues),
+                epoch,
+                sequence,
+                new ExamMonitoringBroadcastService.MonitoringFrameSink() {
+
+                    @Override
+                    public void send(final MonitoringFullPageData frame) throws Exception {
+                        emitter.send(SseEmitter.event()
+                                .name(API.EXAM_MONITORING_STREAM_EVENT_NAME)
+                                .data(ExamMonitoringController.this.jsonMapper.writeValueAsString(frame)));
+                    }
+
+                    @Override
+                    public void close() {
+                        emitter.complete();
+                    }
+                });
+
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
     @RequestMapping(
             path = API.PARENT_MODEL_ID_VAR_PATH_SEGMENT +
                     API.EXAM_MONITORING_SEB_CONNECTION_TOKEN_PATH_SEGMENT,
@@ -645,6 +745,20 @@ public class ExamMonitoringController {
         return runningExam;
     }
 
+    private boolean acceptsCompact(final String accept) {
+        if (StringUtils.isBlank(accept)) {
+            return false;
+        }
+
+        try {
+            return MediaType.parseMediaTypes(accept)
+                    .stream()
+                    .anyMatch(COMPACT_MEDIA_TYPE::equalsTypeAndSubtype);
+        } catch (final Exception e) {
+            return false;
+        }
+    }
+
     private boolean hasRunningExamPrivilege(final Exam exam, final Long institution) {
         if (exam == null) {
             return false;
@@ -656,82 +770,4 @@ public class ExamMonitoringController {
                 && (exam.isOwnerOrSupporter(userId) || userInfo.hasRole(UserRole.EXAM_ADMIN));
     }
 
-    private Predicate<ClientConnectionData> noneActiveFilter(final EnumSet<ConnectionStatus> filterStates) {
-        return conn -> conn != null && !filterStates.contains(conn.clientConnection.status);
-    }
-
-    private Predicate<ClientConnectionData> activeIssueFilterSebVersion(final EnumSet<ConnectionIssueStatus> filterStates) {
-        return conn -> BooleanUtils.isFalse(conn.clientConnection.clientVersionGranted);
-    }
-
-    private Predicate<ClientConnectionData> activeIssueFilterAsk(final EnumSet<ConnectionIssueStatus> filterStates) {
-        return conn -> BooleanUtils.isFalse(conn.clientConnection.securityCheckGranted);
-    }
-
-    /** If we have a filter criteria for ACTIVE connection, we shall filter only the active connections
-     * that has no incident. */
-    private Predicate<ClientConnectionData> withActiveFilter(final EnumSet<ConnectionStatus> filterStates) {
-        return conn -> {
-            if (conn == null) {
-                return false;
-            } else if (conn.clientConnection.status == ConnectionStatus.ACTIVE) {
-                return conn.hasAnyIncident();
-            } else {
-                return !filterStates.contains(conn.clientConnection.status);
-            }
-        };
-    }
-
-    private Predicate<ClientConnectionData> createMonitoringFilter(
-            final String hiddenStates,
-            final String hiddenClientGroups,
-            final String hiddenIssues) {
-
-        final EnumSet<ConnectionStatus> filterStates = EnumSet.noneOf(ConnectionStatus.class);
-        if (StringUtils.isNotBlank(hiddenStates)) {
-            final String[] split = StringUtils.split(hiddenStates, Constants.LIST_SEPARATOR);
-            for (final String s : split) {
-                filterStates.add(ConnectionStatus.valueOf(s));
-            }
-        }
-
-        final boolean active = filterStates.contains(ConnectionStatus.ACTIVE);
-        if (active) {
-            filterStates.remove(ConnectionStatus.ACTIVE);
-        }
-
-        Predicate<ClientConnectionData> filter = filterStates.isEmpty()
-                ? Objects::nonNull
-                : active
-                        ? withActiveFilter(filterStates)
-                        : noneActiveFilter(filterStates);
-
-        final EnumSet<ConnectionIssueStatus> filterIssues = EnumSet.noneOf(ConnectionIssueStatus.class);
-        if (StringUtils.isNotBlank(hiddenIssues)) {
-            final String[] split = StringUtils.split(hiddenIssues, Constants.LIST_SEPARATOR);
-            for (final String s : split) {
-                filterIssues.add(ConnectionIssueStatus.valueOf(s));
-            }
-        }
-
-        if (filterIssues.contains(ConnectionIssueStatus.SEB_VERSION_GRANTED)) {
-            filter = filter.and(activeIssueFilterSebVersion(filterIssues));
-        }
-        if (filterIssues.contains(ConnectionIssueStatus.ASK_GRANTED)) {
-            filter = filter.and(activeIssueFilterAsk(filterIssues));
-        }
-
-        Set<Long> filterClientGroups = null;
-        if (StringUtils.isNotBlank(hiddenClientGroups)) {
-            filterClientGroups = new HashSet<>();
-            final String[] split = StringUtils.split(hiddenClientGroups, Constants.LIST_SEPARATOR);
-            for (final String s : split) {
-                filterClientGroups.add(Long.parseLong(s));
-            }
-        }
-
-        final Set<Long> _filterClientGroups = filterClientGroups;
-        return filter.and(ccd -> ccd.filter(_filterClientGroups));
-    }
-
 }
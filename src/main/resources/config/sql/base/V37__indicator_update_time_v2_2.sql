@@ -0,0 +1,6 @@
+-- -----------------------------------------------------
+-- Alter Table `client_indicator` add update_time for incremental distributed indicator value synchronization
+-- -----------------------------------------------------
+ALTER TABLE `client_indicator`
+ADD COLUMN IF NOT EXISTS `update_time` BIGINT NOT NULL DEFAULT 0,
+ADD INDEX IF NOT EXISTS `clientIndicatorUpdateTime` (`update_time` ASC);
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.gbl.async;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+public class ConcurrencyLimitedExecutorTest {
+
+    @Test
+    public void testConcurrencyLimit() throws InterruptedException {
+        final ThreadPoolTaskExecutor delegate = new ThreadPoolTaskExecutor();
+        delegate.setCorePoolSize(20);
+        delegate.initialize();
+        final ConcurrencyLimitedExecutor executor = new ConcurrencyLimitedExecutor(delegate, 3, 100);
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final CountDownLatch done = new CountDownLatch(20);
+
+        for (int i = 0; i < 20; i++) {
+            executor.execute(() -> {
+                final int current = running.incrementAndGet();
+                maxRunning.accumulateAndGet(current, Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        // the pending tasks do not occupy threads of the delegate
+        assertTrue(delegate.getActiveCount() <= 3);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(3, executor.getMaxConcurrency());
+        assertEquals(0, executor.getWaitingCount());
+    }
+
+    @Test
+    public void testRejectTooManyPending() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ConcurrencyLimitedExecutor executor = new ConcurrencyLimitedExecutor(
+                task -> new Thread(task).start(), 1, 2);
+
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(() -> {
+        });
+        executor.execute(() -> {
+        });
+        assertEquals(2, executor.getWaitingCount());
+
+        try {
+            executor.execute(() -> {
+            });
+            fail("RejectedExecutionException expected");
+        } catch (final RejectedExecutionException e) {
+            assertEquals(2, executor.getWaitingCount());
+        }
+
+        release.countDown();
+        for (int i = 0; i < 100 && executor.getWaitingCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, executor.getWaitingCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimit() {
+        new ConcurrencyLimitedExecutor(Runnable::run, 0, 10);
+    }
+
+}
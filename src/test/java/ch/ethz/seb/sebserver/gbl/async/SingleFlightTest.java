@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.gbl.async;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentLoadsOfSameKeyLoadOnce() throws Exception {
+        final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        final AtomicInteger loads = new AtomicInteger(0);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(5);
+
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.load(1L, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "exam1";
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> singleFlight.load(1L, () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+
+            // a load of another key is not blocked by the load in flight
+            assertEquals("exam2", singleFlight.load(2L, () -> "exam2"));
+
+            Thread.sleep(50);
+            release.countDown();
+            for (final Future<String> result : results) {
+                assertEquals("exam1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, singleFlight.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testErrorIsPropagatedAndNotRemembered() {
+        final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        try {
+            singleFlight.load(1L, () -> {
+                throw new IllegalStateException("failed");
+            });
+            fail("IllegalStateException expected");
+        } catch (final IllegalStateException e) {
+            assertEquals("failed", e.getMessage());
+        }
+
+        assertEquals("exam1", singleFlight.load(1L, () -> "exam1"));
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
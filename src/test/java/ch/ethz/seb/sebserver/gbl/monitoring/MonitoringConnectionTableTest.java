@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.gbl.monitoring;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import ch.ethz.seb.sebserver.gbl.api.JSONMapper;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientMonitoringData;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientMonitoringDataView;
+
+public class MonitoringConnectionTableTest {
+
+    private final JSONMapper jsonMapper = new JSONMapper();
+
+    @Test
+    public void testCompactDataIsReadAsFullData() throws JsonProcessingException {
+        final List<ClientMonitoringData> connections = new ArrayList<>();
+        connections.add(connection(1L, ConnectionStatus.ACTIVE, null, 10L, "12", 11L, "100"));
+        connections.add(connection(2L, ConnectionStatus.READY,
+                ClientMonitoringDataView.FLAG_MISSING_PING | ClientMonitoringDataView.FLAG_GRANT_DENIED,
+                10L, "0"));
+        connections.add(connection(3L, ConnectionStatus.CLOSED, ClientMonitoringDataView.FLAG_PENDING_NOTIFICATION));
+        connections.add(connection(4L, ConnectionStatus.DISABLED, null, 11L, "-1", 12L, "4.5"));
+
+        final MonitoringSEBConnectionData data = new MonitoringSEBConnectionData(
+                new int[] { 0, 0, 1, 1, 1, 1 },
+                Collections.singletonMap(1L, 2),
+                new int[] { 0, 1 },
+                connections,
+                7L,
+                42L,
+                true,
+                Arrays.asList(5L, 6L));
+
+        final String json = this.jsonMapper.writeValueAsString(data);
+        final String compactJson = this.jsonMapper.writeValueAsString(data.toCompact());
+        assertFalse(compactJson.contains("\"" + MonitoringSEBConnectionData.ATTR_CONNECTIONS + "\""));
+        assertTrue(compactJson.length() < json.length());
+
+        final MonitoringSEBConnectionData full =
+                this.jsonMapper.readValue(json, MonitoringSEBConnectionData.class);
+        final MonitoringSEBConnectionData compact =
+                this.jsonMapper.readValue(compactJson, MonitoringSEBConnectionData.class);
+
+        assertArrayEquals(full.connectionsPerStatus, compact.connectionsPerStatus);
+        assertArrayEquals(full.connectionPerIssue, compact.connectionPerIssue);
+        assertEquals(full.connectionsPerClientGroup, compact.connectionsPerClientGroup);
+        assertEquals(full.epoch, compact.epoch);
+        assertEquals(full.sequence, compact.sequence);
+        assertEquals(full.delta, compact.delta);
+        assertEquals(full.removed, compact.removed);
+
+        assertEquals(full.monitoringData.size(), compact.monitoringData.size());
+        final Iterator<? extends ClientMonitoringDataView> expected = full.monitoringData.iterator();
+        final Iterator<? extends ClientMonitoringDataView> actual = compact.monitoringData.iterator();
+        while (expected.hasNext()) {
+            final ClientMonitoringData e = (ClientMonitoringData) expected.next();
+            final ClientMonitoringData a = (ClientMonitoringData) actual.next();
+            assertEquals(e.id, a.id);
+            assertEquals(e.status, a.status);
+            assertEquals(e.notificationFlag, a.notificationFlag);
+            assertEquals(e.getIndicatorValues(), a.getIndicatorValues());
+            if (a.getIndicatorValue(10L) != null) {
+                // the full data has no threshold weights
+                assertEquals(ClientMonitoringDataView.NO_WEIGHT, a.getIndicatorWeight(10L));
+            }
+            assertFalse(e.hasChanged(a));
+            assertTrue(e.indicatorValuesEquals(a));
+        }
+    }
+
+    @Test
+    public void testThresholdWeights() throws JsonProcessingException {
+        final long[] indicatorIds = { 10L, 11L, 12L };
+        final List<ClientMonitoringData> connections = new ArrayList<>();
+        connections.add(new ClientMonitoringData(1L, ConnectionStatus.ACTIVE, indicatorIds,
+                new String[] { "12", null, "4" }, new byte[] { 2, -1, 0 }, null));
+        connections.add(new ClientMonitoringData(2L, ConnectionStatus.ACTIVE, indicatorIds,
+                new String[] { "0", "100", "--" }, new byte[] { -1, 1, 3 }, null));
+
+        final MonitoringSEBConnectionData data = new MonitoringSEBConnectionData(null, null, null, connections);
+        final MonitoringSEBConnectionData compact = this.jsonMapper.readValue(
+                this.jsonMapper.writeValueAsString(data.toCompact()),
+                MonitoringSEBConnectionData.class);
+
+        final Iterator<? extends ClientMonitoringDataView> actual = compact.monitoringData.iterator();
+        for (final ClientMonitoringData expected : connections) {
+            final ClientMonitoringData a = (ClientMonitoringData) actual.next();
+            assertTrue(expected.indicatorValuesEquals(a));
+            for (final long indicatorId : indicatorIds) {
+                assertEquals(expected.getIndicatorValue(indicatorId), a.getIndicatorValue(indicatorId));
+                if (expected.getIndicatorValue(indicatorId) != null) {
+                    assertEquals(expected.getIndicatorWeight(indicatorId), a.getIndicatorWeight(indicatorId));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testThresholdWeight() {
+        final double[] thresholds = { 10, 5, 20 };
+        assertEquals(-1, IndicatorValue.getThresholdWeight(4, thresholds, false));
+        assertEquals(0, IndicatorValue.getThresholdWeight(5, thresholds, false));
+        assertEquals(1, IndicatorValue.getThresholdWeight(19, thresholds, false));
+        assertEquals(2, IndicatorValue.getThresholdWeight(20, thresholds, false));
+        assertEquals(2, IndicatorValue.getThresholdWeight(Double.NaN, thresholds, false));
+
+        assertEquals(0, IndicatorValue.getThresholdWeight(4, thresholds, true));
+        assertEquals(1, IndicatorValue.getThresholdWeight(5, thresholds, true));
+        assertEquals(2, IndicatorValue.getThresholdWeight(19, thresholds, true));
+        assertEquals(-1, IndicatorValue.getThresholdWeight(20, thresholds, true));
+        assertEquals(-1, IndicatorValue.getThresholdWeight(1, new double[0], true));
+    }
+
+    @Test
+    public void testEmptyTable() throws JsonProcessingException {
+        final MonitoringConnectionTable table = MonitoringConnectionTable.of(null);
+        final MonitoringConnectionTable read = this.jsonMapper.readValue(
+                this.jsonMapper.writeValueAsString(table),
+                MonitoringConnectionTable.class);
+
+        assertTrue(read.toMonitoringData().isEmpty());
+        assertEquals(0, read.indicatorIds.length);
+        assertNull(new MonitoringSEBConnectionData(null, null, null, null).toCompact().monitoringData);
+    }
+
+    private ClientMonitoringData connection(
+            final Long id,
+            final ConnectionStatus status,
+            final Integer notificationFlag,
+            final Object... indicatorValues) {
+
+        final Map<Long, String> values = new HashMap<>();
+        for (int i = 0; i < indicatorValues.length; i += 2) {
+            values.put((Long) indicatorValues[i], (String) indicatorValues[i + 1]);
+        }
+        return new ClientMonitoringData(id, status, values, notificationFlag);
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.gbl.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class MPSCRingBufferTest {
+
+    @Test
+    public void testOfferAndPoll() {
+        final MPSCRingBuffer<String> candidate = new MPSCRingBuffer<>(3);
+        assertEquals(4, candidate.capacity());
+        assertEquals(2, new MPSCRingBuffer<String>(1).capacity());
+        assertTrue(candidate.isEmpty());
+        assertNull(candidate.poll());
+
+        assertTrue(candidate.offer("1"));
+        assertTrue(candidate.offer("2"));
+        assertTrue(candidate.offer("3"));
+        assertTrue(candidate.offer("4"));
+        assertFalse(candidate.offer("5"));
+        assertEquals(4, candidate.size());
+
+        assertEquals("1", candidate.poll());
+        assertTrue(candidate.offer("5"));
+
+        final List<String> drained = new ArrayList<>();
+        assertEquals(4, candidate.drain(drained::add, 10));
+        assertEquals("[2, 3, 4, 5]", drained.toString());
+        assertTrue(candidate.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        final MPSCRingBuffer<Integer> candidate = new MPSCRingBuffer<>(1024);
+        final int producers = 4;
+        final int perProducer = 10000;
+        final CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!candidate.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicInteger sum = new AtomicInteger();
+        while (done.getCount() > 0 || !candidate.isEmpty()) {
+            candidate.drain(i -> {
+                count.incrementAndGet();
+                sum.addAndGet(i);
+            }, 100);
+        }
+
+        assertEquals(producers * perProducer, count.get());
+        assertEquals(producers * (perProducer * (perProducer - 1) / 2), sum.get());
+    }
+
+}
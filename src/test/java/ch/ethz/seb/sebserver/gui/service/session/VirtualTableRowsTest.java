@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.gui.service.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class VirtualTableRowsTest {
+
+    private final TestTable table = new TestTable();
+    private final VirtualTableRows<TestRow> rows = new VirtualTableRows<>();
+
+    @Test
+    public void testInitialUpdateClearsAll() {
+        final TestRow row1 = new TestRow(true);
+        final TestRow row2 = new TestRow(false);
+
+        this.rows.update(Arrays.asList(row1, row2), false, this.table);
+
+        assertEquals(2, this.table.itemCount);
+        assertEquals(1, this.table.clearAll);
+        assertEquals(0, this.table.cleared.size());
+        assertFalse(row1.changed);
+        assertSame(row1, this.rows.get(0));
+        assertSame(row2, this.rows.get(1));
+        assertNull(this.rows.get(2));
+        assertNull(this.rows.get(-1));
+    }
+
+    @Test
+    public void testOnlyChangedRowsAreCleared() {
+        final TestRow row1 = new TestRow(false);
+        final TestRow row2 = new TestRow(false);
+        final TestRow row3 = new TestRow(false);
+        this.rows.update(Arrays.asList(row1, row2, row3), false, this.table);
+
+        row2.changed = true;
+        this.rows.update(Arrays.asList(row1, row2, row3), false, this.table);
+        assertEquals(1, this.table.clearAll);
+        assertEquals(Arrays.asList(1), this.table.cleared);
+        assertFalse(row2.changed);
+
+        // no changes, nothing is cleared
+        this.rows.update(Arrays.asList(row1, row2, row3), false, this.table);
+        assertEquals(1, this.table.clearAll);
+        assertEquals(Arrays.asList(1), this.table.cleared);
+    }
+
+    @Test
+    public void testSortClearsAll() {
+        final TestRow row1 = new TestRow(false);
+        final TestRow row2 = new TestRow(false);
+        this.rows.update(Arrays.asList(row1, row2), false, this.table);
+
+        row1.changed = true;
+        this.rows.update(Arrays.asList(row2, row1), true, this.table);
+        assertEquals(2, this.table.clearAll);
+        assertEquals(0, this.table.cleared.size());
+        assertFalse(row1.changed);
+        assertSame(row2, this.rows.get(0));
+        assertSame(row1, this.rows.get(1));
+    }
+
+    @Test
+    public void testAddedAndRemovedRows() {
+        final TestRow row1 = new TestRow(false);
+        final TestRow row2 = new TestRow(false);
+        final TestRow row3 = new TestRow(false);
+        this.rows.update(Arrays.asList(row1, row2), false, this.table);
+
+        this.rows.update(Arrays.asList(row1, row2, row3), false, this.table);
+        assertEquals(3, this.table.itemCount);
+        assertEquals(2, this.table.clearAll);
+        assertSame(row3, this.rows.get(2));
+
+        // a row removed and another one added within one update keeps the number of rows
+        final TestRow row4 = new TestRow(true);
+        this.rows.update(Arrays.asList(row1, row3, row4), false, this.table);
+        assertEquals(3, this.table.itemCount);
+        assertEquals(3, this.table.clearAll);
+        assertEquals(0, this.table.cleared.size());
+        assertSame(row4, this.rows.get(2));
+        assertFalse(row4.changed);
+
+        this.rows.update(Arrays.asList(row4), false, this.table);
+        assertEquals(1, this.table.itemCount);
+        assertEquals(4, this.table.clearAll);
+        assertSame(row4, this.rows.get(0));
+        assertNull(this.rows.get(1));
+    }
+
+    private static final class TestRow implements VirtualTableRows.Row {
+
+        boolean changed;
+
+        TestRow(final boolean changed) {
+            this.changed = changed;
+        }
+
+        @Override
+        public boolean hasChanged() {
+            return this.changed;
+        }
+
+        @Override
+        public void clearChanged() {
+            this.changed = false;
+        }
+    }
+
+    private static final class TestTable implements VirtualTableRows.ItemTable {
+
+        int itemCount = 0;
+        int clearAll = 0;
+        final List<Integer> cleared = new ArrayList<>();
+
+        @Override
+        public int getItemCount() {
+            return this.itemCount;
+        }
+
+        @Override
+        public void setItemCount(final int count) {
+            this.itemCount = count;
+        }
+
+        @Override
+        public void clear(final int index) {
+            this.cleared.add(index);
+        }
+
+        @Override
+        public void clearAll() {
+            this.clearAll++;
+        }
+    }
+
+}
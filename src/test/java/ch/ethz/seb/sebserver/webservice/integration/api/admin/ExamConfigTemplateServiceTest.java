@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.integration.api.admin;
+
+import static org.junit.Assert.assertEquals;
+import static org.mybatis.dynamic.sql.SqlBuilder.isEqualTo;
+import static org.mybatis.dynamic.sql.SqlBuilder.isIn;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.jdbc.Sql;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import ch.ethz.seb.sebserver.gbl.api.API;
+import ch.ethz.seb.sebserver.gbl.api.EntityType;
+import ch.ethz.seb.sebserver.gbl.model.Domain;
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.Configuration;
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationNode;
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationNode.ConfigurationStatus;
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationNode.ConfigurationType;
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationValue;
+import ch.ethz.seb.sebserver.gbl.model.user.UserLogActivityType;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.UserActivityLogRecordDynamicSqlSupport;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.UserActivityLogRecordMapper;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationAttributeDAO;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationDAO;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationNodeDAO;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationValueDAO;
+import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.ExamConfigTemplateService;
+
+@Sql(scripts = { "classpath:schema-test.sql", "classpath:data-test.sql", "classpath:data-test-additional.sql" })
+public class ExamConfigTemplateServiceTest extends AdministrationAPIIntegrationTester {
+
+    @Autowired
+    private ExamConfigTemplateService examConfigTemplateService;
+    @Autowired
+    private ConfigurationNodeDAO configurationNodeDAO;
+    @Autowired
+    private ConfigurationDAO configurationDAO;
+    @Autowired
+    private ConfigurationAttributeDAO configurationAttributeDAO;
+    @Autowired
+    private ConfigurationValueDAO configurationValueDAO;
+    @Autowired
+    private UserActivityLogRecordMapper userActivityLogRecordMapper;
+
+    @Test
+    public void testCreateExamConfigsFromTemplate() {
+        final ConfigurationNode template = this.configurationNodeDAO.createNew(new ConfigurationNode(
+                null, 1L, null, "bulkTemplate", null, ConfigurationType.TEMPLATE, "user1",
+                ConfigurationStatus.READY_TO_USE, null, null))
+                .getOrThrow();
+        final Configuration templateFollowup = this.configurationDAO
+                .getFollowupConfiguration(template.id)
+                .getOrThrow();
+        final Long allowQuitId = this.configurationAttributeDAO.getAttributeIdByName("allowQuit").getOrThrow();
+        this.configurationValueDAO.saveForce(
+                new ConfigurationValue(null, 1L, templateFollowup.id, allowQuitId, 0, "false"))
+                .getOrThrow();
+
+        final Collection<ConfigurationNode> configs = this.examConfigTemplateService
+                .createExamConfigs(1L, template.id, "user1", Arrays.asList("bulk1", "bulk2", "bulk3"), "bulk")
+                .getOrThrow();
+
+        assertEquals(3, configs.size());
+        final Map<Long, String> templateValues = values(templateFollowup.id);
+        for (final ConfigurationNode config : configs) {
+            assertEquals(template.id, config.templateId);
+            assertEquals(ConfigurationType.EXAM_CONFIG, config.type);
+
+            final Configuration initial = this.configurationDAO
+                    .getConfigurationLastStableVersion(config.id)
+                    .getOrThrow();
+            final Configuration followup = this.configurationDAO
+                    .getFollowupConfiguration(config.id)
+                    .getOrThrow();
+            assertNotEquals(initial.id, followup.id);
+
+            assertEquals(templateValues, values(initial.id));
+            assertEquals(templateValues, values(followup.id));
+            assertEquals("false", values(followup.id).get(allowQuitId));
+        }
+    }
+
+    @Test
+    public void testCreateExamConfigsWithExistingName() {
+        this.examConfigTemplateService
+                .createExamConfigs(1L, null, "user1", Collections.singletonList("bulkName"), null)
+                .getOrThrow();
+
+        assertTrue(this.examConfigTemplateService
+                .createExamConfigs(1L, null, "user1", Collections.singletonList("bulkName"), null)
+                .hasError());
+    }
+
+    @Test
+    public void testCreateExamConfigsEndpoint() throws Exception {
+        final Collection<ConfigurationNode> configs = new RestAPITestHelper()
+                .withAccessToken(getExamAdmin1())
+                .withPath(API.CONFIGURATION_NODE_ENDPOINT + API.CONFIGURATION_BULK_CREATE_PATH_SEGMENT)
+                .withMethod(HttpMethod.POST)
+                .withAttribute(Domain.CONFIGURATION_NODE.ATTR_NAME, "restBulk1,restBulk2")
+                .withAttribute(Domain.CONFIGURATION_NODE.ATTR_DESCRIPTION, "bulk")
+                .withExpectedStatus(HttpStatus.OK)
+                .getAsObject(new TypeReference<Collection<ConfigurationNode>>() {
+                });
+
+        assertEquals(2, configs.size());
+        final List<String> ids = configs
+                .stream()
+                .map(ConfigurationNode::getModelId)
+                .collect(Collectors.toList());
+
+        // each new exam configuration has its create activity log
+        assertEquals(Long.valueOf(2), this.userActivityLogRecordMapper
+                .countByExample()
+                .where(UserActivityLogRecordDynamicSqlSupport.entityType,
+                        isEqualTo(EntityType.CONFIGURATION_NODE.name()))
+                .and(UserActivityLogRecordDynamicSqlSupport.activityType,
+                        isEqualTo(UserLogActivityType.CREATE.name()))
+                .and(UserActivityLogRecordDynamicSqlSupport.entityId, isIn(ids))
+                .build()
+                .execute());
+    }
+
+    @Test
+    public void testCreateExamConfigsEndpointWithDuplicateNames() throws Exception {
+        new RestAPITestHelper()
+                .withAccessToken(getExamAdmin1())
+                .withPath(API.CONFIGURATION_NODE_ENDPOINT + API.CONFIGURATION_BULK_CREATE_PATH_SEGMENT)
+                .withMethod(HttpMethod.POST)
+                .withAttribute(Domain.CONFIGURATION_NODE.ATTR_NAME, "restBulk,restBulk")
+                .withExpectedStatus(HttpStatus.BAD_REQUEST)
+                .checkStatus();
+    }
+
+    private Map<Long, String> values(final Long configurationId) {
+        return this.configurationValueDAO
+                .allRootAttributeValues(1L, configurationId)
+                .getOrThrow()
+                .stream()
+                .filter(value -> value.value != null)
+                .collect(Collectors.toMap(value -> value.attributeId, value -> value.value));
+    }
+
+}
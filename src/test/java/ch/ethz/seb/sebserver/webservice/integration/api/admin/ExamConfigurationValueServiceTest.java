@@ -9,14 +9,34 @@
 package ch.ethz.seb.sebserver.webservice.integration.api.admin;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.AttributeType;
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.Configuration;
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationAttribute;
+import ch.ethz.seb.sebserver.gbl.model.sebconfig.ConfigurationValue;
 import ch.ethz.seb.sebserver.gbl.util.Cryptor;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationAttributeDAO;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationDAO;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ConfigurationValueDAO;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ExamConfigurationMapDAO;
 import ch.ethz.seb.sebserver.webservice.servicelayer.exam.ExamConfigurationValueService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.sebconfig.ExamConfigService;
 
 @Sql(scripts = { "classpath:schema-test.sql", "classpath:data-test.sql", "classpath:data-test-additional.sql" })
 public class ExamConfigurationValueServiceTest extends AdministrationAPIIntegrationTester {
@@ -25,6 +45,20 @@ public class ExamConfigurationValueServiceTest extends AdministrationAPIIntegrat
     private ExamConfigurationValueService examConfigurationValueService;
     @Autowired
     private Cryptor cryptor;
+    @Autowired
+    private ExamConfigService examConfigService;
+    @Autowired
+    private ExamConfigurationMapDAO examConfigurationMapDAO;
+    @Autowired
+    private ConfigurationDAO configurationDAO;
+    @Autowired
+    private ConfigurationAttributeDAO configurationAttributeDAO;
+    @Autowired
+    private ConfigurationValueDAO configurationValueDAO;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @Test
     public void testGetConfigValues() {
@@ -46,4 +80,75 @@ public class ExamConfigurationValueServiceTest extends AdministrationAPIIntegrat
         assertEquals("123", plainQuitPassword);
     }
 
+    @Test
+    public void testConfigKeyIsEvictedOnValueChange() {
+        final Long configNodeId = this.examConfigurationMapDAO.getDefaultConfigurationNode(2L).getOrThrow();
+        final Configuration config = this.configurationDAO
+                .getConfigurationLastStableVersion(configNodeId)
+                .getOrThrow();
+
+        final String configKey = this.examConfigService
+                .generateConfigKey(config.institutionId, configNodeId, false)
+                .getOrThrow();
+        assertEquals(
+                configKey,
+                this.examConfigService.generateConfigKey(config.institutionId, configNodeId, false).getOrThrow());
+
+        final Long allowQuitId = this.configurationAttributeDAO.getAttributeIdByName("allowQuit").getOrThrow();
+        this.configurationValueDAO.saveForce(
+                new ConfigurationValue(null, config.institutionId, config.id, allowQuitId, 0, "false"))
+                .getOrThrow();
+
+        final String newConfigKey = this.examConfigService
+                .generateConfigKey(config.institutionId, configNodeId, false)
+                .getOrThrow();
+        assertNotEquals(configKey, newConfigKey);
+    }
+
+    @Test
+    public void testConfigKeyIsEvictedAfterCommit() {
+        final Long configNodeId = this.examConfigurationMapDAO.getDefaultConfigurationNode(2L).getOrThrow();
+        final Configuration config = this.configurationDAO
+                .getConfigurationLastStableVersion(configNodeId)
+                .getOrThrow();
+        this.examConfigService
+                .generateConfigKey(config.institutionId, configNodeId, false)
+                .getOrThrow();
+
+        final Cache cache = this.cacheManager.getCache(ConfigurationValueDAO.CACHE_NAME_CONFIG_KEY);
+        assertNotNull(cache.get(config.id));
+
+        final Long allowQuitId = this.configurationAttributeDAO.getAttributeIdByName("allowQuit").getOrThrow();
+        new TransactionTemplate(this.transactionManager).executeWithoutResult(status -> {
+            this.configurationValueDAO.saveForce(
+                    new ConfigurationValue(null, config.institutionId, config.id, allowQuitId, 0, "false"))
+                    .getOrThrow();
+            // not evicted before the changed value is committed
+            assertNotNull(cache.get(config.id));
+        });
+
+        assertNull(cache.get(config.id));
+    }
+
+    @Test
+    public void testExportContainsChangedAttributes() {
+        final Long configNodeId = this.examConfigurationMapDAO.getDefaultConfigurationNode(2L).getOrThrow();
+        final Configuration config = this.configurationDAO
+                .getConfigurationLastStableVersion(configNodeId)
+                .getOrThrow();
+        assertFalse(exportPlainXML(config.institutionId, configNodeId).contains("<key>catalogTestAttribute</key>"));
+
+        this.configurationAttributeDAO.createNew(new ConfigurationAttribute(
+                null, null, "catalogTestAttribute", AttributeType.CHECKBOX, null, null, null, "true"))
+                .getOrThrow();
+
+        assertTrue(exportPlainXML(config.institutionId, configNodeId).contains("<key>catalogTestAttribute</key>"));
+    }
+
+    private String exportPlainXML(final Long institutionId, final Long configNodeId) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.examConfigService.exportPlainXML(out, institutionId, configNodeId, false);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
 }
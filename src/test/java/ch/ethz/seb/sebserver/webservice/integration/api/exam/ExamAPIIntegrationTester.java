@@ -29,6 +29,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -289,6 +290,15 @@ public abstract class ExamAPIIntegrationTester {
             final String connectionToken,
             final Long examId) throws Exception {
 
+        return getExamConfig(accessToken, connectionToken, examId, null);
+    }
+
+    protected MockHttpServletResponse getExamConfig(
+            final String accessToken,
+            final String connectionToken,
+            final Long examId,
+            final String eTag) throws Exception {
+
         final MockHttpServletRequestBuilder builder = get(this.endpoint + API.EXAM_API_CONFIGURATION_REQUEST_ENDPOINT)
                 .header("Content-Type", MediaType.APPLICATION_FORM_URLENCODED_VALUE)
                 .header("Authorization", "Bearer " + accessToken)
@@ -298,6 +308,9 @@ public abstract class ExamAPIIntegrationTester {
         if (examId != null) {
             builder.content("examId=" + examId);
         }
+        if (eTag != null) {
+            builder.header(HttpHeaders.IF_NONE_MATCH, eTag);
+        }
 
         final MvcResult mvcResult = this.mockMvc
                 .perform(builder)
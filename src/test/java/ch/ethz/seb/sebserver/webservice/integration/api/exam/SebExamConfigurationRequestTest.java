@@ -11,13 +11,17 @@ package ch.ethz.seb.sebserver.webservice.integration.api.exam;
 import static org.junit.Assert.*;
 
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.Cache;
 import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.jdbc.Sql;
 
 import ch.ethz.seb.sebserver.gbl.api.API;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamConfigUpdateEvent;
 import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.ClientConnectionDataInternal;
 import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.ExamSessionCacheService;
 
@@ -26,6 +30,9 @@ public class SebExamConfigurationRequestTest extends ExamAPIIntegrationTester {
 
     private static final long EXAM_ID = 2L;
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @Test
     @Sql(scripts = { "classpath:schema-test.sql", "classpath:data-test.sql", "classpath:data-test-additional.sql" })
     public void testGetExamConfigOnAFullyEstablishedConnection() throws Exception {
@@ -68,6 +75,54 @@ public class SebExamConfigurationRequestTest extends ExamAPIIntegrationTester {
         assertNotNull(config);
     }
 
+    @Test
+    @Sql(scripts = { "classpath:schema-test.sql", "classpath:data-test.sql", "classpath:data-test-additional.sql" })
+    public void testGetExamConfigWithETag() throws Exception {
+        final String accessToken = super.obtainAccessToken("test", "test", "SEBClient");
+        assertNotNull(accessToken);
+
+        final MockHttpServletResponse createConnection = super.createConnection(accessToken, 1L, EXAM_ID);
+        final String connectionToken = createConnection.getHeader(API.EXAM_API_SEB_CONNECTION_TOKEN);
+        assertNotNull(connectionToken);
+
+        final MockHttpServletResponse configResponse = super.getExamConfig(
+                accessToken,
+                connectionToken,
+                null);
+
+        assertTrue(HttpStatus.OK.value() == configResponse.getStatus());
+        final String eTag = configResponse.getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        assertEquals(configResponse.getContentAsByteArray().length, configResponse.getContentLength());
+
+        // the pre-rendered configuration has not changed
+        final MockHttpServletResponse notModified = super.getExamConfig(
+                accessToken,
+                connectionToken,
+                null,
+                eTag);
+
+        assertTrue(HttpStatus.NOT_MODIFIED.value() == notModified.getStatus());
+        assertEquals(eTag, notModified.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, notModified.getContentAsByteArray().length);
+
+        // a changed configuration is rendered again
+        this.applicationEventPublisher.publishEvent(new ExamConfigUpdateEvent(EXAM_ID));
+        final Cache cache = this.cacheManager
+                .getCache(ExamSessionCacheService.CACHE_NAME_SEB_CONFIG_EXAM);
+        assertNull(cache.get(EXAM_ID));
+
+        final MockHttpServletResponse reloaded = super.getExamConfig(
+                accessToken,
+                connectionToken,
+                null,
+                "\"other\"");
+
+        assertTrue(HttpStatus.OK.value() == reloaded.getStatus());
+        assertArrayEquals(configResponse.getContentAsByteArray(), reloaded.getContentAsByteArray());
+        assertNotNull(cache.get(EXAM_ID));
+    }
+
     @Test
     @Sql(scripts = { "classpath:schema-test.sql", "classpath:data-test.sql", "classpath:data-test-additional.sql" })
     public void testGetExamConfigOnNoneEstablishedConnectionButExamIdExists() throws Exception {
@@ -10,7 +10,9 @@ package ch.ethz.seb.sebserver.webservice.integration.services;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.Test;
@@ -25,6 +27,12 @@ import ch.ethz.seb.sebserver.gbl.model.session.ClientConnectionData;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent;
 import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent.EventType;
 import ch.ethz.seb.sebserver.gbl.monitoring.IndicatorValue;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientEventExtensionMapper;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientIndicatorValueMapper;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientIndicatorValueMapper.ClientIndicatorValueRecord;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientIndicatorRecordMapper;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ClientEventRecord;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ClientIndicatorRecord;
 import ch.ethz.seb.sebserver.webservice.integration.api.admin.AdministrationAPIIntegrationTester;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ClientConnectionDAO;
 import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ClientEventDAO;
@@ -35,6 +43,7 @@ import ch.ethz.seb.sebserver.webservice.servicelayer.session.SEBClientSessionSer
 import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.SEBClientEventBatchService;
 import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.indicator.AbstractLogIndicator;
 import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.indicator.AbstractLogLevelCountIndicator;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.indicator.LogLevelCountService;
 
 @Sql(scripts = { "classpath:schema-test.sql", "classpath:data-test.sql", "classpath:data-test-additional.sql" })
 public class ClientEventServiceTest extends AdministrationAPIIntegrationTester {
@@ -54,6 +63,14 @@ public class ClientEventServiceTest extends AdministrationAPIIntegrationTester {
 //    private Executor executor;
     @Autowired
     private JSONMapper jsonMapper;
+    @Autowired
+    private ClientIndicatorRecordMapper clientIndicatorRecordMapper;
+    @Autowired
+    private ClientIndicatorValueMapper clientIndicatorValueMapper;
+    @Autowired
+    private LogLevelCountService logLevelCountService;
+    @Autowired
+    private ClientEventExtensionMapper clientEventExtensionMapper;
 
     @Test
     public void testCreateLogEvents() {
@@ -273,4 +290,222 @@ public class ClientEventServiceTest extends AdministrationAPIIntegrationTester {
         assertEquals("40", IndicatorValue.getDisplayValue(clientIndicator, IndicatorType.BATTERY_STATUS));
     }
 
+    @Test
+    public void testLogLevelCounts() {
+
+        final ClientConnection connection = this.clientConnectionDAO
+                .createNew(
+                        new ClientConnection(null, 1L, 2L, ConnectionStatus.ACTIVE, "token5", "userId",
+                                "1.1.1.1", "seb_os_name", "seb_machine_name", "seb_version", "", false,
+                                "", 1L,
+                                1L,
+                                null, null, null, false,
+                                false, null, false))
+                .getOrThrow();
+
+        this.clientEventDAO
+                .createNew(new ClientEvent(null, connection.id, EventType.ERROR_LOG, 1L, 1L, 1.0, "error1"))
+                .getOrThrow();
+        this.clientEventDAO
+                .createNew(new ClientEvent(null, connection.id, EventType.ERROR_LOG, 2L, 2L, 1.0, "error2"))
+                .getOrThrow();
+        final ClientEvent info = this.clientEventDAO
+                .createNew(new ClientEvent(null, connection.id, EventType.INFO_LOG, 3L, 3L, 1.0, "info"))
+                .getOrThrow();
+
+        // loads the counts of all connections of the exam
+        this.logLevelCountService.removeExam(2L);
+        assertTrue(this.logLevelCountService.initExam(2L));
+        assertEquals(Long.valueOf(2), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.ERROR_LOG.id)));
+        assertEquals(Long.valueOf(3), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.ERROR_LOG.id, EventType.INFO_LOG.id)));
+
+        // events already seen by the load query are not counted again
+        this.logLevelCountService.notifyEvent(2L, connection.id, EventType.INFO_LOG, info.id, "info");
+        assertEquals(Long.valueOf(1), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.INFO_LOG.id)));
+
+        // incremental update of committed events
+        this.logLevelCountService.notifyEvent(2L, connection.id, EventType.INFO_LOG, Long.MAX_VALUE, "info");
+        assertEquals(Long.valueOf(2), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.INFO_LOG.id)));
+
+        // events persisted by the batch are counted after commit
+        this.sebClientSessionService.notifyClientEvent(
+                "token5",
+                writeValueAsString(new ClientEvent(null, connection.id, EventType.ERROR_LOG, 4L, 4L, 1.0, "error3")));
+        waitForExecutor();
+        assertEquals(Long.valueOf(3), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.ERROR_LOG.id)));
+
+        this.logLevelCountService.removeExam(2L);
+    }
+
+    @Test
+    public void testTaggedLogLevelCounts() {
+
+        final ClientConnection connection = this.clientConnectionDAO
+                .createNew(
+                        new ClientConnection(null, 1L, 2L, ConnectionStatus.ACTIVE, "token8", "userId",
+                                "1.1.1.1", "seb_os_name", "seb_machine_name", "seb_version", "", false,
+                                "", 1L,
+                                1L,
+                                null, null, null, false,
+                                false, null, false))
+                .getOrThrow();
+
+        this.clientEventDAO
+                .createNew(new ClientEvent(null, connection.id, EventType.ERROR_LOG, 1L, 1L, 1.0, "<top> error1"))
+                .getOrThrow();
+        this.clientEventDAO
+                .createNew(new ClientEvent(null, connection.id, EventType.ERROR_LOG, 2L, 2L, 1.0, "<net> error2"))
+                .getOrThrow();
+        this.clientEventDAO
+                .createNew(new ClientEvent(null, connection.id, EventType.ERROR_LOG, 3L, 3L, 1.0, "error3"))
+                .getOrThrow();
+        this.clientEventDAO
+                .createNew(new ClientEvent(null, connection.id, EventType.INFO_LOG, 4L, 4L, 1.0, "<top> info"))
+                .getOrThrow();
+
+        // loads the counts of the tag set for all connections of the exam
+        this.logLevelCountService.removeExam(2L);
+        final String[] tags = new String[] { "<top>", "<net>" };
+        assertEquals(Long.valueOf(2), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.ERROR_LOG.id), tags));
+        assertEquals(Long.valueOf(1), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.ERROR_LOG.id), new String[] { "<net>" }));
+        assertEquals(Long.valueOf(3), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.ERROR_LOG.id, EventType.INFO_LOG.id), tags));
+        assertEquals(Long.valueOf(3), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.ERROR_LOG.id)));
+
+        // incremental update of committed events, only events with a matching text count for the tag set
+        this.logLevelCountService.notifyEvent(2L, connection.id, EventType.ERROR_LOG, Long.MAX_VALUE, "<net> x");
+        this.logLevelCountService.notifyEvent(2L, connection.id, EventType.ERROR_LOG, Long.MAX_VALUE, "x");
+        this.logLevelCountService.notifyEvent(2L, connection.id, EventType.ERROR_LOG, Long.MAX_VALUE, null);
+        assertEquals(Long.valueOf(3), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.ERROR_LOG.id), tags));
+        assertEquals(Long.valueOf(6), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.ERROR_LOG.id)));
+
+        // events persisted by the batch are counted after commit
+        this.sebClientSessionService.notifyClientEvent(
+                "token8",
+                writeValueAsString(new ClientEvent(null, connection.id, EventType.ERROR_LOG, 5L, 5L, 1.0,
+                        "<top> error4")));
+        waitForExecutor();
+        assertEquals(Long.valueOf(4), this.logLevelCountService.getCount(
+                2L, connection.id, Arrays.asList(EventType.ERROR_LOG.id), tags));
+
+        this.logLevelCountService.removeExam(2L);
+    }
+
+    @Test
+    public void testInsertMultipleEvents() {
+
+        final ClientConnection connection = this.clientConnectionDAO
+                .createNew(
+                        new ClientConnection(null, 1L, 2L, ConnectionStatus.ACTIVE, "token6", "userId",
+                                "1.1.1.1", "seb_os_name", "seb_machine_name", "seb_version", "", false,
+                                "", 1L,
+                                1L,
+                                null, null, null, false,
+                                false, null, false))
+                .getOrThrow();
+
+        final List<ClientEventRecord> records = Arrays.asList(
+                ClientEvent.toRecord(
+                        new ClientEvent(null, connection.id, EventType.INFO_LOG, 1L, 1L, 1.0, "info"),
+                        connection.id),
+                ClientEvent.toRecord(
+                        new ClientEvent(null, connection.id, EventType.ERROR_LOG, 2L, 2L, 2.0, "error"),
+                        connection.id),
+                ClientEvent.toRecord(
+                        new ClientEvent(null, connection.id, EventType.WARN_LOG, 3L, 3L, null, "warn"),
+                        connection.id));
+
+        assertEquals(3, this.clientEventExtensionMapper.insertMultiple(records));
+
+        // the generated identifiers are set to the records in insertion order
+        Long lastId = 0L;
+        for (final ClientEventRecord record : records) {
+            assertNotNull(record.getId());
+            assertTrue(record.getId() > lastId);
+            lastId = record.getId();
+
+            final ClientEvent event = this.clientEventDAO.byPK(record.getId()).getOrThrow();
+            assertEquals(connection.id, event.connectionId);
+            assertEquals(record.getText(), event.text);
+            assertEquals(record.getType().intValue(), event.eventType.id);
+        }
+    }
+
+    @Test
+    public void testBatchedIndicatorValueUpdates() {
+
+        final ClientConnection connection = this.clientConnectionDAO
+                .createNew(
+                        new ClientConnection(null, 1L, 2L, ConnectionStatus.ACTIVE, "token4", "userId",
+                                "1.1.1.1", "seb_os_name", "seb_machine_name", "seb_version", "", false,
+                                "", 1L,
+                                1L,
+                                null, null, null, false,
+                                false, null, false))
+                .getOrThrow();
+
+        final ClientIndicatorRecord ping = new ClientIndicatorRecord(
+                null, connection.id, IndicatorType.LAST_PING.id, 0L);
+        final ClientIndicatorRecord errors = new ClientIndicatorRecord(
+                null, connection.id, IndicatorType.ERROR_COUNT.id, 2L);
+        this.clientIndicatorRecordMapper.insert(ping);
+        this.clientIndicatorRecordMapper.insert(errors);
+
+        this.clientIndicatorValueMapper.updateIndicatorValues(Arrays.asList(
+                new ClientIndicatorValueRecord(ping.getId(), 100L),
+                new ClientIndicatorValueRecord(errors.getId(), 5L)),
+                10L);
+
+        assertEquals(Long.valueOf(100), this.clientIndicatorValueMapper.selectValueByPrimaryKey(ping.getId()));
+        assertEquals(Long.valueOf(5), this.clientIndicatorValueMapper.selectValueByPrimaryKey(errors.getId()));
+
+        this.clientIndicatorValueMapper.addIndicatorValues(Arrays.asList(
+                new ClientIndicatorValueRecord(errors.getId(), 3L)),
+                20L);
+
+        assertEquals(Long.valueOf(100), this.clientIndicatorValueMapper.selectValueByPrimaryKey(ping.getId()));
+        assertEquals(Long.valueOf(8), this.clientIndicatorValueMapper.selectValueByPrimaryKey(errors.getId()));
+
+        // only the records updated since the given time
+        assertEquals(2, this.clientIndicatorValueMapper.selectUpdatedSince(10L).size());
+        final Collection<ClientIndicatorValueRecord> updated = this.clientIndicatorValueMapper.selectUpdatedSince(20L);
+        assertEquals(1, updated.size());
+        assertEquals(errors.getId(), updated.iterator().next().id);
+        assertEquals(Long.valueOf(8), updated.iterator().next().indicatorValue);
+    }
+
+    @Test
+    public void testInsertedIndicatorValueHasUpdateTime() {
+
+        final ClientConnection connection = this.clientConnectionDAO
+                .createNew(
+                        new ClientConnection(null, 1L, 2L, ConnectionStatus.ACTIVE, "token7", "userId",
+                                "1.1.1.1", "seb_os_name", "seb_machine_name", "seb_version", "", false,
+                                "", 1L,
+                                1L,
+                                null, null, null, false,
+                                false, null, false))
+                .getOrThrow();
+
+        this.clientIndicatorValueMapper.insertIndicatorValueAt(connection.id, IndicatorType.ERROR_COUNT.id, 3L, 30L);
+        final Long pk = this.clientIndicatorValueMapper
+                .indicatorRecordIdByConnectionId(connection.id, IndicatorType.ERROR_COUNT);
+
+        // a new indicator record is part of the incremental synchronization
+        final Collection<ClientIndicatorValueRecord> updated = this.clientIndicatorValueMapper.selectUpdatedSince(30L);
+        assertEquals(1, updated.size());
+        assertEquals(pk, updated.iterator().next().id);
+        assertEquals(Long.valueOf(3), updated.iterator().next().indicatorValue);
+    }
+
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.integration.services;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
+import ch.ethz.seb.sebserver.webservice.integration.api.admin.AdministrationAPIIntegrationTester;
+import ch.ethz.seb.sebserver.webservice.servicelayer.dao.ClientConnectionDAO;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.SEBClientConnectionBatchService;
+
+@Sql(scripts = { "classpath:schema-test.sql", "classpath:data-test.sql", "classpath:data-test-additional.sql" })
+public class SEBClientConnectionBatchServiceTest extends AdministrationAPIIntegrationTester {
+
+    @Autowired
+    private ClientConnectionDAO clientConnectionDAO;
+    @Autowired
+    private SEBClientConnectionBatchService sebClientConnectionBatchService;
+
+    @Test
+    public void testBatchedConnectionCreation() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<ClientConnection>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                final String token = "batchToken" + i;
+                futures.add(executorService.submit(() -> this.sebClientConnectionBatchService
+                        .createNew(newConnection(token))
+                        .getOrThrow()));
+            }
+
+            final Set<Long> ids = new HashSet<>();
+            for (int i = 0; i < futures.size(); i++) {
+                final ClientConnection connection = futures.get(i).get();
+                assertNotNull(connection.id);
+                assertEquals("batchToken" + i, connection.connectionToken);
+                assertEquals(ConnectionStatus.CONNECTION_REQUESTED, connection.status);
+                assertEquals(connection, this.clientConnectionDAO.byPK(connection.id).getOrThrow());
+                ids.add(connection.id);
+            }
+            assertEquals(40, ids.size());
+
+            this.sebClientConnectionBatchService.notifyHandshakeLatency(5);
+            final SEBClientConnectionBatchService.ConnectionBatchStats stats =
+                    this.sebClientConnectionBatchService.getStats();
+            assertTrue(stats.created >= 40);
+            assertTrue(stats.batches < stats.created);
+            assertTrue(stats.p99 >= stats.p50);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testCreateAllUsesGeneratedIds() {
+        final List<ClientConnection> connections = this.clientConnectionDAO
+                .createAll(Arrays.asList(
+                        newConnection("createAllToken1"),
+                        newConnection("createAllToken2"),
+                        newConnection("createAllToken3")))
+                .getOrThrow();
+
+        assertEquals(3, connections.size());
+        for (int i = 0; i < connections.size(); i++) {
+            final ClientConnection connection = connections.get(i);
+            assertEquals("createAllToken" + (i + 1), connection.connectionToken);
+            assertEquals(
+                    connection.connectionToken,
+                    this.clientConnectionDAO.byPK(connection.id).getOrThrow().connectionToken);
+        }
+    }
+
+    private static ClientConnection newConnection(final String token) {
+        return new ClientConnection(null, 1L, 2L, ConnectionStatus.CONNECTION_REQUESTED, token,
+                null, "0.0.0.0", "os", "machine", "version", null, false, null, null, null, null, null,
+                null, null, null, null, null);
+    }
+
+}
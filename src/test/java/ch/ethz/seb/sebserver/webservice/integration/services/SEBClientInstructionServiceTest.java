@@ -10,6 +10,7 @@ package ch.ethz.seb.sebserver.webservice.integration.services;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -88,7 +89,8 @@ public class SEBClientInstructionServiceTest extends AdministrationAPIIntegratio
         final String secondPing = this.sebClientInstructionService.getInstructionJSON("testToken");
         assertNull(secondPing);
 
-        // check DB is empty again
+        // check DB is empty again after delivered instructions are purged
+        this.sebClientInstructionService.cleanupInstructions();
         all = this.clientInstructionDAO
                 .getAllActive()
                 .getOrThrow();
@@ -126,7 +128,8 @@ public class SEBClientInstructionServiceTest extends AdministrationAPIIntegratio
         final String nextPing = this.sebClientInstructionService.getInstructionJSON("testToken");
         assertNull(nextPing);
 
-        // check DB is empty again
+        // check DB is empty again after delivered instructions are purged
+        this.sebClientInstructionService.cleanupInstructions();
         all = this.clientInstructionDAO
                 .getAllActive()
                 .getOrThrow();
@@ -168,7 +171,8 @@ public class SEBClientInstructionServiceTest extends AdministrationAPIIntegratio
         final String nextPing = this.sebClientInstructionService.getInstructionJSON("testToken");
         assertNull(nextPing);
 
-        // check DB is empty again
+        // check DB is empty again after delivered instructions are purged
+        this.sebClientInstructionService.cleanupInstructions();
         all = this.clientInstructionDAO
                 .getAllActive()
                 .getOrThrow();
@@ -212,7 +216,8 @@ public class SEBClientInstructionServiceTest extends AdministrationAPIIntegratio
         final String nextPing = this.sebClientInstructionService.getInstructionJSON("testToken");
         assertNull(nextPing);
 
-        // check DB is empty again
+        // check DB is empty again after delivered instructions are purged
+        this.sebClientInstructionService.cleanupInstructions();
         all = this.clientInstructionDAO
                 .getAllActive()
                 .getOrThrow();
@@ -221,4 +226,84 @@ public class SEBClientInstructionServiceTest extends AdministrationAPIIntegratio
 
     }
 
+    @Test
+    public void testRegisterForMultipleConnections() {
+        if (this.clientConnectionDAO.byConnectionToken("testToken2").getOr(null) == null) {
+            this.clientConnectionDAO.createNew(new ClientConnection(
+                    null, 1L, 2L, ConnectionStatus.ACTIVE, "testToken2", "user2", "0.0.0.0",
+                    "0.0.0.0",
+                    null, null,
+                    false, false))
+                    .getOrThrow();
+        }
+
+        this.sebClientInstructionService.registerInstruction(
+                2L, InstructionType.SEB_RECONFIGURE_SETTINGS, Collections.emptyMap(),
+                Stream.of("testToken", "testToken2").collect(Collectors.toSet()), true);
+
+        // check on DB, one instruction per connection with its own confirmation number
+        Collection<ClientInstructionRecord> all = this.clientInstructionDAO
+                .getAllActive()
+                .getOrThrow();
+        assertEquals(2, all.size());
+        for (final ClientInstructionRecord rec : all) {
+            assertEquals(
+                    "{\"instruction-confirm\":\"" + rec.getId() + "\"}",
+                    rec.getAttributes());
+        }
+
+        final String json1 = this.sebClientInstructionService.getInstructionJSON("testToken");
+        final String json2 = this.sebClientInstructionService.getInstructionJSON("testToken2");
+        assertNotNull(json1);
+        assertNotNull(json2);
+        assertFalse(json1.equals(json2));
+
+        // confirm instructions
+        for (final ClientInstructionRecord rec : all) {
+            this.sebClientInstructionService.confirmInstructionDone(
+                    rec.getConnectionToken(),
+                    String.valueOf(rec.getId()));
+        }
+        assertNull(this.sebClientInstructionService.getInstructionJSON("testToken"));
+        assertNull(this.sebClientInstructionService.getInstructionJSON("testToken2"));
+
+        // check DB is empty again after delivered instructions are purged
+        this.sebClientInstructionService.cleanupInstructions();
+        all = this.clientInstructionDAO
+                .getAllActive()
+                .getOrThrow();
+        assertNotNull(all);
+        assertTrue(all.isEmpty());
+    }
+
+    @Test
+    public void testInsertMultipleSetsGeneratedIds() {
+        for (final String token : Arrays.asList("testToken2", "testToken3")) {
+            if (this.clientConnectionDAO.byConnectionToken(token).getOr(null) == null) {
+                this.clientConnectionDAO.createNew(new ClientConnection(
+                        null, 1L, 2L, ConnectionStatus.ACTIVE, token, "user2", "0.0.0.0",
+                        "0.0.0.0",
+                        null, null,
+                        false, false))
+                        .getOrThrow();
+            }
+        }
+
+        final Collection<ClientInstructionRecord> inserted = this.clientInstructionDAO.insert(
+                2L, InstructionType.SEB_QUIT, null, Arrays.asList("testToken", "testToken2", "testToken3"), true)
+                .getOrThrow();
+
+        assertEquals(3, inserted.size());
+        final Map<Long, ClientInstructionRecord> persistent = this.clientInstructionDAO
+                .getAllActive()
+                .getOrThrow()
+                .stream()
+                .collect(Collectors.toMap(ClientInstructionRecord::getId, rec -> rec));
+        for (final ClientInstructionRecord rec : inserted) {
+            assertNotNull(rec.getId());
+            assertEquals(rec.getConnectionToken(), persistent.get(rec.getId()).getConnectionToken());
+            assertEquals("{\"instruction-confirm\":\"" + rec.getId() + "\"}", rec.getAttributes());
+        }
+    }
+
 }
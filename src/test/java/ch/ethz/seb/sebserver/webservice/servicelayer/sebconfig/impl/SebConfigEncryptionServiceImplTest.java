@@ -13,9 +13,11 @@ import static org.junit.Assert.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.cryptonode.jncryptor.AES256JNCryptor;
@@ -97,6 +99,40 @@ public class SebConfigEncryptionServiceImplTest {
         assertEquals(config, decryptedConfig);
     }
 
+    @Test
+    public void testZippedPasswordEncryptionStream() throws Exception {
+        final SEBConfigEncryptionServiceImpl sebConfigEncryptionServiceImpl = sebConfigEncryptionServiceImpl();
+
+        final StringBuilder builder = new StringBuilder("<TestConfig>");
+        for (int i = 0; i < 10000; i++) {
+            builder.append("<key>").append(i).append("</key>");
+        }
+        final String config = builder.append("</TestConfig>").toString();
+        final String pwd = "password";
+
+        // plain text -> zip -> encryption -> output on the calling thread
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream zipOut = new ZipServiceImpl().compressionStream(
+                sebConfigEncryptionServiceImpl.encryptionStream(
+                        out,
+                        EncryptionContext.contextOf(1L, Strategy.PASSWORD_PSWD, pwd)))) {
+            zipOut.write(Utils.toByteArray(config));
+        }
+
+        final byte[] byteArray = out.toByteArray();
+        final int headerLength = Strategy.PASSWORD_PSWD.header.length;
+        assertArrayEquals(Strategy.PASSWORD_PSWD.header, Arrays.copyOf(byteArray, headerLength));
+
+        // the piped decryption stream of the service needs a separate reader thread for larger data
+        final byte[] zipped = new AES256JNCryptor().decryptData(
+                Arrays.copyOfRange(byteArray, headerLength, byteArray.length),
+                pwd.toCharArray());
+        final String decryptedConfig = IOUtils.toString(
+                new GZIPInputStream(new ByteArrayInputStream(zipped)),
+                "UTF-8");
+        assertEquals(config, decryptedConfig);
+    }
+
     private SEBConfigEncryptionServiceImpl sebConfigEncryptionServiceImpl() {
         final JNCryptor cryptor = new AES256JNCryptor();
         final List<SEBConfigCryptor> encryptors = Arrays.asList(
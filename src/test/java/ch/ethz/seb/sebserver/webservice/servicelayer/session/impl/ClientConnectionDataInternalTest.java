@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import ch.ethz.seb.sebserver.gbl.model.exam.Indicator;
+import ch.ethz.seb.sebserver.gbl.model.exam.Indicator.IndicatorType;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent.EventType;
+import ch.ethz.seb.sebserver.gbl.util.Utils;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.indicator.AbstractClientIndicator;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.indicator.PingIntervalClientIndicator;
+
+public class ClientConnectionDataInternalTest {
+
+    @Test
+    public void testIncidentAndWarningOnThresholdChanges() {
+        final ClientConnectionDataInternal connection = createConnection(true);
+
+        assertFalse(connection.hasWarning(IndicatorType.INFO_COUNT));
+        assertFalse(connection.hasIncident(IndicatorType.INFO_COUNT));
+        assertFalse(connection.hasAnyIncident());
+
+        connection.notifyValueChange(EventType.INFO_LOG, null, 6);
+        assertTrue(connection.hasWarning(IndicatorType.INFO_COUNT));
+        assertFalse(connection.hasIncident(IndicatorType.INFO_COUNT));
+        assertFalse(connection.hasAnyIncident());
+
+        connection.notifyValueChange(EventType.INFO_LOG, null, 11);
+        assertTrue(connection.hasWarning(IndicatorType.INFO_COUNT));
+        assertTrue(connection.hasIncident(IndicatorType.INFO_COUNT));
+        assertTrue(connection.hasAnyIncident());
+
+        // back below the thresholds clears both bits
+        connection.notifyValueChange(EventType.INFO_LOG, null, 3);
+        assertFalse(connection.hasWarning(IndicatorType.INFO_COUNT));
+        assertFalse(connection.hasIncident(IndicatorType.INFO_COUNT));
+        assertFalse(connection.hasAnyIncident());
+    }
+
+    @Test
+    public void testMissingPingAndRecovery() {
+        final ClientConnectionDataInternal connection = createConnection(true);
+        final long now = Utils.getMillisecondsNow();
+
+        connection.notifyPing(now);
+        assertFalse(connection.checkMissingPing());
+        assertFalse(connection.getMissingPing());
+
+        connection.notifyPing(now - 60000);
+        assertTrue(connection.checkMissingPing());
+        assertTrue(connection.getMissingPing());
+        assertTrue(connection.hasIncident(IndicatorType.LAST_PING));
+        assertTrue(connection.hasAnyIncident());
+        assertTrue(connection.monitoringDataView.isMissingPing());
+
+        // a ping clears the missing ping without a check
+        connection.notifyPing(Utils.getMillisecondsNow());
+        assertFalse(connection.getMissingPing());
+        assertFalse(connection.hasIncident(IndicatorType.LAST_PING));
+        assertFalse(connection.hasAnyIncident());
+    }
+
+    @Test
+    public void testPingIncidentKeepsOtherIncidents() {
+        final ClientConnectionDataInternal connection = createConnection(true);
+
+        connection.notifyValueChange(EventType.INFO_LOG, null, 11);
+        connection.notifyPing(Utils.getMillisecondsNow() - 60000);
+        connection.checkMissingPing();
+        assertTrue(connection.hasIncident(IndicatorType.LAST_PING));
+        assertTrue(connection.hasIncident(IndicatorType.INFO_COUNT));
+
+        connection.notifyPing(Utils.getMillisecondsNow());
+        assertFalse(connection.hasIncident(IndicatorType.LAST_PING));
+        assertTrue(connection.hasIncident(IndicatorType.INFO_COUNT));
+        assertTrue(connection.hasAnyIncident());
+    }
+
+    @Test
+    public void testNotPrecomputedEvaluatesIndicators() {
+        final ClientConnectionDataInternal connection = createConnection(false);
+
+        connection.notifyValueChange(EventType.INFO_LOG, null, 11);
+        assertTrue(connection.hasIncident(IndicatorType.INFO_COUNT));
+        assertTrue(connection.hasAnyIncident());
+
+        connection.notifyValueChange(EventType.INFO_LOG, null, 3);
+        assertFalse(connection.hasIncident(IndicatorType.INFO_COUNT));
+        assertFalse(connection.hasAnyIncident());
+    }
+
+    private static ClientConnectionDataInternal createConnection(final boolean cached) {
+        final PingIntervalClientIndicator ping = new PingIntervalClientIndicator(null);
+        ping.init(indicator(1L, IndicatorType.LAST_PING, 5000d), 1L, true, true);
+        final ValueIndicator value = new ValueIndicator(cached);
+        value.init(indicator(2L, IndicatorType.INFO_COUNT, 5d, 10d), 1L, true, true);
+
+        return new ClientConnectionDataInternal(
+                new ClientConnection(
+                        1L, 1L, 1L, ConnectionStatus.ACTIVE, "token", "user",
+                        null, null, null, null, null, null),
+                () -> false,
+                Arrays.asList(ping, value),
+                null);
+    }
+
+    private static Indicator indicator(final Long id, final IndicatorType type, final Double... thresholds) {
+        final List<Indicator.Threshold> list = new ArrayList<>();
+        for (final Double threshold : thresholds) {
+            list.add(new Indicator.Threshold(threshold, null, null));
+        }
+        return new Indicator(id, 1L, type.name(), type, null, null, null, list);
+    }
+
+    /** In-memory indicator that takes the number value of the observed events as its value */
+    private static final class ValueIndicator extends AbstractClientIndicator {
+
+        private final boolean cached;
+
+        ValueIndicator(final boolean cached) {
+            super(null);
+            this.cached = cached;
+        }
+
+        @Override
+        public IndicatorType getType() {
+            return IndicatorType.INFO_COUNT;
+        }
+
+        @Override
+        public boolean isValueCached() {
+            return this.cached;
+        }
+
+        @Override
+        public double computeValueAt(final long timestamp) {
+            return this.currentValue;
+        }
+
+        @Override
+        public Set<EventType> observedEvents() {
+            return EnumSet.of(EventType.INFO_LOG);
+        }
+
+        @Override
+        public void notifyValueChange(final String textValue, final double numValue) {
+            this.currentValue = numValue;
+        }
+
+        @Override
+        public boolean hasIncident() {
+            return this.currentValue >= this.dataMap.incidentThreshold;
+        }
+
+        @Override
+        public boolean hasWarning() {
+            return this.currentValue >= this.dataMap.warningThreshold;
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ClientConnectionRegistryTest {
+
+    @Test
+    public void testTokenSlotMap() {
+        ClientConnectionRegistry.TokenSlotMap candidate = new ClientConnectionRegistry.TokenSlotMap(4);
+        assertEquals(-1, candidate.get("token1"));
+
+        for (int i = 0; i < 100; i++) {
+            candidate = candidate.put("token" + i, i);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, candidate.get("token" + i));
+        }
+
+        candidate.remove("token50");
+        assertEquals(-1, candidate.get("token50"));
+        assertEquals(51, candidate.get("token51"));
+
+        candidate = candidate.put("token50", 500);
+        assertEquals(500, candidate.get("token50"));
+        assertEquals(99, candidate.get("token99"));
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import ch.ethz.seb.sebserver.gbl.api.JSONMapper;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent.EventType;
+
+public class ClientEventDecoderTest {
+
+    private final JSONMapper jsonMapper = new JSONMapper();
+
+    @Test
+    public void testDecodeLikeDataBinding() throws IOException {
+        assertDecodedEquals("{ \"type\": \"INFO_LOG\", \"timestamp\": 1, \"numericValue\": 100.0, \"text\": \"testEvent1\" }");
+        assertDecodedEquals("{ \"type\": \"WARN_LOG\", \"timestamp\": 2, \"text\": \"some \\\"quoted\\\" text\" }");
+        assertDecodedEquals("{ \"type\": 4, \"timestamp\": 3, \"serverTime\": 5, \"numericValue\": null }");
+        assertDecodedEquals("{ \"id\": 7, \"clientConnectionId\": 8, \"type\": \"ERROR_LOG\", "
+                + "\"unknown\": { \"a\": [1, 2] }, \"timestamp\": \"4\", \"text\": \"x\" }");
+        assertDecodedEquals("{ \"type\": \"INFO_LOG\", \"timestamp\": 1, \"numericValue\": \"2.5\" }");
+    }
+
+    @Test
+    public void testDecodeFromStream() throws IOException {
+        final String json = "{ \"type\": \"ERROR_LOG\", \"timestamp\": 10, \"numericValue\": 1.5, \"text\": \"error\" }";
+        final ClientEvent event = ClientEventDecoder.decode(
+                this.jsonMapper.getFactory(),
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertNull(event.id);
+        assertEquals(EventType.ERROR_LOG, event.eventType);
+        assertEquals(Long.valueOf(10), event.clientTime);
+        assertEquals(Double.valueOf(1.5), event.numValue);
+        assertEquals("error", event.text);
+    }
+
+    @Test
+    public void testDecodeInvalid() {
+        assertInvalid("[]");
+        assertInvalid("{ \"type\": \"NO_TYPE\" }");
+        assertInvalid("{ \"type\": 42 }");
+        assertInvalid("{ \"type\": \"INFO_LOG\", ");
+        assertInvalid("{ \"type\": \"INFO_LOG\", \"numericValue\": \"abc\" }");
+        assertInvalid("{ \"type\": \"INFO_LOG\", \"numericValue\": true }");
+        assertInvalid("{ \"type\": \"INFO_LOG\", \"timestamp\": \"now\" }");
+    }
+
+    private void assertDecodedEquals(final String json) throws IOException {
+        final ClientEvent expected = this.jsonMapper.readValue(json, ClientEvent.class);
+        final ClientEvent decoded = ClientEventDecoder.decode(this.jsonMapper.getFactory(), json);
+
+        assertEquals(expected.id, decoded.id);
+        assertEquals(expected.connectionId, decoded.connectionId);
+        assertEquals(expected.eventType, decoded.eventType);
+        assertEquals(expected.clientTime, decoded.clientTime);
+        assertEquals(expected.numValue, decoded.numValue);
+        assertEquals(expected.text, decoded.text);
+        if (json.contains("serverTime")) {
+            assertEquals(expected.serverTime, decoded.serverTime);
+        }
+    }
+
+    private void assertInvalid(final String json) {
+        try {
+            ClientEventDecoder.decode(this.jsonMapper.getFactory(), json);
+            fail("Expected IOException for: " + json);
+        } catch (final IOException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionIssueStatus;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamMonitoringFilter;
+
+public class ExamConnectionIndexTest {
+
+    private static final ConnectionStatus[] STATES = ConnectionStatus.values();
+    private static final Boolean[] GRANTED = { null, true, false };
+
+    @Test
+    public void testSelectMatchesFilterPredicate() {
+        final List<ClientConnectionDataInternal> connections = connections();
+        final ExamConnectionIndex index = new ExamConnectionIndex(connections);
+
+        final String[] hiddenStates = {
+                null,
+                "ACTIVE",
+                "DISABLED",
+                "ACTIVE,DISABLED",
+                "ACTIVE,CLOSED,CONNECTION_REQUESTED",
+                "CLOSED,DISABLED,READY" };
+        final String[] hiddenClientGroups = { null, "1", "1,2", "1,2,3" };
+        final String[] issues = { null, "ASK_GRANTED", "SEB_VERSION_GRANTED", "ASK_GRANTED,SEB_VERSION_GRANTED" };
+
+        for (final String states : hiddenStates) {
+            for (final String groups : hiddenClientGroups) {
+                for (final String issue : issues) {
+                    final ExamMonitoringFilter filter = ExamMonitoringFilter.of(states, groups, issue);
+                    final BitSet expected = new BitSet(connections.size());
+                    for (int i = 0; i < connections.size(); i++) {
+                        if (filter.test(connections.get(i))) {
+                            expected.set(i);
+                        }
+                    }
+                    assertEquals(states + " / " + groups + " / " + issue, expected, index.select(filter));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCounts() {
+        final List<ClientConnectionDataInternal> connections = connections();
+        final ExamConnectionIndex index = new ExamConnectionIndex(connections);
+
+        final int[] statusCount = index.countPerStatus();
+        final int[] issueCount = index.countPerIssue();
+        for (final ConnectionStatus status : STATES) {
+            assertEquals(
+                    connections.stream().filter(c -> c.clientConnection.status == status).count(),
+                    statusCount[status.code]);
+        }
+        assertEquals(
+                connections.stream().filter(c -> Boolean.FALSE.equals(c.clientConnection.securityCheckGranted)).count(),
+                issueCount[ConnectionIssueStatus.ASK_GRANTED.code]);
+        assertEquals(
+                connections.stream().filter(c -> Boolean.FALSE.equals(c.clientConnection.clientVersionGranted)).count(),
+                issueCount[ConnectionIssueStatus.SEB_VERSION_GRANTED.code]);
+
+        final Map<Long, Integer> groupCount = index.countPerClientGroup();
+        for (long groupId = 1; groupId <= 3; groupId++) {
+            final Long id = groupId;
+            assertEquals(
+                    connections.stream().filter(c -> c.groups != null && c.groups.contains(id)).count(),
+                    (long) groupCount.getOrDefault(id, 0));
+        }
+
+        assertEquals(5, index.position(5L));
+        assertEquals(-1, index.position(-1L));
+    }
+
+    private List<ClientConnectionDataInternal> connections() {
+        final List<Set<Long>> groups = new ArrayList<>();
+        groups.add(null);
+        groups.add(Collections.emptySet());
+        groups.add(new HashSet<>(List.of(1L)));
+        groups.add(new HashSet<>(List.of(2L)));
+        groups.add(new HashSet<>(List.of(1L, 3L)));
+
+        final List<ClientConnectionDataInternal> result = new ArrayList<>();
+        long id = 0;
+        for (final ConnectionStatus status : STATES) {
+            for (final Boolean securityCheckGranted : GRANTED) {
+                for (final Boolean clientVersionGranted : GRANTED) {
+                    for (final Set<Long> group : groups) {
+                        result.add(connection(id, status, securityCheckGranted, clientVersionGranted, group, id % 2 == 0));
+                        id++;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private ClientConnectionDataInternal connection(
+            final Long id,
+            final ConnectionStatus status,
+            final Boolean securityCheckGranted,
+            final Boolean clientVersionGranted,
+            final Set<Long> groups,
+            final boolean incident) {
+
+        return new ClientConnectionDataInternal(
+                new ClientConnection(
+                        id, 1L, 1L, status, "token" + id, "user" + id, null, null, null, null,
+                        securityCheckGranted, clientVersionGranted),
+                () -> incident,
+                Collections.emptyList(),
+                groups);
+    }
+
+}
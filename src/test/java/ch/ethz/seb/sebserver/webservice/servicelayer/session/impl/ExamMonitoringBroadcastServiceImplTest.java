@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+
+import ch.ethz.seb.sebserver.gbl.Constants;
+import ch.ethz.seb.sebserver.gbl.model.exam.Exam;
+import ch.ethz.seb.sebserver.gbl.model.exam.Exam.ExamStatus;
+import ch.ethz.seb.sebserver.gbl.model.exam.Exam.ExamType;
+import ch.ethz.seb.sebserver.gbl.monitoring.MonitoringFullPageData;
+import ch.ethz.seb.sebserver.gbl.util.Result;
+import ch.ethz.seb.sebserver.gbl.util.Utils;
+import ch.ethz.seb.sebserver.webservice.servicelayer.exam.ExamAdminService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamMonitoringBroadcastService.MonitoringFrameSink;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamMonitoringBroadcastService.Subscription;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ExamSessionService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.ScreenProctoringService;
+
+public class ExamMonitoringBroadcastServiceImplTest {
+
+    private static final Exam EXAM = new Exam(
+            1L, 1L, 1L, Constants.EMPTY_NOTE, false, Constants.EMPTY_NOTE, null, null, ExamType.UNDEFINED,
+            null, null, ExamStatus.RUNNING, null, Boolean.FALSE, null, Boolean.TRUE, null, null, null, null, null);
+
+    private final ExamSessionService examSessionService = Mockito.mock(ExamSessionService.class);
+    private final TaskScheduler taskScheduler = Mockito.mock(TaskScheduler.class);
+    private final ScheduledFuture<?> scheduledTask = Mockito.mock(ScheduledFuture.class);
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final ExamMonitoringChangeLog changeLog = new ExamMonitoringChangeLog(EXAM.id);
+
+    @Test
+    public void testSubscribeAndUnsubscribe() {
+        final ExamMonitoringBroadcastServiceImpl service = createService();
+
+        final Subscription subscription1 = service.subscribe(EXAM, c -> true, null, null, new FrameSink());
+        final Subscription subscription2 = service.subscribe(EXAM, c -> true, null, null, new FrameSink());
+        assertEquals(2, service.getNumberOfSubscribers(EXAM.id));
+        // one producer per exam
+        Mockito.verify(this.taskScheduler, Mockito.times(1))
+                .scheduleWithFixedDelay(any(Runnable.class), any(Instant.class), any(Duration.class));
+
+        subscription1.cancel();
+        assertEquals(1, service.getNumberOfSubscribers(EXAM.id));
+        Mockito.verify(this.scheduledTask, Mockito.never()).cancel(Mockito.anyBoolean());
+
+        // the producer stops when the last subscriber leaves
+        subscription2.cancel();
+        subscription2.cancel();
+        assertEquals(0, service.getNumberOfSubscribers(EXAM.id));
+        Mockito.verify(this.scheduledTask, Mockito.times(1)).cancel(false);
+
+        service.subscribe(EXAM, c -> true, null, null, new FrameSink());
+        Mockito.verify(this.taskScheduler, Mockito.times(2))
+                .scheduleWithFixedDelay(any(Runnable.class), any(Instant.class), any(Duration.class));
+    }
+
+    @Test
+    public void testProductionRunsOnExecutor() {
+        final ExamMonitoringBroadcastServiceImpl service = createService();
+        final FrameSink sink = new FrameSink();
+        service.subscribe(EXAM, c -> true, null, null, sink);
+        final Runnable trigger = captureTrigger();
+        Mockito.when(this.examSessionService.getMonitoringSnapshot(EXAM.id)).thenReturn(Result.of(snapshot(1)));
+
+        // the scheduler only triggers the production, a trigger while producing is skipped
+        trigger.run();
+        trigger.run();
+        Mockito.verifyNoInteractions(this.examSessionService);
+        assertEquals(1, this.tasks.size());
+
+        runTasks();
+        assertEquals(1, sink.frames.size());
+        Mockito.verify(this.examSessionService, Mockito.times(1)).getMonitoringSnapshot(EXAM.id);
+
+        trigger.run();
+        assertEquals(1, this.tasks.size());
+    }
+
+    @Test
+    public void testSlowSubscriberGetsCoalescedSnapshots() {
+        final ExamMonitoringBroadcastServiceImpl service = createService();
+        final FrameSink sink = new FrameSink();
+        service.subscribe(EXAM, c -> true, null, null, sink);
+        final Runnable trigger = captureTrigger();
+
+        Mockito.when(this.examSessionService.getMonitoringSnapshot(EXAM.id)).thenReturn(Result.of(snapshot(1)));
+        trigger.run();
+        runNextTask();
+        // the subscriber is signaled and its sending is queued on the executor
+        assertEquals(1, this.tasks.size());
+
+        // new snapshots are produced while the subscriber has not sent yet
+        Mockito.when(this.examSessionService.getMonitoringSnapshot(EXAM.id)).thenReturn(Result.of(snapshot(2)));
+        trigger.run();
+        this.tasks.remove(1).run();
+        Mockito.when(this.examSessionService.getMonitoringSnapshot(EXAM.id)).thenReturn(Result.of(snapshot(3)));
+        trigger.run();
+        this.tasks.remove(1).run();
+        assertEquals(1, this.tasks.size());
+
+        runTasks();
+        assertEquals(1, sink.frames.size());
+        assertEquals(Long.valueOf(3), sink.frames.get(0).monitoringConnectionData.sequence);
+    }
+
+    @Test
+    public void testSubscriptionsAreClosedWhenExamIsNotRunning() {
+        final ExamMonitoringBroadcastServiceImpl service = createService();
+        final FrameSink sink = new FrameSink();
+        service.subscribe(EXAM, c -> true, null, null, sink);
+        final Runnable trigger = captureTrigger();
+        Mockito.when(this.examSessionService.isExamRunning(EXAM.id)).thenReturn(false);
+
+        trigger.run();
+        runTasks();
+
+        assertTrue(sink.closed);
+        assertEquals(0, service.getNumberOfSubscribers(EXAM.id));
+        Mockito.verify(this.scheduledTask).cancel(false);
+    }
+
+    private ExamMonitoringBroadcastServiceImpl createService() {
+        Mockito.doReturn(this.scheduledTask)
+                .when(this.taskScheduler)
+                .scheduleWithFixedDelay(any(Runnable.class), any(Instant.class), any(Duration.class));
+        Mockito.when(this.examSessionService.isExamRunning(EXAM.id)).thenReturn(true);
+
+        return new ExamMonitoringBroadcastServiceImpl(
+                this.examSessionService,
+                Mockito.mock(ExamAdminService.class),
+                Mockito.mock(ScreenProctoringService.class),
+                this.taskScheduler,
+                this.tasks::add,
+                1000);
+    }
+
+    private Runnable captureTrigger() {
+        final ArgumentCaptor<Runnable> trigger = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(this.taskScheduler)
+                .scheduleWithFixedDelay(trigger.capture(), any(Instant.class), any(Duration.class));
+        return trigger.getValue();
+    }
+
+    private void runNextTask() {
+        this.tasks.remove(0).run();
+    }
+
+    private void runTasks() {
+        while (!this.tasks.isEmpty()) {
+            runNextTask();
+        }
+    }
+
+    private ExamMonitoringSnapshot snapshot(final long sequence) {
+        return new ExamMonitoringSnapshot(
+                EXAM.id,
+                Utils.getMillisecondsNow(),
+                this.changeLog,
+                sequence,
+                new ArrayList<>(),
+                false,
+                new HashSet<>());
+    }
+
+    private static final class FrameSink implements MonitoringFrameSink {
+
+        final List<MonitoringFullPageData> frames = new ArrayList<>();
+        boolean closed = false;
+
+        @Override
+        public void send(final MonitoringFullPageData frame) {
+            this.frames.add(frame);
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
+
+public class ExamMonitoringChangeLogTest {
+
+    @Test
+    public void testChanges() {
+        final ExamMonitoringChangeLog changeLog = new ExamMonitoringChangeLog(1L);
+
+        final ClientConnectionDataInternal c1 = connection(1L, ConnectionStatus.CONNECTION_REQUESTED);
+        final ClientConnectionDataInternal c2 = connection(2L, ConnectionStatus.ACTIVE);
+
+        // first request without sequence gets full snapshot
+        ExamMonitoringChangeLog.Changes changes = changeLog.update(Arrays.asList(c1, c2), null, null);
+        assertFalse(changes.isDelta());
+        final long sequence = changes.sequence;
+
+        // nothing changed
+        changes = changeLog.update(Arrays.asList(c1, c2), changeLog.epoch, sequence);
+        assertTrue(changes.isDelta());
+        assertEquals(sequence, changes.sequence);
+        assertTrue(changes.changed.isEmpty());
+        assertTrue(changes.getRemoved().isEmpty());
+
+        // c1 changed its status, c2 has gone and c3 is new
+        final ClientConnectionDataInternal c3 = connection(3L, ConnectionStatus.ACTIVE);
+        changes = changeLog.update(
+                Arrays.asList(connection(1L, ConnectionStatus.ACTIVE), c3),
+                changeLog.epoch,
+                sequence);
+        assertTrue(changes.isDelta());
+        assertTrue(changes.sequence > sequence);
+        assertEquals("[1, 3]", changes.changed.toString());
+        assertEquals("[2]", changes.getRemoved().toString());
+
+        // unknown epoch gets full snapshot
+        changes = changeLog.update(Collections.singletonList(c3), changeLog.epoch + 1, sequence);
+        assertFalse(changes.isDelta());
+    }
+
+    private ClientConnectionDataInternal connection(final Long id, final ConnectionStatus status) {
+        return new ClientConnectionDataInternal(
+                new ClientConnection(
+                        id, 1L, 1L, status, "token" + id, "user" + id, null, null, null, null, null, null),
+                () -> false,
+                Collections.emptyList(),
+                null);
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import ch.ethz.seb.sebserver.gbl.util.Utils;
+
+public class ExamMonitoringSnapshotCacheTest {
+
+    @Test
+    public void testSnapshotIsSharedUntilInvalidated() {
+        final ExamMonitoringSnapshotCache cache = new ExamMonitoringSnapshotCache(1L, 60000);
+        final AtomicInteger created = new AtomicInteger(0);
+
+        final ExamMonitoringSnapshot snapshot1 = cache.get(0, changeLog -> snapshot(changeLog, created));
+        final ExamMonitoringSnapshot snapshot2 = cache.get(0, changeLog -> snapshot(changeLog, created));
+        assertSame(snapshot1, snapshot2);
+        assertEquals(1, created.get());
+
+        cache.invalidate();
+        final ExamMonitoringSnapshot snapshot3 = cache.get(0, changeLog -> snapshot(changeLog, created));
+        assertNotSame(snapshot1, snapshot3);
+        assertEquals(2, created.get());
+
+        // modified client connections
+        final ExamMonitoringSnapshot snapshot4 = cache.get(1, changeLog -> snapshot(changeLog, created));
+        assertNotSame(snapshot3, snapshot4);
+        assertEquals(3, created.get());
+    }
+
+    @Test
+    public void testSnapshotIsCreatedOnlyOnceForConcurrentRequests() throws Exception {
+        final ExamMonitoringSnapshotCache cache = new ExamMonitoringSnapshotCache(1L, 60000);
+        final AtomicInteger created = new AtomicInteger(0);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            final List<Future<ExamMonitoringSnapshot>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(0, changeLog -> {
+                        Utils.sleep(50);
+                        return snapshot(changeLog, created);
+                    });
+                }));
+            }
+            start.countDown();
+
+            final ExamMonitoringSnapshot snapshot = results.get(0).get(5, TimeUnit.SECONDS);
+            for (final Future<ExamMonitoringSnapshot> result : results) {
+                assertSame(snapshot, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, created.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ExamMonitoringSnapshot snapshot(final ExamMonitoringChangeLog changeLog, final AtomicInteger created) {
+        created.incrementAndGet();
+        return new ExamMonitoringSnapshot(
+                changeLog.examId,
+                Utils.getMillisecondsNow(),
+                changeLog,
+                changeLog.record(Collections.emptyList()),
+                new ArrayList<>(),
+                false,
+                new HashSet<>());
+    }
+
+}
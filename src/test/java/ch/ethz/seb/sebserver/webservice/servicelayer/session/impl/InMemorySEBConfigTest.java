@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class InMemorySEBConfigTest {
+
+    @Test
+    public void testMatchesETag() {
+        final InMemorySEBConfig config = new InMemorySEBConfig(
+                1L, 2L, 3L, "config data".getBytes(StandardCharsets.UTF_8));
+        final String eTag = config.getETag();
+
+        assertTrue(config.matchesETag(eTag));
+        assertTrue(config.matchesETag("W/" + eTag));
+        assertTrue(config.matchesETag("*"));
+        assertTrue(config.matchesETag("\"other\", " + eTag));
+        assertTrue(config.matchesETag("\"other\",W/" + eTag + " , \"another\""));
+
+        assertFalse(config.matchesETag(null));
+        assertFalse(config.matchesETag(" "));
+        assertFalse(config.matchesETag("\"other\""));
+        assertFalse(config.matchesETag("\"other\", W/\"another\""));
+        // the ETag is quoted, an unquoted hash does not match
+        assertFalse(config.matchesETag(eTag.replace("\"", "")));
+        assertFalse(config.matchesETag(eTag + "W/"));
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PingDeadlineWheelTest {
+
+    @Test
+    public void testOnlyPassedDeadlinesExpire() {
+        final PingDeadlineWheel wheel = new PingDeadlineWheel(100, 16, 4);
+        assertArrayEquals(new int[0], wheel.advance(10000));
+
+        wheel.schedule(1, 15000);
+        wheel.schedule(2, 12000);
+        wheel.schedule(3, 12050);
+        assertEquals(3, wheel.size());
+
+        assertArrayEquals(new int[0], wheel.advance(11999));
+        assertArrayEquals(new int[] { 2 }, wheel.advance(12000));
+        assertArrayEquals(new int[] { 3 }, wheel.advance(12100));
+        assertFalse(wheel.isScheduled(3));
+
+        // deadline of slot 1 is more than one revolution (1600ms) ahead
+        assertArrayEquals(new int[0], wheel.advance(14000));
+        assertArrayEquals(new int[] { 1 }, wheel.advance(15000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testPingReschedules() {
+        final PingDeadlineWheel wheel = new PingDeadlineWheel(100, 16, 4);
+        wheel.advance(0);
+        wheel.schedule(0, 5000);
+        wheel.schedule(1, 5000);
+
+        // slot 0 pings every second, slot 1 stops to ping
+        for (long time = 1000; time < 10000; time += 1000) {
+            wheel.schedule(0, time + 5000);
+            final int[] expired = wheel.advance(time);
+            if (time == 5000) {
+                assertArrayEquals(new int[] { 1 }, expired);
+            } else {
+                assertArrayEquals(new int[0], expired);
+            }
+        }
+        assertTrue(wheel.isScheduled(0));
+        assertFalse(wheel.isScheduled(1));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void testMissingAndCancel() {
+        final PingDeadlineWheel wheel = new PingDeadlineWheel(100, 16, 4);
+        wheel.advance(0);
+
+        // a passed deadline is returned on the next advance
+        wheel.schedule(5, 100);
+        wheel.advance(200);
+        wheel.schedule(6, 100);
+        assertArrayEquals(new int[] { 6 }, wheel.advance(300));
+
+        wheel.setMissing(6, true);
+        wheel.schedule(6, 500);
+        assertArrayEquals(new int[] { 6 }, wheel.advance(400));
+        // a missing slot is returned only once
+        assertArrayEquals(new int[] { 6 }, wheel.advance(500));
+
+        wheel.setMissing(6, false);
+        wheel.schedule(6, 1000);
+        wheel.cancel(6);
+        assertArrayEquals(new int[0], wheel.advance(2000));
+        assertFalse(wheel.isMissing(6));
+    }
+
+    @Test
+    public void testRescheduleToEarlierDeadline() {
+        final PingDeadlineWheel wheel = new PingDeadlineWheel(100, 16, 4);
+        wheel.advance(0);
+        wheel.schedule(0, 5000);
+        wheel.schedule(1, 5000);
+        wheel.advance(100);
+
+        // a later deadline is picked up lazily, an earlier one must be moved to its bucket
+        wheel.schedule(0, 9000);
+        wheel.schedule(1, 1000);
+        assertArrayEquals(new int[] { 1 }, wheel.advance(1000));
+        assertArrayEquals(new int[0], wheel.advance(5000));
+        assertTrue(wheel.isScheduled(0));
+        assertArrayEquals(new int[] { 0 }, wheel.advance(9000));
+    }
+
+    @Test
+    public void testConcurrentSchedule() throws InterruptedException {
+        final PingDeadlineWheel wheel = new PingDeadlineWheel(100, 64, 16);
+        wheel.advance(0);
+
+        // threads that ping their slots concurrently to advances and to the growth of the wheel
+        final int threads = 4;
+        final int slotsPerThread = 1000;
+        final List<Thread> pingThreads = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * slotsPerThread;
+            pingThreads.add(new Thread(() -> {
+                for (int round = 1; round <= 20; round++) {
+                    for (int slot = offset; slot < offset + slotsPerThread; slot++) {
+                        wheel.schedule(slot, 10000 + round);
+                    }
+                }
+            }));
+        }
+        pingThreads.forEach(Thread::start);
+        for (long time = 100; time < 5000; time += 100) {
+            assertArrayEquals(new int[0], wheel.advance(time));
+        }
+        for (final Thread thread : pingThreads) {
+            thread.join();
+        }
+
+        assertEquals(threads * slotsPerThread, wheel.size());
+        assertArrayEquals(new int[0], wheel.advance(9900));
+        final int[] expired = wheel.advance(10100);
+        Arrays.sort(expired);
+        assertEquals(threads * slotsPerThread, expired.length);
+        for (int i = 0; i < expired.length; i++) {
+            assertEquals(i, expired[i]);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testManySlots() {
+        final PingDeadlineWheel wheel = new PingDeadlineWheel(100, 1024, 16);
+        wheel.advance(0);
+        for (int slot = 0; slot < 5000; slot++) {
+            wheel.schedule(slot, 1000 + slot);
+        }
+        assertEquals(5000, wheel.size());
+
+        final int[] expired = wheel.advance(3000);
+        Arrays.sort(expired);
+        assertEquals(2001, expired.length);
+        assertEquals(0, expired[0]);
+        assertEquals(2000, expired[2000]);
+        assertEquals(2999, wheel.size());
+    }
+
+}
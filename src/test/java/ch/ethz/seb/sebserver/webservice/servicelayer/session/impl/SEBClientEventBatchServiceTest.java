@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import ch.ethz.seb.sebserver.gbl.api.JSONMapper;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientEvent.EventType;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientEventExtensionMapper;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.model.ClientEventRecord;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.SEBClientNotificationService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.SEBClientEventBatchService.EventBatchStats;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.SEBClientEventBatchService.EventData;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.SEBClientEventBatchService.OverflowPolicy;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.indicator.LogLevelCountService;
+
+public class SEBClientEventBatchServiceTest {
+
+    @Test
+    public void testBatchSizeGrowsOnBacklog() {
+        assertEquals(200, SEBClientEventBatchService.nextBatchSize(100, 50, 500, 100, 1000, 200));
+        assertEquals(1000, SEBClientEventBatchService.nextBatchSize(800, 50, 5000, 100, 1000, 200));
+        // no backlog, keep the batch size
+        assertEquals(400, SEBClientEventBatchService.nextBatchSize(400, 50, 100, 100, 1000, 200));
+    }
+
+    @Test
+    public void testBatchSizeShrinksOnSlowCommit() {
+        assertEquals(200, SEBClientEventBatchService.nextBatchSize(400, 300, 5000, 100, 1000, 200));
+        assertEquals(100, SEBClientEventBatchService.nextBatchSize(150, 300, 5000, 100, 1000, 200));
+        assertEquals(100, SEBClientEventBatchService.nextBatchSize(100, 300, 0, 100, 1000, 200));
+    }
+
+    @Test
+    public void testBlockDropsAfterTimeout() {
+        final TaskScheduler taskScheduler = Mockito.mock(TaskScheduler.class);
+        final SEBClientEventBatchService service = createService(taskScheduler, OverflowPolicy.BLOCK);
+        final int capacity = service.getStats().workers.get(0).queueCapacity;
+
+        for (int i = 0; i <= capacity; i++) {
+            service.accept(newEvent());
+        }
+
+        final EventBatchStats stats = service.getStats();
+        assertEquals(capacity, stats.workers.get(0).queueDepth);
+        assertEquals(1, stats.blocked);
+        assertEquals(1, stats.dropped);
+        assertEquals(0, stats.callerRuns);
+        Mockito.verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    public void testBlockWaitsForDrain() {
+        final TaskScheduler taskScheduler = Mockito.mock(TaskScheduler.class);
+        Mockito.when(taskScheduler.schedule(any(Runnable.class), any(Instant.class)))
+                .thenAnswer(invocation -> {
+                    new Thread(invocation.<Runnable> getArgument(0)).start();
+                    return null;
+                });
+        final SEBClientEventBatchService service = createService(taskScheduler, OverflowPolicy.BLOCK);
+        final int capacity = service.getStats().workers.get(0).queueCapacity;
+
+        for (int i = 0; i <= capacity; i++) {
+            service.accept(newEvent());
+        }
+
+        final EventBatchStats stats = service.getStats();
+        assertEquals(1, stats.blocked);
+        assertEquals(0, stats.dropped);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCallerRunsKeepsOrderAndAllEvents() {
+        final ClientEventExtensionMapper mapper = Mockito.mock(ClientEventExtensionMapper.class);
+        final List<Double> persisted = new ArrayList<>();
+        Mockito.when(mapper.insertMultiple(anyCollection())).thenAnswer(invocation -> {
+            ((Collection<ClientEventRecord>) invocation.getArgument(0))
+                    .forEach(rec -> persisted.add(rec.getNumericValue().doubleValue()));
+            return 1;
+        });
+        final ClientConnectionRegistry registry = Mockito.mock(ClientConnectionRegistry.class);
+        Mockito.when(registry.getConnection("token")).thenReturn(new ClientConnectionDataInternal(
+                new ClientConnection(1L, 1L, 1L, ConnectionStatus.ACTIVE, "token", "user",
+                        null, null, null, null, null, null),
+                () -> false,
+                Collections.emptyList(),
+                null));
+        final SEBClientEventBatchService service = createService(
+                Mockito.mock(TaskScheduler.class),
+                OverflowPolicy.CALLER_RUNS,
+                registry,
+                mapper);
+        final int capacity = service.getStats().workers.get(0).queueCapacity;
+
+        for (int i = 0; i < 3 * capacity; i++) {
+            service.accept(newEvent(i));
+        }
+        service.processOneTime();
+
+        final EventBatchStats stats = service.getStats();
+        assertEquals(0, stats.dropped);
+        assertTrue(stats.callerRuns > 0);
+        assertEquals(3 * capacity, stats.persisted);
+        assertEquals(3 * capacity, persisted.size());
+        for (int i = 0; i < persisted.size(); i++) {
+            assertEquals(i, persisted.get(i), 0.0);
+        }
+    }
+
+    private static SEBClientEventBatchService createService(
+            final TaskScheduler taskScheduler,
+            final OverflowPolicy overflowPolicy) {
+
+        return createService(
+                taskScheduler,
+                overflowPolicy,
+                Mockito.mock(ClientConnectionRegistry.class),
+                Mockito.mock(ClientEventExtensionMapper.class));
+    }
+
+    private static SEBClientEventBatchService createService(
+            final TaskScheduler taskScheduler,
+            final OverflowPolicy overflowPolicy,
+            final ClientConnectionRegistry registry,
+            final ClientEventExtensionMapper mapper) {
+
+        final LogLevelCountService logLevelCountService = Mockito.mock(LogLevelCountService.class);
+        Mockito.when(logLevelCountService.getBatchLock()).thenReturn(new ReentrantLock());
+
+        return new SEBClientEventBatchService(
+                Mockito.mock(SEBClientNotificationService.class),
+                Mockito.mock(PlatformTransactionManager.class),
+                registry,
+                mapper,
+                logLevelCountService,
+                Mockito.mock(JSONMapper.class),
+                taskScheduler,
+                1000, 1, 4, 1, 4, 200,
+                overflowPolicy,
+                200);
+    }
+
+    private static EventData newEvent() {
+        return newEvent(1.0);
+    }
+
+    private static EventData newEvent(final double numValue) {
+        return new EventData(
+                "token",
+                1L,
+                new ClientEvent(null, 1L, EventType.INFO_LOG, 1L, 1L, numValue, "some info"));
+    }
+
+}
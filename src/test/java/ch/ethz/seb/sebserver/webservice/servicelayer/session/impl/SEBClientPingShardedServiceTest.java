@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.same;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection;
+import ch.ethz.seb.sebserver.gbl.model.session.ClientConnection.ConnectionStatus;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.SEBClientInstructionService;
+import ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.SEBClientPingShardedService.ShardStats;
+
+public class SEBClientPingShardedServiceTest {
+
+    private static final String INSTRUCTION_JSON =
+            "{\"instruction\":\"SEB_QUIT\",\"attributes\":{\"instruction-confirm\":\"c1\"}}";
+
+    private final ClientConnectionRegistry registry = Mockito.mock(ClientConnectionRegistry.class);
+    private final SEBClientInstructionService instructionService = Mockito.mock(SEBClientInstructionService.class);
+
+    @Test
+    public void testShardRouting() {
+        final SEBClientPingShardedService service = createService(4, 64);
+
+        final int[] expected = new int[4];
+        for (int i = 0; i < 20; i++) {
+            final String token = "token" + i;
+            service.notifyPing(token, null);
+            // a second ping of a queued connection is coalesced
+            service.notifyPing(token, null);
+            expected[(token.hashCode() & Integer.MAX_VALUE) % 4]++;
+        }
+
+        final List<ShardStats> stats = new ArrayList<>(service.getShardStats());
+        assertEquals(4, stats.size());
+        for (final ShardStats shard : stats) {
+            assertEquals(expected[shard.shard], shard.connections);
+            assertEquals(expected[shard.shard], shard.queueDepth);
+        }
+        Mockito.verifyNoInteractions(this.registry);
+    }
+
+    @Test
+    public void testDrainWorkerProcessesPings() {
+        final SEBClientPingShardedService service = createService(2, 64);
+        final ClientConnectionDataInternal connection = createConnection("token1");
+        Mockito.when(this.registry.getConnection("token1")).thenReturn(connection);
+
+        service.init();
+        try {
+            service.notifyPing("token1", null);
+            service.notifyPing("unknown", null);
+
+            Mockito.verify(this.registry, Mockito.timeout(5000)).notifyPing(same(connection), anyLong());
+            Mockito.verify(this.instructionService, Mockito.timeout(5000)).sendQuitInstruction("unknown", null);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testFullRingBufferProcessesOnCaller() {
+        final SEBClientPingShardedService service = createService(1, 2);
+        final ClientConnectionDataInternal connection = createConnection("token3");
+        Mockito.when(this.registry.getConnection("token3")).thenReturn(connection);
+
+        service.notifyPing("token1", null);
+        service.notifyPing("token2", null);
+        Mockito.verifyNoInteractions(this.registry);
+
+        service.notifyPing("token3", null);
+        Mockito.verify(this.registry).notifyPing(same(connection), anyLong());
+        Mockito.verify(this.registry, Mockito.never()).getConnection("token1");
+        Mockito.verify(this.registry, Mockito.never()).getConnection("token2");
+        assertEquals(2, service.getShardStats().iterator().next().queueDepth);
+    }
+
+    @Test
+    public void testInstructionIsSentWithPing() {
+        final SEBClientPingShardedService service = createService(1, 64);
+        Mockito.when(this.instructionService.getInstructionJSON("token")).thenReturn(INSTRUCTION_JSON, (String) null);
+
+        // the instruction is sent with the same ping, not with the next one after the ping is drained
+        assertEquals(INSTRUCTION_JSON, service.notifyPing("token", null));
+        Mockito.verifyNoInteractions(this.registry);
+
+        assertNull(service.notifyPing("token", "c1"));
+        Mockito.verify(this.instructionService).confirmInstructionDone("token", "c1");
+        Mockito.verify(this.instructionService, Mockito.times(2)).getInstructionJSON("token");
+
+        // blank confirms are ignored
+        service.notifyPing("token", " ");
+        Mockito.verify(this.instructionService, Mockito.times(1)).confirmInstructionDone(Mockito.any(), Mockito.any());
+    }
+
+    private SEBClientPingShardedService createService(final int numShards, final int capacity) {
+        return new SEBClientPingShardedService(
+                this.registry,
+                this.instructionService,
+                numShards,
+                capacity,
+                1);
+    }
+
+    private static ClientConnectionDataInternal createConnection(final String token) {
+        return new ClientConnectionDataInternal(
+                new ClientConnection(
+                        1L, 1L, 1L, ConnectionStatus.ACTIVE, token, "user",
+                        null, null, null, null, null, null),
+                () -> false,
+                Collections.emptyList(),
+                null);
+    }
+
+}
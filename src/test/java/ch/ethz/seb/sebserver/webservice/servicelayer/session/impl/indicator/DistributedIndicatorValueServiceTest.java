@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2024 ETH Zürich, IT Services
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package ch.ethz.seb.sebserver.webservice.servicelayer.session.impl.indicator;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import ch.ethz.seb.sebserver.webservice.WebserviceInfo;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientIndicatorValueMapper;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.ClientIndicatorValueMapper.ClientIndicatorValueRecord;
+import ch.ethz.seb.sebserver.webservice.datalayer.batis.mapper.ClientIndicatorRecordMapper;
+
+public class DistributedIndicatorValueServiceTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailedFlushIsRetried() {
+        final ClientIndicatorValueMapper mapper = Mockito.mock(ClientIndicatorValueMapper.class);
+        final List<ClientIndicatorValueRecord> written = new ArrayList<>();
+        Mockito.when(mapper.addIndicatorValues(any(Collection.class), anyLong()))
+                .thenThrow(new RuntimeException("connection lost"))
+                .thenAnswer(invocation -> {
+                    written.addAll(invocation.getArgument(0));
+                    return 1;
+                });
+        Mockito.when(mapper.updateIndicatorValues(any(Collection.class), anyLong()))
+                .thenThrow(new RuntimeException("connection lost"))
+                .thenAnswer(invocation -> {
+                    written.addAll(invocation.getArgument(0));
+                    return 1;
+                });
+
+        final DistributedIndicatorValueService service = new DistributedIndicatorValueService(
+                Mockito.mock(ClientIndicatorRecordMapper.class),
+                mapper,
+                Mockito.mock(WebserviceInfo.class));
+
+        service.incrementIndicatorValue(1L);
+        service.incrementIndicatorValue(1L);
+        service.updateIndicatorValueAsync(2L, 10L);
+        service.flushPendingUpdates();
+        assertEquals(0, written.size());
+
+        // increments and values that arrive after the failed flush must be written together with the retry
+        service.incrementIndicatorValue(1L);
+        service.updateIndicatorValueAsync(3L, 20L);
+        service.flushPendingUpdates();
+
+        final Map<Long, Long> values = new HashMap<>();
+        written.forEach(rec -> values.put(rec.id, rec.indicatorValue));
+        assertEquals(Long.valueOf(3), values.get(1L));
+        assertEquals(Long.valueOf(10), values.get(2L));
+        assertEquals(Long.valueOf(20), values.get(3L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNewerValueWinsOverRetry() {
+        final ClientIndicatorValueMapper mapper = Mockito.mock(ClientIndicatorValueMapper.class);
+        final List<ClientIndicatorValueRecord> written = new ArrayList<>();
+        final DistributedIndicatorValueService service = new DistributedIndicatorValueService(
+                Mockito.mock(ClientIndicatorRecordMapper.class),
+                mapper,
+                Mockito.mock(WebserviceInfo.class));
+        Mockito.when(mapper.updateIndicatorValues(any(Collection.class), anyLong()))
+                .thenAnswer(invocation -> {
+                    // a newer value is buffered while the failing UPDATE runs
+                    service.updateIndicatorValueAsync(2L, 11L);
+                    throw new RuntimeException("connection lost");
+                })
+                .thenAnswer(invocation -> {
+                    written.addAll(invocation.getArgument(0));
+                    return 1;
+                });
+
+        service.updateIndicatorValueAsync(2L, 10L);
+        service.flushPendingUpdates();
+        service.flushPendingUpdates();
+
+        assertEquals(1, written.size());
+        assertEquals(Long.valueOf(11), written.get(0).indicatorValue);
+    }
+
+}
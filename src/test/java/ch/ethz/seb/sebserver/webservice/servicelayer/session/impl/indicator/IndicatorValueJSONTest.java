@@ -25,7 +25,12 @@ public class IndicatorValueJSONTest {
     public void testJSONForExtendedIndicatorValue() throws JsonProcessingException {
         final JSONMapper jsonMapper = new JSONMapper();
         final DistributedIndicatorValueService mock = Mockito.mock(DistributedIndicatorValueService.class);
-        final ErrorLogCountClientIndicator indicator = new ErrorLogCountClientIndicator(mock, null);
+        final LogLevelCountService logLevelCountService = Mockito.mock(LogLevelCountService.class);
+        Mockito.when(logLevelCountService.getCount(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(null);
+        final ErrorLogCountClientIndicator indicator = new ErrorLogCountClientIndicator(
+                mock,
+                null,
+                logLevelCountService);
         indicator.init(new Indicator(1L, 2L, "test", IndicatorType.NONE, null, null, null, null), 2L, true, true);
         final String json = jsonMapper.writeValueAsString(indicator);
         assertEquals("{\"id\":1,\"val\":\"NaN\"}", json);
@@ -721,9 +721,11 @@ CREATE TABLE IF NOT EXISTS `client_indicator` (
   `client_connection_id` BIGINT UNSIGNED NOT NULL,
   `type` INT(2) NOT NULL,
   `value` BIGINT NULL,
+  `update_time` BIGINT NOT NULL DEFAULT 0,
   PRIMARY KEY (`id`),
   INDEX `clientIndicatorConnectionRef_idx` (`client_connection_id` ASC),
   INDEX `clientIndicatorType` (`type` ASC),
+  INDEX `clientIndicatorUpdateTime` (`update_time` ASC),
   CONSTRAINT `clientIndicatorConnectionRef`
     FOREIGN KEY (`client_connection_id`)
     REFERENCES `client_connection` (`id`)